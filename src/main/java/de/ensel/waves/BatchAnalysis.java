@@ -0,0 +1,291 @@
+/*
+ *     Waves - Another Wired New Chess Engine
+ *     Copyright (C) 2024 Christian Ensel
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.ensel.waves;
+
+import de.ensel.waves.UCI4ChessEngine.SearchLimits;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import static de.ensel.chessbasics.ChessBasics.*;
+import static java.lang.Math.max;
+
+/**
+ * Analyses many positions, read one per line, on the threads of an EnginePool. Each worker thread searches on
+ * a board of its own (see EnginePool.WorkerContext), all with the same EngineConfig and SearchLimits and one
+ * shared EvalCache. The results are written in the order of the input, while later positions are still being
+ * analysed - only a few positions per thread are ahead of the output at any time.
+ * Input lines can be a FEN (optionally followed by moves), EPD (4 FEN fields, then operations like id "...";)
+ * or CSV like the lichess puzzle exports (PuzzleId,FEN,Moves,... - the first of the moves is played before
+ * the analysis, as the puzzle starts after it). Empty lines and lines starting with # are skipped.
+ */
+public class BatchAnalysis {
+    public static final String CSV_HEADER = "id,fen,bestmove,score,nodes,time_ms,pv,error";
+    private static final int POSITIONS_AHEAD_PER_THREAD = 4;
+    private static final List<String> OPTIONS_WITH_VALUE = List.of("--threads", "--hash", "--level");
+
+    /**
+     * @param lineNr line in the input (1-based)
+     * @param id as given in the input, otherwise the line nr
+     * @param fen position to analyse, possibly followed by moves
+     */
+    public record Position(int lineNr, String id, String fen) { }
+
+    /**
+     * @param bestMove in uci notation, empty if there is none (e.g. game over) or the analysis failed
+     * @param score uci score of the best move ("cp ..." or "mate ..."), from the view of the color to move
+     * @param error why the analysis failed, null if it did not
+     */
+    public record Result(Position position, String bestMove, String score, long nodes, long timeMs,
+                         String pv, String error) {
+        public String toCsv() {
+            return csvField(position.id()) + "," + csvField(position.fen()) + "," + bestMove + "," + score
+                    + "," + nodes + "," + timeMs + "," + pv + "," + (error == null ? "" : csvField(error));
+        }
+
+        /** quoted as in RFC 4180, if it contains a separator, a quote or a line break */
+        static String csvField(String s) {
+            if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0 && s.indexOf('\r') < 0)
+                return s;
+            return '"' + s.replace("\"", "\"\"") + '"';
+        }
+    }
+
+    private final EngineConfig config;
+    private final SearchLimits limits;
+    private final EnginePool pool;
+    private final EvalCache evalCache;
+    private final int boardBudgetMB;
+
+    /**
+     * @param config settings of the engine, e.g. with engineP1 for the width of the search
+     * @param limits per position, like for the uci "go" command (NONE: search on the level engineP1)
+     * @param nrOfThreads nr of positions analysed at the same time
+     * @param hashSizeMB memory for the caches of all threads together, like the uci option "Hash"
+     */
+    public BatchAnalysis(EngineConfig config, SearchLimits limits, int nrOfThreads, int hashSizeMB) {
+        this.config = config;
+        this.limits = limits;
+        pool = new EnginePool(max(1, Math.min(EnginePool.MAX_THREADS, nrOfThreads)));
+        hashSizeMB = max(2, hashSizeMB);
+        evalCache = new EvalCache(hashSizeMB / 2);
+        boardBudgetMB = max(1, (hashSizeMB - hashSizeMB / 2) / pool.nrOfThreads());
+    }
+
+    /**
+     * usage: waves --batch inputFile outputFile [--threads n] [--hash mb] [--level engineP1] [go parameters]
+     * e.g. waves --batch puzzles.csv results.csv --threads 8 depth 4
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            printUsage();
+            return;
+        }
+        int nrOfThreads = Runtime.getRuntime().availableProcessors();
+        int hashSizeMB = ChessBoardController.DEFAULT_HASH_MB;
+        EngineConfig config = new EngineConfig();
+        StringBuilder go = new StringBuilder("go");
+        for (int i = 2; i < args.length; i++) {
+            if (OPTIONS_WITH_VALUE.contains(args[i]) && i + 1 == args.length) {
+                System.out.println("Missing value for " + args[i] + ".");
+                printUsage();
+                return;
+            }
+            switch (args[i]) {
+                case "--threads" -> nrOfThreads = Integer.parseInt(args[++i]);
+                case "--hash" -> hashSizeMB = Integer.parseInt(args[++i]);
+                case "--level" -> config.setEngineP1(Integer.parseInt(args[++i]));
+                default -> go.append(' ').append(args[i]);
+            }
+        }
+        BatchAnalysis batch = new BatchAnalysis(config, SearchLimits.ofUCIGo(go.toString()), nrOfThreads, hashSizeMB);
+        long startTime = System.currentTimeMillis();
+        long nrOfPositions;
+        try (BufferedReader in = new BufferedReader(new FileReader(args[0]));
+             BufferedWriter out = new BufferedWriter(new FileWriter(args[1]))) {
+            nrOfPositions = batch.analyse(in, out);
+        }
+        finally {
+            batch.shutdown();
+        }
+        long duration = max(1, System.currentTimeMillis() - startTime);
+        System.out.println("Analysed " + nrOfPositions + " positions in " + duration + "ms ("
+                + (nrOfPositions * 1000 * 3600 / duration) + " per hour) on " + nrOfThreads + " threads.");
+    }
+
+    private static void printUsage() {
+        System.out.println("Usage: waves --batch inputFile outputFile [--threads n] [--hash mb] [--level engineP1] [go parameters]");
+        System.out.println("e.g.   waves --batch puzzles.csv results.csv --threads 8 depth 4");
+    }
+
+    //// analysis
+
+    /**
+     * analyses all positions of in and writes the results (see Result.toCsv()) to out, in the order of in
+     * @return nr of positions analysed
+     */
+    public long analyse(BufferedReader in, Writer out) throws IOException {
+        final Deque<Future<Result>> running = new ArrayDeque<>();
+        final int maxAhead = POSITIONS_AHEAD_PER_THREAD * pool.nrOfThreads();
+        long nrOfPositions = 0;
+        out.write(CSV_HEADER);
+        out.write('\n');
+        String line;
+        int lineNr = 0;
+        while ((line = in.readLine()) != null) {
+            Position position = parseLine(line, ++lineNr);
+            if (position == null)
+                continue;
+            running.add(pool.submit(context -> analyse(context, position)));
+            nrOfPositions++;
+            if (running.size() >= maxAhead)
+                writeResult(running.remove(), out);
+        }
+        while (!running.isEmpty())
+            writeResult(running.remove(), out);
+        out.flush();
+        return nrOfPositions;
+    }
+
+    private static void writeResult(Future<Result> result, Writer out) throws IOException {
+        try {
+            out.write(result.get().toCsv());
+        }
+        catch (ExecutionException e) {
+            throw new IOException("Analysis failed: " + e.getCause(), e.getCause());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        }
+        out.write('\n');
+    }
+
+    /**
+     * analyses one position on the board of the worker thread
+     */
+    Result analyse(EnginePool.WorkerContext context, Position position) {
+        final long startNanos = System.nanoTime();
+        try {
+            ChessBoard board = context.boardFor(position.fen(), config);
+            board.setEvalCache(evalCache);
+            board.setBoardMemoryBudget(boardBudgetMB);
+            final int color = board.getTurnCol();
+            Move m = board.isGameOver() ? null
+                    : board.getBestMove(limits.isNone() ? null : new TimeManager(limits, color));
+            long timeMs = (System.nanoTime() - startNanos) / 1_000_000;
+            if (m == null || !m.isMove())
+                return new Result(position, "", "", board.countCalculatedBoards, timeMs, "", null);
+            int score = isWhite(color) ? m.getSingleValueEval() : -m.getSingleValueEval();
+            return new Result(position, new SimpleMove(m).toString(), SearchProgress.uciScore(score),
+                    board.countCalculatedBoards, timeMs, board.getPrincipalVariation().toString(), null);
+        }
+        catch (RuntimeException e) {
+            // e.g. an illegal position, the other positions go on
+            return new Result(position, "", "", 0, (System.nanoTime() - startNanos) / 1_000_000, "",
+                    e.toString());
+        }
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    //// input
+
+    /**
+     * @param line FEN (optionally followed by moves), EPD or CSV (lichess puzzle export)
+     * @param lineNr of line in the input
+     * @return the position of line or null if the line has none (empty, comment or CSV header)
+     */
+    static Position parseLine(String line, int lineNr) {
+        line = line.trim();
+        if (line.isEmpty() || line.startsWith("#"))
+            return null;
+        // a FEN or EPD starts with the board (containing /), but its EPD operations may contain commas
+        if (line.contains(",") && !line.split("[\\s,]", 2)[0].contains("/")) {
+            // CSV: PuzzleId,FEN,Moves,Rating,...
+            List<String> fields = csvFields(line);
+            if (fields.size() < 2 || fields.get(1).trim().split("\\s+").length < 4)
+                return null;    // e.g. the header
+            String fen = fields.get(1).trim();
+            if (fields.size() > 2 && !fields.get(2).isBlank())
+                fen += " " + fields.get(2).trim().split("\\s+")[0];
+            return new Position(lineNr, fields.get(0).trim(), fen);
+        }
+        String[] tokens = line.split("\\s+");
+        if (tokens.length >= 6 && tokens[4].matches("\\d+") && tokens[5].matches("\\d+"))
+            return new Position(lineNr, "" + lineNr, line);   // FEN, maybe followed by moves
+        if (tokens.length < 4)
+            return null;
+        // EPD: the first 4 FEN fields, then operations
+        String fen = tokens[0] + " " + tokens[1] + " " + tokens[2] + " " + tokens[3] + " 0 1";
+        return new Position(lineNr, epdId(line, lineNr), fen);
+    }
+
+    /**
+     * @param line one line of CSV, with fields quoted as in RFC 4180 where needed (see Result.csvField())
+     * @return its fields, unquoted
+     */
+    static List<String> csvFields(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"')
+                    field.append(c);
+                else if (i + 1 < line.length() && line.charAt(i + 1) == '"')
+                    field.append(line.charAt(++i));     // "" within quotes
+                else
+                    quoted = false;
+            }
+            else if (c == '"')
+                quoted = true;
+            else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            }
+            else
+                field.append(c);
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String epdId(String epdLine, int lineNr) {
+        int idStart = epdLine.indexOf(" id \"");
+        if (idStart < 0)
+            return "" + lineNr;
+        idStart += 5;
+        int idEnd = epdLine.indexOf('"', idStart);
+        return idEnd < 0 ? "" + lineNr : epdLine.substring(idStart, idEnd);
+    }
+}
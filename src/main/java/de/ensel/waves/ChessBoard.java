@@ -21,6 +21,7 @@
 package de.ensel.waves;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
 import static de.ensel.chessbasics.ChessBasics.*;
@@ -37,23 +38,25 @@ public class ChessBoard extends VBoard {   // was implements VBoardInterface { b
     private ChessEngineParams engParams = null; // new ChessEngineParams();
 
     /**
-     * configure here which debug messages should be printed
-     * (not final, to be able to change it during debugging)
+     * the debug messages to be printed are configured per engine, see EngineConfig
      */
-    public static boolean DEBUGMSG_DISTANCES = false;
-    public static boolean DEBUGMSG_CLASH_CALCULATION = false;
-    public static boolean DEBUGMSG_MOVEEVAL = false;   // <-- best for checking why moves are evaluated the way they are
-    public static boolean DEBUGMSG_MOVESELECTION = false || DEBUGMSG_MOVEEVAL;
-    public static boolean DEBUGMSG_MOVESELECTION2 = false && DEBUGMSG_MOVESELECTION;
-    public static String DEBUGMSG_ALONG_PATH = null; // "d2c1 d8d7 d1d2 a1c1 d2c1 e8f7 f2f3 c6e5 c1f4";
-    // fixed: "g5f7 e8f7 e2e3 f5e6 f1a6 b7b6 d1f3 g8f6 e1d1 b6b3";  // leads to incorrect mating eval: Reevaluated e1d1 to [-99899@0] reason: g5f7 e8f7 e2e3 f5e6 f1a6 b7b6 d1f3 g8f6 e1d1!{b6b3[-99899@0] g5f7 e8f7 e2e3 f5e6 f1a6 b7b6 d1f3 g8f6 e1d1 b6b3 b6b3!Schwarz hat gewonnen!!}
+    // fixed debugMsgAlongPath: "g5f7 e8f7 e2e3 f5e6 f1a6 b7b6 d1f3 g8f6 e1d1 b6b3";  // leads to incorrect mating eval: Reevaluated e1d1 to [-99899@0] reason: g5f7 e8f7 e2e3 f5e6 f1a6 b7b6 d1f3 g8f6 e1d1!{b6b3[-99899@0] g5f7 e8f7 e2e3 f5e6 f1a6 b7b6 d1f3 g8f6 e1d1 b6b3 b6b3!Schwarz hat gewonnen!!}
     final public static int DEBUGMSG_MOVESELECTION2_MAXDEPTH = 2;
 
-    public static boolean SHOW_REASONS = true;  // DEBUGMSG_MOVESELECTION;
-    public int countCalculatedBoards;
+    private final EngineConfig config;     // settings of the engine this board belongs to, incl. the debug output
+    public int countCalculatedBoards;           // by the last search that ended on this board
+    private final PrincipalVariation pv = new PrincipalVariation();  // best line of the last search
+    private EvalCache evalCache = null;     // pre-evaluations of moves, may be shared between boards - null for none
+    private MoveDependencies moveDependencies;  // which moves depend on which square, see Square.depMove()
+    private long nrOfReusedPreEvals = 0;        // see EngineConfig.reuseGrandparentPreEvals
+    private volatile boolean stopRequested = false;  // set from another thread to end the running searches early
+    private int maxRememberedBoards = Integer.MAX_VALUE;  // memory budget per search for the boards remembered by createNext()
+    // the state of the searches, see SearchContext - the board itself is only read by them
+    private final SearchContext ownContext = new SearchContext(this);   // for createNext() etc. outside of searches
+    private final ThreadLocal<SearchContext> runningSearch = new ThreadLocal<>();   // the search of the current thread
+    private final AtomicInteger nrOfRunningSearches = new AtomicInteger();
+    private volatile boolean searchCachesComplete = false;  // see prepareForSearch()
 
-    public static int DEBUGFOCUS_SQ = coordinateString2Pos("e1");   // changeable globally, just for debug output and breakpoints+watches
-    public static int DEBUGFOCUS_VP = 0;   // changeable globally, just for debug output and breakpoints+watches
     private final ChessBoard board = this;       // only exists to make naming in debug evaluations easier (unified across all classes)
 
     private long boardHash;
@@ -65,10 +68,7 @@ public class ChessBoard extends VBoard {   // was implements VBoardInterface { b
 
     private int currentDistanceCalcLimit;
 
-    public static int MAX_INTERESTING_NROF_HOPS = 3;
-    // one move with a check, making a 2nd move with the tempo and thus cover another place - so dist of 3 is doable in one move so to speak
-
-    protected Move bestMove;
+    protected volatile Move bestMove;
 
     private boolean gameOver;
     private int repetitions;
@@ -76,16 +76,12 @@ public class ChessBoard extends VBoard {   // was implements VBoardInterface { b
     private Square[] boardSquares;
     private String fenPosAndMoves;
 
-    private static int engineP1 = 0;  // engine option - used at varying places for optimization purposes.
-
     /**
      * keep all Pieces on Board
      */
     private ChessPiece[] piecesOnBoard;
     private int nextFreePceID;
 
-    private int[] countBishops = new int[2];  // count bishops for colorIndex
-    private int[] countKnights = new int[2];  // count knights for colorIndex
     private int[][] countPawnsInFile = new int[2][NR_FILES];  // count pawns in particular file for colorIndex
 
     private int turn;  // colorIndex of who's turn it is now
@@ -105,25 +101,34 @@ public class ChessBoard extends VBoard {   // was implements VBoardInterface { b
 //    }
 
     public ChessBoard(String fenBoard) {
+        this.config = new EngineConfig();
         initChessBoard(new StringBuffer(chessBoardRes.getString("chessboard.initialName")), fenBoard);
     }
 
     public ChessBoard(String boardName, String fenBoard) {
+        this(boardName, fenBoard, new EngineConfig());
+    }
+
+    /**
+     * @param config the settings of the engine the board belongs to (shared with its other boards)
+     */
+    public ChessBoard(String boardName, String fenBoard, EngineConfig config) {
+        this.config = config;
         initChessBoard(new StringBuffer(boardName), fenBoard);
     }
 
     @Deprecated  // because engParams is now always overridden by engineP1 before calculation
     public ChessBoard(String boardName, String fenBoard, ChessEngineParams engParams) {
+        this.config = new EngineConfig();
         this.engParams = engParams;
         initChessBoard(new StringBuffer(boardName), fenBoard);
     }
 
-    public static int engineP1() {
-        return engineP1;
-    }
-
-    public static void setEngineP1(int i) {
-        engineP1 = i;
+    /**
+     * @return the settings of the engine this board belongs to, incl. engineP1 and the debug output
+     */
+    public EngineConfig config() {
+        return config;
     }
 
     private void initChessBoard(StringBuffer boardName, String fenBoard) {
@@ -137,10 +142,10 @@ public class ChessBoard extends VBoard {   // was implements VBoardInterface { b
 
     private void emptyBoard() {
         piecesOnBoard = new ChessPiece[MAX_PIECES];
+        moveDependencies = new MoveDependencies();
+        nrOfReusedPreEvals = 0;
         initNrOfPieces();
         for (int ci=0; ci<=1; ci++) {
-            countBishops[ci] = 0;
-            countKnights[ci] = 0;
             for (int f=0; f<NR_FILES; f++)
                 countPawnsInFile[ci][f] = 0;
         }
@@ -163,6 +168,13 @@ public class ChessBoard extends VBoard {   // was implements VBoardInterface { b
         resetHashHistory();
     }
 
+    /**
+     * @return the buffer where the reasons of move evaluations of the current search are recorded (if EngineConfig.showReasons)
+     */
+    EvalReasons getEvalReasons() {
+        return searchContext().getEvalReasons();
+    }
+
     public ChessPiece getPiece(int pceID) {
         assert (pceID < nextFreePceID);
         return piecesOnBoard[pceID];
@@ -330,19 +342,11 @@ public class ChessBoard extends VBoard {   // was implements VBoardInterface { b
     }
 
     private int evaluateAllPiecesBasicValueSum() {
-        int pceValSum = 0;
-        for (ChessPiece pce : piecesOnBoard)
-            if (pce != null)
-                pceValSum += pce.baseValue();
-        return pceValSum;
+        return materialSum();
     }
 
     private int evaluateAllPiecesValueSum() {
-        int pceValSum = 0;
-        for (ChessPiece pce : piecesOnBoard)
-            if (pce != null)
-                pceValSum += pce.getValue();
-        return pceValSum;
+        return pieceValueSum();
     }
 
     /**
@@ -392,12 +396,14 @@ public class ChessBoard extends VBoard {   // was implements VBoardInterface { b
      */
     void completePreparation() {
         resetBestMove();
+        resetMoveCache();   // incl. king-pin table, as pieces have moved
         baseBoard.findAndSetCheckingMoves();
         // not for now in Waves: continueDistanceCalcUpTo(MAX_INTERESTING_NROF_HOPS);
     }
 
     private void resetBestMove() {
         bestMove = null;
+        pv.clearPly(0);
     }
 
 
@@ -457,20 +463,18 @@ public class ChessBoard extends VBoard {   // was implements VBoardInterface { b
         assert (nextFreePceID <= MAX_PIECES);
         assert (pos >= 0 && pos < NR_SQUARES);
         if (isPieceTypeWhite(pceType)) {
-            incNrOfPieces(CIWHITE);
+            addLivePieceId(CIWHITE, newPceID);
             if (pceType == KING)
                 kingId[CIWHITE] = newPceID;
         } else {
-            incNrOfPieces(CIBLACK);
+            addLivePieceId(CIBLACK, newPceID);
             if (pceType == KING_BLACK)
                 kingId[CIBLACK] = newPceID;
         }
 
-        switch (colorlessPieceType(pceType)) {
-            case BISHOP -> countBishops[colorIndexOfPieceType(pceType)]++;
-            case KNIGHT -> countKnights[colorIndexOfPieceType(pceType)]++;
-            case PAWN   -> countPawnsInFile[colorIndexOfPieceType(pceType)][fileOf(pos)]++;
-        }
+        if (isPawn(pceType))
+            countPawnsInFile[colorIndexOfPieceType(pceType)][fileOf(pos)]++;
+        addMaterial(pceType, pos);
 
         piecesOnBoard[newPceID] = ChessPiece.newPiece(this, pceType, newPceID, pos);
 
@@ -485,6 +489,10 @@ public class ChessBoard extends VBoard {   // was implements VBoardInterface { b
     }
 
     public void removePiece(int pceID) {
+        if (piecesOnBoard[pceID] != null) {
+            removeLivePieceId(piecesOnBoard[pceID].color(), pceID);
+            removeMaterial(piecesOnBoard[pceID].pieceType(), piecesOnBoard[pceID].pos());
+        }
         piecesOnBoard[pceID] = null;
         for (Square sq : boardSquares)
             sq.removePiece(pceID);
@@ -733,7 +741,7 @@ public class ChessBoard extends VBoard {   // was implements VBoardInterface { b
         if (m == null || !m.isMove())
             return "-";
         else
-            return m.toString();
+            return new SimpleMove(m).toString();   // uci notation, without the piece symbol of Move.toString()
     }
 
     /**
@@ -741,34 +749,303 @@ public class ChessBoard extends VBoard {   // was implements VBoardInterface { b
      * @return a hopefully good Move
      */
     public Move getBestMove() {
-        if (bestMove == null) {
-            setEngParams(new ChessEngineParams(engineP1));
-            bestMove = getBestMovesForColAfter(getTurnCol(), engParams);
-            if (true || DEBUGMSG_MOVESELECTION) {
-                debugPrintln(DEBUGMSG_MOVESELECTION, "=> My best move (after looking at "
-                        + countCalculatedBoards + " positions and " + VBoard.usageCounter + " moves"
-                        + " on level " + engParams.toString()
-                        + "): " + bestMove +".");
-                //debugPrintln(DEBUGMSG_MOVESELECTION, "(opponents best moves: " + bestOpponentMoves.findFirst().orElse(null) + ").");
+        final Move result = bestMove;
+        return result != null ? result : searchOnLevel(null);
+    }
+
+    /**
+     * searches anew for the level engineP1
+     * @param progress receives the result or null
+     */
+    private Move searchOnLevel(SearchProgress progress) {
+        final int color = getTurnCol();
+        final ChessEngineParams params = new ChessEngineParams(config.engineP1());
+        setEngParams(params);
+        final SearchContext ctx = startSearch(null, progress);
+        final Move result;
+        try {
+            result = getBestMovesForColAfter(ctx, color, params);
+        }
+        finally {
+            endSearch(ctx);
+        }
+        publishResult(ctx, result, ctx.nodes());
+        if (true || config.debugMsgMoveSelection) {
+            debugPrintln(config.debugMsgMoveSelection, "=> My best move (after looking at "
+                    + ctx.nodes() + " positions and " + ctx.countMoves + " moves"
+                    + " on level " + params.toString()
+                    + "): " + result + " (line: " + ctx.getPrincipalVariation() + ").");
+            //debugPrintln(DEBUGMSG_MOVESELECTION, "(opponents best moves: " + bestOpponentMoves.findFirst().orElse(null) + ").");
+        }
+        checkAndEvaluateGameOver();
+        if (progress != null && result != null)
+            progress.iterationDone(params.searchMaxDepth(), ctx.selDepth(), ctx.nodes(),
+                    isWhite(color) ? result.getSingleValueEval() : -result.getSingleValueEval(), ctx.getPrincipalVariation());
+        return result;
+    }
+
+    /**
+     * searches anew with iterative deepening, as long as timeManager allows (for the width of the level
+     * engineP1 resp. LEVEL_DEFAULT). If an iteration is stopped before any root move was searched completely,
+     * the result of the previous iteration is kept.
+     * @param timeManager limits of the search, null to search like getBestMove()
+     * @return a hopefully good Move
+     */
+    public Move getBestMove(TimeManager timeManager) {
+        return getBestMove(timeManager, null);
+    }
+
+    /**
+     * like getBestMove(timeManager), but reports the progress of the search.
+     * Can be called from several threads at the same time, each search then runs in its own SearchContext.
+     * @param progress receives the progress or null
+     */
+    public Move getBestMove(TimeManager timeManager, SearchProgress progress) {
+        if (timeManager == null)
+            return progress == null ? getBestMove() : searchOnLevel(progress);
+        final int color = getTurnCol();
+        final int engineP1 = config.engineP1();
+        final int level = engineP1 > 0 ? engineP1 : ChessEngineParams.LEVEL_DEFAULT;
+        final PrincipalVariation completedPv = new PrincipalVariation();
+        final SearchContext ctx = startSearch(timeManager, progress);
+        final PrincipalVariation line = ctx.getPrincipalVariation();
+        ChessEngineParams params = null;
+        Move result = null;
+        long nodes = 0;
+        try {
+            for (int depth = 1; depth <= timeManager.maxDepth(); depth++) {
+                params = new ChessEngineParams(level, depth);
+                setEngParams(params);
+                ctx.nodesOfPrevIterations = nodes;
+                Move m = getBestMovesForColAfter(ctx, color, params);
+                nodes += ctx.countCalculatedBoards;
+                if (m == null)
+                    break;  // no moves (or stopped without any candidate), result stays the one of the previous iteration
+                if (ctx.isStopRequested()) {
+                    if (result == null || !ctx.rootResultIsPreEval) {
+                        result = m;
+                        if (progress != null)   // the line of the unfinished iteration is the one that counts now
+                            progress.iterationDone(depth, ctx.selDepth(), nodes,
+                                    isWhite(color) ? m.getSingleValueEval() : -m.getSingleValueEval(), line);
+                    }
+                    else
+                        line.copyFrom(completedPv);
+                    break;
+                }
+                result = m;
+                completedPv.copyFrom(line);
+                int score = isWhite(color) ? m.getSingleValueEval() : -m.getSingleValueEval();
+                if (progress != null)
+                    progress.iterationDone(depth, ctx.selDepth(), nodes, score, line);
+                if (!timeManager.startNextIteration(depth, new SimpleMove(m).toString(), score, ctx.rootEvalGap, ctx.rootMoveCount))
+                    break;
             }
-            checkAndEvaluateGameOver();
         }
-        return bestMove;
+        finally {
+            endSearch(ctx);
+        }
+        publishResult(ctx, result, nodes);
+        debugPrintln(config.debugMsgMoveSelection, "=> My best move (after looking at "
+                + nodes + " positions in " + timeManager.elapsedMs() + "ms"
+                + " up to " + params
+                + "): " + result + " (line: " + line + ").");
+        checkAndEvaluateGameOver();
+        return result;
+    }
+
+    /**
+     * completes the caches of this board, so afterwards the searches only read it (see VBoard.completeLazyCaches())
+     */
+    private synchronized void prepareForSearch() {
+        if (searchCachesComplete)
+            return;
+        findAndSetCheckingMoves();
+        completeLazyCaches();
+        searchCachesComplete = true;
+    }
+
+    /**
+     * called when a board following this one is created: within a search, this board is only read (see
+     * prepareForSearch()), outside of searches (e.g. after pieces were placed directly), its checking moves
+     * are looked at again.
+     */
+    void prepareFollowUpBoard() {
+        if (runningSearch.get() == null)
+            findAndSetCheckingMoves();
+    }
+
+    @Override
+    protected void resetMoveCache() {
+        super.resetMoveCache();
+        searchCachesComplete = false;
+    }
+
+    private SearchContext startSearch(TimeManager timeManager, SearchProgress progress) {
+        prepareForSearch();
+        final SearchContext ctx = new SearchContext(this);
+        ctx.timeManager = timeManager;
+        ctx.progress = progress;
+        nrOfRunningSearches.incrementAndGet();
+        runningSearch.set(ctx);
+        return ctx;
+    }
+
+    private void endSearch(SearchContext ctx) {
+        ctx.releaseBoards();
+        runningSearch.remove();
+        if (nrOfRunningSearches.decrementAndGet() == 0)
+            stopRequested = false;  // a stop request is meant for the searches running at that time
+    }
+
+    /**
+     * the result of a search becomes the one of this board, see getBestMove() and getPrincipalVariation()
+     */
+    private synchronized void publishResult(SearchContext ctx, Move result, long nodes) {
+        bestMove = result;
+        pv.copyFrom(ctx.getPrincipalVariation());
+        countCalculatedBoards = (int) min(Integer.MAX_VALUE, nodes);
+        nrOfReusedPreEvals += ctx.getNrOfReusedPreEvals();
     }
 
+    /**
+     * @return the context of the search running in the current thread, or the one of the board outside of searches
+     */
+    @Override
+    SearchContext searchContext() {
+        // (null while the VBoard constructor runs)
+        final SearchContext ctx = runningSearch == null ? null : runningSearch.get();
+        return ctx != null ? ctx : ownContext;
+    }
+
+    /**
+     * @return cache for the pre-evaluations of moves or null if none is used
+     */
+    EvalCache getEvalCache() {
+        return evalCache;
+    }
+
+    MoveDependencies getMoveDependencies() {
+        return moveDependencies;
+    }
+
+    /**
+     * @return nr of pre-evaluations taken over from grandparent nodes (see EngineConfig.reuseGrandparentPreEvals) since the
+     * board was set up
+     */
+    public long getNrOfReusedPreEvals() {
+        return nrOfReusedPreEvals;
+    }
+
+    /**
+     * Asks the running searches (e.g. getBestMove() in other threads) to end as soon as possible.
+     * They then return the best move found so far: at least the best root move after pre-evaluation.
+     */
+    public void requestStop() {
+        stopRequested = true;
+    }
+
+    /**
+     * forgets a stop request, to be called before a search is started from another thread
+     */
+    public void clearStopRequest() {
+        stopRequested = false;
+    }
+
+    public boolean isStopRequested() {
+        return stopRequested;
+    }
+
+    /**
+     * limits the memory for the boards that are remembered during a search (see VBoard.createNext()).
+     * Beyond it, boards are just created again when needed.
+     * The size per board depends on the pieces of the current position, see VBoard.estimatedBytesPerBoard().
+     * @param sizeInMB budget in MB (roughly)
+     */
+    public void setBoardMemoryBudget(int sizeInMB) {
+        maxRememberedBoards = (int) max(MAX_PIECES, min(Integer.MAX_VALUE, ((long) sizeInMB << 20)
+                                                                  / estimatedBytesPerBoard(moveDependencies.nrOfWords())));
+    }
+
+    int getMaxRememberedBoards() {
+        return maxRememberedBoards;
+    }
+
+    /**
+     * @return nr of boards remembered by the search of the current thread (outside of searches: by the board)
+     */
+    int getNrOfRememberedBoards() {
+        return searchContext().getNrOfRememberedBoards();
+    }
+
+    /**
+     * Forgets the boards created by createNext() - here at the root, this also frees the boards further down,
+     * even those that were not released explicitly.
+     */
+    @Override
+    public void releaseChildren() {
+        final SearchContext ctx = searchContext();
+        if (ctx != null)    // (null while the VBoard constructor runs)
+            ctx.releaseRootChildren();
+    }
+
+    /**
+     * the boards after the moves at the root are kept per search, see SearchContext
+     */
+    @Override
+    protected ChildBoards childBoards(boolean create) {
+        return searchContext().rootChildren();
+    }
+
+    public void setEvalCache(EvalCache evalCache) {
+        this.evalCache = evalCache;
+    }
+
+    /**
+     * @return the principal variation of the last search, i.e. the expected line starting with the best move
+     */
+    public PrincipalVariation getPrincipalVariation() {
+        return pv;
+    }
+
+    /**
+     * one search for the best move of color (without changing the result of the board)
+     */
     Move getBestMovesForColAfter(final int color, final ChessEngineParams engParams) {
-        countCalculatedBoards = 0;
-        VBoard.usageCounter = 0;
-        Move result = getBestMovesForColAfter(color, engParams, this, checkmateEvalIn(CIWHITE,30), checkmateEvalIn(CIBLACK,30));
+        final SearchContext ctx = startSearch(null, null);
+        try {
+            return getBestMovesForColAfter(ctx, color, engParams);
+        }
+        finally {
+            endSearch(ctx);
+        }
+    }
+
+    Move getBestMovesForColAfter(final SearchContext ctx, final int color, final ChessEngineParams engParams) {
+        ctx.startIteration();
+        Move result = getBestMovesForColAfter(ctx, color, engParams, this, checkmateEvalIn(CIWHITE,30), checkmateEvalIn(CIBLACK,30));
+        // nothing of the search tree stays reachable after the search
+        ctx.releaseBoards();
+        if (result != null)
+            result.setPostVBoard(null);
         return result;
     }
 
     Move getBestMovesForColAfter(
+            final SearchContext ctx,
             final int color,
             final ChessEngineParams engParams,
             final VBoard upToNowBoard,
             int alpha, int beta) {
         String debugOutputprefix = getDebugOutputSpacer(upToNowBoard);
+        final int ply = upToNowBoard.depth();
+        final PrincipalVariation pv = ctx.getPrincipalVariation();
+        pv.clearPly(ply);
+        if (ply >= ctx.selDepth)
+            ctx.selDepth = ply + 1;
+        final boolean reusePreEvals = config.reuseGrandparentPreEvals;
+        final PreEvalReuse preEvalReuse = reusePreEvals ? ctx.getPreEvalReuse() : null;
+        if (reusePreEvals)
+            preEvalReuse.startNode(ply, upToNowBoard);
         final int maxBestMoves = engParams.searchMaxNrOfBestMovesPerPly();  // only the top moves are sorted
         List<Move> bestMoveCandidates = new ArrayList<>(maxBestMoves+(maxBestMoves>>1));
         List<Move> bestMoves = new ArrayList<>(maxBestMoves);
@@ -779,21 +1056,25 @@ public class ChessBoard extends VBoard {   // was implements VBoardInterface { b
 
         //// do Pre-Eval:
         upToNowBoard.getLegalMovesStream(color).forEach(move -> {
-            if (alphabetabreak[0])
+            if (alphabetabreak[0] || (ctx.isStopRequested() && ply > 0))   // the root always completes its pre-evaluation
                 return;
-            if (DEBUGMSG_MOVESELECTION2 && upToNowBoard.depth()<DEBUGMSG_MOVESELECTION2_MAXDEPTH) // && upToNowBoard.futureLevel() == 0)   //|| DEBUGMSG_ALONG_PATH!=null && DEBUGMSG_ALONG_PATH.startsWith(upToNowBoard.toString()) )
-                debugPrint(DEBUGMSG_MOVESELECTION2, debugOutputprefix + "PRE-eval: " + move + "    ");
-/*!*/       Move evaluatedMove = move.piece().evaluateMoveAfter(move, upToNowBoard);
+            if (config.debugMsgMoveSelection2 && upToNowBoard.depth()<DEBUGMSG_MOVESELECTION2_MAXDEPTH) // && upToNowBoard.futureLevel() == 0)   //|| DEBUGMSG_ALONG_PATH!=null && DEBUGMSG_ALONG_PATH.startsWith(upToNowBoard.toString()) )
+                debugPrint(config.debugMsgMoveSelection2, debugOutputprefix + "PRE-eval: " + move + "    ");
+/*!*/       Move evaluatedMove = move.piece().evaluateMoveAfter(move, upToNowBoard,
+                                    reusePreEvals ? preEvalReuse.reusableEvalFor(ply, move) : null);
             if (evaluatedMove == null)
                 return;  // happens e.g. if this move is king-pinned
-            if ( (DEBUGMSG_MOVESELECTION2 && upToNowBoard.depth()<DEBUGMSG_MOVESELECTION2_MAXDEPTH) // && upToNowBoard.futureLevel() == 0)
+            final VBoard postBoard = evaluatedMove.getPostVBoard();   // null if the game ends with the move
+            if (reusePreEvals && postBoard != null && !postBoard.isCheck())   // checks (incl. mates) depend on too much
+                preEvalReuse.remember(ply, move, evaluatedMove.getEval());
+            if ( (config.debugMsgMoveSelection2 && upToNowBoard.depth()<DEBUGMSG_MOVESELECTION2_MAXDEPTH) // && upToNowBoard.futureLevel() == 0)
                     || is_debug_along_DEBUG_PATH(upToNowBoard, move))
                 debugPrintln(true,debugOutputprefix +
                         "-> PRE-eval " + evaluatedMove + " = "
                         + evaluatedMove.getEval()
                         + " reason: " + evaluatedMove.getEval().getReason()
                 );
-            if (move.getPostVBoard().isCheck() && evaluatedMove.mates()) {
+            if ((postBoard == null || postBoard.isCheck()) && evaluatedMove.mates()) {
                 if (upToNowBoard.depth() > 0) {
                     // mate is mate, we do not need to look further
                     checkingMoves.add(0, evaluatedMove);
@@ -805,10 +1086,17 @@ public class ChessBoard extends VBoard {   // was implements VBoardInterface { b
             }
             else
                 addMoveToSortedListOfCol(evaluatedMove, bestMoveCandidates, color, maxBestMoves, restMoves);
-            countCalculatedBoards++;
+            ctx.countCalculatedBoards++;
+            if ((ctx.countCalculatedBoards & 0x3f) == 0 && (ctx.timeManager != null || ctx.progress != null))
+                ctx.checkOnRunningSearch();
         });
+        if (ply == 0)
+            ctx.rootMoveCount = checkingMoves.size() + bestMoveCandidates.size() + restMoves.size();
+        // the rest is never searched, so do not keep their boards alive (only the candidates' boards stay, per node)
+        for (Move m : restMoves)
+            m.setPostVBoard(null);
 
-        if ( DEBUGMSG_MOVESELECTION2 && upToNowBoard.depth() < DEBUGMSG_MOVESELECTION2_MAXDEPTH) {// && upToNowBoard.futureLevel() == 0)
+        if ( config.debugMsgMoveSelection2 && upToNowBoard.depth() < DEBUGMSG_MOVESELECTION2_MAXDEPTH) {// && upToNowBoard.futureLevel() == 0)
             debugPrintln(true, debugOutputprefix + "->Checking moves: "
                     + (checkingMoves.isEmpty() ? "none" : Arrays.toString(checkingMoves.toArray())) + ".");
             debugPrintln(true, debugOutputprefix + "  Otherwise best PRE-eval moves: "
@@ -818,6 +1106,7 @@ public class ChessBoard extends VBoard {   // was implements VBoardInterface { b
 
         if (!checkingMoves.isEmpty() && checkingMoves.get(0).mates() ) {
             // at depth 0, all mating moves were searched. to do so, all pre-evaluation were carries out and we have to jump out here
+            pv.setLeaf(ply, checkingMoves.get(0));
             return checkingMoves.get(0);
         }
         if (bestMoveCandidates.isEmpty() && checkingMoves.isEmpty()) {                     // no moves, game over
@@ -842,7 +1131,14 @@ public class ChessBoard extends VBoard {   // was implements VBoardInterface { b
                 singleMoveResult = checkingMoves.get(0);
         }
         if (singleMoveResult != null) {
-            singleMoveResult.getEval().addEval(upToNowBoard.captureEvalSoFar(), 0);
+            int leafScore = upToNowBoard.captureEvalSoFar();
+            if (config.positionalLeafScore) {
+                // the pre-evaluation does not look at the simple positional values, so they are added here
+                VBoard leafBoard = singleMoveResult.getPostVBoard();
+                leafScore += (leafBoard != null ? leafBoard : upToNowBoard).positionalScore();
+            }
+            singleMoveResult.getEval().addEval(leafScore, 0);
+            pv.setLeaf(ply, singleMoveResult);
             return singleMoveResult;
         }
 
@@ -856,7 +1152,7 @@ public class ChessBoard extends VBoard {   // was implements VBoardInterface { b
             if (prevMoveCandidate != null && prevMoveCandidate.getEval().isBetterForColorThan(move.piece().color(), move.getEval())
             ) //&& !prevMoveCandidate.getPostVBoard().isCheck() )
                 countVerifiedBestPreEvals++;
-            if (countVerifiedBestPreEvals >= MAX_WIDTH_OF_VERIFIED_BEST_PREEVALS)
+            if (countVerifiedBestPreEvals >= MAX_WIDTH_OF_VERIFIED_BEST_PREEVALS || ctx.isStopRequested())
                 break;
             if (alphabetabreak[0]) {
                 restMoves.add(move); // addMoveToSortedListOfCol(move, bestMoves, color, maxBestMoves, restMoves);
@@ -880,21 +1176,23 @@ public class ChessBoard extends VBoard {   // was implements VBoardInterface { b
                 if (nextBoard == null) { // this is possible, if move already had a mate-evaluation (or test-board-game-over due to no more pieces...
                     if (is_debug_along_DEBUG_PATH(upToNowBoard, null))
                         debugPrintln(true, debugOutputprefix + "Keep ending move " + move + " with " + move.getEval());
-                    addMoveToSortedListOfCol(move, bestMoves, color, 2 /*maxBestMoves*/, null);
+                    if (addMoveToSortedListOfCol(move, bestMoves, color, 2 /*maxBestMoves*/, null))
+                        pv.setLeaf(ply, move);
                     continue;
                 }
-/*!*/           Move bestOppMove = getBestMovesForColAfter(opponentColor(color), engParams, nextBoard, alpha, beta);
+/*!*/           Move bestOppMove = getBestMovesForColAfter(ctx, opponentColor(color), engParams, nextBoard, alpha, beta);
+                nextBoard.releaseChildren();   // the subtree is done
+                if (ctx.isStopRequested())
+                    break;   // the subtree was not completely searched, so its result is not reliable
                 if (bestOppMove != null) {
                     //nextBoard.checkAndSetGameEndEval(move, debugOutputprefix);  // should not happen and already be caught in the pre-eval above.
                     move.setEval(bestOppMove.getEval());
                     //move.addEval(upToNowBoard.captureEvalSoFar(),0);
-                    move.getEval().setReason(upToNowBoard + " " + move.toString()
-                            //   + move.getEval() + " "
-                            //   + move.getEval().getReason() + " <-- "
-                            + "!{" + bestOppMove + bestOppMove.getEval() + " " + bestOppMove.getEval().getReason() + "} ");
-                    if ((DEBUGMSG_MOVESELECTION && upToNowBoard.futureLevel() == 0)
+                    // the line leading to this evaluation is kept in pv (not in the reason any more)
+                    if ((config.debugMsgMoveSelection && upToNowBoard.futureLevel() == 0)
                         || is_debug_along_DEBUG_PATH(upToNowBoard, null))
                         debugPrintln(true, debugOutputprefix + "Reevaluated " + move + " to " + move.getEval()
+                                + " line: " + move + " " + pv.toString(ply+1)
                                 + " reason: " + move.getEval().getReason());
                     if (!move.getPostVBoard().isCheck())
                         prevMoveCandidate = move;
@@ -904,13 +1202,14 @@ public class ChessBoard extends VBoard {   // was implements VBoardInterface { b
                     //assert false;
                 }
                 if (addMoveToSortedListOfCol(move, bestMoves, color, 2/*maxBestMoves*/, null)) {
+                    pv.update(ply, move);
                     // alpha-beta-break-check
                     int bestEval0 = bestMoves.get(0).getEval().getEvalAt(0);
                     if (isWhite(move.piece().color())) {
                         alpha = max(alpha, bestEval0);
                         if (bestEval0 > beta) {   // note: we cannot use >= beta and <= alpha, because we are only looking at eval0 - with == it could still be smaller looking at the other levels - to use >=/<= we would have to use a full Evaluation for alpha and beta
                             alphabetabreak[0] = true;
-                            if ((DEBUGMSG_MOVESELECTION2 && upToNowBoard.depth() < DEBUGMSG_MOVESELECTION2_MAXDEPTH /* && upToNowBoard.futureLevel() == 0 */)
+                            if ((config.debugMsgMoveSelection2 && upToNowBoard.depth() < DEBUGMSG_MOVESELECTION2_MAXDEPTH /* && upToNowBoard.futureLevel() == 0 */)
                                     || is_debug_along_DEBUG_PATH(upToNowBoard, move))
                                 debugPrintln(true, debugOutputprefix + (alphabetabreak[0] ? " <AB2b-BREAK" + alpha + ", "
                                         + bestMoves.get(0).getEval().toString() + ", " + beta + ">" : ""));
@@ -919,7 +1218,7 @@ public class ChessBoard extends VBoard {   // was implements VBoardInterface { b
                         beta = min(beta, bestEval0);
                         if (bestEval0 < alpha) {
                             alphabetabreak[0] = true;
-                            if ((DEBUGMSG_MOVESELECTION2 && upToNowBoard.depth() < DEBUGMSG_MOVESELECTION2_MAXDEPTH /* && upToNowBoard.futureLevel() == 0 */)
+                            if ((config.debugMsgMoveSelection2 && upToNowBoard.depth() < DEBUGMSG_MOVESELECTION2_MAXDEPTH /* && upToNowBoard.futureLevel() == 0 */)
                                     || is_debug_along_DEBUG_PATH(upToNowBoard, move))
                                 debugPrintln(true, debugOutputprefix + (alphabetabreak[0] ? " <AB2a-BREAK" + alpha + ", "
                                         + bestMoves.get(0).getEval().toString() + ", " + beta + ">" : ""));
@@ -931,29 +1230,40 @@ public class ChessBoard extends VBoard {   // was implements VBoardInterface { b
             //    addMoveToSortedListOfCol(move, bestMoves, color, maxBestMoves, restMoves);
 
         }
-        if (DEBUGMSG_MOVESELECTION2 && upToNowBoard.depth() < DEBUGMSG_MOVESELECTION2_MAXDEPTH
-                || DEBUGMSG_MOVESELECTION && upToNowBoard.depth() <= 0 // && upToNowBoard.futureLevel() == 0)
+        if (config.debugMsgMoveSelection2 && upToNowBoard.depth() < DEBUGMSG_MOVESELECTION2_MAXDEPTH
+                || config.debugMsgMoveSelection && upToNowBoard.depth() <= 0 // && upToNowBoard.futureLevel() == 0)
                 || is_debug_along_DEBUG_PATH(upToNowBoard, null))
             debugPrintln(true, debugOutputprefix + "Best evaluated moves: "
                     + (bestMoves.isEmpty() ? "none" : bestMoves.get(0) + " " + bestMoves.get(0).getEval() + "(" + bestMoves.get(0).getEval().getReason() + ").  Alternatives: ")
                     + Arrays.toString(bestMoves.toArray()) + ".");
-        else if ( (DEBUGMSG_MOVESELECTION2 && upToNowBoard.depth() == DEBUGMSG_MOVESELECTION2_MAXDEPTH) // && upToNowBoard.futureLevel() == 0)
+        else if ( (config.debugMsgMoveSelection2 && upToNowBoard.depth() == DEBUGMSG_MOVESELECTION2_MAXDEPTH) // && upToNowBoard.futureLevel() == 0)
                 || is_debug_along_DEBUG_PATH(upToNowBoard, null) )
             debugPrintln(true, debugOutputprefix + "(best line here: "
                     + (bestMoves.isEmpty() ? "none" : bestMoves.get(0) + " " + bestMoves.get(0).getEval() + "  " + bestMoves.get(0).getEval().getReason() + ").") );
+        if (bestMoves.isEmpty() && ply == 0 && ctx.isStopRequested()) {
+            // stopped before any root move was searched completely: fall back to the best pre-evaluation
+            if (bestMoveCandidates.isEmpty())
+                return null;    // nothing to fall back to, the caller keeps its previous result
+            ctx.rootResultIsPreEval = true;
+            pv.setLeaf(ply, bestMoveCandidates.get(0));
+            return bestMoveCandidates.get(0);
+        }
+        if (ply == 0)
+            ctx.rootEvalGap = bestMoves.size() < 2 ? 0
+                    : abs(bestMoves.get(0).getEval().getEvalAt(0) - bestMoves.get(1).getEval().getEvalAt(0));
         return bestMoves.isEmpty() ? null : bestMoves.get(0);
     }
 
-    private static boolean is_debug_along_DEBUG_PATH(VBoard upToNowBoard, Move move) {
-        return DEBUGMSG_ALONG_PATH != null
+    private boolean is_debug_along_DEBUG_PATH(VBoard upToNowBoard, Move move) {
+        return config.debugMsgAlongPath != null
                 && ( (upToNowBoard.depth() == 0
-                      && (move == null || DEBUGMSG_ALONG_PATH.startsWith(move.toString())))
-                     || (move != null && DEBUGMSG_ALONG_PATH.startsWith(upToNowBoard.toString() + " " + move.toString())) );
+                      && (move == null || config.debugMsgAlongPath.startsWith(move.toString())))
+                     || (move != null && config.debugMsgAlongPath.startsWith(upToNowBoard.toString() + " " + move.toString())) );
     }
 
     private String getDebugOutputSpacer(VBoard upToNowBoard) {
         String debugOutputprefix;
-        if (DEBUGMSG_MOVESELECTION || DEBUGMSG_MOVESELECTION2) { // && upToNowBoard.futureLevel() == 0)
+        if (config.debugMsgMoveSelection || config.debugMsgMoveSelection2) { // && upToNowBoard.futureLevel() == 0)
             char[] space;
             if (upToNowBoard.depth()>0) {
                 space = new char[(upToNowBoard.depth()) * 4];
@@ -963,7 +1273,7 @@ public class ChessBoard extends VBoard {   // was implements VBoardInterface { b
                 space = new char[0];
                 debugOutputprefix = "";
             }
-            debugPrintln(DEBUGMSG_MOVESELECTION2 && upToNowBoard.depth()<DEBUGMSG_MOVESELECTION2_MAXDEPTH,
+            debugPrintln(config.debugMsgMoveSelection2 && upToNowBoard.depth()<DEBUGMSG_MOVESELECTION2_MAXDEPTH,
                     String.valueOf(space) + "Calculating best move on Board: " + upToNowBoard + ":");
         } else {
             debugOutputprefix = "";
@@ -1454,14 +1764,12 @@ public class ChessBoard extends VBoard {   // was implements VBoardInterface { b
         //updateHash(takenFigNr, topos);
         ChessPiece p = getPieceAt(topos);
         piecesOnBoard[p.id()] = null;
-        decNrOfPieces(p.color());
+        removeLivePieceId(p.color(), p.id());
 
         int pceType = p.pieceType();
-        switch (colorlessPieceType(pceType)) {
-            case BISHOP -> countBishops[colorIndexOfPieceType(pceType)]--;
-            case KNIGHT -> countKnights[colorIndexOfPieceType(pceType)]--;
-            case PAWN   -> countPawnsInFile[colorIndexOfPieceType(pceType)][fileOf(topos)]--;
-        }
+        if (isPawn(pceType))
+            countPawnsInFile[colorIndexOfPieceType(pceType)][fileOf(topos)]--;
+        removeMaterial(pceType, topos);
 
         for (Square s : boardSquares)
             s.removePiece(p.id());
@@ -1474,6 +1782,7 @@ public class ChessBoard extends VBoard {   // was implements VBoardInterface { b
             return;  // this is ok, e.g. in chess960 castling, a rook or king might end up in the exact same square again...
 
         updateHashWithMove(frompos, topos);
+        moveMaterial(pceType, frompos, topos);
         // re-place piece on board
         emptySquare(frompos);
         piecesOnBoard[pceID].setPos(topos);
@@ -1528,17 +1837,6 @@ public class ChessBoard extends VBoard {   // was implements VBoardInterface { b
         return s;
     }
 
-    @Override
-    public Stream<ChessPiece> getPieces() {
-        return Arrays.stream(piecesOnBoard).filter(Objects::nonNull);
-    }
-
-    @Override
-    public Stream<ChessPiece> getPieces(int color) {
-        return getPieces()
-                .filter(p -> p.color() == color);
-    }
-
 
     // virtual non-linear, but continuously increasing "clock" used to remember update-"time"s and check if information is outdated
     private long updateClockFineTicks = 0;
@@ -1579,7 +1877,7 @@ public class ChessBoard extends VBoard {   // was implements VBoardInterface { b
     }
 
     private void setCurrentDistanceCalcLimit ( int newLimit){
-        currentDistanceCalcLimit = min(MAX_INTERESTING_NROF_HOPS, newLimit);
+        currentDistanceCalcLimit = min(config.maxInterestingNrOfHops(), newLimit);
     }
 
 
@@ -1661,6 +1959,18 @@ public class ChessBoard extends VBoard {   // was implements VBoardInterface { b
         repetitions = countHashOccurrencesForColor(boardHash, nextci ) - 1;
     }
 
+    /**
+     * @return hash of the piece placement and the turn (see also VBoard.positionHash())
+     */
+    @Override
+    public long positionHash() {
+        return getTurnCol() == CIBLACK ? hashTurnChange(getBoardHash()) : getBoardHash();
+    }
+
+    static long hashTurnChange(long hash) {
+        return hash ^ randomSquareValues[69];
+    }
+
     static public long rawUpdateAHash(long hash, int pceType, int pos) {
         if (((long)pceType) != 0)
             hash ^= randomSquareValues[pos] * ((long)pceType);
@@ -1670,14 +1980,6 @@ public class ChessBoard extends VBoard {   // was implements VBoardInterface { b
 
     //// getter
 
-    public int getLightPieceCounterForPieceType(int pceType ){
-        int ci = colorIndex(colorOfPieceType(pceType));
-        if ( colorlessPieceType(pceType) == BISHOP )
-            return countBishops[ci];
-        //else  == KNIGHT
-        return countKnights[ci];
-    }
-
     public int getPawnCounterForColorInFileOfPos(int color, int pos ){
         int file = fileOf(pos);
         return countPawnsInFile[color][file];
@@ -1701,8 +2003,8 @@ public class ChessBoard extends VBoard {   // was implements VBoardInterface { b
         return kingId[color];
     }
 
-    public static int getMAX_INTERESTING_NROF_HOPS() {
-        return MAX_INTERESTING_NROF_HOPS;
+    public int getMAX_INTERESTING_NROF_HOPS() {
+        return config.maxInterestingNrOfHops();
     }
 
     @Override
@@ -1711,7 +2013,7 @@ public class ChessBoard extends VBoard {   // was implements VBoardInterface { b
     }
 
     StringBuffer getBoardName() {
-        StringBuffer n = new StringBuffer(boardName + "("+engineP1()+")");
+        StringBuffer n = new StringBuffer(boardName + "("+config.engineP1()+")");
         return n;
     }
 
@@ -1735,8 +2037,8 @@ public class ChessBoard extends VBoard {   // was implements VBoardInterface { b
 
     //// setter
 
-    public static void setMAX_INTERESTING_NROF_HOPS ( int RECONST_MAX_INTERESTING_NROF_HOPS){
-        MAX_INTERESTING_NROF_HOPS = RECONST_MAX_INTERESTING_NROF_HOPS;
+    public void setMAX_INTERESTING_NROF_HOPS ( int RECONST_MAX_INTERESTING_NROF_HOPS){
+        config.setMaxInterestingNrOfHops(RECONST_MAX_INTERESTING_NROF_HOPS);
     }
 
     public void setEngParams(ChessEngineParams engParams) {
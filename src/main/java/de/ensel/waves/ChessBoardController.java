@@ -21,15 +21,67 @@
 package de.ensel.waves;
 
 import de.ensel.waves.UCI4ChessEngine.ChessEngine;
+import de.ensel.waves.UCI4ChessEngine.SearchLimits;
 
 import java.util.HashMap;
 import java.util.Locale;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import static de.ensel.chessbasics.ChessBasics.*;
 import static de.ensel.waves.ChessBoard.NO_PIECE_ID;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
 
 public class ChessBoardController implements ChessEngine {
+    public static final int DEFAULT_HASH_MB = 2 * EvalCache.DEFAULT_SIZE_MB;
+    public static final int MAX_HASH_MB = 4096;
+    public static final int DEFAULT_THREADS = 1;
+
     ChessBoard board;
+    private final EngineConfig config = new EngineConfig();    // shared by all boards of this engine
+    private int hashSizeMB;                      // uci option "Hash", see setHashSize()
+    private final EvalCache evalCache;           // survives board changes
+    private final EnginePool pool;               // uci option "Threads", runs all searches
+    private final EnginePool analysisPool;       // runs the "go infinite" searches, usually pool
+    private final boolean ownsPool;              // false if the pool is shared with other engines
+    private volatile ChessBoard searchBoard = null;              // board of the running search (see go())
+    private volatile CompletableFuture<String> runningSearch = null;
+    private volatile CompletableFuture<Void> stopSignal = CompletableFuture.completedFuture(null);  // see go()
+
+    public ChessBoardController() {
+        this(null, DEFAULT_HASH_MB);
+    }
+
+    /**
+     * An engine that runs its searches on a pool shared with other engines (e.g. the sessions of a UCIServer).
+     * It then searches with one thread only (no helper searches) and the uci option "Threads" has no effect,
+     * so the pool bounds the cpu usage of all its engines together.
+     * @param sharedPool pool to search on, null to give the engine a pool of its own
+     * @param hashSizeMB initial size of the caches, see setHashSize()
+     */
+    public ChessBoardController(EnginePool sharedPool, int hashSizeMB) {
+        this(sharedPool, sharedPool, hashSizeMB);
+    }
+
+    /**
+     * Like above, but the "go infinite" searches run on a pool of their own. They only end with the stop of the
+     * gui, so on a shared pool a few analysing sessions could keep all threads busy and the timed searches of
+     * the others would wait in the queue. With separate pools, the analyses only wait for each other.
+     * @param sharedPool pool for the searches with limits, not null
+     * @param sharedAnalysisPool pool for the "go infinite" searches, not null
+     * @param hashSizeMB initial size of the caches, see setHashSize()
+     */
+    public ChessBoardController(EnginePool sharedPool, EnginePool sharedAnalysisPool, int hashSizeMB) {
+        this.hashSizeMB = max(1, min(MAX_HASH_MB, hashSizeMB));
+        evalCache = new EvalCache(evalCacheShareOf(this.hashSizeMB));
+        ownsPool = sharedPool == null;
+        pool = ownsPool ? new EnginePool(DEFAULT_THREADS) : sharedPool;
+        analysisPool = ownsPool ? pool : sharedAnalysisPool;
+    }
 
     @Override
     public boolean doMove(String move) {
@@ -45,16 +97,182 @@ public class ChessBoardController implements ChessEngine {
         return board.getMove();
     }
 
+    private record SearchResult(String move, String principalVariation) {}
+
+    /**
+     * Searches on the pool. The pool task ends with the search, even for "go infinite": uci allows no bestmove
+     * before the stop then, so the result is held back until stop() is called - and the bestmove is then sent
+     * from the thread calling stop(), while the pool thread is already free for other searches.
+     */
+    @Override
+    public Future<String> go(SearchLimits limits, SearchListener listener) {
+        awaitSearchEnd(true);
+        final ChessBoard b = board;
+        final CompletableFuture<String> result = new CompletableFuture<>();
+        final CompletableFuture<SearchResult> searched = new CompletableFuture<>();
+        final CompletableFuture<Void> released = limits.infinite() ? new CompletableFuture<>()
+                                                                   : CompletableFuture.completedFuture(null);
+        // the clock starts now, not when the search thread gets going
+        final TimeManager timeManager = limits.isNone() ? null : new TimeManager(limits, b.getTurnCol());
+        b.clearStopRequest();
+        stopSignal = released;
+        searchBoard = b;
+        runningSearch = result;
+        (limits.infinite() ? analysisPool : pool).submit(context -> {
+            SearchResult searchResult = null;
+            Throwable failure = null;
+            try {
+                String move = null;
+                String pv = null;
+                if (!b.isGameOver()) {
+                    final Helpers helpers = startHelpers(b);
+                    Move m;
+                    try {
+                        m = b.getBestMove(timeManager, new SearchProgress(listener::info, evalCache));
+                    }
+                    finally {
+                        helpers.stop();
+                    }
+                    if (m != null && m.isMove()) {
+                        move = new SimpleMove(m).toString();
+                        if (b.getPrincipalVariation().length() > 0)
+                            pv = b.getPrincipalVariation().toString();
+                    }
+                }
+                searchResult = new SearchResult(move, pv);
+            }
+            catch (Throwable e) {
+                failure = e;
+            }
+            // cleared before the result is passed on: that can already let the next go() start and set its board
+            searchBoard = null;
+            if (failure != null)
+                searched.completeExceptionally(failure);
+            else
+                searched.complete(searchResult);
+            return null;
+        });
+        searched.whenComplete((r, e) -> {
+            if (e != null)
+                result.completeExceptionally(e);
+            else
+                released.thenRun(() -> {
+                    try {
+                        listener.bestMove(r.move(), r.principalVariation());
+                        result.complete(r.move());
+                    }
+                    catch (Throwable t) {
+                        result.completeExceptionally(t);
+                    }
+                });
+        });
+        return result;
+    }
+
+    //// helper searches
+
+    /**
+     * The other worker threads search the same position on their own boards, as long as the main search runs.
+     * They share the EvalCache with it, so the main search finds many pre-evaluations already done.
+     */
+    private static class Helpers {
+        private final List<ChessBoard> boards = new CopyOnWriteArrayList<>();
+        private final List<Future<Void>> tasks = new CopyOnWriteArrayList<>();
+        private volatile boolean stopped = false;
+
+        void stop() {
+            stopped = true;     // before the boards are stopped, see search()
+            for (Future<Void> t : tasks)
+                t.cancel(false);   // if not started yet
+            for (ChessBoard b : boards)
+                b.requestStop();
+        }
+
+        Void search(ChessBoard b, int color) {
+            b.clearStopRequest();
+            boards.add(b);
+            if (stopped)
+                return null;
+            b.getBestMove(new TimeManager(SearchLimits.ofUCIGo("go infinite"), color));
+            return null;
+        }
+    }
+
+    private Helpers startHelpers(ChessBoard mainBoard) {
+        final Helpers helpers = new Helpers();
+        final int nrOfHelpers = getThreads() - 1;
+        if (nrOfHelpers <= 0)
+            return helpers;
+        final String fen = mainBoard.getBoardFEN();
+        final int color = mainBoard.getTurnCol();
+        final int boardBudgetMB = boardBudgetMB();
+        for (int i = 0; i < nrOfHelpers; i++) {
+            helpers.tasks.add(pool.submit(context -> {
+                ChessBoard b = context.boardFor(fen, config);
+                b.setEvalCache(evalCache);
+                b.setBoardMemoryBudget(boardBudgetMB);
+                return helpers.search(b, color);
+            }));
+        }
+        return helpers;
+    }
+
+    @Override
+    public void stop() {
+        stopSignal.complete(null);     // releases the bestmove of a "go infinite"
+        ChessBoard b = searchBoard;
+        if (b != null)
+            b.requestStop();
+    }
+
+    @Override
+    public boolean isSearching() {
+        CompletableFuture<String> s = runningSearch;
+        return s != null && !s.isDone();
+    }
+
+    /**
+     * waits until a search started by go() has ended
+     * @param stopIt true to stop the search first
+     */
+    private void awaitSearchEnd(boolean stopIt) {
+        CompletableFuture<String> s = runningSearch;
+        if (s == null)
+            return;
+        if (stopIt)
+            stop();
+        try {
+            s.get();
+        }
+        catch (ExecutionException e) {
+            System.err.println("Error in search: " + e.getCause());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public String getPrincipalVariation() {
+        if (board.getPrincipalVariation().length() == 0)
+            return null;
+        return board.getPrincipalVariation().toString();
+    }
+
     @Override
     public void setBoard(String fen) {
         if (board==null) {
-            board = new ChessBoard(ChessBoard.chessBoardRes.getString("chessboard.initialName"), fen);
+            board = new ChessBoard(ChessBoard.chessBoardRes.getString("chessboard.initialName"), fen, config);
+            board.setEvalCache(evalCache);
+            board.setBoardMemoryBudget(boardBudgetMB());
         }
         else {
             if (!board.updateBoardFromFEN(fen) && !fen.equals(FENPOS_STARTPOS)) {
                 // seems the fen ins repeated - maybe I answered with an illegal move? try a board reset.
                 System.err.println("Board " + board.getBoardFEN() + " was called to update with equal FEN string: " + fen + ".");
-                board = new ChessBoard(chessBasicRes.getString("chessboard.initialName"), board.getBoardFEN());
+                board = new ChessBoard(chessBasicRes.getString("chessboard.initialName"), board.getBoardFEN(), config);
+                board.setEvalCache(evalCache);
+                board.setBoardMemoryBudget(boardBudgetMB());
             }
         }
         System.err.println("CBC: Board " + board.getBoardFEN() + " set.");  //TODO: remove
@@ -63,19 +281,136 @@ public class ChessBoardController implements ChessEngine {
     @Override
     public boolean setParam(String paramName, String value) {
         String param = paramName.toLowerCase(Locale.ROOT);
-        switch (paramName) {
-            case "hops", "nrofhops" -> {
-                ChessBoard.setMAX_INTERESTING_NROF_HOPS(Integer.parseInt(value));
-                return true;
-            }
-            case "engineP1" -> {
-                ChessBoard.setEngineP1(Integer.parseInt(value));
-                return true;
+        try {
+            switch (param) {
+                case "hops", "nrofhops" -> {
+                    config.setMaxInterestingNrOfHops(Integer.parseInt(value));
+                    return true;
+                }
+                case "enginep1" -> {
+                    config.setEngineP1(Integer.parseInt(value));
+                    return true;
+                }
+                case "hash" -> {
+                    setHashSize(Integer.parseInt(value));
+                    return true;
+                }
+                case "threads" -> {
+                    setThreads(Integer.parseInt(value));
+                    return ownsPool;
+                }
+                case "clear hash" -> {
+                    clearHash();
+                    return true;
+                }
             }
         }
+        catch (NumberFormatException e) {
+            System.err.println("Invalid value " + value + " for parameter " + paramName + ".");
+        }
         return false;
     }
 
+    @Override
+    public String getParam(String paramName) {
+        return switch (paramName.toLowerCase(Locale.ROOT)) {
+            case "hops", "nrofhops" -> "" + config.maxInterestingNrOfHops();
+            case "enginep1" -> "" + config.engineP1();
+            case "hash" -> "" + getHashSize();
+            case "threads" -> "" + getThreads();
+            default -> null;
+        };
+    }
+
+    /**
+     * @return the settings of this engine, shared by all its boards
+     */
+    public EngineConfig getConfig() {
+        return config;
+    }
+
+    //// threads
+
+    /**
+     * sets the nr of threads the engine uses for searching - ignored if the pool is shared with other engines
+     * @param nrOfThreads limited to 1..EnginePool.MAX_THREADS
+     */
+    public void setThreads(int nrOfThreads) {
+        if (!ownsPool)
+            return;
+        awaitSearchEnd(true);
+        pool.resize(nrOfThreads);
+        if (board != null)
+            board.setBoardMemoryBudget(boardBudgetMB());
+    }
+
+    public int getThreads() {
+        return ownsPool ? pool.nrOfThreads() : 1;
+    }
+
+    /**
+     * ends the threads of the engine's own pool (a shared pool is left to its owner) - after the running search
+     */
+    @Override
+    public void close() {
+        if (ownsPool)
+            pool.shutdownWhenDone();
+    }
+
+    /**
+     * @return the pool of worker threads of this engine, to be used for all parallel work
+     */
+    public EnginePool getPool() {
+        return pool;
+    }
+
+    //// memory
+
+    /**
+     * sets the memory budget for all caches of the engine. Most goes to the cache of pre-evaluations, the rest
+     * limits the boards remembered during the search (shared by all threads). Their content is lost.
+     * @param sizeInMB total size in MB (roughly), limited to 1..MAX_HASH_MB
+     */
+    public void setHashSize(int sizeInMB) {
+        awaitSearchEnd(true);
+        hashSizeMB = max(1, min(MAX_HASH_MB, sizeInMB));
+        evalCache.resize(evalCacheShareOf(hashSizeMB));
+        if (board != null)
+            board.setBoardMemoryBudget(boardBudgetMB());
+    }
+
+    public int getHashSize() {
+        return hashSizeMB;
+    }
+
+    /**
+     * forgets everything cached, i.e. the pre-evaluations and the boards remembered during the last search
+     */
+    public void clearHash() {
+        awaitSearchEnd(true);
+        evalCache.clear();
+        if (board != null)
+            board.releaseChildren();
+    }
+
+    /**
+     * @return how full the caches are in per mille (like uci "hashfull")
+     */
+    public int hashfull() {
+        return evalCache.hashfull();
+    }
+
+    private static int evalCacheShareOf(int hashSizeMB) {
+        return max(1, hashSizeMB / 2);
+    }
+
+    /**
+     * @return budget for the remembered boards per searching thread
+     */
+    private int boardBudgetMB() {
+        return (hashSizeMB - evalCacheShareOf(hashSizeMB)) / getThreads();
+    }
+
     @Override
     public String getBoard() {
         return board.getBoardFEN();
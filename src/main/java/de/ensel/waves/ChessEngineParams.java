@@ -53,4 +53,11 @@ public record ChessEngineParams(String paramSetName, int searchMaxDepth, int sea
     ChessEngineParams(int level) {
         this("level="+levels[level].paramSetName(), levels[level].searchMaxDepth(), levels[level].searchMaxNrOfBestMovesPerPly());
     }
+
+    /**
+     * for iterative deepening: the width of level, but searching only up to searchMaxDepth
+     */
+    ChessEngineParams(int level, int searchMaxDepth) {
+        this("level="+levels[level].paramSetName()+"/d"+searchMaxDepth, searchMaxDepth, levels[level].searchMaxNrOfBestMovesPerPly());
+    }
 }
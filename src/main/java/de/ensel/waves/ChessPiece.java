@@ -26,6 +26,7 @@ import java.util.*;
 import java.util.stream.Stream;
 import static de.ensel.chessbasics.ChessBasics.*;
 import static de.ensel.waves.ChessBoard.*;
+import static de.ensel.waves.EvalReasons.Term.*;
 import static de.ensel.waves.Move.addMoveToSortedListOfCol;
 import static java.lang.Math.abs;
 import static java.lang.Math.max;
@@ -39,6 +40,9 @@ public class ChessPiece {
     private int myPos;
 
     MovesCollection[] moves;   // all theoretically (i.e. on empty board) possible moves for this piece from square [fromPos]
+    private MoveGraph moveGraph;
+    private Move[] movesByEdge;  // the same moves, indexed by the edges of moveGraph
+    private int firstMoveId;     // the board's id of the move with edge 0 - ids of the other moves follow in edge order
     // todo: make private and add raw-getter fpr usage in VBoard
 
     //// constructors + factory
@@ -57,48 +61,39 @@ public class ChessPiece {
         ChessPiece newPce = isPawn(pceType)
                 ? new ChessPiecePawn(chessBoard, pceType, newPceID, pos)
                 : new ChessPiece(chessBoard, pceType, newPceID, pos);
-        int[][] moveMatrix =  switch (colorlessPieceType(pceType)) {
-            case BISHOP -> newPce.moveMatrix4Bishop;
-            case ROOK -> newPce.moveMatrix4Rook;
-            case KNIGHT -> newPce.moveMatrix4Knight;
-            case QUEEN -> newPce.moveMatrix4Queen;
-            case KING -> newPce.moveMatrix4King;
-            case PAWN -> isPieceTypeWhite(pceType)
-                    ? newPce.moveMatrix4PawnWhite
-                    : newPce.moveMatrix4PawnBlack;
-            default -> throw new IllegalStateException("Unexpected value: " + pceType);
-        };
-        newPce.setupMovesWithDependencies(moveMatrix);
+        newPce.setupMovesWithDependencies(MoveGraph.of(pceType));
         return newPce;
     }
 
-    private void setupMovesWithDependencies(int[][] moveMatrix) {
-        //todo: do not discriminate colors, except for pawns
-        moves = new MovesCollection[64];
+    /**
+     * creates the moves of this piece from the shared move graph of its type and connects them to the squares
+     * of the board.
+     */
+    private void setupMovesWithDependencies(MoveGraph graph) {
+        moveGraph = graph;
+        movesByEdge = new Move[graph.nrOfEdges()];
+        moves = new MovesCollection[NR_SQUARES];
         for (int fromPos = 0; fromPos < NR_SQUARES; fromPos++) {
-            moves[fromPos] = new MovesCollection();
-            for (int n = 0; n < moveMatrix[fromPos].length; n++) {
-                // prepare connection to intermediate squares (sliding over)
-                int toPos = moveMatrix[fromPos][n];
-                int[] intermedPos = calcPositionsFromTo(fromPos, toPos);
-                Square[] intermediateSquares = new Square[max(0,intermedPos.length-1)];
-                for (int i = 0; i < intermediateSquares.length; i++) {
-                    intermediateSquares[i] = board.getSquare(intermedPos[i+1]);
-                }
-                // create new move
+            Square fromSq = board.getSquare(fromPos);
+            for (int e = graph.firstEdgeFrom(fromPos); e < graph.firstEdgeFrom(fromPos+1); e++) {
+                int[] intermediatePositions = graph.edgeIntermediates(e);
                 Move newMove = new Move(
                         this,
-                        board.getSquare(fromPos),
-                        board.getSquare(toPos),
-                        intermediateSquares);
-                moves[fromPos].add( newMove );
+                        fromSq,
+                        board.getSquare(graph.edgeTo(e)),
+                        intermediatePositions);
+                movesByEdge[e] = newMove;
                 // setup connection to start, end and intermediate squares
-                board.getSquare(fromPos).setupAddDependentMoveStart(newMove);
-                board.getSquare(toPos).setupAddDependentMoveEnd(newMove);
-                for (Square intermediateSquare : intermediateSquares) {
-                    intermediateSquare.setupAddDependentMoveSlidingOver(newMove);
-                }
+                int moveId = board.getMoveDependencies().register(newMove);
+                if (e == 0)
+                    firstMoveId = moveId;
+                assert moveId == firstMoveId + e;
+                fromSq.setupAddDependentMoveStart(myColor, moveId);
+                newMove.toSq().setupAddDependentMoveEnd(myColor, moveId);
+                for (int intermediatePos : intermediatePositions)
+                    board.getSquare(intermediatePos).setupAddDependentMoveSlidingOver(myColor, moveId);
             }
+            moves[fromPos] = new MovesCollection(movesByEdge, graph, fromPos);
         }
     }
 
@@ -108,11 +103,19 @@ public class ChessPiece {
     }
 
     public int getValue() {
+        return getValueAfter(board);
+    }
+
+    /**
+     * @param fb the board, the piece is on - the value depends on the other pieces left on that board
+     * @return value of the piece on fb
+     */
+    public int getValueAfter(VBoard fb) {
         // Todo calc real/better value of piece
 
         // adjusted basic piece value
         if (isLightPieceType(pieceType())
-                && board.getLightPieceCounterForPieceType(pieceType()) == 1
+                && fb.getLightPieceCounterForPieceType(pieceType()) == 1
         ) {
             // exception for single (left over) light pieces
             return singleLightPieceBaseValue(pieceType());
@@ -149,10 +152,29 @@ public class ChessPiece {
         return move.isALegalMoveAfter(fb);
     }
 
+    MoveGraph moveGraph() {
+        return moveGraph;
+    }
+
+    /**
+     * @return the board's id of the move with edge 0 of moveGraph(), the id of a move with edge e is firstMoveId()+e
+     */
+    int firstMoveId() {
+        return firstMoveId;
+    }
+
+    /**
+     * @return the board's id of the move of this piece from from to to, see MoveDependencies
+     */
+    int moveIdOf(int from, int to) {
+        return firstMoveId + moveGraph.edgeOf(from, to);
+    }
+
     public Move getMove(int from, int to) {
-        if (moves == null || moves[from] == null || moves[from].isEmpty())
+        if (movesByEdge == null)
             return null;
-        return moves[from].getMoveTo(to);
+        int edge = moveGraph.edgeOf(from, to);
+        return edge < 0 ? null : movesByEdge[edge];
     }
 
     public Move getDirectMove(int toPos) {
@@ -176,31 +198,49 @@ public class ChessPiece {
     }
 
     /** generates a new evaluated move
+     * The Move and its Evaluation are new objects on purpose: the search node keeps all evaluated moves in its
+     * candidate lists (with their post boards) until it is done, so they cannot be reused scratch objects.
      * @param move2Bevaluated the basic move or any other already evaluated move
      * @param fb "future board" as VBoardInterface, but here _before_ move2Bevaluated
      * @return a new evaluated Move
      */
     public Move evaluateMoveAfter(Move move2Bevaluated, VBoard fb) {
+        return evaluateMoveAfter(move2Bevaluated, fb, null);
+    }
+
+    /** like evaluateMoveAfter(move2Bevaluated, fb), but takes over reusableEval (if not null) instead of evaluating
+     * the local effects again - see PreEvalReuse. Legality and the game end are still checked on fb.
+     */
+    Move evaluateMoveAfter(Move move2Bevaluated, VBoard fb, Evaluation reusableEval) {
         if (move2Bevaluated == null || !move2Bevaluated.isALegalMoveAfter(fb))
             return null;
         VBoard fbAfter = fb.createNext(move2Bevaluated);
         if (fbAfter == null)
             return null;
-        move2Bevaluated.setPostVBoard(fbAfter);
 
-        Move result = new Move(move2Bevaluated);
+        final Evaluation eval = new Evaluation();
+        Move result = new Move(move2Bevaluated, eval);
         if (fbAfter.checkAndSetGameEndEval(result, ""))
             return result;
+        if (reusableEval != null) {
+            eval.addEval(reusableEval);
+            result.setPostVBoard(fbAfter);
+            return result;
+        }
+        // (game end evals depend on the depth, so they are not cached - nor if reasons are needed)
+        final EvalCache cache = board().config().recordsReasons() ? null : board().getEvalCache();
+        final long positionHash = fb.positionHash();
+        if (cache != null && cache.addCachedEvalTo(positionHash, move2Bevaluated, eval)) {
+            result.setPostVBoard(fbAfter);
+            return result;
+        }
 
-        if (DEBUGMSG_MOVEEVAL)
+        if (board().config().debugMsgMoveEval)
             System.out.println("Evaluating move " + move2Bevaluated + " after <"+fb+">:");
-        final Evaluation eval = new Evaluation();
 
         // basic evaluation
         //not any more, fbs are now always safe copies...: VBoard fb_safe = VBoard.createSafeCopy(fb);
-        eval.addEval(move2Bevaluated.getSimpleMoveEvalAfter(fb));
-        if (SHOW_REASONS && !eval.isAboutZero())
-            eval.addReason("direct_effect+" + eval);
+        addEvalWithReason(DIRECT_EFFECT, move2Bevaluated, eval, move2Bevaluated.getSimpleMoveValueAfter(fb), 0);
 
         // a) include moves that now could take this piece at the toPos
         Square toSq = move2Bevaluated.toSq();
@@ -210,17 +250,17 @@ public class ChessPiece {
         //                .filter(oppMove -> oppMove.isALegalMoveAfter(fbAfter))
         //                .forEach(oppMove -> {
 
-        Evaluation oppFUpEval = getLocalEvaluatedFollowUpMoveAtSqAfter(toSq, fbAfter);
-        if (oppFUpEval != null && isKing(move2Bevaluated.piece().pieceType()))
+        int oppFUpEval = getLocalFollowUpEvalAtSqAfter(toSq, fbAfter);
+        if (oppFUpEval != NO_CAPTURE_POSSIBLE && isKing(move2Bevaluated.piece().pieceType()))
             return null;  // illegal move, king cannot run into check
-        if (oppFUpEval != null && oppFUpEval.isGoodForColor(opponentColor(color()))) {
-            addEvalWithReason("likely_being_captured_on_"+toSq, null, eval, oppFUpEval);
+        if (oppFUpEval != NO_CAPTURE_POSSIBLE && Evaluation.rawEvalIsGoodForColor(oppFUpEval, opponentColor(color()))) {
+            addEvalWithReason(LIKELY_BEING_CAPTURED, move2Bevaluated, eval, oppFUpEval, 0);
         }
-        else if (oppFUpEval != null) {
-            if (DEBUGMSG_MOVEEVAL)
+        else if (oppFUpEval != NO_CAPTURE_POSSIBLE) {
+            if (board().config().debugMsgMoveEval)
                 System.out.println(toSq+" seems save to go to.");
         }
-        boolean toSqIsSafe = oppFUpEval == null || oppFUpEval.isGoodForColor(color());
+        boolean toSqIsSafe = oppFUpEval == NO_CAPTURE_POSSIBLE || Evaluation.rawEvalIsGoodForColor(oppFUpEval, color());
 
 //        else if (SHOW_REASONS)
 //            eval.addReason("<"+fbAfter+">");
@@ -244,13 +284,10 @@ public class ChessPiece {
             if (cheapestFromPosAttacker != null) {
                 Move disabledCapture = cheapestFromPosAttacker.getDirectMoveAfter(move2Bevaluated.from(), fb);
                 if (disabledCapture != null) {
-                    Evaluation disabledCaptureEval = cheapestFromPosAttacker.getMoveEvalInclFollowUpAfter(disabledCapture, fb);
-                    if (disabledCaptureEval != null && !disabledCaptureEval.isAboutZero()) {
-                        disabledCaptureEval
-                                .devideBy(8)
-                                .timeWarp(+1)  // TODO!: +1 is not supported correctly by the (older) eval-comparison
-                                .invert();
-                        addEvalWithReason("avoiding_capture_by", disabledCapture, eval, disabledCaptureEval);
+                    int disabledCaptureEval = cheapestFromPosAttacker.getMoveValueInclFollowUpAfter(disabledCapture, fb);
+                    if (disabledCaptureEval != NO_CAPTURE_POSSIBLE && !Evaluation.isAboutZero(disabledCaptureEval, 0)) {
+                        // devided by 8, one move later (TODO!: +1 is not supported correctly by the (older) eval-comparison) and inverted
+                        addEvalWithReason(AVOIDING_CAPTURE_BY, disabledCapture, eval, -(disabledCaptureEval >> 3), 1);
                     }
                 }
             }
@@ -260,34 +297,35 @@ public class ChessPiece {
 
         // c) enable moves that now can slide over this square here
         //Todo?: should perhaps not add all moves, but only all best moves per piece
-        fbAfter.getSingleMovesStreamSlidingOver(fromSq)
+        // (the moves sliding over fromSq, that are unblocked after the move, but were not before)
+        fbAfter.getUnblockedMovesSlidingOverButNotOn(fromSq, fb).stream()
                 .filter(move -> move.piece() != move2Bevaluated.piece()
                                 && move.to() != move2Bevaluated.to()  // these cases were covered in a) already
                                 && move.isCoveringAfter(fbAfter))
                 .forEach(move -> {
-                            adaptEvalForEnabledMove("enabling", move, eval, fb, fbAfter);
+                            adaptEvalForEnabledMove(move, eval, fb, fbAfter);
                             if (move.piece().color() != color())
                                 enabledOppMoves.add(move);
                 });
 
         // e) see what this piece can capture from here
         // needs to be checked even if position is not safe, because it also discovers if this move gives check
-        List<Move> bestDirectFollowUpMoves = getBestEvaluatedDirectFollowUpMovesAfterExceptReachableFromAfter(move2Bevaluated, fb);
+        List<Move> bestDirectFollowUpMoves = getBestEvaluatedDirectFollowUpMovesAfterExceptReachableFromAfter(move2Bevaluated, fb, fbAfter);
         if (!bestDirectFollowUpMoves.isEmpty()) {
             Move bestFUp = bestDirectFollowUpMoves.get(0);
-            if (move2Bevaluated.getPostVBoard().isCheck()) {
+            if (fbAfter.isCheck()) {
                 //fbAfter.addCheck(bestFUp); already added in getBest.... above
-                addEvalWithReason("checking", bestFUp, eval,
-                                    new Evaluation( evalForColor( toSqIsSafe ? EVAL_HALFAPAWN : (EVAL_TENTH>>1), color()), 0));
+                addEvalWithReason(CHECKING, bestFUp, eval,
+                                    evalForColor( toSqIsSafe ? EVAL_HALFAPAWN : (EVAL_TENTH>>1), color()), 0);
             }
             if (toSqIsSafe && bestFUp != null && bestFUp.getEval().isGoodForColor(color())) {
                 Evaluation bestFUpEval = bestFUp.getEval();
-                if (move2Bevaluated.getPostVBoard().isCheck()) {
-                    addEvalWithReason("check-forking", bestFUp, eval, bestFUpEval);
+                if (fbAfter.isCheck()) {
+                    addEvalWithReason(CHECK_FORKING, bestFUp, eval, bestFUpEval);
                 } else {
                     bestFUpEval.devideBy(2)    // the best followUp is probably not forced
                             .timeWarp(+2);  // attention: may have side-effect on bestFUp (which is "luckily" not used any more)
-                    addEvalWithReason("threatening", bestFUp, eval, bestFUpEval);
+                    addEvalWithReason(THREATENING, bestFUp, eval, bestFUpEval);
                     if (bestDirectFollowUpMoves.size() == 2 && bestDirectFollowUpMoves.get(1).getEval().isGoodForColor(color())) {
                         // two good followup moves means, we have a fork
                         Move secondBestDirectFollowUpMove = bestDirectFollowUpMoves.get(1);
@@ -297,7 +335,7 @@ public class ChessPiece {
                         // - but this needs recursion, which we stopped here,, so for now let's conservatively take
                         // half the effect...
                         secondBestFUpEval.devideBy(2);
-                        addEvalWithReason("forking", secondBestDirectFollowUpMove, eval, secondBestFUpEval);
+                        addEvalWithReason(FORKING, secondBestDirectFollowUpMove, eval, secondBestFUpEval);
                     }
                 }
             }
@@ -313,13 +351,14 @@ public class ChessPiece {
             ChessPiece capturedPce = fb.getPieceAt(move2Bevaluated.to());
             if (capturedPce == null) {
                 // there was nobody there, so we really block the toSq
-                fbAfter.getSingleMovesStreamSlidingOver(toSq)
+                // (the moves sliding over toSq, that were unblocked before, but are not after the move)
+                fb.getUnblockedMovesSlidingOverButNotOn(toSq, fbAfter).stream()
                         .filter(m -> m.piece() != move2Bevaluated.piece()
                                      && m.to() != move2Bevaluated.from()    // do not count blocking moves to my ex position
                                      && m.isCoveringAfter(fb)            // it was covering before
                                      && !m.isCoveringAfter(fbAfter))     // but not any more
                         .forEach(blockedMove ->
-                            adaptEvalForDisabledMove("blocking", blockedMove, eval, fb, fbAfter)
+                            adaptEvalForDisabledMove(BLOCKING_COVER, BLOCKING_CAPTURE, blockedMove, eval, fb, fbAfter)
                         );
                 // todo: collect the missed chances of the captured pieces in the exchange sequence
             }
@@ -329,7 +368,7 @@ public class ChessPiece {
                 capturedPce.coveringMovesStreamAfter(fb)
                         .filter(m -> !m.isStraightMovingPawn())
                         .forEach( exMove ->
-                            adaptEvalForDisabledMove("captured", exMove, eval, fb, fbAfter)
+                            adaptEvalForDisabledMove(CAPTURED_COVER, CAPTURED_CAPTURE, exMove, eval, fb, fbAfter)
                         );
             }
 
@@ -350,14 +389,14 @@ public class ChessPiece {
                     continue;  // I was not covering myself before the move and I will not do so after the move...
                 if (distanceBetween(move2Bevaluated.to(), fbAfter.kingPos(opponentColor(move2Bevaluated.piece().color()))) == 1) {
                     // independent of attacking pieces it is always beneficial to attack around the enemy king
-                    addEvalWithReason("king_area_attack", move, eval, new Evaluation(evalForColor(EVAL_TENTH, move2Bevaluated.piece().color()), 0));
+                    addEvalWithReason(KING_AREA_ATTACK, move, eval, evalForColor(EVAL_TENTH, move2Bevaluated.piece().color()), 0);
                 }
                 if (fbAfter.isSquareEmpty(move.to()))
                     continue;  // there is no piece, so I'd cover or attack nothing...
                 if (fbAfter.hasPieceOfColorAt(opponentColor(color()), move.to())) {
                     // there is no own piece, so I'd cover nothing - but I can put pressure on an opponent's piece
-                    addEvalWithReason("pressuring", move, eval,
-                            new Evaluation( evalForColor( 3+((abs(reverseBaseEval())+EVAL_HALFAPAWN)>>7), color()), 2));
+                    addEvalWithReason(PRESSURING, move, eval,
+                            evalForColor( 3+((abs(reverseBaseEval())+EVAL_HALFAPAWN)>>7), color()), 2);
                     continue;
                 }
                 Move prevMove2mTo = getMove(oldFromPos, move.to());
@@ -366,16 +405,18 @@ public class ChessPiece {
                     unchangedCoverages.add(prevMove2mTo);
                     continue;
                 }
-                Evaluation evalBefore = getLocalEvaluatedFollowUpMoveAtSqAfter(move.toSq(), fb);
-
-                if (evalBefore == null)  // no taking was possible for opponent
-                    evalBefore = new Evaluation(-evalForColor(EVAL_TENTH, color()), 2);
-                Evaluation evalAfter = getLocalEvaluatedFollowUpMoveAtSqAfter(move.toSq(), fbAfter);
-                Evaluation evalDelta;
-                if (evalAfter == null)               // no taking will be possible for opponent
-                    evalDelta = evalBefore.invert(); // careful, sideeffect: also inverts evalBefore
+                int clashBefore = getLocalFollowUpEvalAtSqAfter(move.toSq(), fb);
+                long evalBefore = clashBefore == NO_CAPTURE_POSSIBLE
+                        ? Evaluation.packedOf(-evalForColor(EVAL_TENTH, color()), 2)  // no taking was possible for opponent
+                        : Evaluation.packedOf(clashBefore, 0);
+                int clashAfter = getLocalFollowUpEvalAtSqAfter(move.toSq(), fbAfter);
+                long evalDelta;
+                if (clashAfter == NO_CAPTURE_POSSIBLE)               // no taking will be possible for opponent
+                    evalDelta = -evalBefore;
                 else {
-                    evalDelta = evalAfter.subtractEval(evalBefore).devideBy(8);  // careful, sideeffect: also changes evalAfter
+                    evalDelta = clashBefore == NO_CAPTURE_POSSIBLE
+                            ? Evaluation.packedOf(clashAfter >> 3, 0) + Evaluation.packedOf(evalForColor(EVAL_TENTH, color()) >> 3, 2)
+                            : Evaluation.packedOf((clashAfter - clashBefore) >> 3, 0);
                     // only take fraction, because if opponent takes, this will be reflected in the bestOppMove below (at least in simple situations(
                 }
 //                if (evalDelta.isGoodForColor(color()) && evalAfter.isGoodForColor(opponentColor(color()))) {
@@ -386,7 +427,7 @@ public class ChessPiece {
 //                        bestDefenceMove = move;
 //                    }
 //                }
-                addEvalWithReason("covering", move, eval, evalDelta);
+                addEvalWithReason(COVERING, move, eval, evalDelta);
             }
             // treat best defended square special? - not for now
 //            if (bestDefenceMove != null) {
@@ -407,16 +448,17 @@ public class ChessPiece {
                                   && fb.hasPieceOfColorAt(color(), m.to())
                                   && !unchangedCoverages.contains(m))
                     .forEach( noMoreCoveringMove -> {
-                        Evaluation evalBefore = getLocalEvaluatedFollowUpMoveAtSqAfter(noMoreCoveringMove.toSq(), fb);
-                        if (evalBefore == null)  // no taking was possible for opponent
-                            evalBefore = new Evaluation(evalForColor(EVAL_TENTH, color()), 2);
-                        Evaluation evalAfter = getLocalEvaluatedFollowUpMoveAtSqAfter(noMoreCoveringMove.toSq(), fbAfter);
-                        Evaluation evalDelta;
-                        if (evalAfter == null)               // no taking will be possible for opponent
-                            evalDelta = evalBefore.invert(); // careful, sideffect: also invers evalBefor
+                        int clashBefore = getLocalFollowUpEvalAtSqAfter(noMoreCoveringMove.toSq(), fb);
+                        long evalBefore = clashBefore == NO_CAPTURE_POSSIBLE
+                                ? Evaluation.packedOf(evalForColor(EVAL_TENTH, color()), 2)  // no taking was possible for opponent
+                                : Evaluation.packedOf(clashBefore, 0);
+                        int clashAfter = getLocalFollowUpEvalAtSqAfter(noMoreCoveringMove.toSq(), fbAfter);
+                        long evalDelta;
+                        if (clashAfter == NO_CAPTURE_POSSIBLE)               // no taking will be possible for opponent
+                            evalDelta = -evalBefore;
                         else
-                            evalDelta = evalAfter.subtractEval(evalBefore);
-                        addEvalWithReason("leaving_behind", noMoreCoveringMove, eval, evalDelta);
+                            evalDelta = Evaluation.packedOf(clashAfter, 0) - evalBefore;
+                        addEvalWithReason(LEAVING_BEHIND, noMoreCoveringMove, eval, evalDelta);
                     });
 
             // g) see what this piece cannot capture any more after the move
@@ -438,7 +480,7 @@ public class ChessPiece {
                 // todo: check if this square is still reasonable after fbAfter+missedMove for a comeback
                 Evaluation delta = new Evaluation(bestMissedMove[0].getEval()).timeWarp(+4).devideBy(2)  // the possible comeback
                         .subtractEval(lostBenefit);
-                addEvalWithReason("loosing", bestMissedMove[0], eval, delta);
+                addEvalWithReason(LOOSING, bestMissedMove[0], eval, delta);
             }
             // todo? do same for all, not just the best?
 
@@ -456,10 +498,10 @@ public class ChessPiece {
                             default -> EVAL_TENTH - (EVAL_TENTH>>2);
                         },
                         move2Bevaluated.piece().color());
-                Evaluation pa = new Evaluation(benefit, 0);  // moving a pawn is always beneficial
+                long pa = Evaluation.packedOf(benefit, 0);  // moving a pawn is always beneficial
                 if (pawnRank == 6)
-                    pa.addEval(benefit, 2);  // additional indication of soon promotion
-                addEvalWithReason("pawn_advance", move2Bevaluated, eval, pa);
+                    pa += Evaluation.packedOf(benefit, 2);  // additional indication of soon promotion
+                addEvalWithReason(PAWN_ADVANCE, move2Bevaluated, eval, pa);
             }
         }
 
@@ -470,51 +512,55 @@ public class ChessPiece {
         List<Move> bestOppMoves = new ArrayList<>(1);
         fbAfter.getBestPositiveCaptureMovesUnlessInOrTo(opponentColor(color()), bestOppMoves, 1, enabledOppMoves, move2Bevaluated.to());
         if (!bestOppMoves.isEmpty()) {
-            addEvalWithReason("counter-move", bestOppMoves.get(0), eval, bestOppMoves.get(0).getEval());
+            addEvalWithReason(COUNTER_MOVE, bestOppMoves.get(0), eval, bestOppMoves.get(0).getEval());
         }
 
-        result.setEval(eval);
+        if (cache != null)
+            cache.put(positionHash, move2Bevaluated, eval);
         result.setPostVBoard(fbAfter);
         return result;
     }
 
     /**
      * Decides if it is a capture or a coverage that is blocked and subtracts the estimated benefit to eval
-     * and makes debug output resp. sets the reason in evaluation.
-     * @param reason  just for the debug output and reason set in evaluation
-     * @param move also only needed for the debug output and reason set in evaluation
+     * and makes debug output resp. records the reason for evaluation.
+     * @param coverTerm reason to record if a coverage is blocked
+     * @param captureTerm reason to record if a capture is blocked
+     * @param move also only needed for the debug output and reason recorded for evaluation
      * @param eval will be changed accordingly
      * @param fb_unsafe the current board - - is called _unsafe, because it will
      *                  create its own followup-boards, so it possibly breaks the move-list, if this board is not
      *                  at the top (bottom) of the depth-search
      * @param fbAfter - board if the move had been played
      */
-    private void adaptEvalForDisabledMove(final String reason, final Move move, final Evaluation eval,
+    private void adaptEvalForDisabledMove(final EvalReasons.Term coverTerm, final EvalReasons.Term captureTerm,
+                                          final Move move, final Evaluation eval,
                                           final VBoard fb_unsafe, final VBoard fbAfter) {
-        adaptEvalForMove(reason, move, eval, fb_unsafe, fbAfter, false);
+        adaptEvalForMove(coverTerm, captureTerm, null, move, eval, fb_unsafe, fbAfter, false);
     }
 
     /**
      * Decides if it is a capture or a coverage that is enabled(uncovered) and adds or
-     * subtracts the estimated benefit to eval and makes debug output resp. sets the reason in evaluation.
-     * @param reason  just for the debug output and reason set in evaluation
-     * @param move also only needed for the debug output and reason set in evaluation
+     * subtracts the estimated benefit to eval and makes debug output resp. records the reason for evaluation.
+     * @param move also only needed for the debug output and reason recorded for evaluation
      * @param eval will be changed accordingly
      * @param fb_unsafe the current board - - is called _unsafe, because it will
      *                  create its own followup-boards, so it possibly breaks the move-list, if this board is not
      *                  at the top (bottom) of the depth-search
      * @param fbAfter - board if the move had been played
      */
-    private void adaptEvalForEnabledMove(final String reason, final Move move, final Evaluation eval,
+    private void adaptEvalForEnabledMove(final Move move, final Evaluation eval,
                                          final VBoard fb_unsafe, final VBoard fbAfter) {
-        adaptEvalForMove(reason, move, eval, fb_unsafe, fbAfter, true);
+        adaptEvalForMove(ENABLING_COVER, ENABLING_CAPTURE, ENABLING_ILLEGAL, move, eval, fb_unsafe, fbAfter, true);
     }
 
     /**
      * Decides if it is a capture or a coverage that is blocked or enabled(uncovered), adds ot
-     * subtracts the estimated benefit to eval and makes debug output resp. sets the reason in evaluation.
-     * @param reasonPrefix  just for the debug output and reason set in evaluation
-     * @param influencedMove also only needed for the debug output and reason set in evaluation
+     * subtracts the estimated benefit to eval and makes debug output resp. records the reason for evaluation.
+     * @param coverTerm reason to record if a coverage is blocked or enabled
+     * @param captureTerm reason to record if a capture is blocked or enabled
+     * @param illegalTerm reason to record if enabling a capture of the own king (only needed if doAdd)
+     * @param influencedMove also only needed for the debug output and reason recorded for evaluation
      * @param eval will be changed accordingly
      * @param fb_unsafe the current board - - is called _unsafe, because it will
      *      *                  create its own followup-boards, so it possibly breaks the move-list, if this board is not
@@ -522,7 +568,9 @@ public class ChessPiece {
      * @param fbAfter - board if the move had been enabled/uncovered (not after move was made!)
      * @param doAdd adds if true (for uncovering), subtracts otherwise (for blocking)
      */
-    private void adaptEvalForMove(final String reasonPrefix, final Move influencedMove, final Evaluation eval,
+    private void adaptEvalForMove(final EvalReasons.Term coverTerm, final EvalReasons.Term captureTerm,
+                                  final EvalReasons.Term illegalTerm,
+                                  final Move influencedMove, final Evaluation eval,
                                   final VBoard fb_unsafe, final VBoard fbAfter, final boolean doAdd) {
         ChessPiece influencedMover = influencedMove.piece();
         ChessPiece toSqPce = doAdd ? fbAfter.getPieceAt(influencedMove.to())
@@ -535,20 +583,20 @@ public class ChessPiece {
             int rawEval0 = evalForColor(EVAL_TENTH, toSqPce.color());
             if (!doAdd)
                 rawEval0 = -rawEval0;
-            Evaluation delta = new Evaluation(rawEval0, 0 );  // any color covers immediately now
-            addEvalWithReason(reasonPrefix + "_cover", influencedMove, eval, delta);
+            addEvalWithReason(coverTerm, influencedMove, eval, rawEval0, 0);  // any color covers immediately now
         }
         else {
             // a previously possible capture at move.toSq is enabled/disabled
-            Evaluation delta = influencedMover.getMoveEvalInclFollowUpAfter(influencedMove, fb_unsafe);
-            if (delta == null)
+            int delta = influencedMover.getMoveValueInclFollowUpAfter(influencedMove, fb_unsafe);
+            if (delta == NO_CAPTURE_POSSIBLE)
                 return;
             //todo: looking only at the blocked capture is not sufficient, it could have a covering-contribution,
             // but not be the first best to capture. So at least give a constant penalty for the lost covering (like above)
-            if (!delta.isGoodForColor(influencedMover.color()))
-                delta = new Evaluation(evalForColor(EVAL_TENTH, toSqPce.color()), 0 );  // any color covers immediately now
+            if (!Evaluation.rawEvalIsGoodForColor(delta, influencedMover.color()))
+                delta = evalForColor(EVAL_TENTH, toSqPce.color());  // any color covers immediately now
+            int deltaLevel = 0;
             if (toSqPce.color() == influencedMover.color()) { // I could only have taken one move later, but no more
-                delta.timeWarp(+2);
+                deltaLevel = 2;
             }
             else {
                 if (!doAdd) {
@@ -559,79 +607,96 @@ public class ChessPiece {
                 //TODO!!: assert !(color() == toSqPce.color() && isKing(toSqPce.pieceType()));   // cannot uncover move enabling check to my king, would have been an illegal move
                 //  for now assume this is like checkmating myself
                 if (color() == toSqPce.color() && isKing(toSqPce.pieceType())) {
-                    addEvalWithReason(reasonPrefix + "_illegal", influencedMove, eval,
-                            delta.setEval(ChessBoard.checkmateEvalIn(color(),-1),0));
+                    addEvalWithReason(illegalTerm, influencedMove, eval,
+                            ChessBoard.checkmateEvalIn(color(),-1), 0);
                     return;
                 }
             }
             if (!doAdd)
-                delta.invert();
+                delta = -delta;
             else if (isKing(toSqPce.pieceType())) {
                 if (toSqPce.color() == color())         // my own king gets checked - this must be an illegal move
                     assert false;
                 // already set in createNext(): else fbAfter.addCheckingMove(influencedMove);
             }
-            addEvalWithReason(reasonPrefix + "_capture", influencedMove, eval, delta);
+            addEvalWithReason(captureTerm, influencedMove, eval, delta, deltaLevel);
         }
     }
 
-    private static void addEvalWithReason(String reason, Move move, Evaluation eval, Evaluation delta) {
-        String explanation = reason + "_" + (move == null ? "" : move) + "+" + delta;
-        if (!delta.isAboutZero()) {
-            if (SHOW_REASONS)
-                eval.addReason(explanation);
-            if (DEBUGMSG_MOVEEVAL)
-                System.out.println("  " + explanation);
-        }
+    /** adds delta to eval and - only if reasons are shown - records term as reason for it
+     *  (rendered to text only when needed, see EvalReasons).
+     */
+    private void addEvalWithReason(EvalReasons.Term term, Move move, Evaluation eval, Evaluation delta) {
+        if (board().config().recordsReasons() && !delta.isAboutZero())
+            debugPrintReason(board().getEvalReasons().record(eval, term, move, delta));
         eval.addEval(delta);
     }
 
-    /** returns the potential benefit of capturing with this move + checks if recapturing is reasonably possible
-     *  (after some guessing, not precise!) for the opponent. If so, this is also calculated in.
+    /** like addEvalWithReason(..., Evaluation delta), but for a delta only at one future level.
+     *  Does not allocate anything.
+     */
+    private void addEvalWithReason(EvalReasons.Term term, Move move, Evaluation eval, int delta, int futureLevel) {
+        if (board().config().recordsReasons() && !Evaluation.isAboutZero(delta, futureLevel))
+            debugPrintReason(board().getEvalReasons().record(eval, term, move, delta, futureLevel));
+        eval.addEval(delta, futureLevel);
+    }
+
+    /** like addEvalWithReason(..., Evaluation delta), but for a packed delta (see Evaluation.toPacked()).
+     *  Does not allocate anything.
+     */
+    private void addEvalWithReason(EvalReasons.Term term, Move move, Evaluation eval, long packedDelta) {
+        if (board().config().recordsReasons() && !Evaluation.packedIsAboutZero(packedDelta))
+            debugPrintReason(board().getEvalReasons().record(eval, term, move, packedDelta));
+        eval.addPacked(packedDelta);
+    }
+
+    private void debugPrintReason(int reasonRecord) {
+        if (board().config().debugMsgMoveEval)
+            System.out.println("  " + board().getEvalReasons().renderRecord(reasonRecord));
+    }
+
+    /** returns the potential benefit of capturing with this move + what the opponent can reasonably capture back
+     *  and so on (static exchange evaluation, so still not precise, e.g. checks are not considered).
      * @param move the move to evaluate
-     * @param fb_unsafe "future board"= base position of current evaluation - is called _unsafe, because it will
-     *                  create its own followup-boards, so it possibly breaks the move-list, if this board is not
-     *                  at the top (bottom) of the depth-search
-     * @return
+     * @param fb "future board"= base position of current evaluation. No follow-up boards are created.
+     * @return the evaluation or null if the move is not legal on fb concerning checks.
      */
-    Evaluation getMoveEvalInclFollowUpAfter(final Move move, final VBoard fb_unsafe) {
-        VBoard fbNext = fb_unsafe.createNext(move);
-        if (fbNext == null)
+    Evaluation getMoveEvalInclFollowUpAfter(final Move move, final VBoard fb) {
+        int value = getMoveValueInclFollowUpAfter(move, fb);
+        if (value == NO_CAPTURE_POSSIBLE)
             return null;
-        Evaluation atToSqEval = move.getSimpleMoveEvalAfter(fb_unsafe);
-        Evaluation oppFUpEval = getLocalEvaluatedFollowUpMoveAtSqAfter(move.toSq(), fbNext);
-        if (oppFUpEval != null && oppFUpEval.isGoodForColor(opponentColor(move.piece().color()))) {
-            atToSqEval.addEval(oppFUpEval);
-        }
-        // atToSqEval.addEval(fbNext.getClashResultAt(move.to()), 0);
-        return atToSqEval;
+        return new Evaluation(value, 0);
     }
 
-    /** returns the (approximated) benefit to capture the piece on this square.
-     *  if this is not beneficial, it still returns the evaluation (which is negative for the opponent, so
-     * he would probably not capture...)
+    /** like getMoveEvalInclFollowUpAfter(), but without creating an Evaluation
+     * @return the value at future level 0 or NO_CAPTURE_POSSIBLE if the move is not legal on fb concerning checks.
+     */
+    int getMoveValueInclFollowUpAfter(final Move move, final VBoard fb) {
+        if (!fb.moveIsLegalConcerningCheck(move))
+            return NO_CAPTURE_POSSIBLE;
+        return fb.staticExchangeEvalOfMove(move);
+    }
+
+    /** returns the (approximated) benefit for the opponent to capture the piece on this square - if it is good
+     *  for the opponent.
      * @param toSq position to evaluate
-     * @param fb_unsafe the board on which to evaluate the local clash (=reasonable followUp) on toSq
-     * @return benefit or null if it is not possible to capture.
+     * @param fb the board on which to evaluate the local clash (=reasonable followUp) on toSq
+     * @return benefit (at future level 0) or NO_CAPTURE_POSSIBLE if it is not possible or not good for the
+     *  opponent to capture.
      */
-    private Evaluation getLocalEvaluatedFollowUpMoveAtSqAfter(final Square toSq, final VBoard fb_unsafe) {
+    private int getLocalFollowUpEvalAtSqAfter(final Square toSq, final VBoard fb) {
         int color = opponentColor(color());
-        ChessPiece cheapestToPosAttacker = fb_unsafe.cheapestAttackerOfColor(toSq.pos(), color);
-        if (cheapestToPosAttacker == null)
-            return null;
-        Move nextCaptureMove = cheapestToPosAttacker.getDirectMoveAfter(toSq.pos(), fb_unsafe);
-        if (nextCaptureMove == null)
-            return null;
-        if (DEBUGMSG_MOVEEVAL)
-            System.out.print("local-capture-sequence+" + nextCaptureMove + " ");
-        // Can the opponent capture safely? or will he also lose his piece - or something in between...
-        Evaluation captureEval = cheapestToPosAttacker.getMoveEvalInclFollowUpAfter(nextCaptureMove, fb_unsafe);
-        if (captureEval != null && captureEval.isGoodForColor(opponentColor(color()))) {
-            return captureEval;
+        int clashResult = fb.staticExchangeEvalAt(toSq.pos(), color);
+        if (clashResult == NO_CAPTURE_POSSIBLE)
+            return NO_CAPTURE_POSSIBLE;
+        if (Evaluation.rawEvalIsGoodForColor(clashResult, color)) {
+            if (board().config().debugMsgMoveEval)
+                System.out.print("local-capture-sequence@" + toSq + "=" + clashResult + " ");
+            return clashResult;
         }
-        if (DEBUGMSG_MOVEEVAL)
-            System.out.println("Capturing back at "+ toSq +" does not seem possible for " + cheapestToPosAttacker);
-        return null;
+        if (board().config().debugMsgMoveEval)
+            System.out.println("Capturing back at "+ toSq +" does not seem possible for " + colorName(color));
+        return NO_CAPTURE_POSSIBLE;
     }
 
     /** returns the (approximated) benefit to capture the piece on this square.
@@ -653,7 +718,7 @@ public class ChessPiece {
 //        ChessPiece attackedPce = fb.getPieceAt(toSq.pos());
 //        if (attackedPce == null)
 //            return null;
-        if (DEBUGMSG_MOVEEVAL)
+        if (board().config().debugMsgMoveEval)
             System.out.print("enabling@to: " + enabledCaptureMove + " ");
         Evaluation captureEval = enabledCaptureMove.getSimpleMoveEvalAfter(fb);
         // as we do not go deeper here, we can actually not know the correct evaluation.
@@ -661,35 +726,36 @@ public class ChessPiece {
         ChessPiece cheapestToPosDefender = toSq.cheapestDefenderHereForPieceAfter(this, fb);
         if (cheapestToPosDefender != null) {
             // it is defended at least by one, so opponent will probably be lost, too
-            int oppValue = enabledCaptureMove.piece().getValue();
+            int oppValue = enabledCaptureMove.piece().getValueAfter(fb);
             captureEval.addEval(-(oppValue - (oppValue >> 2)), 0);  // take 3/4 of opponent - but note, this favours captures!
             ChessPiece cheapestOppDefender = toSq.cheapestDefenderHereForPieceAfter(enabledCaptureMove.piece(), fb);  //restriction: does not generate next fb (fb+enabledCaptureMove) - but if we go too far, we could almost also start a deep simulation here ... :-)
             if (cheapestOppDefender != null)
-                captureEval.addEval(-cheapestToPosDefender.getValue() >> 1, 1);
+                captureEval.addEval(-cheapestToPosDefender.getValueAfter(fb) >> 1, 1);
         }
         if (captureEval.isGoodForColor(opponentColor(color()))) {
             return captureEval;
         }
-        if (DEBUGMSG_MOVEEVAL)
+        if (board().config().debugMsgMoveEval)
             System.out.println("Capturing back at "+ toSq +" does not seem possible (as defended by " + cheapestToPosDefender + ").");
         return captureEval;  // return anyway - the "price to kill"
     }
 
     private Stream<Move> getPositiveDirectMovesAfter(VBoard fb) {
         return fb.getSingleMovesStreamFromPce(this)
-                .filter(m -> m.getSimpleMoveEvalAfter(fb).isGoodForColor(color()));
+                .filter(m -> Evaluation.rawEvalIsGoodForColor(m.getSimpleMoveValueAfter(fb), color()));
         //Todo? could even go 1 step further with a "bestOld2ndFollowUpMove" in fl=2, but this first needs cached results there at the piece for fb
     }
 
     /** gets the 2 best follow-up moves that have not already been reachable from oldFromPos
      * @param move the move leading to the board as it is now
      * @param preBoard the board before, matching oldPos
+     * @param fb_unsafe the board after move
      * @return List of max 2 moves - not including "capturing the king"
      */
     private List<Move> getBestEvaluatedDirectFollowUpMovesAfterExceptReachableFromAfter(
             final Move move,
-            final VBoard preBoard) {
-        VBoard fb_unsafe = move.getPostVBoard();
+            final VBoard preBoard,
+            final VBoard fb_unsafe) {
         int oldFromPos = move.from();
         List<Move> bestFollowUpMoves = new ArrayList<>();
         List<Move> rest = new ArrayList<>();
@@ -725,8 +791,9 @@ public class ChessPiece {
             return false;
         }
         // loop over all moves and check if at least one is legal now
-        for (Move m : moves[pos()]) {
-            if (m.isALegalMoveNow()) {
+        MovesCollection movesHere = moves[pos()];
+        for (int i = 0; i < movesHere.size(); i++) {
+            if (movesHere.get(i).isALegalMoveNow()) {
                 return true;
             }
         }
@@ -810,8 +877,8 @@ public class ChessPiece {
 
     public boolean isCoveringTargetAfter(Move move, VBoard fb) {
         // loop over all intermediate Sqs, if they are free
-        for (Square iSq : move.intermedSqs()) {
-            if (!iSq.isEmptyAfter(fb))
+        for (int iPos : move.intermedPos()) {
+            if (!fb.isSquareEmpty(iPos))
                 return false;
         }
         return true;
@@ -923,250 +990,4 @@ public class ChessPiece {
         return !vBoard.hasPieceOfColorAt(color(), move.to());
     }
 
-    int[][] moveMatrix4King = new int[][] {
-            /* rank 8: */ { 1, 9, 8 },  { 2, 0, 8, 10, 9 },  { 3, 1, 9, 11, 10 },  { 4, 2, 10, 12, 11 },  { 5, 3, 11, 13, 12 },  { 6, 4, 12, 14, 13 },  { 7, 5, 13, 15, 14 },  { 6, 14, 15 },
-            /* rank 7: */ { 9, 1, 17, 16, 0 },  { 10, 8, 2, 16, 0, 18, 17, 1 },  { 11, 9, 3, 17, 1, 19, 18, 2 },  { 12, 10, 4, 18, 2, 20, 19, 3 },  { 13, 11, 5, 19, 3, 21, 20, 4 },  { 14, 12, 6, 20, 4, 22, 21, 5 },  { 15, 13, 7, 21, 5, 23, 22, 6 },  { 14, 22, 6, 23, 7 },
-            /* rank 6: */ { 17, 9, 25, 24, 8 },  { 18, 16, 10, 24, 8, 26, 25, 9 },  { 19, 17, 11, 25, 9, 27, 26, 10 },  { 20, 18, 12, 26, 10, 28, 27, 11 },  { 21, 19, 13, 27, 11, 29, 28, 12 },  { 22, 20, 14, 28, 12, 30, 29, 13 },  { 23, 21, 15, 29, 13, 31, 30, 14 },  { 22, 30, 14, 31, 15 },
-            /* rank 5: */ { 25, 17, 33, 32, 16 },  { 26, 24, 18, 32, 16, 34, 33, 17 },  { 27, 25, 19, 33, 17, 35, 34, 18 },  { 28, 26, 20, 34, 18, 36, 35, 19 },  { 29, 27, 21, 35, 19, 37, 36, 20 },  { 30, 28, 22, 36, 20, 38, 37, 21 },  { 31, 29, 23, 37, 21, 39, 38, 22 },  { 30, 38, 22, 39, 23 },
-            /* rank 4: */ { 33, 25, 41, 40, 24 },  { 34, 32, 26, 40, 24, 42, 41, 25 },  { 35, 33, 27, 41, 25, 43, 42, 26 },  { 36, 34, 28, 42, 26, 44, 43, 27 },  { 37, 35, 29, 43, 27, 45, 44, 28 },  { 38, 36, 30, 44, 28, 46, 45, 29 },  { 39, 37, 31, 45, 29, 47, 46, 30 },  { 38, 46, 30, 47, 31 },
-            /* rank 3: */ { 41, 33, 49, 48, 32 },  { 42, 40, 34, 48, 32, 50, 49, 33 },  { 43, 41, 35, 49, 33, 51, 50, 34 },  { 44, 42, 36, 50, 34, 52, 51, 35 },  { 45, 43, 37, 51, 35, 53, 52, 36 },  { 46, 44, 38, 52, 36, 54, 53, 37 },  { 47, 45, 39, 53, 37, 55, 54, 38 },  { 46, 54, 38, 55, 39 },
-            /* rank 2: */ { 49, 41, 57, 56, 40 },  { 50, 48, 42, 56, 40, 58, 57, 41 },  { 51, 49, 43, 57, 41, 59, 58, 42 },  { 52, 50, 44, 58, 42, 60, 59, 43 },  { 53, 51, 45, 59, 43, 61, 60, 44 },  { 54, 52, 46, 60, 44, 62, 61, 45 },  { 55, 53, 47, 61, 45, 63, 62, 46 },  { 54, 62, 46, 63, 47 },
-            /* rank 1: */ { 57, 49, 48 },  { 58, 56, 50, 48, 49 },  { 59, 57, 51, 49, 50 },  { 60, 58, 52, 50, 51 },  { 61, 59, 53, 51, 52 },  { 62, 60, 54, 52, 53 },  { 63, 61, 55, 53, 54 },  { 62, 54, 55 }
-    };
-
-    int[][] moveMatrix4Queen = new int[][] {
-            /* rank 8: */ {  /*E*/ 1, 2, 3, 4, 5, 6, 7,  /*SE*/ 9, 18, 27, 36, 45, 54, 63,  /*S*/ 8, 16, 24, 32, 40, 48, 56 },
-            {  /*E*/ 2, 3, 4, 5, 6, 7,  /*W*/ 0,  /*SW*/ 8,  /*SE*/ 10, 19, 28, 37, 46, 55,  /*S*/ 9, 17, 25, 33, 41, 49, 57 },
-            {  /*E*/ 3, 4, 5, 6, 7,  /*W*/ 1, 0,  /*SW*/ 9, 16,  /*SE*/ 11, 20, 29, 38, 47,  /*S*/ 10, 18, 26, 34, 42, 50, 58 },
-            {  /*E*/ 4, 5, 6, 7,  /*W*/ 2, 1, 0,  /*SW*/ 10, 17, 24,  /*SE*/ 12, 21, 30, 39,  /*S*/ 11, 19, 27, 35, 43, 51, 59 },
-            {  /*E*/ 5, 6, 7,  /*W*/ 3, 2, 1, 0,  /*SW*/ 11, 18, 25, 32,  /*SE*/ 13, 22, 31,  /*S*/ 12, 20, 28, 36, 44, 52, 60 },
-            {  /*E*/ 6, 7,  /*W*/ 4, 3, 2, 1, 0,  /*SW*/ 12, 19, 26, 33, 40,  /*SE*/ 14, 23,  /*S*/ 13, 21, 29, 37, 45, 53, 61 },
-            {  /*E*/ 7,  /*W*/ 5, 4, 3, 2, 1, 0,  /*SW*/ 13, 20, 27, 34, 41, 48,  /*SE*/ 15,  /*S*/ 14, 22, 30, 38, 46, 54, 62 },
-            {  /*W*/ 6, 5, 4, 3, 2, 1, 0,  /*SW*/ 14, 21, 28, 35, 42, 49, 56,  /*S*/ 15, 23, 31, 39, 47, 55, 63 },
-            /* rank 7: */ {  /*E*/ 9, 10, 11, 12, 13, 14, 15,  /*NE*/ 1,  /*SE*/ 17, 26, 35, 44, 53, 62,  /*S*/ 16, 24, 32, 40, 48, 56,  /*N*/ 0 },
-            {  /*E*/ 10, 11, 12, 13, 14, 15,  /*W*/ 8,  /*NE*/ 2,  /*SW*/ 16,  /*NW*/ 0,  /*SE*/ 18, 27, 36, 45, 54, 63,  /*S*/ 17, 25, 33, 41, 49, 57,  /*N*/ 1 },
-            {  /*E*/ 11, 12, 13, 14, 15,  /*W*/ 9, 8,  /*NE*/ 3,  /*SW*/ 17, 24,  /*NW*/ 1,  /*SE*/ 19, 28, 37, 46, 55,  /*S*/ 18, 26, 34, 42, 50, 58,  /*N*/ 2 },
-            {  /*E*/ 12, 13, 14, 15,  /*W*/ 10, 9, 8,  /*NE*/ 4,  /*SW*/ 18, 25, 32,  /*NW*/ 2,  /*SE*/ 20, 29, 38, 47,  /*S*/ 19, 27, 35, 43, 51, 59,  /*N*/ 3 },
-            {  /*E*/ 13, 14, 15,  /*W*/ 11, 10, 9, 8,  /*NE*/ 5,  /*SW*/ 19, 26, 33, 40,  /*NW*/ 3,  /*SE*/ 21, 30, 39,  /*S*/ 20, 28, 36, 44, 52, 60,  /*N*/ 4 },
-            {  /*E*/ 14, 15,  /*W*/ 12, 11, 10, 9, 8,  /*NE*/ 6,  /*SW*/ 20, 27, 34, 41, 48,  /*NW*/ 4,  /*SE*/ 22, 31,  /*S*/ 21, 29, 37, 45, 53, 61,  /*N*/ 5 },
-            {  /*E*/ 15,  /*W*/ 13, 12, 11, 10, 9, 8,  /*NE*/ 7,  /*SW*/ 21, 28, 35, 42, 49, 56,  /*NW*/ 5,  /*SE*/ 23,  /*S*/ 22, 30, 38, 46, 54, 62,  /*N*/ 6 },
-            {  /*W*/ 14, 13, 12, 11, 10, 9, 8,  /*SW*/ 22, 29, 36, 43, 50, 57,  /*NW*/ 6,  /*S*/ 23, 31, 39, 47, 55, 63,  /*N*/ 7 },
-            /* rank 6: */ {  /*E*/ 17, 18, 19, 20, 21, 22, 23,  /*NE*/ 9, 2,  /*SE*/ 25, 34, 43, 52, 61,  /*S*/ 24, 32, 40, 48, 56,  /*N*/ 8, 0 },
-            {  /*E*/ 18, 19, 20, 21, 22, 23,  /*W*/ 16,  /*NE*/ 10, 3,  /*SW*/ 24,  /*NW*/ 8,  /*SE*/ 26, 35, 44, 53, 62,  /*S*/ 25, 33, 41, 49, 57,  /*N*/ 9, 1 },
-            {  /*E*/ 19, 20, 21, 22, 23,  /*W*/ 17, 16,  /*NE*/ 11, 4,  /*SW*/ 25, 32,  /*NW*/ 9, 0,  /*SE*/ 27, 36, 45, 54, 63,  /*S*/ 26, 34, 42, 50, 58,  /*N*/ 10, 2 },
-            {  /*E*/ 20, 21, 22, 23,  /*W*/ 18, 17, 16,  /*NE*/ 12, 5,  /*SW*/ 26, 33, 40,  /*NW*/ 10, 1,  /*SE*/ 28, 37, 46, 55,  /*S*/ 27, 35, 43, 51, 59,  /*N*/ 11, 3 },
-            {  /*E*/ 21, 22, 23,  /*W*/ 19, 18, 17, 16,  /*NE*/ 13, 6,  /*SW*/ 27, 34, 41, 48,  /*NW*/ 11, 2,  /*SE*/ 29, 38, 47,  /*S*/ 28, 36, 44, 52, 60,  /*N*/ 12, 4 },
-            {  /*E*/ 22, 23,  /*W*/ 20, 19, 18, 17, 16,  /*NE*/ 14, 7,  /*SW*/ 28, 35, 42, 49, 56,  /*NW*/ 12, 3,  /*SE*/ 30, 39,  /*S*/ 29, 37, 45, 53, 61,  /*N*/ 13, 5 },
-            {  /*E*/ 23,  /*W*/ 21, 20, 19, 18, 17, 16,  /*NE*/ 15,  /*SW*/ 29, 36, 43, 50, 57,  /*NW*/ 13, 4,  /*SE*/ 31,  /*S*/ 30, 38, 46, 54, 62,  /*N*/ 14, 6 },
-            {  /*W*/ 22, 21, 20, 19, 18, 17, 16,  /*SW*/ 30, 37, 44, 51, 58,  /*NW*/ 14, 5,  /*S*/ 31, 39, 47, 55, 63,  /*N*/ 15, 7 },
-            /* rank 5: */ {  /*E*/ 25, 26, 27, 28, 29, 30, 31,  /*NE*/ 17, 10, 3,  /*SE*/ 33, 42, 51, 60,  /*S*/ 32, 40, 48, 56,  /*N*/ 16, 8, 0 },
-            {  /*E*/ 26, 27, 28, 29, 30, 31,  /*W*/ 24,  /*NE*/ 18, 11, 4,  /*SW*/ 32,  /*NW*/ 16,  /*SE*/ 34, 43, 52, 61,  /*S*/ 33, 41, 49, 57,  /*N*/ 17, 9, 1 },
-            {  /*E*/ 27, 28, 29, 30, 31,  /*W*/ 25, 24,  /*NE*/ 19, 12, 5,  /*SW*/ 33, 40,  /*NW*/ 17, 8,  /*SE*/ 35, 44, 53, 62,  /*S*/ 34, 42, 50, 58,  /*N*/ 18, 10, 2 },
-            {  /*E*/ 28, 29, 30, 31,  /*W*/ 26, 25, 24,  /*NE*/ 20, 13, 6,  /*SW*/ 34, 41, 48,  /*NW*/ 18, 9, 0,  /*SE*/ 36, 45, 54, 63,  /*S*/ 35, 43, 51, 59,  /*N*/ 19, 11, 3 },
-            {  /*E*/ 29, 30, 31,  /*W*/ 27, 26, 25, 24,  /*NE*/ 21, 14, 7,  /*SW*/ 35, 42, 49, 56,  /*NW*/ 19, 10, 1,  /*SE*/ 37, 46, 55,  /*S*/ 36, 44, 52, 60,  /*N*/ 20, 12, 4 },
-            {  /*E*/ 30, 31,  /*W*/ 28, 27, 26, 25, 24,  /*NE*/ 22, 15,  /*SW*/ 36, 43, 50, 57,  /*NW*/ 20, 11, 2,  /*SE*/ 38, 47,  /*S*/ 37, 45, 53, 61,  /*N*/ 21, 13, 5 },
-            {  /*E*/ 31,  /*W*/ 29, 28, 27, 26, 25, 24,  /*NE*/ 23,  /*SW*/ 37, 44, 51, 58,  /*NW*/ 21, 12, 3,  /*SE*/ 39,  /*S*/ 38, 46, 54, 62,  /*N*/ 22, 14, 6 },
-            {  /*W*/ 30, 29, 28, 27, 26, 25, 24,  /*SW*/ 38, 45, 52, 59,  /*NW*/ 22, 13, 4,  /*S*/ 39, 47, 55, 63,  /*N*/ 23, 15, 7 },
-            /* rank 4: */ {  /*E*/ 33, 34, 35, 36, 37, 38, 39,  /*NE*/ 25, 18, 11, 4,  /*SE*/ 41, 50, 59,  /*S*/ 40, 48, 56,  /*N*/ 24, 16, 8, 0 },
-            {  /*E*/ 34, 35, 36, 37, 38, 39,  /*W*/ 32,  /*NE*/ 26, 19, 12, 5,  /*SW*/ 40,  /*NW*/ 24,  /*SE*/ 42, 51, 60,  /*S*/ 41, 49, 57,  /*N*/ 25, 17, 9, 1 },
-            {  /*E*/ 35, 36, 37, 38, 39,  /*W*/ 33, 32,  /*NE*/ 27, 20, 13, 6,  /*SW*/ 41, 48,  /*NW*/ 25, 16,  /*SE*/ 43, 52, 61,  /*S*/ 42, 50, 58,  /*N*/ 26, 18, 10, 2 },
-            {  /*E*/ 36, 37, 38, 39,  /*W*/ 34, 33, 32,  /*NE*/ 28, 21, 14, 7,  /*SW*/ 42, 49, 56,  /*NW*/ 26, 17, 8,  /*SE*/ 44, 53, 62,  /*S*/ 43, 51, 59,  /*N*/ 27, 19, 11, 3 },
-            {  /*E*/ 37, 38, 39,  /*W*/ 35, 34, 33, 32,  /*NE*/ 29, 22, 15,  /*SW*/ 43, 50, 57,  /*NW*/ 27, 18, 9, 0,  /*SE*/ 45, 54, 63,  /*S*/ 44, 52, 60,  /*N*/ 28, 20, 12, 4 },
-            {  /*E*/ 38, 39,  /*W*/ 36, 35, 34, 33, 32,  /*NE*/ 30, 23,  /*SW*/ 44, 51, 58,  /*NW*/ 28, 19, 10, 1,  /*SE*/ 46, 55,  /*S*/ 45, 53, 61,  /*N*/ 29, 21, 13, 5 },
-            {  /*E*/ 39,  /*W*/ 37, 36, 35, 34, 33, 32,  /*NE*/ 31,  /*SW*/ 45, 52, 59,  /*NW*/ 29, 20, 11, 2,  /*SE*/ 47,  /*S*/ 46, 54, 62,  /*N*/ 30, 22, 14, 6 },
-            {  /*W*/ 38, 37, 36, 35, 34, 33, 32,  /*SW*/ 46, 53, 60,  /*NW*/ 30, 21, 12, 3,  /*S*/ 47, 55, 63,  /*N*/ 31, 23, 15, 7 },
-            /* rank 3: */ {  /*E*/ 41, 42, 43, 44, 45, 46, 47,  /*NE*/ 33, 26, 19, 12, 5,  /*SE*/ 49, 58,  /*S*/ 48, 56,  /*N*/ 32, 24, 16, 8, 0 },
-            {  /*E*/ 42, 43, 44, 45, 46, 47,  /*W*/ 40,  /*NE*/ 34, 27, 20, 13, 6,  /*SW*/ 48,  /*NW*/ 32,  /*SE*/ 50, 59,  /*S*/ 49, 57,  /*N*/ 33, 25, 17, 9, 1 },
-            {  /*E*/ 43, 44, 45, 46, 47,  /*W*/ 41, 40,  /*NE*/ 35, 28, 21, 14, 7,  /*SW*/ 49, 56,  /*NW*/ 33, 24,  /*SE*/ 51, 60,  /*S*/ 50, 58,  /*N*/ 34, 26, 18, 10, 2 },
-            {  /*E*/ 44, 45, 46, 47,  /*W*/ 42, 41, 40,  /*NE*/ 36, 29, 22, 15,  /*SW*/ 50, 57,  /*NW*/ 34, 25, 16,  /*SE*/ 52, 61,  /*S*/ 51, 59,  /*N*/ 35, 27, 19, 11, 3 },
-            {  /*E*/ 45, 46, 47,  /*W*/ 43, 42, 41, 40,  /*NE*/ 37, 30, 23,  /*SW*/ 51, 58,  /*NW*/ 35, 26, 17, 8,  /*SE*/ 53, 62,  /*S*/ 52, 60,  /*N*/ 36, 28, 20, 12, 4 },
-            {  /*E*/ 46, 47,  /*W*/ 44, 43, 42, 41, 40,  /*NE*/ 38, 31,  /*SW*/ 52, 59,  /*NW*/ 36, 27, 18, 9, 0,  /*SE*/ 54, 63,  /*S*/ 53, 61,  /*N*/ 37, 29, 21, 13, 5 },
-            {  /*E*/ 47,  /*W*/ 45, 44, 43, 42, 41, 40,  /*NE*/ 39,  /*SW*/ 53, 60,  /*NW*/ 37, 28, 19, 10, 1,  /*SE*/ 55,  /*S*/ 54, 62,  /*N*/ 38, 30, 22, 14, 6 },
-            {  /*W*/ 46, 45, 44, 43, 42, 41, 40,  /*SW*/ 54, 61,  /*NW*/ 38, 29, 20, 11, 2,  /*S*/ 55, 63,  /*N*/ 39, 31, 23, 15, 7 },
-            /* rank 2: */ {  /*E*/ 49, 50, 51, 52, 53, 54, 55,  /*NE*/ 41, 34, 27, 20, 13, 6,  /*SE*/ 57,  /*S*/ 56,  /*N*/ 40, 32, 24, 16, 8, 0 },
-            {  /*E*/ 50, 51, 52, 53, 54, 55,  /*W*/ 48,  /*NE*/ 42, 35, 28, 21, 14, 7,  /*SW*/ 56,  /*NW*/ 40,  /*SE*/ 58,  /*S*/ 57,  /*N*/ 41, 33, 25, 17, 9, 1 },
-            {  /*E*/ 51, 52, 53, 54, 55,  /*W*/ 49, 48,  /*NE*/ 43, 36, 29, 22, 15,  /*SW*/ 57,  /*NW*/ 41, 32,  /*SE*/ 59,  /*S*/ 58,  /*N*/ 42, 34, 26, 18, 10, 2 },
-            {  /*E*/ 52, 53, 54, 55,  /*W*/ 50, 49, 48,  /*NE*/ 44, 37, 30, 23,  /*SW*/ 58,  /*NW*/ 42, 33, 24,  /*SE*/ 60,  /*S*/ 59,  /*N*/ 43, 35, 27, 19, 11, 3 },
-            {  /*E*/ 53, 54, 55,  /*W*/ 51, 50, 49, 48,  /*NE*/ 45, 38, 31,  /*SW*/ 59,  /*NW*/ 43, 34, 25, 16,  /*SE*/ 61,  /*S*/ 60,  /*N*/ 44, 36, 28, 20, 12, 4 },
-            {  /*E*/ 54, 55,  /*W*/ 52, 51, 50, 49, 48,  /*NE*/ 46, 39,  /*SW*/ 60,  /*NW*/ 44, 35, 26, 17, 8,  /*SE*/ 62,  /*S*/ 61,  /*N*/ 45, 37, 29, 21, 13, 5 },
-            {  /*E*/ 55,  /*W*/ 53, 52, 51, 50, 49, 48,  /*NE*/ 47,  /*SW*/ 61,  /*NW*/ 45, 36, 27, 18, 9, 0,  /*SE*/ 63,  /*S*/ 62,  /*N*/ 46, 38, 30, 22, 14, 6 },
-            {  /*W*/ 54, 53, 52, 51, 50, 49, 48,  /*SW*/ 62,  /*NW*/ 46, 37, 28, 19, 10, 1,  /*S*/ 63,  /*N*/ 47, 39, 31, 23, 15, 7 },
-            /* rank 1: */ {  /*E*/ 57, 58, 59, 60, 61, 62, 63,  /*NE*/ 49, 42, 35, 28, 21, 14, 7,  /*N*/ 48, 40, 32, 24, 16, 8, 0 },
-            {  /*E*/ 58, 59, 60, 61, 62, 63,  /*W*/ 56,  /*NE*/ 50, 43, 36, 29, 22, 15,  /*NW*/ 48,  /*N*/ 49, 41, 33, 25, 17, 9, 1 },
-            {  /*E*/ 59, 60, 61, 62, 63,  /*W*/ 57, 56,  /*NE*/ 51, 44, 37, 30, 23,  /*NW*/ 49, 40,  /*N*/ 50, 42, 34, 26, 18, 10, 2 },
-            {  /*E*/ 60, 61, 62, 63,  /*W*/ 58, 57, 56,  /*NE*/ 52, 45, 38, 31,  /*NW*/ 50, 41, 32,  /*N*/ 51, 43, 35, 27, 19, 11, 3 },
-            {  /*E*/ 61, 62, 63,  /*W*/ 59, 58, 57, 56,  /*NE*/ 53, 46, 39,  /*NW*/ 51, 42, 33, 24,  /*N*/ 52, 44, 36, 28, 20, 12, 4 },
-            {  /*E*/ 62, 63,  /*W*/ 60, 59, 58, 57, 56,  /*NE*/ 54, 47,  /*NW*/ 52, 43, 34, 25, 16,  /*N*/ 53, 45, 37, 29, 21, 13, 5 },
-            {  /*E*/ 63,  /*W*/ 61, 60, 59, 58, 57, 56,  /*NE*/ 55,  /*NW*/ 53, 44, 35, 26, 17, 8,  /*N*/ 54, 46, 38, 30, 22, 14, 6 },
-            {  /*W*/ 62, 61, 60, 59, 58, 57, 56,  /*NW*/ 54, 45, 36, 27, 18, 9, 0,  /*N*/ 55, 47, 39, 31, 23, 15, 7 }
-    };
-
-    int[][] moveMatrix4Rook = new int[][] {
-            /* rank 8: */ {  /*E*/ 1, 2, 3, 4, 5, 6, 7,  /*S*/ 8, 16, 24, 32, 40, 48, 56 },
-            {  /*E*/ 2, 3, 4, 5, 6, 7,  /*W*/ 0,  /*S*/ 9, 17, 25, 33, 41, 49, 57 },
-            {  /*E*/ 3, 4, 5, 6, 7,  /*W*/ 1, 0,  /*S*/ 10, 18, 26, 34, 42, 50, 58 },
-            {  /*E*/ 4, 5, 6, 7,  /*W*/ 2, 1, 0,  /*S*/ 11, 19, 27, 35, 43, 51, 59 },
-            {  /*E*/ 5, 6, 7,  /*W*/ 3, 2, 1, 0,  /*S*/ 12, 20, 28, 36, 44, 52, 60 },
-            {  /*E*/ 6, 7,  /*W*/ 4, 3, 2, 1, 0,  /*S*/ 13, 21, 29, 37, 45, 53, 61 },
-            {  /*E*/ 7,  /*W*/ 5, 4, 3, 2, 1, 0,  /*S*/ 14, 22, 30, 38, 46, 54, 62 },
-            {  /*W*/ 6, 5, 4, 3, 2, 1, 0,  /*S*/ 15, 23, 31, 39, 47, 55, 63 },
-            /* rank 7: */ {  /*E*/ 9, 10, 11, 12, 13, 14, 15,  /*S*/ 16, 24, 32, 40, 48, 56,  /*N*/ 0 },
-            {  /*E*/ 10, 11, 12, 13, 14, 15,  /*W*/ 8,  /*S*/ 17, 25, 33, 41, 49, 57,  /*N*/ 1 },
-            {  /*E*/ 11, 12, 13, 14, 15,  /*W*/ 9, 8,  /*S*/ 18, 26, 34, 42, 50, 58,  /*N*/ 2 },
-            {  /*E*/ 12, 13, 14, 15,  /*W*/ 10, 9, 8,  /*S*/ 19, 27, 35, 43, 51, 59,  /*N*/ 3 },
-            {  /*E*/ 13, 14, 15,  /*W*/ 11, 10, 9, 8,  /*S*/ 20, 28, 36, 44, 52, 60,  /*N*/ 4 },
-            {  /*E*/ 14, 15,  /*W*/ 12, 11, 10, 9, 8,  /*S*/ 21, 29, 37, 45, 53, 61,  /*N*/ 5 },
-            {  /*E*/ 15,  /*W*/ 13, 12, 11, 10, 9, 8,  /*S*/ 22, 30, 38, 46, 54, 62,  /*N*/ 6 },
-            {  /*W*/ 14, 13, 12, 11, 10, 9, 8,  /*S*/ 23, 31, 39, 47, 55, 63,  /*N*/ 7 },
-            /* rank 6: */ {  /*E*/ 17, 18, 19, 20, 21, 22, 23,  /*S*/ 24, 32, 40, 48, 56,  /*N*/ 8, 0 },
-            {  /*E*/ 18, 19, 20, 21, 22, 23,  /*W*/ 16,  /*S*/ 25, 33, 41, 49, 57,  /*N*/ 9, 1 },
-            {  /*E*/ 19, 20, 21, 22, 23,  /*W*/ 17, 16,  /*S*/ 26, 34, 42, 50, 58,  /*N*/ 10, 2 },
-            {  /*E*/ 20, 21, 22, 23,  /*W*/ 18, 17, 16,  /*S*/ 27, 35, 43, 51, 59,  /*N*/ 11, 3 },
-            {  /*E*/ 21, 22, 23,  /*W*/ 19, 18, 17, 16,  /*S*/ 28, 36, 44, 52, 60,  /*N*/ 12, 4 },
-            {  /*E*/ 22, 23,  /*W*/ 20, 19, 18, 17, 16,  /*S*/ 29, 37, 45, 53, 61,  /*N*/ 13, 5 },
-            {  /*E*/ 23,  /*W*/ 21, 20, 19, 18, 17, 16,  /*S*/ 30, 38, 46, 54, 62,  /*N*/ 14, 6 },
-            {  /*W*/ 22, 21, 20, 19, 18, 17, 16,  /*S*/ 31, 39, 47, 55, 63,  /*N*/ 15, 7 },
-            /* rank 5: */ {  /*E*/ 25, 26, 27, 28, 29, 30, 31,  /*S*/ 32, 40, 48, 56,  /*N*/ 16, 8, 0 },
-            {  /*E*/ 26, 27, 28, 29, 30, 31,  /*W*/ 24,  /*S*/ 33, 41, 49, 57,  /*N*/ 17, 9, 1 },
-            {  /*E*/ 27, 28, 29, 30, 31,  /*W*/ 25, 24,  /*S*/ 34, 42, 50, 58,  /*N*/ 18, 10, 2 },
-            {  /*E*/ 28, 29, 30, 31,  /*W*/ 26, 25, 24,  /*S*/ 35, 43, 51, 59,  /*N*/ 19, 11, 3 },
-            {  /*E*/ 29, 30, 31,  /*W*/ 27, 26, 25, 24,  /*S*/ 36, 44, 52, 60,  /*N*/ 20, 12, 4 },
-            {  /*E*/ 30, 31,  /*W*/ 28, 27, 26, 25, 24,  /*S*/ 37, 45, 53, 61,  /*N*/ 21, 13, 5 },
-            {  /*E*/ 31,  /*W*/ 29, 28, 27, 26, 25, 24,  /*S*/ 38, 46, 54, 62,  /*N*/ 22, 14, 6 },
-            {  /*W*/ 30, 29, 28, 27, 26, 25, 24,  /*S*/ 39, 47, 55, 63,  /*N*/ 23, 15, 7 },
-            /* rank 4: */ {  /*E*/ 33, 34, 35, 36, 37, 38, 39,  /*S*/ 40, 48, 56,  /*N*/ 24, 16, 8, 0 },
-            {  /*E*/ 34, 35, 36, 37, 38, 39,  /*W*/ 32,  /*S*/ 41, 49, 57,  /*N*/ 25, 17, 9, 1 },
-            {  /*E*/ 35, 36, 37, 38, 39,  /*W*/ 33, 32,  /*S*/ 42, 50, 58,  /*N*/ 26, 18, 10, 2 },
-            {  /*E*/ 36, 37, 38, 39,  /*W*/ 34, 33, 32,  /*S*/ 43, 51, 59,  /*N*/ 27, 19, 11, 3 },
-            {  /*E*/ 37, 38, 39,  /*W*/ 35, 34, 33, 32,  /*S*/ 44, 52, 60,  /*N*/ 28, 20, 12, 4 },
-            {  /*E*/ 38, 39,  /*W*/ 36, 35, 34, 33, 32,  /*S*/ 45, 53, 61,  /*N*/ 29, 21, 13, 5 },
-            {  /*E*/ 39,  /*W*/ 37, 36, 35, 34, 33, 32,  /*S*/ 46, 54, 62,  /*N*/ 30, 22, 14, 6 },
-            {  /*W*/ 38, 37, 36, 35, 34, 33, 32,  /*S*/ 47, 55, 63,  /*N*/ 31, 23, 15, 7 },
-            /* rank 3: */ {  /*E*/ 41, 42, 43, 44, 45, 46, 47,  /*S*/ 48, 56,  /*N*/ 32, 24, 16, 8, 0 },
-            {  /*E*/ 42, 43, 44, 45, 46, 47,  /*W*/ 40,  /*S*/ 49, 57,  /*N*/ 33, 25, 17, 9, 1 },
-            {  /*E*/ 43, 44, 45, 46, 47,  /*W*/ 41, 40,  /*S*/ 50, 58,  /*N*/ 34, 26, 18, 10, 2 },
-            {  /*E*/ 44, 45, 46, 47,  /*W*/ 42, 41, 40,  /*S*/ 51, 59,  /*N*/ 35, 27, 19, 11, 3 },
-            {  /*E*/ 45, 46, 47,  /*W*/ 43, 42, 41, 40,  /*S*/ 52, 60,  /*N*/ 36, 28, 20, 12, 4 },
-            {  /*E*/ 46, 47,  /*W*/ 44, 43, 42, 41, 40,  /*S*/ 53, 61,  /*N*/ 37, 29, 21, 13, 5 },
-            {  /*E*/ 47,  /*W*/ 45, 44, 43, 42, 41, 40,  /*S*/ 54, 62,  /*N*/ 38, 30, 22, 14, 6 },
-            {  /*W*/ 46, 45, 44, 43, 42, 41, 40,  /*S*/ 55, 63,  /*N*/ 39, 31, 23, 15, 7 },
-            /* rank 2: */ {  /*E*/ 49, 50, 51, 52, 53, 54, 55,  /*S*/ 56,  /*N*/ 40, 32, 24, 16, 8, 0 },
-            {  /*E*/ 50, 51, 52, 53, 54, 55,  /*W*/ 48,  /*S*/ 57,  /*N*/ 41, 33, 25, 17, 9, 1 },
-            {  /*E*/ 51, 52, 53, 54, 55,  /*W*/ 49, 48,  /*S*/ 58,  /*N*/ 42, 34, 26, 18, 10, 2 },
-            {  /*E*/ 52, 53, 54, 55,  /*W*/ 50, 49, 48,  /*S*/ 59,  /*N*/ 43, 35, 27, 19, 11, 3 },
-            {  /*E*/ 53, 54, 55,  /*W*/ 51, 50, 49, 48,  /*S*/ 60,  /*N*/ 44, 36, 28, 20, 12, 4 },
-            {  /*E*/ 54, 55,  /*W*/ 52, 51, 50, 49, 48,  /*S*/ 61,  /*N*/ 45, 37, 29, 21, 13, 5 },
-            {  /*E*/ 55,  /*W*/ 53, 52, 51, 50, 49, 48,  /*S*/ 62,  /*N*/ 46, 38, 30, 22, 14, 6 },
-            {  /*W*/ 54, 53, 52, 51, 50, 49, 48,  /*S*/ 63,  /*N*/ 47, 39, 31, 23, 15, 7 },
-            /* rank 1: */ {  /*E*/ 57, 58, 59, 60, 61, 62, 63,  /*N*/ 48, 40, 32, 24, 16, 8, 0 },
-            {  /*E*/ 58, 59, 60, 61, 62, 63,  /*W*/ 56,  /*N*/ 49, 41, 33, 25, 17, 9, 1 },
-            {  /*E*/ 59, 60, 61, 62, 63,  /*W*/ 57, 56,  /*N*/ 50, 42, 34, 26, 18, 10, 2 },
-            {  /*E*/ 60, 61, 62, 63,  /*W*/ 58, 57, 56,  /*N*/ 51, 43, 35, 27, 19, 11, 3 },
-            {  /*E*/ 61, 62, 63,  /*W*/ 59, 58, 57, 56,  /*N*/ 52, 44, 36, 28, 20, 12, 4 },
-            {  /*E*/ 62, 63,  /*W*/ 60, 59, 58, 57, 56,  /*N*/ 53, 45, 37, 29, 21, 13, 5 },
-            {  /*E*/ 63,  /*W*/ 61, 60, 59, 58, 57, 56,  /*N*/ 54, 46, 38, 30, 22, 14, 6 },
-            {  /*W*/ 62, 61, 60, 59, 58, 57, 56,  /*N*/ 55, 47, 39, 31, 23, 15, 7 }
-    };
-
-    int[][] moveMatrix4Bishop = new int[][] {
-            /* rank 8: */ {  /*SE*/ 9, 18, 27, 36, 45, 54, 63 },
-            {  /*SW*/ 8,  /*SE*/ 10, 19, 28, 37, 46, 55 },
-            {  /*SW*/ 9, 16,  /*SE*/ 11, 20, 29, 38, 47 },
-            {  /*SW*/ 10, 17, 24,  /*SE*/ 12, 21, 30, 39 },
-            {  /*SW*/ 11, 18, 25, 32,  /*SE*/ 13, 22, 31 },
-            {  /*SW*/ 12, 19, 26, 33, 40,  /*SE*/ 14, 23 },
-            {  /*SW*/ 13, 20, 27, 34, 41, 48,  /*SE*/ 15 },
-            {  /*SW*/ 14, 21, 28, 35, 42, 49, 56 },
-            /* rank 7: */ {  /*NE*/ 1,  /*SE*/ 17, 26, 35, 44, 53, 62 },
-            {  /*NW*/ 0,  /*NE*/ 2,  /*SW*/ 16,  /*SE*/ 18, 27, 36, 45, 54, 63 },
-            {  /*NW*/ 1,  /*NE*/ 3,  /*SW*/ 17, 24,  /*SE*/ 19, 28, 37, 46, 55 },
-            {  /*NW*/ 2,  /*NE*/ 4,  /*SW*/ 18, 25, 32,  /*SE*/ 20, 29, 38, 47 },
-            {  /*NW*/ 3,  /*NE*/ 5,  /*SW*/ 19, 26, 33, 40,  /*SE*/ 21, 30, 39 },
-            {  /*NW*/ 4,  /*NE*/ 6,  /*SW*/ 20, 27, 34, 41, 48,  /*SE*/ 22, 31 },
-            {  /*NW*/ 5,  /*NE*/ 7,  /*SW*/ 21, 28, 35, 42, 49, 56,  /*SE*/ 23 },
-            {  /*NW*/ 6,  /*SW*/ 22, 29, 36, 43, 50, 57 },
-            /* rank 6: */ {  /*NE*/ 9, 2,  /*SE*/ 25, 34, 43, 52, 61 },
-            {  /*NW*/ 8,  /*NE*/ 10, 3,  /*SW*/ 24,  /*SE*/ 26, 35, 44, 53, 62 },
-            {  /*NW*/ 9, 0,  /*NE*/ 11, 4,  /*SW*/ 25, 32,  /*SE*/ 27, 36, 45, 54, 63 },
-            {  /*NW*/ 10, 1,  /*NE*/ 12, 5,  /*SW*/ 26, 33, 40,  /*SE*/ 28, 37, 46, 55 },
-            {  /*NW*/ 11, 2,  /*NE*/ 13, 6,  /*SW*/ 27, 34, 41, 48,  /*SE*/ 29, 38, 47 },
-            {  /*NW*/ 12, 3,  /*NE*/ 14, 7,  /*SW*/ 28, 35, 42, 49, 56,  /*SE*/ 30, 39 },
-            {  /*NW*/ 13, 4,  /*NE*/ 15,  /*SW*/ 29, 36, 43, 50, 57,  /*SE*/ 31 },
-            {  /*NW*/ 14, 5,  /*SW*/ 30, 37, 44, 51, 58 },
-            /* rank 5: */ {  /*NE*/ 17, 10, 3,  /*SE*/ 33, 42, 51, 60 },
-            {  /*NW*/ 16,  /*NE*/ 18, 11, 4,  /*SW*/ 32,  /*SE*/ 34, 43, 52, 61 },
-            {  /*NW*/ 17, 8,  /*NE*/ 19, 12, 5,  /*SW*/ 33, 40,  /*SE*/ 35, 44, 53, 62 },
-            {  /*NW*/ 18, 9, 0,  /*NE*/ 20, 13, 6,  /*SW*/ 34, 41, 48,  /*SE*/ 36, 45, 54, 63 },
-            {  /*NW*/ 19, 10, 1,  /*NE*/ 21, 14, 7,  /*SW*/ 35, 42, 49, 56,  /*SE*/ 37, 46, 55 },
-            {  /*NW*/ 20, 11, 2,  /*NE*/ 22, 15,  /*SW*/ 36, 43, 50, 57,  /*SE*/ 38, 47 },
-            {  /*NW*/ 21, 12, 3,  /*NE*/ 23,  /*SW*/ 37, 44, 51, 58,  /*SE*/ 39 },
-            {  /*NW*/ 22, 13, 4,  /*SW*/ 38, 45, 52, 59 },
-            /* rank 4: */ {  /*NE*/ 25, 18, 11, 4,  /*SE*/ 41, 50, 59 },
-            {  /*NW*/ 24,  /*NE*/ 26, 19, 12, 5,  /*SW*/ 40,  /*SE*/ 42, 51, 60 },
-            {  /*NW*/ 25, 16,  /*NE*/ 27, 20, 13, 6,  /*SW*/ 41, 48,  /*SE*/ 43, 52, 61 },
-            {  /*NW*/ 26, 17, 8,  /*NE*/ 28, 21, 14, 7,  /*SW*/ 42, 49, 56,  /*SE*/ 44, 53, 62 },
-            {  /*NW*/ 27, 18, 9, 0,  /*NE*/ 29, 22, 15,  /*SW*/ 43, 50, 57,  /*SE*/ 45, 54, 63 },
-            {  /*NW*/ 28, 19, 10, 1,  /*NE*/ 30, 23,  /*SW*/ 44, 51, 58,  /*SE*/ 46, 55 },
-            {  /*NW*/ 29, 20, 11, 2,  /*NE*/ 31,  /*SW*/ 45, 52, 59,  /*SE*/ 47 },
-            {  /*NW*/ 30, 21, 12, 3,  /*SW*/ 46, 53, 60 },
-            /* rank 3: */ {  /*NE*/ 33, 26, 19, 12, 5,  /*SE*/ 49, 58 },
-            {  /*NW*/ 32,  /*NE*/ 34, 27, 20, 13, 6,  /*SW*/ 48,  /*SE*/ 50, 59 },
-            {  /*NW*/ 33, 24,  /*NE*/ 35, 28, 21, 14, 7,  /*SW*/ 49, 56,  /*SE*/ 51, 60 },
-            {  /*NW*/ 34, 25, 16,  /*NE*/ 36, 29, 22, 15,  /*SW*/ 50, 57,  /*SE*/ 52, 61 },
-            {  /*NW*/ 35, 26, 17, 8,  /*NE*/ 37, 30, 23,  /*SW*/ 51, 58,  /*SE*/ 53, 62 },
-            {  /*NW*/ 36, 27, 18, 9, 0,  /*NE*/ 38, 31,  /*SW*/ 52, 59,  /*SE*/ 54, 63 },
-            {  /*NW*/ 37, 28, 19, 10, 1,  /*NE*/ 39,  /*SW*/ 53, 60,  /*SE*/ 55 },
-            {  /*NW*/ 38, 29, 20, 11, 2,  /*SW*/ 54, 61 },
-            /* rank 2: */ {  /*NE*/ 41, 34, 27, 20, 13, 6,  /*SE*/ 57 },
-            {  /*NW*/ 40,  /*NE*/ 42, 35, 28, 21, 14, 7,  /*SW*/ 56,  /*SE*/ 58 },
-            {  /*NW*/ 41, 32,  /*NE*/ 43, 36, 29, 22, 15,  /*SW*/ 57,  /*SE*/ 59 },
-            {  /*NW*/ 42, 33, 24,  /*NE*/ 44, 37, 30, 23,  /*SW*/ 58,  /*SE*/ 60 },
-            {  /*NW*/ 43, 34, 25, 16,  /*NE*/ 45, 38, 31,  /*SW*/ 59,  /*SE*/ 61 },
-            {  /*NW*/ 44, 35, 26, 17, 8,  /*NE*/ 46, 39,  /*SW*/ 60,  /*SE*/ 62 },
-            {  /*NW*/ 45, 36, 27, 18, 9, 0,  /*NE*/ 47,  /*SW*/ 61,  /*SE*/ 63 },
-            {  /*NW*/ 46, 37, 28, 19, 10, 1,  /*SW*/ 62 },
-            /* rank 1: */ {  /*NE*/ 49, 42, 35, 28, 21, 14, 7 },
-            {  /*NW*/ 48,  /*NE*/ 50, 43, 36, 29, 22, 15 },
-            {  /*NW*/ 49, 40,  /*NE*/ 51, 44, 37, 30, 23 },
-            {  /*NW*/ 50, 41, 32,  /*NE*/ 52, 45, 38, 31 },
-            {  /*NW*/ 51, 42, 33, 24,  /*NE*/ 53, 46, 39 },
-            {  /*NW*/ 52, 43, 34, 25, 16,  /*NE*/ 54, 47 },
-            {  /*NW*/ 53, 44, 35, 26, 17, 8,  /*NE*/ 55 },
-            {  /*NW*/ 54, 45, 36, 27, 18, 9, 0 }
-    };
-
-    int[][] moveMatrix4Knight = new int[][] {
-            /* rank 8: */ { 10, 17 },  { 11, 16, 18 },  { 8, 12, 17, 19 },  { 9, 13, 18, 20 },  { 10, 14, 19, 21 },  { 11, 15, 20, 22 },  { 12, 21, 23 },  { 13, 22 },
-            /* rank 7: */ { 2, 18, 25 },  { 3, 19, 24, 26 },  { 0, 4, 16, 20, 25, 27 },  { 1, 5, 17, 21, 26, 28 },  { 2, 6, 18, 22, 27, 29 },  { 3, 7, 19, 23, 28, 30 },  { 4, 20, 29, 31 },  { 5, 21, 30 },
-            /* rank 6: */ { 1, 10, 26, 33 },  { 0, 2, 11, 27, 32, 34 },  { 1, 3, 8, 12, 24, 28, 33, 35 },  { 2, 4, 9, 13, 25, 29, 34, 36 },  { 3, 5, 10, 14, 26, 30, 35, 37 },  { 4, 6, 11, 15, 27, 31, 36, 38 },  { 5, 7, 12, 28, 37, 39 },  { 6, 13, 29, 38 },
-            /* rank 5: */ { 9, 18, 34, 41 },  { 8, 10, 19, 35, 40, 42 },  { 9, 11, 16, 20, 32, 36, 41, 43 },  { 10, 12, 17, 21, 33, 37, 42, 44 },  { 11, 13, 18, 22, 34, 38, 43, 45 },  { 12, 14, 19, 23, 35, 39, 44, 46 },  { 13, 15, 20, 36, 45, 47 },  { 14, 21, 37, 46 },
-            /* rank 4: */ { 17, 26, 42, 49 },  { 16, 18, 27, 43, 48, 50 },  { 17, 19, 24, 28, 40, 44, 49, 51 },  { 18, 20, 25, 29, 41, 45, 50, 52 },  { 19, 21, 26, 30, 42, 46, 51, 53 },  { 20, 22, 27, 31, 43, 47, 52, 54 },  { 21, 23, 28, 44, 53, 55 },  { 22, 29, 45, 54 },
-            /* rank 3: */ { 25, 34, 50, 57 },  { 24, 26, 35, 51, 56, 58 },  { 25, 27, 32, 36, 48, 52, 57, 59 },  { 26, 28, 33, 37, 49, 53, 58, 60 },  { 27, 29, 34, 38, 50, 54, 59, 61 },  { 28, 30, 35, 39, 51, 55, 60, 62 },  { 29, 31, 36, 52, 61, 63 },  { 30, 37, 53, 62 },
-            /* rank 2: */ { 33, 42, 58 },  { 32, 34, 43, 59 },  { 33, 35, 40, 44, 56, 60 },  { 34, 36, 41, 45, 57, 61 },  { 35, 37, 42, 46, 58, 62 },  { 36, 38, 43, 47, 59, 63 },  { 37, 39, 44, 60 },  { 38, 45, 61 },
-            /* rank 1: */ { 41, 50 },  { 40, 42, 51 },  { 41, 43, 48, 52 },  { 42, 44, 49, 53 },  { 43, 45, 50, 54 },  { 44, 46, 51, 55 },  { 45, 47, 52 },  { 46, 53 }
-    };
-
-
-    int[][] moveMatrix4PawnWhite = new int[][] {
-            /* rank 8: */ {}, {}, {}, {}, {}, {}, {}, {},
-            /* rank 7: */ { 0, 1 },  { 0, 1, 2 },  { 1, 2, 3 },  { 2, 3, 4 },  { 3, 4, 5 },  { 4, 5, 6 },  { 5, 6, 7 },  { 6, 7 },
-            /* rank 6: */ { 8, 9 },  { 8, 9, 10 },  { 9, 10, 11 },  { 10, 11, 12 },  { 11, 12, 13 },  { 12, 13, 14 },  { 13, 14, 15 },  { 14, 15 },
-            /* rank 5: */ { 16, 17 },  { 16, 17, 18 },  { 17, 18, 19 },  { 18, 19, 20 },  { 19, 20, 21 },  { 20, 21, 22 },  { 21, 22, 23 },  { 22, 23 },
-            /* rank 4: */ { 24, 25 },  { 24, 25, 26 },  { 25, 26, 27 },  { 26, 27, 28 },  { 27, 28, 29 },  { 28, 29, 30 },  { 29, 30, 31 },  { 30, 31 },
-            /* rank 3: */ { 32, 33 },  { 32, 33, 34 },  { 33, 34, 35 },  { 34, 35, 36 },  { 35, 36, 37 },  { 36, 37, 38 },  { 37, 38, 39 },  { 38, 39 },
-            /* rank 2: */ { 40, 41 },  { 40, 41, 42 },  { 41, 42, 43 },  { 42, 43, 44 },  { 43, 44, 45 },  { 44, 45, 46 },  { 45, 46, 47 },  { 46, 47 },
-            /* rank 1: */ {}, {}, {}, {}, {}, {}, {}, {},
-    };
-
-    int[][] moveMatrix4PawnBlack = new int[][] {
-            /* rank 8: */ {}, {}, {}, {}, {}, {}, {}, {},
-            /* rank 7: */ { 16, 17 },  { 16, 17, 18 },  { 17, 18, 19 },  { 18, 19, 20 },  { 19, 20, 21 },  { 20, 21, 22 },  { 21, 22, 23 },  { 22, 23 },
-            /* rank 6: */ { 24, 25 },  { 24, 25, 26 },  { 25, 26, 27 },  { 26, 27, 28 },  { 27, 28, 29 },  { 28, 29, 30 },  { 29, 30, 31 },  { 30, 31 },
-            /* rank 5: */ { 32, 33 },  { 32, 33, 34 },  { 33, 34, 35 },  { 34, 35, 36 },  { 35, 36, 37 },  { 36, 37, 38 },  { 37, 38, 39 },  { 38, 39 },
-            /* rank 4: */ { 40, 41 },  { 40, 41, 42 },  { 41, 42, 43 },  { 42, 43, 44 },  { 43, 44, 45 },  { 44, 45, 46 },  { 45, 46, 47 },  { 46, 47 },
-            /* rank 3: */ { 48, 49 },  { 48, 49, 50 },  { 49, 50, 51 },  { 50, 51, 52 },  { 51, 52, 53 },  { 52, 53, 54 },  { 53, 54, 55 },  { 54, 55 },
-            /* rank 2: */ { 56, 57 },  { 56, 57, 58 },  { 57, 58, 59 },  { 58, 59, 60 },  { 59, 60, 61 },  { 60, 61, 62 },  { 61, 62, 63 },  { 62, 63 },
-            /* rank 1: */ {}, {}, {}, {}, {}, {}, {}, {},
-    };
-
 }
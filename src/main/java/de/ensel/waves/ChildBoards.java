@@ -0,0 +1,112 @@
+/*
+ *     Waves - Another Wired New Chess Engine
+ *     Copyright (C) 2024 Christian Ensel
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.ensel.waves;
+
+/**
+ * The boards created by VBoard.createNext() from one board, so the same follow-up board is created only once
+ * (until they are released). Open addressing over the key of the move. The memory budget for all boards
+ * remembered during a search is kept by its SearchContext.
+ */
+class ChildBoards {
+    private static final int MIN_SLOTS = 16;
+    private static final int MAX_SLOTS = 512;       // i.e. max 256 children, more legal moves do not exist
+
+    private int[]    keys;      // keyOf() per slot, 0 = free
+    private VBoard[] boards;    // null if the move was not legal
+    private int      size;
+
+    private static int keyOf(final Move move) {
+        // from+to identify the piece on a board, +1 to keep 0 free
+        return ((move.promotesTo() << 12) | (move.from() << 6) | move.to()) + 1;
+    }
+
+    /**
+     * @return slot with key or the free slot where key would go, -1 if there are no slots (yet)
+     */
+    private int findSlot(final int key) {
+        if (keys == null)
+            return -1;
+        final int mask = keys.length - 1;
+        int slot = (key * 0x9E3779B1) >>> 16 & mask;
+        while (keys[slot] != 0 && keys[slot] != key)
+            slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    /**
+     * @return the slot where the board after move is remembered, -1 if it is not remembered
+     */
+    int slotOf(final Move move) {
+        final int key = keyOf(move);
+        final int slot = findSlot(key);
+        return slot >= 0 && keys[slot] == key ? slot : -1;
+    }
+
+    /**
+     * @return the board remembered in slot (see slotOf()) - null if the move was not legal
+     */
+    VBoard boardAt(final int slot) {
+        return boards[slot];
+    }
+
+    /**
+     * remembers board as the board after move
+     * @return false if there is no more room (the board is then just not remembered)
+     */
+    boolean remember(final Move move, final VBoard board) {
+        if (keys == null) {
+            keys = new int[MIN_SLOTS];
+            boards = new VBoard[MIN_SLOTS];
+        }
+        else if ((size + 1) << 1 > keys.length) {
+            if (keys.length >= MAX_SLOTS)
+                return false;
+            // grow
+            int[] oldKeys = keys;
+            VBoard[] oldBoards = boards;
+            keys = new int[oldKeys.length << 1];
+            boards = new VBoard[oldKeys.length << 1];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    int s = findSlot(oldKeys[i]);
+                    keys[s] = oldKeys[i];
+                    boards[s] = oldBoards[i];
+                }
+            }
+        }
+        final int key = keyOf(move);
+        final int slot = findSlot(key);
+        if (keys[slot] == 0)
+            size++;
+        keys[slot] = key;
+        boards[slot] = board;
+        return true;
+    }
+
+    /** forgets all boards */
+    void clear() {
+        keys = null;
+        boards = null;
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+}
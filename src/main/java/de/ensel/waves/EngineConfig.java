@@ -0,0 +1,72 @@
+/*
+ *     Waves - Another Wired New Chess Engine
+ *     Copyright (C) 2024 Christian Ensel
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.ensel.waves;
+
+import static de.ensel.chessbasics.ChessBasics.coordinateString2Pos;
+
+/**
+ * The settings of one engine (e.g. one ChessBoardController) - shared by its boards and reached from all VBoards
+ * via their base board, see ChessBoard.config(). So several engines in one JVM do not interfere with each other.
+ */
+public class EngineConfig {
+    /*
+     * configure here which debug messages should be printed
+     * (not final, to be able to change it during debugging)
+     */
+    public boolean debugMsgDistances = false;
+    public boolean debugMsgClashCalculation = false;
+    public boolean debugMsgMoveEval = false;   // <-- best for checking why moves are evaluated the way they are
+    public boolean debugMsgMoveSelection = false || debugMsgMoveEval;
+    public boolean debugMsgMoveSelection2 = false && debugMsgMoveSelection;
+    public String debugMsgAlongPath = null; // "d2c1 d8d7 d1d2 a1c1 d2c1 e8f7 f2f3 c6e5 c1f4";
+    public int debugFocusSq = coordinateString2Pos("e1");   // just for debug output and breakpoints+watches
+    public int debugFocusVp = 0;                             // just for debug output and breakpoints+watches
+
+    public boolean reuseGrandparentPreEvals = false;  // if true, the search takes over pre-evaluations of unaffected moves from two plies earlier, see PreEvalReuse
+    public boolean showReasons = false;  // if true, the reasons for move evaluations are recorded, see EvalReasons
+    public boolean positionalLeafScore = true;  // if true, the leaves of the search add VBoard.positionalScore() of the board they lead to
+
+    // engine options, can be changed from the protocol thread while boards of the engine are searching
+    private volatile int engineP1 = 0;  // used at varying places for optimization purposes, e.g. as the search level
+    private volatile int maxInterestingNrOfHops = 3;
+    // one move with a check, making a 2nd move with the tempo and thus cover another place - so dist of 3 is doable in one move so to speak
+
+    public int engineP1() {
+        return engineP1;
+    }
+
+    public void setEngineP1(int engineP1) {
+        this.engineP1 = engineP1;
+    }
+
+    public int maxInterestingNrOfHops() {
+        return maxInterestingNrOfHops;
+    }
+
+    public void setMaxInterestingNrOfHops(int maxInterestingNrOfHops) {
+        this.maxInterestingNrOfHops = maxInterestingNrOfHops;
+    }
+
+    /**
+     * @return true if evaluations are explained (needed for the debug output of the move evaluation)
+     */
+    boolean recordsReasons() {
+        return showReasons || debugMsgMoveEval;
+    }
+}
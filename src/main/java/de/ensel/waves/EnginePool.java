@@ -0,0 +1,124 @@
+/*
+ *     Waves - Another Wired New Chess Engine
+ *     Copyright (C) 2024 Christian Ensel
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.ensel.waves;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * The worker threads of one engine (uci option "Threads"). All parallel work of the engine, like the helper
+ * searches or batch analysis, is submitted here, so the engine never uses more threads than configured.
+ * Each worker thread has its own WorkerContext, created up front with the pool, for whatever state
+ * the tasks keep per thread (e.g. a board to search on).
+ */
+public class EnginePool {
+    public static final int MAX_THREADS = 256;
+
+    /**
+     * state per worker thread - only accessed by tasks running on that thread
+     */
+    public static class WorkerContext {
+        private final int index;
+        private ChessBoard board = null;   // reused while the position stays the same
+
+        WorkerContext(int index) {
+            this.index = index;
+        }
+
+        public int index() {
+            return index;
+        }
+
+        /**
+         * @param fen position
+         * @param config the settings of the engine the board is used for
+         * @return a board of this worker with the position fen, set up anew only if the position (or engine) changed
+         */
+        public ChessBoard boardFor(String fen, EngineConfig config) {
+            if (board == null || board.config() != config || !board.getBoardFEN().equals(fen))
+                board = new ChessBoard("Worker" + index, fen, config);
+            return board;
+        }
+    }
+
+    private final ThreadLocal<WorkerContext> currentContext = new ThreadLocal<>();
+    private ExecutorService executor;
+    private WorkerContext[] contexts;
+
+    public EnginePool(int nrOfThreads) {
+        start(nrOfThreads);
+    }
+
+    private void start(int nrOfThreads) {
+        final WorkerContext[] newContexts = new WorkerContext[nrOfThreads];
+        for (int i = 0; i < nrOfThreads; i++)
+            newContexts[i] = new WorkerContext(i);
+        final AtomicInteger nextContext = new AtomicInteger();
+        contexts = newContexts;
+        executor = Executors.newFixedThreadPool(nrOfThreads, r -> {
+            final WorkerContext context = newContexts[nextContext.getAndIncrement() % nrOfThreads];
+            Thread t = new Thread(() -> {
+                currentContext.set(context);
+                r.run();
+            }, "Waves-worker-" + context.index());
+            t.setDaemon(true);   // must not keep the process alive after quit
+            return t;
+        });
+    }
+
+    /**
+     * changes the nr of worker threads. Tasks submitted before are still completed on the old threads.
+     * @param nrOfThreads new nr of threads, limited to 1..MAX_THREADS
+     */
+    public synchronized void resize(int nrOfThreads) {
+        nrOfThreads = Math.max(1, Math.min(MAX_THREADS, nrOfThreads));
+        if (nrOfThreads == contexts.length)
+            return;
+        ExecutorService old = executor;
+        start(nrOfThreads);
+        old.shutdown();
+    }
+
+    /**
+     * @param task gets the context of the worker thread it runs on
+     * @return the result of task, when it is done
+     */
+    public synchronized <T> Future<T> submit(Function<WorkerContext, T> task) {
+        return executor.submit(() -> task.apply(currentContext.get()));
+    }
+
+    public synchronized int nrOfThreads() {
+        return contexts.length;
+    }
+
+    public synchronized void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * like shutdown(), but the tasks already submitted are still completed - so it can be called from a task
+     * running on the pool
+     */
+    public synchronized void shutdownWhenDone() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ *     Waves - Another Wired New Chess Engine
+ *     Copyright (C) 2024 Christian Ensel
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.ensel.waves;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import static de.ensel.waves.Evaluation.PACKED_SPILL;
+
+/**
+ * Bounded cache for the pre-evaluations of moves (see ChessPiece.evaluateMoveAfter()), keyed by the position
+ * hash of the board before the move and the move. Independent of search results, it only stores the
+ * Evaluation, mostly in its packed form.
+ * The entries are organized in sets of WAYS entries, replacement within a set follows the clock algorithm
+ * (entries that were hit since the hand passed them get a second chance). It can be used from several threads,
+ * the sets are guarded by striped locks.
+ */
+public class EvalCache {
+    public static final int DEFAULT_SIZE_MB = 16;
+    private static final int WAYS = 4;
+    private static final int BYTES_PER_ENTRY = Long.BYTES + Integer.BYTES + Long.BYTES + 4 + 1;  // key, move, value, spill reference, referenced
+    private static final int NR_OF_LOCKS = 256;     // power of 2
+
+    private static class Table {
+        final long[] positionHashes;
+        final int[] moveKeys;           // moveKey() per entry, 0 = free
+        final long[] values;            // packed evaluation or PACKED_SPILL, then it is in spilled[]
+        final Evaluation[] spilled;
+        final boolean[] referenced;     // hit since the clock hand passed
+        final byte[] clockHand;         // per set
+        final int setMask;
+
+        Table(int nrOfSets) {
+            int nrOfEntries = nrOfSets * WAYS;
+            positionHashes = new long[nrOfEntries];
+            moveKeys = new int[nrOfEntries];
+            values = new long[nrOfEntries];
+            spilled = new Evaluation[nrOfEntries];
+            referenced = new boolean[nrOfEntries];
+            clockHand = new byte[nrOfSets];
+            setMask = nrOfSets - 1;
+        }
+    }
+
+    private volatile Table table;
+    private final Object[] locks = new Object[NR_OF_LOCKS];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public EvalCache(int sizeInMB) {
+        for (int i = 0; i < NR_OF_LOCKS; i++)
+            locks[i] = new Object();
+        table = new Table(nrOfSetsFor(sizeInMB));
+    }
+
+    /**
+     * changes the size of the cache - its content is lost
+     * @param sizeInMB new size in MB (roughly)
+     */
+    public void resize(int sizeInMB) {
+        table = new Table(nrOfSetsFor(sizeInMB));
+    }
+
+    /**
+     * forgets all entries (e.g. for uci "Clear Hash")
+     */
+    public void clear() {
+        table = new Table(table.setMask + 1);
+    }
+
+    private static int nrOfSetsFor(int sizeInMB) {
+        long maxSets = ((long) Math.max(1, sizeInMB) << 20) / (BYTES_PER_ENTRY * WAYS);
+        int nrOfSets = 1;
+        while ((long) nrOfSets << 1 <= maxSets && nrOfSets < (1 << 28))
+            nrOfSets <<= 1;
+        return nrOfSets;
+    }
+
+    private static int moveKey(final Move move) {
+        // +1 to keep 0 free
+        return ((move.promotesTo() << 12) | (move.from() << 6) | move.to()) + 1;
+    }
+
+    private static int setOf(final long positionHash, final int moveKey, final int setMask) {
+        long h = (positionHash ^ moveKey) * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & setMask;
+    }
+
+    private Object lockOf(int set) {
+        return locks[set & (NR_OF_LOCKS - 1)];
+    }
+
+    //// access
+
+    /**
+     * adds the cached pre-evaluation of move on the position with positionHash to eval (if there is one)
+     * @param positionHash hash of the board before the move
+     * @param move the move
+     * @param eval evaluation to add to, typically still empty
+     * @return true if found (and added), false otherwise
+     */
+    public boolean addCachedEvalTo(final long positionHash, final Move move, final Evaluation eval) {
+        final Table t = table;
+        final int moveKey = moveKey(move);
+        final int set = setOf(positionHash, moveKey, t.setMask);
+        final int first = set * WAYS;
+        synchronized (lockOf(set)) {
+            for (int e = first; e < first + WAYS; e++) {
+                if (t.moveKeys[e] == moveKey && t.positionHashes[e] == positionHash) {
+                    t.referenced[e] = true;
+                    if (t.values[e] == PACKED_SPILL)
+                        eval.addEval(t.spilled[e]);
+                    else
+                        eval.addPacked(t.values[e]);
+                    hits.increment();
+                    return true;
+                }
+            }
+        }
+        misses.increment();
+        return false;
+    }
+
+    /**
+     * remembers the pre-evaluation of move on the position with positionHash
+     * @param positionHash hash of the board before the move
+     * @param move the move
+     * @param eval its evaluation (is not kept, but packed or copied)
+     */
+    public void put(final long positionHash, final Move move, final Evaluation eval) {
+        final long packed = eval.toPacked();
+        final Evaluation spill = packed == PACKED_SPILL ? new Evaluation(eval) : null;
+        final Table t = table;
+        final int moveKey = moveKey(move);
+        final int set = setOf(positionHash, moveKey, t.setMask);
+        final int first = set * WAYS;
+        synchronized (lockOf(set)) {
+            int victim = -1;
+            for (int e = first; e < first + WAYS; e++) {
+                if (t.moveKeys[e] == moveKey && t.positionHashes[e] == positionHash) {
+                    victim = e;     // already there, just update
+                    break;
+                }
+                if (victim < 0 && t.moveKeys[e] == 0)
+                    victim = e;
+            }
+            if (victim < 0) {
+                // clock: entries that were hit get a second chance
+                int hand = t.clockHand[set];
+                while (t.referenced[first + hand]) {
+                    t.referenced[first + hand] = false;
+                    hand = (hand + 1) % WAYS;
+                }
+                victim = first + hand;
+                t.clockHand[set] = (byte) ((hand + 1) % WAYS);
+            }
+            t.positionHashes[victim] = positionHash;
+            t.moveKeys[victim] = moveKey;
+            t.values[victim] = packed;
+            t.spilled[victim] = spill;
+            t.referenced[victim] = false;
+        }
+    }
+
+    //// statistics
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return how full the cache is in per mille (like uci "hashfull"), estimated from the first entries
+     */
+    public int hashfull() {
+        final Table t = table;
+        final int sampleSize = Math.min(1000, t.moveKeys.length);
+        int used = 0;
+        for (int e = 0; e < sampleSize; e++) {
+            if (t.moveKeys[e] != 0)
+                used++;
+        }
+        return used * 1000 / sampleSize;
+    }
+
+    /**
+     * @return max nr of entries
+     */
+    public int capacity() {
+        return table.moveKeys.length;
+    }
+
+    @Override
+    public String toString() {
+        return "EvalCache{" + capacity() + " entries, hits=" + getHits() + ", misses=" + getMisses() + "}";
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ *     Waves - Another Wired New Chess Engine
+ *     Copyright (C) 2024 Christian Ensel
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.ensel.waves;
+
+import java.util.Arrays;
+
+import static de.ensel.chessbasics.ChessBasics.*;
+import static de.ensel.waves.Evaluation.MAX_EVALDEPTH;
+
+/**
+ * Per-search buffer of the terms that sum up to the evaluation of moves. Each record only holds a term code,
+ * the move it refers to and the delta, and is linked to the previous record of the same Evaluation.
+ * Text is only rendered when asked for (see Evaluation.getReason()).
+ * Records are only written if EngineConfig.showReasons (or debugMsgMoveEval) is on.
+ */
+public class EvalReasons {
+
+    public enum Term {
+        DIRECT_EFFECT("direct_effect"),
+        LIKELY_BEING_CAPTURED("likely_being_captured_on"),
+        AVOIDING_CAPTURE_BY("avoiding_capture_by"),
+        ENABLING_COVER("enabling_cover"),
+        ENABLING_CAPTURE("enabling_capture"),
+        ENABLING_ILLEGAL("enabling_illegal"),
+        BLOCKING_COVER("blocking_cover"),
+        BLOCKING_CAPTURE("blocking_capture"),
+        CAPTURED_COVER("captured_cover"),
+        CAPTURED_CAPTURE("captured_capture"),
+        CHECKING("checking"),
+        CHECK_FORKING("check-forking"),
+        THREATENING("threatening"),
+        FORKING("forking"),
+        KING_AREA_ATTACK("king_area_attack"),
+        PRESSURING("pressuring"),
+        COVERING("covering"),
+        LEAVING_BEHIND("leaving_behind"),
+        LOOSING("loosing"),
+        PAWN_ADVANCE("pawn_advance"),
+        COUNTER_MOVE("counter-move");
+
+        private final String label;
+
+        Term(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    public static final int NO_REASON = -1;
+    private static final int NO_PIECE = -1;
+
+    // record layout: term, link to previous record of same eval, piece id, from<<8|to, then the delta per level
+    private static final int R_TERM = 0;
+    private static final int R_PREV = 1;
+    private static final int R_PCEID = 2;
+    private static final int R_FROMTO = 3;
+    private static final int R_DELTA = 4;
+    private static final int STRIDE = R_DELTA + MAX_EVALDEPTH;
+    private static final int MAX_RECORDS = 1 << 18;   // stop recording beyond this (only relevant for debugging anyway)
+    private static final Term[] TERMS = Term.values();
+
+    private final ChessBoard board;
+    private int[] records = new int[STRIDE << 8];
+    private int nrOfRecords = 0;
+    private int generation = 0;
+
+    EvalReasons(ChessBoard board) {
+        this.board = board;
+    }
+
+    /**
+     * forgets all records, e.g. at the start of a new search. Evaluations still referring to old records
+     * then render no reason any more.
+     */
+    void clear() {
+        nrOfRecords = 0;
+        generation++;
+    }
+
+    int size() {
+        return nrOfRecords;
+    }
+
+    //// recording
+
+    /** records term with delta as the latest reason of eval (but does not add delta to eval)
+     * @return the new record or NO_REASON if the buffer is full
+     */
+    int record(Evaluation eval, Term term, Move move, Evaluation delta) {
+        int r = newRecord(eval, term, move);
+        if (r != NO_REASON) {
+            for (int i = 0; i < MAX_EVALDEPTH; i++)
+                records[r * STRIDE + R_DELTA + i] = delta.getEvalAt(i);
+        }
+        return r;
+    }
+
+    int record(Evaluation eval, Term term, Move move, int delta, int futureLevel) {
+        int r = newRecord(eval, term, move);
+        if (r != NO_REASON)
+            records[r * STRIDE + R_DELTA + futureLevel] = delta;
+        return r;
+    }
+
+    int record(Evaluation eval, Term term, Move move, long packedDelta) {
+        int r = newRecord(eval, term, move);
+        if (r != NO_REASON) {
+            for (int i = 0; i < MAX_EVALDEPTH; i++)
+                records[r * STRIDE + R_DELTA + i] = Evaluation.packedEvalAt(packedDelta, i);
+        }
+        return r;
+    }
+
+    private int newRecord(Evaluation eval, Term term, Move move) {
+        if (nrOfRecords >= MAX_RECORDS)
+            return NO_REASON;
+        if ((nrOfRecords + 1) * STRIDE > records.length)
+            records = Arrays.copyOf(records, records.length << 1);
+        int r = nrOfRecords++;
+        int base = r * STRIDE;
+        records[base + R_TERM] = term.ordinal();
+        records[base + R_PREV] = eval.lastReasonIn(this);
+        records[base + R_PCEID] = move == null ? NO_PIECE : move.piece().id();
+        records[base + R_FROMTO] = move == null ? 0 : (move.from() << 8) | move.to();
+        Arrays.fill(records, base + R_DELTA, base + STRIDE, 0);
+        eval.linkReason(this, generation, r);
+        return r;
+    }
+
+    boolean isCurrent(int recordGeneration) {
+        return recordGeneration == generation;
+    }
+
+    //// rendering
+
+    /**
+     * @param lastRecord the latest record of an evaluation
+     * @return all reasons of the evaluation in the order they were recorded
+     */
+    String render(int lastRecord) {
+        if (lastRecord == NO_REASON)
+            return "";
+        int[] chain = new int[8];
+        int n = 0;
+        for (int r = lastRecord; r != NO_REASON; r = records[r * STRIDE + R_PREV]) {
+            if (n == chain.length)
+                chain = Arrays.copyOf(chain, n << 1);
+            chain[n++] = r;
+        }
+        StringBuilder result = new StringBuilder();
+        while (--n >= 0) {
+            appendRecord(result, chain[n]);
+            if (n > 0)
+                result.append("; ");
+        }
+        return result.toString();
+    }
+
+    String renderRecord(int r) {
+        if (r == NO_REASON)
+            return "";
+        StringBuilder result = new StringBuilder();
+        appendRecord(result, r);
+        return result.toString();
+    }
+
+    private void appendRecord(StringBuilder result, int r) {
+        int base = r * STRIDE;
+        Term term = TERMS[records[base + R_TERM]];
+        result.append(term).append("_");
+        int pceId = records[base + R_PCEID];
+        int fromTo = records[base + R_FROMTO];
+        if (term == Term.LIKELY_BEING_CAPTURED)
+            result.append(squareName(fromTo & 0xff));
+        else if (pceId != NO_PIECE) {
+            ChessPiece pce = board.getPiece(pceId);
+            if (pce != null)
+                result.append(pce.symbol());
+            result.append(new SimpleMove(fromTo >> 8, fromTo & 0xff));
+        }
+        Evaluation delta = new Evaluation();
+        for (int i = 0; i < MAX_EVALDEPTH; i++)
+            delta.setEval(records[base + R_DELTA + i], i);
+        result.append("+").append(delta);
+    }
+}
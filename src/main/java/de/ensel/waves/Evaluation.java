@@ -29,11 +29,26 @@ import static java.lang.Math.abs;
 /** provides an Evaluation for a Piece going towards a target.
  * The evaluation representation is an array of ints (typically used as centipawns) in board
  * perspective for [now, in one move, in 2 moves,...] called future levels.
+ * For calculations without allocation, an evaluation can also be packed into a long (see toPacked()).
  */
 public class Evaluation {
     public static final int MAX_EVALDEPTH = 5;
+
+    // packed form: sum of rawEval[i] * 2^PACKED_SHIFT[i], with 20 bits for level 0 and 11 bits for the other
+    // levels. As the lanes are just summed up, packed values can be added, subtracted and negated by plain long
+    // arithmetic (as long as no lane overflows). Evaluations that do not fit (e.g. mate values on a later level)
+    // "spill", i.e. they stay in the int[] form and toPacked() returns PACKED_SPILL.
+    public static final long PACKED_SPILL = Long.MIN_VALUE;
+    public static final long PACKED_ZERO = 0L;
+    private static final int[] PACKED_BITS = { 20, 11, 11, 11, 11 };
+    private static final int[] PACKED_SHIFT = { 0, 20, 31, 42, 53 };
+
     private int[] rawEval;
     private String reason = null;
+    // structured reasons, see EvalReasons - only set if reasons are recorded
+    private EvalReasons reasons = null;
+    private int reasonsGeneration;
+    private int lastReason = EvalReasons.NO_REASON;
 
     //// Constructors
     public Evaluation() {
@@ -49,6 +64,14 @@ public class Evaluation {
         setEval(eval, futureLevel);
     }
 
+    /**
+     * @param packed a packed evaluation as returned by toPacked() or built with packedOf() - but not PACKED_SPILL
+     */
+    public Evaluation(long packed) {
+        this.rawEval = new int[MAX_EVALDEPTH];
+        addPacked(packed);
+    }
+
     ////
     boolean isGoodForColor(int color) {
         for (int i = 0; i < MAX_EVALDEPTH; i++) {
@@ -125,6 +148,18 @@ public class Evaluation {
         return probablyBetter;
     }
 
+    /** like isGoodForColor(), but for an evaluation that only has a value at future level 0
+     */
+    static boolean rawEvalIsGoodForColor(int rawEval0, int color) {
+        return isWhite(color) ? rawEval0 >= 0 : rawEval0 <= 0;
+    }
+
+    /** like isAboutZero(), but for an evaluation that only has the one value at futureLevel
+     */
+    static boolean isAboutZero(int evalValue, int futureLevel) {
+        return futureLevel > 2 || abs(evalValue) <= futureLevel+1;
+    }
+
     private void copy(Evaluation oeval) {
         this.rawEval = Arrays.copyOf(oeval.rawEval, MAX_EVALDEPTH);
     }
@@ -290,6 +325,71 @@ public class Evaluation {
         return this;
     }
 
+    //// packed form
+
+    /**
+     * @param evalValue value to put into the lane - beware: range is unchecked, see fitsPacked()
+     * @param futureLevel the future level from 0..max
+     * @return a packed evaluation with just evalValue at futureLevel
+     */
+    public static long packedOf(int evalValue, int futureLevel) {
+        return (long) evalValue << PACKED_SHIFT[futureLevel];
+    }
+
+    public static boolean fitsPacked(int evalValue, int futureLevel) {
+        int half = 1 << (PACKED_BITS[futureLevel] - 1);
+        return evalValue >= -half && evalValue < half;
+    }
+
+    public static int packedEvalAt(long packed, int futureLevel) {
+        for (int i = 0; i < futureLevel; i++)
+            packed = (packed - lowestLane(packed, i)) >> PACKED_BITS[i];
+        return lowestLane(packed, futureLevel);
+    }
+
+    private static int lowestLane(long packed, int futureLevel) {
+        int unused = Long.SIZE - PACKED_BITS[futureLevel];
+        return (int) (packed << unused >> unused);  // sign extended
+    }
+
+    static boolean packedIsAboutZero(long packed) {
+        for (int i = 0; i <= 2; i++) {
+            int lane = lowestLane(packed, i);
+            if (abs(lane) > i+1)
+                return false;
+            packed = (packed - lane) >> PACKED_BITS[i];
+        }
+        return true;
+    }
+
+    /**
+     * @return this evaluation packed into a long or PACKED_SPILL if a value does not fit into its lane.
+     */
+    public long toPacked() {
+        long packed = 0L;
+        for (int i = 0; i < MAX_EVALDEPTH; i++) {
+            if (!fitsPacked(rawEval[i], i))
+                return PACKED_SPILL;
+            packed += packedOf(rawEval[i], i);
+        }
+        return packed == PACKED_SPILL ? PACKED_SPILL : packed;
+    }
+
+    /**
+     * adds a packed evaluation on all future levels
+     * @param packed packed evaluation, must not be PACKED_SPILL
+     * @return itself (but changed)
+     */
+    public Evaluation addPacked(long packed) {
+        for (int i = 0; i < MAX_EVALDEPTH; i++) {
+            int lane = lowestLane(packed, i);
+            rawEval[i] += lane;
+            if (i < MAX_EVALDEPTH-1)
+                packed = (packed - lane) >> PACKED_BITS[i];
+        }
+        return this;
+    }
+
     ////
     @Override
     public String toString() {
@@ -349,10 +449,29 @@ public class Evaluation {
             this.reason += "; " + reason;
     }
 
+    /**
+     * @return the recorded reasons (rendered to text only now) followed by the reason text that was set.
+     */
     public String getReason() {
+        String recorded = reasons == null || !reasons.isCurrent(reasonsGeneration) ? ""
+                                                                                   : reasons.render(lastReason);
         if (reason == null)
-            return "";
-        return reason;
+            return recorded;
+        if (recorded.isEmpty())
+            return reason;
+        return recorded + "; " + reason;
+    }
+
+    int lastReasonIn(EvalReasons buffer) {
+        if (reasons != buffer || !buffer.isCurrent(reasonsGeneration))
+            return EvalReasons.NO_REASON;
+        return lastReason;
+    }
+
+    void linkReason(EvalReasons buffer, int generation, int record) {
+        reasons = buffer;
+        reasonsGeneration = generation;
+        lastReason = record;
     }
 
 }
\ No newline at end of file
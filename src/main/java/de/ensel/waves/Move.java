@@ -31,29 +31,32 @@ public class Move extends SimpleMove implements Comparable<Move> {
     final private Square fromSq;
     final private Square toSq;
 
-    final private Square[] intermedSqs;
+    final private int[] intermedPos;     // positions slid over - shared with the MoveGraph, never change
+    // the moves of the pieces are templates, shared by all searches - they never change. Evaluations and the board
+    // after the move only exist in the evaluated copies, owned by the search nodes (see ChessPiece.evaluateMoveAfter())
+    final private boolean isTemplate;
     private Evaluation eval;
     private VBoard postVBoard;
 
 
     //// Constructors
 
-    public Move(ChessPiece myPiece, Square fromSq, Square toSq, Square[] intermedSqs) {
+    public Move(ChessPiece myPiece, Square fromSq, Square toSq, int[] intermedPos) {
         super(fromSq.pos(), toSq.pos(), EMPTY);
         this.myPiece = myPiece;
         this.fromSq = fromSq;
         this.toSq = toSq;
-        this.intermedSqs = intermedSqs;
-        this.eval = new Evaluation();
+        this.intermedPos = intermedPos;
+        this.isTemplate = true;
     }
 
-    public Move(ChessPiece myPiece, Square fromSq, Square toSq, int promotesToPceType, Square[] intermedSqs) {
+    public Move(ChessPiece myPiece, Square fromSq, Square toSq, int promotesToPceType, int[] intermedPos) {
         super(fromSq.pos(), toSq.pos(), promotesToPceType);
         this.myPiece = myPiece;
         this.fromSq = fromSq;
         this.toSq = toSq;
-        this.intermedSqs = intermedSqs;
-        this.eval = new Evaluation();
+        this.intermedPos = intermedPos;
+        this.isTemplate = true;
     }
 
     public Move(Move origin) {
@@ -61,8 +64,24 @@ public class Move extends SimpleMove implements Comparable<Move> {
         this.myPiece = origin.myPiece;
         this.fromSq = origin.fromSq;
         this.toSq = origin.toSq;
-        this.eval = new Evaluation(origin.eval);
-        this.intermedSqs = origin.intermedSqs;
+        this.eval = origin.eval == null ? null : new Evaluation(origin.eval);
+        this.intermedPos = origin.intermedPos;
+        this.isTemplate = false;
+    }
+
+    /**
+     * copies origin, but with a given evaluation instead of a copy of the one of origin
+     * @param origin the move to copy
+     * @param eval the evaluation to use (not copied)
+     */
+    public Move(Move origin, Evaluation eval) {
+        super(origin.from(), origin.to(), origin.promotesTo());
+        this.myPiece = origin.myPiece;
+        this.fromSq = origin.fromSq;
+        this.toSq = origin.toSq;
+        this.eval = eval;
+        this.intermedPos = origin.intermedPos;
+        this.isTemplate = false;
     }
 
     public Move(VBoard board, String moveString) {
@@ -70,10 +89,10 @@ public class Move extends SimpleMove implements Comparable<Move> {
         this.myPiece = board.getPieceAt(from());
         this.fromSq = board.baseBoard.getSquare(from());
         this.toSq = board.baseBoard.getSquare(to());
-        this.eval = new Evaluation();
 
         // todo! too lacy now, as this is only used in test cases
-        this.intermedSqs = null;
+        this.intermedPos = null;
+        this.isTemplate = false;
     }
 
     boolean isStraightMovingPawn() {
@@ -90,22 +109,22 @@ public class Move extends SimpleMove implements Comparable<Move> {
      * @param futureLevel the future level from 0..max
      */
     Move addEval(int evalValue, int futureLevel) {
-        eval.addEval(evalValue, futureLevel);
+        evalToChange().addEval(evalValue, futureLevel);
         return this;
     }
 
 
     Move addEval(Evaluation addEval) {
-        eval.addEval(addEval);
+        evalToChange().addEval(addEval);
         return this;
     }
 
     void addEvalAt(int eval, int futureLevel) {
-        this.eval.addEval(eval,futureLevel);
+        evalToChange().addEval(eval,futureLevel);
     }
 
     void subtractEvalAt(int eval, int futureLevel) {
-        this.eval.addEval(-eval,futureLevel);
+        evalToChange().addEval(-eval,futureLevel);
     }
 
     /**
@@ -113,11 +132,11 @@ public class Move extends SimpleMove implements Comparable<Move> {
      * @param meval the other evaluation
      */
     public void incEvaltoMaxFor(Evaluation meval, boolean color) {
-        eval.maxEvalPerFutureLevelFor(meval, color);
+        evalToChange().maxEvalPerFutureLevelFor(meval, color);
     }
 
     boolean isBetterForColorThan(final int color, final Move other) {
-        boolean probablyBetter = eval.isBetterForColorThan( color, other.getEval());
+        boolean probablyBetter = getEval().isBetterForColorThan( color, other.getEval());
         return probablyBetter;
     }
 
@@ -262,7 +281,7 @@ public class Move extends SimpleMove implements Comparable<Move> {
     //// simple info
 
     public int getSingleValueEval() {
-        return eval.getEvalAt(0);
+        return eval == null ? 0 : eval.getEvalAt(0);
     }
 
     public boolean isALegalMoveNow() {
@@ -294,16 +313,23 @@ public class Move extends SimpleMove implements Comparable<Move> {
     }
 
     public Evaluation getSimpleMoveEvalAfter(VBoard fb) {
+        return new Evaluation(getSimpleMoveValueAfter(fb), 0);  // fb.futureLevel());
+    }
+
+    /** like getSimpleMoveEvalAfter(), but without creating an Evaluation
+     * @return the value at future level 0
+     */
+    public int getSimpleMoveValueAfter(VBoard fb) {
         //TODO!!! assert (isALegalMoveAfter(fb));
         // consider context of already done moves.
         ChessPiece capturedPiece = fb.getPieceAt(to());
         if (capturedPiece == null)
-            return new Evaluation();
-        return new Evaluation(-capturedPiece.getValue(), 0);  // fb.futureLevel());
+            return 0;
+        return -capturedPiece.getValueAfter(fb);
     }
 
     public boolean mates() {
-        return isCheckmateEvalFor(getEval().getEvalAt(0), opponentColor(piece().color()));
+        return isCheckmateEvalFor(getSingleValueEval(), opponentColor(piece().color()));
     }
 
     public boolean blocksCheckAfter(VBoard fb) {
@@ -316,7 +342,20 @@ public class Move extends SimpleMove implements Comparable<Move> {
 
     //// getter
 
+    private Evaluation evalToChange() {
+        assert !isTemplate : "move templates are shared and never evaluated themselves";
+        return getEval();
+    }
+
+    /**
+     * @return the evaluation of this move - for a template always an empty one, that is not kept (see isTemplate)
+     */
     public Evaluation getEval() {
+        if (eval == null) {
+            if (isTemplate)
+                return new Evaluation();
+            eval = new Evaluation();
+        }
         return eval;
     }
 
@@ -332,8 +371,11 @@ public class Move extends SimpleMove implements Comparable<Move> {
         return toSq;
     }
 
-    public Square[] intermedSqs() {
-        return intermedSqs;
+    /**
+     * @return the positions the move slides over (not incl. from and to). Never change the array, it is shared.
+     */
+    public int[] intermedPos() {
+        return intermedPos;
     }
 
     public VBoard getPostVBoard() {
@@ -344,11 +386,18 @@ public class Move extends SimpleMove implements Comparable<Move> {
     //// setter
 
     public Move setEval(final Evaluation eval) {
+        assert !isTemplate : "move templates are shared and never evaluated themselves";
         this.eval = eval;
         return this;
     }
 
+    /**
+     * @param postVBoard the board after this move - only to be set on evaluated copies of the move templates
+     *                   of the pieces (see ChessPiece.evaluateMoveAfter()), as the templates are shared by all
+     *                   searches and would keep the board alive
+     */
     public void setPostVBoard(VBoard postVBoard) {
+        assert !isTemplate || postVBoard == null : "move templates are shared and never keep a board";
         this.postVBoard = postVBoard;
     }
 
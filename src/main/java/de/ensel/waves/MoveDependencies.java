@@ -0,0 +1,186 @@
+/*
+ *     Waves - Another Wired New Chess Engine
+ *     Copyright (C) 2024 Christian Ensel
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.ensel.waves;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static de.ensel.chessbasics.ChessBasics.NR_SQUARES;
+
+/**
+ * Which moves depend on which square - the core graph of the Waves idea: per kind of dependency (the move slides
+ * over, starts at or ends at the square), per color of the moving piece and per square, the ids of the moves.
+ * Stored as compressed sparse rows: one int[] of move ids per kind+color, with the moves of square pos at
+ * [offsets[pos], offsets[pos+1]). So scanning the moves of a square is a loop over a plain int array.
+ * Moves are registered once per board when its pieces are set up; the rows are (re)built from the
+ * registrations when accessed the next time. As the rows only depend on the types of the pieces in the order
+ * they were set up (all moves of a piece come from the MoveGraph of its type), boards with the same pieces
+ * share them - e.g. all boards set up from the start position.
+ */
+final class MoveDependencies {
+    static final int OVER = 0;
+    static final int START = 1;
+    static final int END = 2;
+    private static final int NR_OF_KINDS = 3;
+    private static final int MAX_SHARED_ROWS = 64;
+    private static final Map<String, Rows> SHARED_ROWS = new ConcurrentHashMap<>();    // per piece types, see layout
+
+    private Move[] movesById = new Move[256];
+    private int nrOfMoves = 0;
+    private final StringBuilder layout = new StringBuilder();  // the piece types in the order they were set up
+    private ChessPiece lastRegisteredPiece = null;
+
+    // registrations in order: row (kind*2+color) << 8 | pos, move id
+    private int[] registrations = new int[2048];
+    private int nrOfRegistrations = 0;
+
+    private volatile Rows rows = null;      // null = outdated
+
+    /**
+     * the built rows - never changed, so they can be shared by boards
+     * @param offsets per kind*2+color: per square the start index in moveIds, plus the end at [NR_SQUARES]
+     * @param moveIds per kind*2+color: the move ids, ordered by square
+     * @param overBits per square: bitset of the ids of the moves (of both colors) sliding over it
+     */
+    private record Rows(int[][] offsets, int[][] moveIds, long[][] overBits) { }
+
+    //// setup
+
+    /**
+     * @return the new id of move
+     */
+    synchronized int register(Move move) {
+        if (nrOfMoves == movesById.length)
+            movesById = Arrays.copyOf(movesById, nrOfMoves << 1);
+        movesById[nrOfMoves] = move;
+        if (move.piece() != lastRegisteredPiece) {
+            lastRegisteredPiece = move.piece();
+            layout.append((char) move.piece().pieceType());
+        }
+        return nrOfMoves++;
+    }
+
+    synchronized void addDependency(int kind, int color, int pos, int moveId) {
+        if (nrOfRegistrations + 2 > registrations.length)
+            registrations = Arrays.copyOf(registrations, registrations.length << 1);
+        registrations[nrOfRegistrations++] = ((kind * 2 + color) << 8) | pos;
+        registrations[nrOfRegistrations++] = moveId;
+        rows = null;
+    }
+
+    private synchronized Rows buildRows() {
+        if (rows != null)
+            return rows;
+        final String key = layout.toString();
+        Rows built = SHARED_ROWS.get(key);
+        if (built == null) {
+            built = calcRows();
+            if (SHARED_ROWS.size() >= MAX_SHARED_ROWS)
+                SHARED_ROWS.clear();    // rarely needed again anyway, e.g. the positions of a batch analysis
+            SHARED_ROWS.put(key, built);
+        }
+        rows = built;
+        return built;
+    }
+
+    private Rows calcRows() {
+        final int[][] offsets = new int[NR_OF_KINDS * 2][];
+        final int[][] moveIds = new int[NR_OF_KINDS * 2][];
+        // counting sort by row and square - stable, so the moves of a square stay in the order of registration
+        int[][] counts = new int[NR_OF_KINDS * 2][NR_SQUARES + 1];
+        for (int r = 0; r < nrOfRegistrations; r += 2) {
+            int key = registrations[r];
+            counts[key >> 8][(key & 0xff) + 1]++;
+        }
+        for (int row = 0; row < NR_OF_KINDS * 2; row++) {
+            for (int pos = 0; pos < NR_SQUARES; pos++)
+                counts[row][pos + 1] += counts[row][pos];
+            offsets[row] = counts[row].clone();
+            moveIds[row] = new int[counts[row][NR_SQUARES]];
+        }
+        for (int r = 0; r < nrOfRegistrations; r += 2) {
+            int key = registrations[r];
+            int row = key >> 8;
+            moveIds[row][counts[row][key & 0xff]++] = registrations[r + 1];
+        }
+        long[][] bits = new long[NR_SQUARES][nrOfWords()];
+        for (int color = 0; color < 2; color++) {
+            int row = OVER * 2 + color;
+            for (int pos = 0; pos < NR_SQUARES; pos++) {
+                for (int i = offsets[row][pos]; i < offsets[row][pos + 1]; i++)
+                    bits[pos][moveIds[row][i] >>> 6] |= 1L << moveIds[row][i];
+            }
+        }
+        return new Rows(offsets, moveIds, bits);
+    }
+
+    private Rows rows() {
+        final Rows r = rows;
+        return r != null ? r : buildRows();
+    }
+
+    //// access
+
+    Move getMove(int moveId) {
+        return movesById[moveId];
+    }
+
+    int nrOfMoves() {
+        return nrOfMoves;
+    }
+
+    /**
+     * @return nr of longs needed for a bitset of all move ids
+     */
+    int nrOfWords() {
+        return (nrOfMoves + 63) >>> 6;
+    }
+
+    /**
+     * @return bitset of the ids of all moves sliding over pos. Never change the array.
+     */
+    long[] overBitsOf(int pos) {
+        return rows().overBits()[pos];
+    }
+
+    /**
+     * @return nr of moves of kind and color that depend on square pos
+     */
+    int nrOfMovesAt(int kind, int color, int pos) {
+        final int[] offsets = rows().offsets()[kind * 2 + color];
+        return offsets[pos + 1] - offsets[pos];
+    }
+
+    /**
+     * @return the i-th move of kind and color that depends on square pos, see nrOfMovesAt()
+     */
+    Move moveAt(int kind, int color, int pos, int i) {
+        final Rows r = rows();
+        final int row = kind * 2 + color;
+        return movesById[r.moveIds()[row][r.offsets()[row][pos] + i]];
+    }
+
+    /**
+     * @return true if this and other share their rows (as they have the same pieces)
+     */
+    boolean sharesRowsWith(MoveDependencies other) {
+        return rows() == other.rows();
+    }
+}
@@ -0,0 +1,389 @@
+/*
+ *     Waves - Another Wired New Chess Engine
+ *     Copyright (C) 2024 Christian Ensel
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.ensel.waves;
+
+import java.util.Arrays;
+
+import static de.ensel.chessbasics.ChessBasics.*;
+import static java.lang.Math.max;
+
+/**
+ * Immutable graph of all theoretically (i.e. on an empty board) possible moves of a piece type: per from-square
+ * the edges to the target squares, each with the positions it slides over. It does not depend on a board, so it is
+ * calculated only once and shared by all pieces of that type on all boards (see of()).
+ * Edges of one from-square are stored consecutively (firstEdgeFrom(from) until firstEdgeFrom(from+1)).
+ * The arrays returned must never be changed.
+ */
+public final class MoveGraph {
+    private static final int[] NO_POSITIONS = new int[0];
+    private static final MoveGraph[] GRAPHS = new MoveGraph[PAWN_BLACK + 1];    // per piece type, colorless except pawns
+
+    private static final short NO_EDGE = -1;
+
+    private final int[] firstEdge = new int[NR_SQUARES + 1];
+    private final short[] edgeOf = new short[NR_SQUARES * NR_SQUARES];    // edge per from*NR_SQUARES+to, NO_EDGE if there is none
+    private final int[] edgeTo;
+    private final int[][] edgeIntermediates;    // positions slid over, in order from the from-square to the to-square
+    private final int[][] targets;              // per from-square
+    private final long[] targetBits;            // the same as bits per square
+
+    private MoveGraph(int[][] moveMatrix) {
+        int nrOfEdges = 0;
+        for (int fromPos = 0; fromPos < NR_SQUARES; fromPos++)
+            nrOfEdges += moveMatrix[fromPos].length;
+        edgeTo = new int[nrOfEdges];
+        edgeIntermediates = new int[nrOfEdges][];
+        targets = new int[NR_SQUARES][];
+        targetBits = new long[NR_SQUARES];
+        Arrays.fill(edgeOf, NO_EDGE);
+        int e = 0;
+        for (int fromPos = 0; fromPos < NR_SQUARES; fromPos++) {
+            firstEdge[fromPos] = e;
+            targets[fromPos] = moveMatrix[fromPos].clone();
+            for (int toPos : moveMatrix[fromPos]) {
+                edgeTo[e] = toPos;
+                targetBits[fromPos] |= 1L << toPos;
+                edgeOf[fromPos * NR_SQUARES + toPos] = (short) e;
+                // calcPositionsFromTo() starts with the from-square itself
+                int[] positions = calcPositionsFromTo(fromPos, toPos);
+                int nrOfIntermediates = max(0, positions.length - 1);
+                if (nrOfIntermediates == 0)
+                    edgeIntermediates[e] = NO_POSITIONS;
+                else {
+                    edgeIntermediates[e] = new int[nrOfIntermediates];
+                    System.arraycopy(positions, 1, edgeIntermediates[e], 0, nrOfIntermediates);
+                }
+                e++;
+            }
+        }
+        firstEdge[NR_SQUARES] = e;
+    }
+
+    /**
+     * @param pceType type of white or black piece - according to type constants in ChessBasics
+     * @return the move graph for that piece type, the same for both colors, except for pawns
+     */
+    public static MoveGraph of(int pceType) {
+        if (isPawn(pceType))
+            return GRAPHS[isPieceTypeWhite(pceType) ? PAWN : PAWN_BLACK];
+        MoveGraph graph = GRAPHS[colorlessPieceType(pceType)];
+        if (graph == null)
+            throw new IllegalStateException("Unexpected value: " + pceType);
+        return graph;
+    }
+
+    //// getter
+
+    public int nrOfEdges() {
+        return edgeTo.length;
+    }
+
+    public int firstEdgeFrom(int fromPos) {
+        return firstEdge[fromPos];
+    }
+
+    /**
+     * @return the edge from fromPos to toPos, or -1 if the piece type cannot move like that
+     */
+    public int edgeOf(int fromPos, int toPos) {
+        return edgeOf[fromPos * NR_SQUARES + toPos];
+    }
+
+    public int edgeTo(int edge) {
+        return edgeTo[edge];
+    }
+
+    /**
+     * @return the positions the edge slides over (not incl. from and to), empty for non-sliding moves
+     */
+    public int[] edgeIntermediates(int edge) {
+        return edgeIntermediates[edge];
+    }
+
+    /**
+     * @return all positions reachable from fromPos on an empty board
+     */
+    public int[] targetsFrom(int fromPos) {
+        return targets[fromPos];
+    }
+
+    public long targetBitsFrom(int fromPos) {
+        return targetBits[fromPos];
+    }
+
+
+    //// the theoretical moves per piece type
+
+    private static final int[][] moveMatrix4King = new int[][] {
+            /* rank 8: */ { 1, 9, 8 },  { 2, 0, 8, 10, 9 },  { 3, 1, 9, 11, 10 },  { 4, 2, 10, 12, 11 },  { 5, 3, 11, 13, 12 },  { 6, 4, 12, 14, 13 },  { 7, 5, 13, 15, 14 },  { 6, 14, 15 },
+            /* rank 7: */ { 9, 1, 17, 16, 0 },  { 10, 8, 2, 16, 0, 18, 17, 1 },  { 11, 9, 3, 17, 1, 19, 18, 2 },  { 12, 10, 4, 18, 2, 20, 19, 3 },  { 13, 11, 5, 19, 3, 21, 20, 4 },  { 14, 12, 6, 20, 4, 22, 21, 5 },  { 15, 13, 7, 21, 5, 23, 22, 6 },  { 14, 22, 6, 23, 7 },
+            /* rank 6: */ { 17, 9, 25, 24, 8 },  { 18, 16, 10, 24, 8, 26, 25, 9 },  { 19, 17, 11, 25, 9, 27, 26, 10 },  { 20, 18, 12, 26, 10, 28, 27, 11 },  { 21, 19, 13, 27, 11, 29, 28, 12 },  { 22, 20, 14, 28, 12, 30, 29, 13 },  { 23, 21, 15, 29, 13, 31, 30, 14 },  { 22, 30, 14, 31, 15 },
+            /* rank 5: */ { 25, 17, 33, 32, 16 },  { 26, 24, 18, 32, 16, 34, 33, 17 },  { 27, 25, 19, 33, 17, 35, 34, 18 },  { 28, 26, 20, 34, 18, 36, 35, 19 },  { 29, 27, 21, 35, 19, 37, 36, 20 },  { 30, 28, 22, 36, 20, 38, 37, 21 },  { 31, 29, 23, 37, 21, 39, 38, 22 },  { 30, 38, 22, 39, 23 },
+            /* rank 4: */ { 33, 25, 41, 40, 24 },  { 34, 32, 26, 40, 24, 42, 41, 25 },  { 35, 33, 27, 41, 25, 43, 42, 26 },  { 36, 34, 28, 42, 26, 44, 43, 27 },  { 37, 35, 29, 43, 27, 45, 44, 28 },  { 38, 36, 30, 44, 28, 46, 45, 29 },  { 39, 37, 31, 45, 29, 47, 46, 30 },  { 38, 46, 30, 47, 31 },
+            /* rank 3: */ { 41, 33, 49, 48, 32 },  { 42, 40, 34, 48, 32, 50, 49, 33 },  { 43, 41, 35, 49, 33, 51, 50, 34 },  { 44, 42, 36, 50, 34, 52, 51, 35 },  { 45, 43, 37, 51, 35, 53, 52, 36 },  { 46, 44, 38, 52, 36, 54, 53, 37 },  { 47, 45, 39, 53, 37, 55, 54, 38 },  { 46, 54, 38, 55, 39 },
+            /* rank 2: */ { 49, 41, 57, 56, 40 },  { 50, 48, 42, 56, 40, 58, 57, 41 },  { 51, 49, 43, 57, 41, 59, 58, 42 },  { 52, 50, 44, 58, 42, 60, 59, 43 },  { 53, 51, 45, 59, 43, 61, 60, 44 },  { 54, 52, 46, 60, 44, 62, 61, 45 },  { 55, 53, 47, 61, 45, 63, 62, 46 },  { 54, 62, 46, 63, 47 },
+            /* rank 1: */ { 57, 49, 48 },  { 58, 56, 50, 48, 49 },  { 59, 57, 51, 49, 50 },  { 60, 58, 52, 50, 51 },  { 61, 59, 53, 51, 52 },  { 62, 60, 54, 52, 53 },  { 63, 61, 55, 53, 54 },  { 62, 54, 55 }
+    };
+
+    private static final int[][] moveMatrix4Queen = new int[][] {
+            /* rank 8: */ {  /*E*/ 1, 2, 3, 4, 5, 6, 7,  /*SE*/ 9, 18, 27, 36, 45, 54, 63,  /*S*/ 8, 16, 24, 32, 40, 48, 56 },
+            {  /*E*/ 2, 3, 4, 5, 6, 7,  /*W*/ 0,  /*SW*/ 8,  /*SE*/ 10, 19, 28, 37, 46, 55,  /*S*/ 9, 17, 25, 33, 41, 49, 57 },
+            {  /*E*/ 3, 4, 5, 6, 7,  /*W*/ 1, 0,  /*SW*/ 9, 16,  /*SE*/ 11, 20, 29, 38, 47,  /*S*/ 10, 18, 26, 34, 42, 50, 58 },
+            {  /*E*/ 4, 5, 6, 7,  /*W*/ 2, 1, 0,  /*SW*/ 10, 17, 24,  /*SE*/ 12, 21, 30, 39,  /*S*/ 11, 19, 27, 35, 43, 51, 59 },
+            {  /*E*/ 5, 6, 7,  /*W*/ 3, 2, 1, 0,  /*SW*/ 11, 18, 25, 32,  /*SE*/ 13, 22, 31,  /*S*/ 12, 20, 28, 36, 44, 52, 60 },
+            {  /*E*/ 6, 7,  /*W*/ 4, 3, 2, 1, 0,  /*SW*/ 12, 19, 26, 33, 40,  /*SE*/ 14, 23,  /*S*/ 13, 21, 29, 37, 45, 53, 61 },
+            {  /*E*/ 7,  /*W*/ 5, 4, 3, 2, 1, 0,  /*SW*/ 13, 20, 27, 34, 41, 48,  /*SE*/ 15,  /*S*/ 14, 22, 30, 38, 46, 54, 62 },
+            {  /*W*/ 6, 5, 4, 3, 2, 1, 0,  /*SW*/ 14, 21, 28, 35, 42, 49, 56,  /*S*/ 15, 23, 31, 39, 47, 55, 63 },
+            /* rank 7: */ {  /*E*/ 9, 10, 11, 12, 13, 14, 15,  /*NE*/ 1,  /*SE*/ 17, 26, 35, 44, 53, 62,  /*S*/ 16, 24, 32, 40, 48, 56,  /*N*/ 0 },
+            {  /*E*/ 10, 11, 12, 13, 14, 15,  /*W*/ 8,  /*NE*/ 2,  /*SW*/ 16,  /*NW*/ 0,  /*SE*/ 18, 27, 36, 45, 54, 63,  /*S*/ 17, 25, 33, 41, 49, 57,  /*N*/ 1 },
+            {  /*E*/ 11, 12, 13, 14, 15,  /*W*/ 9, 8,  /*NE*/ 3,  /*SW*/ 17, 24,  /*NW*/ 1,  /*SE*/ 19, 28, 37, 46, 55,  /*S*/ 18, 26, 34, 42, 50, 58,  /*N*/ 2 },
+            {  /*E*/ 12, 13, 14, 15,  /*W*/ 10, 9, 8,  /*NE*/ 4,  /*SW*/ 18, 25, 32,  /*NW*/ 2,  /*SE*/ 20, 29, 38, 47,  /*S*/ 19, 27, 35, 43, 51, 59,  /*N*/ 3 },
+            {  /*E*/ 13, 14, 15,  /*W*/ 11, 10, 9, 8,  /*NE*/ 5,  /*SW*/ 19, 26, 33, 40,  /*NW*/ 3,  /*SE*/ 21, 30, 39,  /*S*/ 20, 28, 36, 44, 52, 60,  /*N*/ 4 },
+            {  /*E*/ 14, 15,  /*W*/ 12, 11, 10, 9, 8,  /*NE*/ 6,  /*SW*/ 20, 27, 34, 41, 48,  /*NW*/ 4,  /*SE*/ 22, 31,  /*S*/ 21, 29, 37, 45, 53, 61,  /*N*/ 5 },
+            {  /*E*/ 15,  /*W*/ 13, 12, 11, 10, 9, 8,  /*NE*/ 7,  /*SW*/ 21, 28, 35, 42, 49, 56,  /*NW*/ 5,  /*SE*/ 23,  /*S*/ 22, 30, 38, 46, 54, 62,  /*N*/ 6 },
+            {  /*W*/ 14, 13, 12, 11, 10, 9, 8,  /*SW*/ 22, 29, 36, 43, 50, 57,  /*NW*/ 6,  /*S*/ 23, 31, 39, 47, 55, 63,  /*N*/ 7 },
+            /* rank 6: */ {  /*E*/ 17, 18, 19, 20, 21, 22, 23,  /*NE*/ 9, 2,  /*SE*/ 25, 34, 43, 52, 61,  /*S*/ 24, 32, 40, 48, 56,  /*N*/ 8, 0 },
+            {  /*E*/ 18, 19, 20, 21, 22, 23,  /*W*/ 16,  /*NE*/ 10, 3,  /*SW*/ 24,  /*NW*/ 8,  /*SE*/ 26, 35, 44, 53, 62,  /*S*/ 25, 33, 41, 49, 57,  /*N*/ 9, 1 },
+            {  /*E*/ 19, 20, 21, 22, 23,  /*W*/ 17, 16,  /*NE*/ 11, 4,  /*SW*/ 25, 32,  /*NW*/ 9, 0,  /*SE*/ 27, 36, 45, 54, 63,  /*S*/ 26, 34, 42, 50, 58,  /*N*/ 10, 2 },
+            {  /*E*/ 20, 21, 22, 23,  /*W*/ 18, 17, 16,  /*NE*/ 12, 5,  /*SW*/ 26, 33, 40,  /*NW*/ 10, 1,  /*SE*/ 28, 37, 46, 55,  /*S*/ 27, 35, 43, 51, 59,  /*N*/ 11, 3 },
+            {  /*E*/ 21, 22, 23,  /*W*/ 19, 18, 17, 16,  /*NE*/ 13, 6,  /*SW*/ 27, 34, 41, 48,  /*NW*/ 11, 2,  /*SE*/ 29, 38, 47,  /*S*/ 28, 36, 44, 52, 60,  /*N*/ 12, 4 },
+            {  /*E*/ 22, 23,  /*W*/ 20, 19, 18, 17, 16,  /*NE*/ 14, 7,  /*SW*/ 28, 35, 42, 49, 56,  /*NW*/ 12, 3,  /*SE*/ 30, 39,  /*S*/ 29, 37, 45, 53, 61,  /*N*/ 13, 5 },
+            {  /*E*/ 23,  /*W*/ 21, 20, 19, 18, 17, 16,  /*NE*/ 15,  /*SW*/ 29, 36, 43, 50, 57,  /*NW*/ 13, 4,  /*SE*/ 31,  /*S*/ 30, 38, 46, 54, 62,  /*N*/ 14, 6 },
+            {  /*W*/ 22, 21, 20, 19, 18, 17, 16,  /*SW*/ 30, 37, 44, 51, 58,  /*NW*/ 14, 5,  /*S*/ 31, 39, 47, 55, 63,  /*N*/ 15, 7 },
+            /* rank 5: */ {  /*E*/ 25, 26, 27, 28, 29, 30, 31,  /*NE*/ 17, 10, 3,  /*SE*/ 33, 42, 51, 60,  /*S*/ 32, 40, 48, 56,  /*N*/ 16, 8, 0 },
+            {  /*E*/ 26, 27, 28, 29, 30, 31,  /*W*/ 24,  /*NE*/ 18, 11, 4,  /*SW*/ 32,  /*NW*/ 16,  /*SE*/ 34, 43, 52, 61,  /*S*/ 33, 41, 49, 57,  /*N*/ 17, 9, 1 },
+            {  /*E*/ 27, 28, 29, 30, 31,  /*W*/ 25, 24,  /*NE*/ 19, 12, 5,  /*SW*/ 33, 40,  /*NW*/ 17, 8,  /*SE*/ 35, 44, 53, 62,  /*S*/ 34, 42, 50, 58,  /*N*/ 18, 10, 2 },
+            {  /*E*/ 28, 29, 30, 31,  /*W*/ 26, 25, 24,  /*NE*/ 20, 13, 6,  /*SW*/ 34, 41, 48,  /*NW*/ 18, 9, 0,  /*SE*/ 36, 45, 54, 63,  /*S*/ 35, 43, 51, 59,  /*N*/ 19, 11, 3 },
+            {  /*E*/ 29, 30, 31,  /*W*/ 27, 26, 25, 24,  /*NE*/ 21, 14, 7,  /*SW*/ 35, 42, 49, 56,  /*NW*/ 19, 10, 1,  /*SE*/ 37, 46, 55,  /*S*/ 36, 44, 52, 60,  /*N*/ 20, 12, 4 },
+            {  /*E*/ 30, 31,  /*W*/ 28, 27, 26, 25, 24,  /*NE*/ 22, 15,  /*SW*/ 36, 43, 50, 57,  /*NW*/ 20, 11, 2,  /*SE*/ 38, 47,  /*S*/ 37, 45, 53, 61,  /*N*/ 21, 13, 5 },
+            {  /*E*/ 31,  /*W*/ 29, 28, 27, 26, 25, 24,  /*NE*/ 23,  /*SW*/ 37, 44, 51, 58,  /*NW*/ 21, 12, 3,  /*SE*/ 39,  /*S*/ 38, 46, 54, 62,  /*N*/ 22, 14, 6 },
+            {  /*W*/ 30, 29, 28, 27, 26, 25, 24,  /*SW*/ 38, 45, 52, 59,  /*NW*/ 22, 13, 4,  /*S*/ 39, 47, 55, 63,  /*N*/ 23, 15, 7 },
+            /* rank 4: */ {  /*E*/ 33, 34, 35, 36, 37, 38, 39,  /*NE*/ 25, 18, 11, 4,  /*SE*/ 41, 50, 59,  /*S*/ 40, 48, 56,  /*N*/ 24, 16, 8, 0 },
+            {  /*E*/ 34, 35, 36, 37, 38, 39,  /*W*/ 32,  /*NE*/ 26, 19, 12, 5,  /*SW*/ 40,  /*NW*/ 24,  /*SE*/ 42, 51, 60,  /*S*/ 41, 49, 57,  /*N*/ 25, 17, 9, 1 },
+            {  /*E*/ 35, 36, 37, 38, 39,  /*W*/ 33, 32,  /*NE*/ 27, 20, 13, 6,  /*SW*/ 41, 48,  /*NW*/ 25, 16,  /*SE*/ 43, 52, 61,  /*S*/ 42, 50, 58,  /*N*/ 26, 18, 10, 2 },
+            {  /*E*/ 36, 37, 38, 39,  /*W*/ 34, 33, 32,  /*NE*/ 28, 21, 14, 7,  /*SW*/ 42, 49, 56,  /*NW*/ 26, 17, 8,  /*SE*/ 44, 53, 62,  /*S*/ 43, 51, 59,  /*N*/ 27, 19, 11, 3 },
+            {  /*E*/ 37, 38, 39,  /*W*/ 35, 34, 33, 32,  /*NE*/ 29, 22, 15,  /*SW*/ 43, 50, 57,  /*NW*/ 27, 18, 9, 0,  /*SE*/ 45, 54, 63,  /*S*/ 44, 52, 60,  /*N*/ 28, 20, 12, 4 },
+            {  /*E*/ 38, 39,  /*W*/ 36, 35, 34, 33, 32,  /*NE*/ 30, 23,  /*SW*/ 44, 51, 58,  /*NW*/ 28, 19, 10, 1,  /*SE*/ 46, 55,  /*S*/ 45, 53, 61,  /*N*/ 29, 21, 13, 5 },
+            {  /*E*/ 39,  /*W*/ 37, 36, 35, 34, 33, 32,  /*NE*/ 31,  /*SW*/ 45, 52, 59,  /*NW*/ 29, 20, 11, 2,  /*SE*/ 47,  /*S*/ 46, 54, 62,  /*N*/ 30, 22, 14, 6 },
+            {  /*W*/ 38, 37, 36, 35, 34, 33, 32,  /*SW*/ 46, 53, 60,  /*NW*/ 30, 21, 12, 3,  /*S*/ 47, 55, 63,  /*N*/ 31, 23, 15, 7 },
+            /* rank 3: */ {  /*E*/ 41, 42, 43, 44, 45, 46, 47,  /*NE*/ 33, 26, 19, 12, 5,  /*SE*/ 49, 58,  /*S*/ 48, 56,  /*N*/ 32, 24, 16, 8, 0 },
+            {  /*E*/ 42, 43, 44, 45, 46, 47,  /*W*/ 40,  /*NE*/ 34, 27, 20, 13, 6,  /*SW*/ 48,  /*NW*/ 32,  /*SE*/ 50, 59,  /*S*/ 49, 57,  /*N*/ 33, 25, 17, 9, 1 },
+            {  /*E*/ 43, 44, 45, 46, 47,  /*W*/ 41, 40,  /*NE*/ 35, 28, 21, 14, 7,  /*SW*/ 49, 56,  /*NW*/ 33, 24,  /*SE*/ 51, 60,  /*S*/ 50, 58,  /*N*/ 34, 26, 18, 10, 2 },
+            {  /*E*/ 44, 45, 46, 47,  /*W*/ 42, 41, 40,  /*NE*/ 36, 29, 22, 15,  /*SW*/ 50, 57,  /*NW*/ 34, 25, 16,  /*SE*/ 52, 61,  /*S*/ 51, 59,  /*N*/ 35, 27, 19, 11, 3 },
+            {  /*E*/ 45, 46, 47,  /*W*/ 43, 42, 41, 40,  /*NE*/ 37, 30, 23,  /*SW*/ 51, 58,  /*NW*/ 35, 26, 17, 8,  /*SE*/ 53, 62,  /*S*/ 52, 60,  /*N*/ 36, 28, 20, 12, 4 },
+            {  /*E*/ 46, 47,  /*W*/ 44, 43, 42, 41, 40,  /*NE*/ 38, 31,  /*SW*/ 52, 59,  /*NW*/ 36, 27, 18, 9, 0,  /*SE*/ 54, 63,  /*S*/ 53, 61,  /*N*/ 37, 29, 21, 13, 5 },
+            {  /*E*/ 47,  /*W*/ 45, 44, 43, 42, 41, 40,  /*NE*/ 39,  /*SW*/ 53, 60,  /*NW*/ 37, 28, 19, 10, 1,  /*SE*/ 55,  /*S*/ 54, 62,  /*N*/ 38, 30, 22, 14, 6 },
+            {  /*W*/ 46, 45, 44, 43, 42, 41, 40,  /*SW*/ 54, 61,  /*NW*/ 38, 29, 20, 11, 2,  /*S*/ 55, 63,  /*N*/ 39, 31, 23, 15, 7 },
+            /* rank 2: */ {  /*E*/ 49, 50, 51, 52, 53, 54, 55,  /*NE*/ 41, 34, 27, 20, 13, 6,  /*SE*/ 57,  /*S*/ 56,  /*N*/ 40, 32, 24, 16, 8, 0 },
+            {  /*E*/ 50, 51, 52, 53, 54, 55,  /*W*/ 48,  /*NE*/ 42, 35, 28, 21, 14, 7,  /*SW*/ 56,  /*NW*/ 40,  /*SE*/ 58,  /*S*/ 57,  /*N*/ 41, 33, 25, 17, 9, 1 },
+            {  /*E*/ 51, 52, 53, 54, 55,  /*W*/ 49, 48,  /*NE*/ 43, 36, 29, 22, 15,  /*SW*/ 57,  /*NW*/ 41, 32,  /*SE*/ 59,  /*S*/ 58,  /*N*/ 42, 34, 26, 18, 10, 2 },
+            {  /*E*/ 52, 53, 54, 55,  /*W*/ 50, 49, 48,  /*NE*/ 44, 37, 30, 23,  /*SW*/ 58,  /*NW*/ 42, 33, 24,  /*SE*/ 60,  /*S*/ 59,  /*N*/ 43, 35, 27, 19, 11, 3 },
+            {  /*E*/ 53, 54, 55,  /*W*/ 51, 50, 49, 48,  /*NE*/ 45, 38, 31,  /*SW*/ 59,  /*NW*/ 43, 34, 25, 16,  /*SE*/ 61,  /*S*/ 60,  /*N*/ 44, 36, 28, 20, 12, 4 },
+            {  /*E*/ 54, 55,  /*W*/ 52, 51, 50, 49, 48,  /*NE*/ 46, 39,  /*SW*/ 60,  /*NW*/ 44, 35, 26, 17, 8,  /*SE*/ 62,  /*S*/ 61,  /*N*/ 45, 37, 29, 21, 13, 5 },
+            {  /*E*/ 55,  /*W*/ 53, 52, 51, 50, 49, 48,  /*NE*/ 47,  /*SW*/ 61,  /*NW*/ 45, 36, 27, 18, 9, 0,  /*SE*/ 63,  /*S*/ 62,  /*N*/ 46, 38, 30, 22, 14, 6 },
+            {  /*W*/ 54, 53, 52, 51, 50, 49, 48,  /*SW*/ 62,  /*NW*/ 46, 37, 28, 19, 10, 1,  /*S*/ 63,  /*N*/ 47, 39, 31, 23, 15, 7 },
+            /* rank 1: */ {  /*E*/ 57, 58, 59, 60, 61, 62, 63,  /*NE*/ 49, 42, 35, 28, 21, 14, 7,  /*N*/ 48, 40, 32, 24, 16, 8, 0 },
+            {  /*E*/ 58, 59, 60, 61, 62, 63,  /*W*/ 56,  /*NE*/ 50, 43, 36, 29, 22, 15,  /*NW*/ 48,  /*N*/ 49, 41, 33, 25, 17, 9, 1 },
+            {  /*E*/ 59, 60, 61, 62, 63,  /*W*/ 57, 56,  /*NE*/ 51, 44, 37, 30, 23,  /*NW*/ 49, 40,  /*N*/ 50, 42, 34, 26, 18, 10, 2 },
+            {  /*E*/ 60, 61, 62, 63,  /*W*/ 58, 57, 56,  /*NE*/ 52, 45, 38, 31,  /*NW*/ 50, 41, 32,  /*N*/ 51, 43, 35, 27, 19, 11, 3 },
+            {  /*E*/ 61, 62, 63,  /*W*/ 59, 58, 57, 56,  /*NE*/ 53, 46, 39,  /*NW*/ 51, 42, 33, 24,  /*N*/ 52, 44, 36, 28, 20, 12, 4 },
+            {  /*E*/ 62, 63,  /*W*/ 60, 59, 58, 57, 56,  /*NE*/ 54, 47,  /*NW*/ 52, 43, 34, 25, 16,  /*N*/ 53, 45, 37, 29, 21, 13, 5 },
+            {  /*E*/ 63,  /*W*/ 61, 60, 59, 58, 57, 56,  /*NE*/ 55,  /*NW*/ 53, 44, 35, 26, 17, 8,  /*N*/ 54, 46, 38, 30, 22, 14, 6 },
+            {  /*W*/ 62, 61, 60, 59, 58, 57, 56,  /*NW*/ 54, 45, 36, 27, 18, 9, 0,  /*N*/ 55, 47, 39, 31, 23, 15, 7 }
+    };
+
+    private static final int[][] moveMatrix4Rook = new int[][] {
+            /* rank 8: */ {  /*E*/ 1, 2, 3, 4, 5, 6, 7,  /*S*/ 8, 16, 24, 32, 40, 48, 56 },
+            {  /*E*/ 2, 3, 4, 5, 6, 7,  /*W*/ 0,  /*S*/ 9, 17, 25, 33, 41, 49, 57 },
+            {  /*E*/ 3, 4, 5, 6, 7,  /*W*/ 1, 0,  /*S*/ 10, 18, 26, 34, 42, 50, 58 },
+            {  /*E*/ 4, 5, 6, 7,  /*W*/ 2, 1, 0,  /*S*/ 11, 19, 27, 35, 43, 51, 59 },
+            {  /*E*/ 5, 6, 7,  /*W*/ 3, 2, 1, 0,  /*S*/ 12, 20, 28, 36, 44, 52, 60 },
+            {  /*E*/ 6, 7,  /*W*/ 4, 3, 2, 1, 0,  /*S*/ 13, 21, 29, 37, 45, 53, 61 },
+            {  /*E*/ 7,  /*W*/ 5, 4, 3, 2, 1, 0,  /*S*/ 14, 22, 30, 38, 46, 54, 62 },
+            {  /*W*/ 6, 5, 4, 3, 2, 1, 0,  /*S*/ 15, 23, 31, 39, 47, 55, 63 },
+            /* rank 7: */ {  /*E*/ 9, 10, 11, 12, 13, 14, 15,  /*S*/ 16, 24, 32, 40, 48, 56,  /*N*/ 0 },
+            {  /*E*/ 10, 11, 12, 13, 14, 15,  /*W*/ 8,  /*S*/ 17, 25, 33, 41, 49, 57,  /*N*/ 1 },
+            {  /*E*/ 11, 12, 13, 14, 15,  /*W*/ 9, 8,  /*S*/ 18, 26, 34, 42, 50, 58,  /*N*/ 2 },
+            {  /*E*/ 12, 13, 14, 15,  /*W*/ 10, 9, 8,  /*S*/ 19, 27, 35, 43, 51, 59,  /*N*/ 3 },
+            {  /*E*/ 13, 14, 15,  /*W*/ 11, 10, 9, 8,  /*S*/ 20, 28, 36, 44, 52, 60,  /*N*/ 4 },
+            {  /*E*/ 14, 15,  /*W*/ 12, 11, 10, 9, 8,  /*S*/ 21, 29, 37, 45, 53, 61,  /*N*/ 5 },
+            {  /*E*/ 15,  /*W*/ 13, 12, 11, 10, 9, 8,  /*S*/ 22, 30, 38, 46, 54, 62,  /*N*/ 6 },
+            {  /*W*/ 14, 13, 12, 11, 10, 9, 8,  /*S*/ 23, 31, 39, 47, 55, 63,  /*N*/ 7 },
+            /* rank 6: */ {  /*E*/ 17, 18, 19, 20, 21, 22, 23,  /*S*/ 24, 32, 40, 48, 56,  /*N*/ 8, 0 },
+            {  /*E*/ 18, 19, 20, 21, 22, 23,  /*W*/ 16,  /*S*/ 25, 33, 41, 49, 57,  /*N*/ 9, 1 },
+            {  /*E*/ 19, 20, 21, 22, 23,  /*W*/ 17, 16,  /*S*/ 26, 34, 42, 50, 58,  /*N*/ 10, 2 },
+            {  /*E*/ 20, 21, 22, 23,  /*W*/ 18, 17, 16,  /*S*/ 27, 35, 43, 51, 59,  /*N*/ 11, 3 },
+            {  /*E*/ 21, 22, 23,  /*W*/ 19, 18, 17, 16,  /*S*/ 28, 36, 44, 52, 60,  /*N*/ 12, 4 },
+            {  /*E*/ 22, 23,  /*W*/ 20, 19, 18, 17, 16,  /*S*/ 29, 37, 45, 53, 61,  /*N*/ 13, 5 },
+            {  /*E*/ 23,  /*W*/ 21, 20, 19, 18, 17, 16,  /*S*/ 30, 38, 46, 54, 62,  /*N*/ 14, 6 },
+            {  /*W*/ 22, 21, 20, 19, 18, 17, 16,  /*S*/ 31, 39, 47, 55, 63,  /*N*/ 15, 7 },
+            /* rank 5: */ {  /*E*/ 25, 26, 27, 28, 29, 30, 31,  /*S*/ 32, 40, 48, 56,  /*N*/ 16, 8, 0 },
+            {  /*E*/ 26, 27, 28, 29, 30, 31,  /*W*/ 24,  /*S*/ 33, 41, 49, 57,  /*N*/ 17, 9, 1 },
+            {  /*E*/ 27, 28, 29, 30, 31,  /*W*/ 25, 24,  /*S*/ 34, 42, 50, 58,  /*N*/ 18, 10, 2 },
+            {  /*E*/ 28, 29, 30, 31,  /*W*/ 26, 25, 24,  /*S*/ 35, 43, 51, 59,  /*N*/ 19, 11, 3 },
+            {  /*E*/ 29, 30, 31,  /*W*/ 27, 26, 25, 24,  /*S*/ 36, 44, 52, 60,  /*N*/ 20, 12, 4 },
+            {  /*E*/ 30, 31,  /*W*/ 28, 27, 26, 25, 24,  /*S*/ 37, 45, 53, 61,  /*N*/ 21, 13, 5 },
+            {  /*E*/ 31,  /*W*/ 29, 28, 27, 26, 25, 24,  /*S*/ 38, 46, 54, 62,  /*N*/ 22, 14, 6 },
+            {  /*W*/ 30, 29, 28, 27, 26, 25, 24,  /*S*/ 39, 47, 55, 63,  /*N*/ 23, 15, 7 },
+            /* rank 4: */ {  /*E*/ 33, 34, 35, 36, 37, 38, 39,  /*S*/ 40, 48, 56,  /*N*/ 24, 16, 8, 0 },
+            {  /*E*/ 34, 35, 36, 37, 38, 39,  /*W*/ 32,  /*S*/ 41, 49, 57,  /*N*/ 25, 17, 9, 1 },
+            {  /*E*/ 35, 36, 37, 38, 39,  /*W*/ 33, 32,  /*S*/ 42, 50, 58,  /*N*/ 26, 18, 10, 2 },
+            {  /*E*/ 36, 37, 38, 39,  /*W*/ 34, 33, 32,  /*S*/ 43, 51, 59,  /*N*/ 27, 19, 11, 3 },
+            {  /*E*/ 37, 38, 39,  /*W*/ 35, 34, 33, 32,  /*S*/ 44, 52, 60,  /*N*/ 28, 20, 12, 4 },
+            {  /*E*/ 38, 39,  /*W*/ 36, 35, 34, 33, 32,  /*S*/ 45, 53, 61,  /*N*/ 29, 21, 13, 5 },
+            {  /*E*/ 39,  /*W*/ 37, 36, 35, 34, 33, 32,  /*S*/ 46, 54, 62,  /*N*/ 30, 22, 14, 6 },
+            {  /*W*/ 38, 37, 36, 35, 34, 33, 32,  /*S*/ 47, 55, 63,  /*N*/ 31, 23, 15, 7 },
+            /* rank 3: */ {  /*E*/ 41, 42, 43, 44, 45, 46, 47,  /*S*/ 48, 56,  /*N*/ 32, 24, 16, 8, 0 },
+            {  /*E*/ 42, 43, 44, 45, 46, 47,  /*W*/ 40,  /*S*/ 49, 57,  /*N*/ 33, 25, 17, 9, 1 },
+            {  /*E*/ 43, 44, 45, 46, 47,  /*W*/ 41, 40,  /*S*/ 50, 58,  /*N*/ 34, 26, 18, 10, 2 },
+            {  /*E*/ 44, 45, 46, 47,  /*W*/ 42, 41, 40,  /*S*/ 51, 59,  /*N*/ 35, 27, 19, 11, 3 },
+            {  /*E*/ 45, 46, 47,  /*W*/ 43, 42, 41, 40,  /*S*/ 52, 60,  /*N*/ 36, 28, 20, 12, 4 },
+            {  /*E*/ 46, 47,  /*W*/ 44, 43, 42, 41, 40,  /*S*/ 53, 61,  /*N*/ 37, 29, 21, 13, 5 },
+            {  /*E*/ 47,  /*W*/ 45, 44, 43, 42, 41, 40,  /*S*/ 54, 62,  /*N*/ 38, 30, 22, 14, 6 },
+            {  /*W*/ 46, 45, 44, 43, 42, 41, 40,  /*S*/ 55, 63,  /*N*/ 39, 31, 23, 15, 7 },
+            /* rank 2: */ {  /*E*/ 49, 50, 51, 52, 53, 54, 55,  /*S*/ 56,  /*N*/ 40, 32, 24, 16, 8, 0 },
+            {  /*E*/ 50, 51, 52, 53, 54, 55,  /*W*/ 48,  /*S*/ 57,  /*N*/ 41, 33, 25, 17, 9, 1 },
+            {  /*E*/ 51, 52, 53, 54, 55,  /*W*/ 49, 48,  /*S*/ 58,  /*N*/ 42, 34, 26, 18, 10, 2 },
+            {  /*E*/ 52, 53, 54, 55,  /*W*/ 50, 49, 48,  /*S*/ 59,  /*N*/ 43, 35, 27, 19, 11, 3 },
+            {  /*E*/ 53, 54, 55,  /*W*/ 51, 50, 49, 48,  /*S*/ 60,  /*N*/ 44, 36, 28, 20, 12, 4 },
+            {  /*E*/ 54, 55,  /*W*/ 52, 51, 50, 49, 48,  /*S*/ 61,  /*N*/ 45, 37, 29, 21, 13, 5 },
+            {  /*E*/ 55,  /*W*/ 53, 52, 51, 50, 49, 48,  /*S*/ 62,  /*N*/ 46, 38, 30, 22, 14, 6 },
+            {  /*W*/ 54, 53, 52, 51, 50, 49, 48,  /*S*/ 63,  /*N*/ 47, 39, 31, 23, 15, 7 },
+            /* rank 1: */ {  /*E*/ 57, 58, 59, 60, 61, 62, 63,  /*N*/ 48, 40, 32, 24, 16, 8, 0 },
+            {  /*E*/ 58, 59, 60, 61, 62, 63,  /*W*/ 56,  /*N*/ 49, 41, 33, 25, 17, 9, 1 },
+            {  /*E*/ 59, 60, 61, 62, 63,  /*W*/ 57, 56,  /*N*/ 50, 42, 34, 26, 18, 10, 2 },
+            {  /*E*/ 60, 61, 62, 63,  /*W*/ 58, 57, 56,  /*N*/ 51, 43, 35, 27, 19, 11, 3 },
+            {  /*E*/ 61, 62, 63,  /*W*/ 59, 58, 57, 56,  /*N*/ 52, 44, 36, 28, 20, 12, 4 },
+            {  /*E*/ 62, 63,  /*W*/ 60, 59, 58, 57, 56,  /*N*/ 53, 45, 37, 29, 21, 13, 5 },
+            {  /*E*/ 63,  /*W*/ 61, 60, 59, 58, 57, 56,  /*N*/ 54, 46, 38, 30, 22, 14, 6 },
+            {  /*W*/ 62, 61, 60, 59, 58, 57, 56,  /*N*/ 55, 47, 39, 31, 23, 15, 7 }
+    };
+
+    private static final int[][] moveMatrix4Bishop = new int[][] {
+            /* rank 8: */ {  /*SE*/ 9, 18, 27, 36, 45, 54, 63 },
+            {  /*SW*/ 8,  /*SE*/ 10, 19, 28, 37, 46, 55 },
+            {  /*SW*/ 9, 16,  /*SE*/ 11, 20, 29, 38, 47 },
+            {  /*SW*/ 10, 17, 24,  /*SE*/ 12, 21, 30, 39 },
+            {  /*SW*/ 11, 18, 25, 32,  /*SE*/ 13, 22, 31 },
+            {  /*SW*/ 12, 19, 26, 33, 40,  /*SE*/ 14, 23 },
+            {  /*SW*/ 13, 20, 27, 34, 41, 48,  /*SE*/ 15 },
+            {  /*SW*/ 14, 21, 28, 35, 42, 49, 56 },
+            /* rank 7: */ {  /*NE*/ 1,  /*SE*/ 17, 26, 35, 44, 53, 62 },
+            {  /*NW*/ 0,  /*NE*/ 2,  /*SW*/ 16,  /*SE*/ 18, 27, 36, 45, 54, 63 },
+            {  /*NW*/ 1,  /*NE*/ 3,  /*SW*/ 17, 24,  /*SE*/ 19, 28, 37, 46, 55 },
+            {  /*NW*/ 2,  /*NE*/ 4,  /*SW*/ 18, 25, 32,  /*SE*/ 20, 29, 38, 47 },
+            {  /*NW*/ 3,  /*NE*/ 5,  /*SW*/ 19, 26, 33, 40,  /*SE*/ 21, 30, 39 },
+            {  /*NW*/ 4,  /*NE*/ 6,  /*SW*/ 20, 27, 34, 41, 48,  /*SE*/ 22, 31 },
+            {  /*NW*/ 5,  /*NE*/ 7,  /*SW*/ 21, 28, 35, 42, 49, 56,  /*SE*/ 23 },
+            {  /*NW*/ 6,  /*SW*/ 22, 29, 36, 43, 50, 57 },
+            /* rank 6: */ {  /*NE*/ 9, 2,  /*SE*/ 25, 34, 43, 52, 61 },
+            {  /*NW*/ 8,  /*NE*/ 10, 3,  /*SW*/ 24,  /*SE*/ 26, 35, 44, 53, 62 },
+            {  /*NW*/ 9, 0,  /*NE*/ 11, 4,  /*SW*/ 25, 32,  /*SE*/ 27, 36, 45, 54, 63 },
+            {  /*NW*/ 10, 1,  /*NE*/ 12, 5,  /*SW*/ 26, 33, 40,  /*SE*/ 28, 37, 46, 55 },
+            {  /*NW*/ 11, 2,  /*NE*/ 13, 6,  /*SW*/ 27, 34, 41, 48,  /*SE*/ 29, 38, 47 },
+            {  /*NW*/ 12, 3,  /*NE*/ 14, 7,  /*SW*/ 28, 35, 42, 49, 56,  /*SE*/ 30, 39 },
+            {  /*NW*/ 13, 4,  /*NE*/ 15,  /*SW*/ 29, 36, 43, 50, 57,  /*SE*/ 31 },
+            {  /*NW*/ 14, 5,  /*SW*/ 30, 37, 44, 51, 58 },
+            /* rank 5: */ {  /*NE*/ 17, 10, 3,  /*SE*/ 33, 42, 51, 60 },
+            {  /*NW*/ 16,  /*NE*/ 18, 11, 4,  /*SW*/ 32,  /*SE*/ 34, 43, 52, 61 },
+            {  /*NW*/ 17, 8,  /*NE*/ 19, 12, 5,  /*SW*/ 33, 40,  /*SE*/ 35, 44, 53, 62 },
+            {  /*NW*/ 18, 9, 0,  /*NE*/ 20, 13, 6,  /*SW*/ 34, 41, 48,  /*SE*/ 36, 45, 54, 63 },
+            {  /*NW*/ 19, 10, 1,  /*NE*/ 21, 14, 7,  /*SW*/ 35, 42, 49, 56,  /*SE*/ 37, 46, 55 },
+            {  /*NW*/ 20, 11, 2,  /*NE*/ 22, 15,  /*SW*/ 36, 43, 50, 57,  /*SE*/ 38, 47 },
+            {  /*NW*/ 21, 12, 3,  /*NE*/ 23,  /*SW*/ 37, 44, 51, 58,  /*SE*/ 39 },
+            {  /*NW*/ 22, 13, 4,  /*SW*/ 38, 45, 52, 59 },
+            /* rank 4: */ {  /*NE*/ 25, 18, 11, 4,  /*SE*/ 41, 50, 59 },
+            {  /*NW*/ 24,  /*NE*/ 26, 19, 12, 5,  /*SW*/ 40,  /*SE*/ 42, 51, 60 },
+            {  /*NW*/ 25, 16,  /*NE*/ 27, 20, 13, 6,  /*SW*/ 41, 48,  /*SE*/ 43, 52, 61 },
+            {  /*NW*/ 26, 17, 8,  /*NE*/ 28, 21, 14, 7,  /*SW*/ 42, 49, 56,  /*SE*/ 44, 53, 62 },
+            {  /*NW*/ 27, 18, 9, 0,  /*NE*/ 29, 22, 15,  /*SW*/ 43, 50, 57,  /*SE*/ 45, 54, 63 },
+            {  /*NW*/ 28, 19, 10, 1,  /*NE*/ 30, 23,  /*SW*/ 44, 51, 58,  /*SE*/ 46, 55 },
+            {  /*NW*/ 29, 20, 11, 2,  /*NE*/ 31,  /*SW*/ 45, 52, 59,  /*SE*/ 47 },
+            {  /*NW*/ 30, 21, 12, 3,  /*SW*/ 46, 53, 60 },
+            /* rank 3: */ {  /*NE*/ 33, 26, 19, 12, 5,  /*SE*/ 49, 58 },
+            {  /*NW*/ 32,  /*NE*/ 34, 27, 20, 13, 6,  /*SW*/ 48,  /*SE*/ 50, 59 },
+            {  /*NW*/ 33, 24,  /*NE*/ 35, 28, 21, 14, 7,  /*SW*/ 49, 56,  /*SE*/ 51, 60 },
+            {  /*NW*/ 34, 25, 16,  /*NE*/ 36, 29, 22, 15,  /*SW*/ 50, 57,  /*SE*/ 52, 61 },
+            {  /*NW*/ 35, 26, 17, 8,  /*NE*/ 37, 30, 23,  /*SW*/ 51, 58,  /*SE*/ 53, 62 },
+            {  /*NW*/ 36, 27, 18, 9, 0,  /*NE*/ 38, 31,  /*SW*/ 52, 59,  /*SE*/ 54, 63 },
+            {  /*NW*/ 37, 28, 19, 10, 1,  /*NE*/ 39,  /*SW*/ 53, 60,  /*SE*/ 55 },
+            {  /*NW*/ 38, 29, 20, 11, 2,  /*SW*/ 54, 61 },
+            /* rank 2: */ {  /*NE*/ 41, 34, 27, 20, 13, 6,  /*SE*/ 57 },
+            {  /*NW*/ 40,  /*NE*/ 42, 35, 28, 21, 14, 7,  /*SW*/ 56,  /*SE*/ 58 },
+            {  /*NW*/ 41, 32,  /*NE*/ 43, 36, 29, 22, 15,  /*SW*/ 57,  /*SE*/ 59 },
+            {  /*NW*/ 42, 33, 24,  /*NE*/ 44, 37, 30, 23,  /*SW*/ 58,  /*SE*/ 60 },
+            {  /*NW*/ 43, 34, 25, 16,  /*NE*/ 45, 38, 31,  /*SW*/ 59,  /*SE*/ 61 },
+            {  /*NW*/ 44, 35, 26, 17, 8,  /*NE*/ 46, 39,  /*SW*/ 60,  /*SE*/ 62 },
+            {  /*NW*/ 45, 36, 27, 18, 9, 0,  /*NE*/ 47,  /*SW*/ 61,  /*SE*/ 63 },
+            {  /*NW*/ 46, 37, 28, 19, 10, 1,  /*SW*/ 62 },
+            /* rank 1: */ {  /*NE*/ 49, 42, 35, 28, 21, 14, 7 },
+            {  /*NW*/ 48,  /*NE*/ 50, 43, 36, 29, 22, 15 },
+            {  /*NW*/ 49, 40,  /*NE*/ 51, 44, 37, 30, 23 },
+            {  /*NW*/ 50, 41, 32,  /*NE*/ 52, 45, 38, 31 },
+            {  /*NW*/ 51, 42, 33, 24,  /*NE*/ 53, 46, 39 },
+            {  /*NW*/ 52, 43, 34, 25, 16,  /*NE*/ 54, 47 },
+            {  /*NW*/ 53, 44, 35, 26, 17, 8,  /*NE*/ 55 },
+            {  /*NW*/ 54, 45, 36, 27, 18, 9, 0 }
+    };
+
+    private static final int[][] moveMatrix4Knight = new int[][] {
+            /* rank 8: */ { 10, 17 },  { 11, 16, 18 },  { 8, 12, 17, 19 },  { 9, 13, 18, 20 },  { 10, 14, 19, 21 },  { 11, 15, 20, 22 },  { 12, 21, 23 },  { 13, 22 },
+            /* rank 7: */ { 2, 18, 25 },  { 3, 19, 24, 26 },  { 0, 4, 16, 20, 25, 27 },  { 1, 5, 17, 21, 26, 28 },  { 2, 6, 18, 22, 27, 29 },  { 3, 7, 19, 23, 28, 30 },  { 4, 20, 29, 31 },  { 5, 21, 30 },
+            /* rank 6: */ { 1, 10, 26, 33 },  { 0, 2, 11, 27, 32, 34 },  { 1, 3, 8, 12, 24, 28, 33, 35 },  { 2, 4, 9, 13, 25, 29, 34, 36 },  { 3, 5, 10, 14, 26, 30, 35, 37 },  { 4, 6, 11, 15, 27, 31, 36, 38 },  { 5, 7, 12, 28, 37, 39 },  { 6, 13, 29, 38 },
+            /* rank 5: */ { 9, 18, 34, 41 },  { 8, 10, 19, 35, 40, 42 },  { 9, 11, 16, 20, 32, 36, 41, 43 },  { 10, 12, 17, 21, 33, 37, 42, 44 },  { 11, 13, 18, 22, 34, 38, 43, 45 },  { 12, 14, 19, 23, 35, 39, 44, 46 },  { 13, 15, 20, 36, 45, 47 },  { 14, 21, 37, 46 },
+            /* rank 4: */ { 17, 26, 42, 49 },  { 16, 18, 27, 43, 48, 50 },  { 17, 19, 24, 28, 40, 44, 49, 51 },  { 18, 20, 25, 29, 41, 45, 50, 52 },  { 19, 21, 26, 30, 42, 46, 51, 53 },  { 20, 22, 27, 31, 43, 47, 52, 54 },  { 21, 23, 28, 44, 53, 55 },  { 22, 29, 45, 54 },
+            /* rank 3: */ { 25, 34, 50, 57 },  { 24, 26, 35, 51, 56, 58 },  { 25, 27, 32, 36, 48, 52, 57, 59 },  { 26, 28, 33, 37, 49, 53, 58, 60 },  { 27, 29, 34, 38, 50, 54, 59, 61 },  { 28, 30, 35, 39, 51, 55, 60, 62 },  { 29, 31, 36, 52, 61, 63 },  { 30, 37, 53, 62 },
+            /* rank 2: */ { 33, 42, 58 },  { 32, 34, 43, 59 },  { 33, 35, 40, 44, 56, 60 },  { 34, 36, 41, 45, 57, 61 },  { 35, 37, 42, 46, 58, 62 },  { 36, 38, 43, 47, 59, 63 },  { 37, 39, 44, 60 },  { 38, 45, 61 },
+            /* rank 1: */ { 41, 50 },  { 40, 42, 51 },  { 41, 43, 48, 52 },  { 42, 44, 49, 53 },  { 43, 45, 50, 54 },  { 44, 46, 51, 55 },  { 45, 47, 52 },  { 46, 53 }
+    };
+
+
+    private static final int[][] moveMatrix4PawnWhite = new int[][] {
+            /* rank 8: */ {}, {}, {}, {}, {}, {}, {}, {},
+            /* rank 7: */ { 0, 1 },  { 0, 1, 2 },  { 1, 2, 3 },  { 2, 3, 4 },  { 3, 4, 5 },  { 4, 5, 6 },  { 5, 6, 7 },  { 6, 7 },
+            /* rank 6: */ { 8, 9 },  { 8, 9, 10 },  { 9, 10, 11 },  { 10, 11, 12 },  { 11, 12, 13 },  { 12, 13, 14 },  { 13, 14, 15 },  { 14, 15 },
+            /* rank 5: */ { 16, 17 },  { 16, 17, 18 },  { 17, 18, 19 },  { 18, 19, 20 },  { 19, 20, 21 },  { 20, 21, 22 },  { 21, 22, 23 },  { 22, 23 },
+            /* rank 4: */ { 24, 25 },  { 24, 25, 26 },  { 25, 26, 27 },  { 26, 27, 28 },  { 27, 28, 29 },  { 28, 29, 30 },  { 29, 30, 31 },  { 30, 31 },
+            /* rank 3: */ { 32, 33 },  { 32, 33, 34 },  { 33, 34, 35 },  { 34, 35, 36 },  { 35, 36, 37 },  { 36, 37, 38 },  { 37, 38, 39 },  { 38, 39 },
+            /* rank 2: */ { 40, 41 },  { 40, 41, 42 },  { 41, 42, 43 },  { 42, 43, 44 },  { 43, 44, 45 },  { 44, 45, 46 },  { 45, 46, 47 },  { 46, 47 },
+            /* rank 1: */ {}, {}, {}, {}, {}, {}, {}, {},
+    };
+
+    private static final int[][] moveMatrix4PawnBlack = new int[][] {
+            /* rank 8: */ {}, {}, {}, {}, {}, {}, {}, {},
+            /* rank 7: */ { 16, 17 },  { 16, 17, 18 },  { 17, 18, 19 },  { 18, 19, 20 },  { 19, 20, 21 },  { 20, 21, 22 },  { 21, 22, 23 },  { 22, 23 },
+            /* rank 6: */ { 24, 25 },  { 24, 25, 26 },  { 25, 26, 27 },  { 26, 27, 28 },  { 27, 28, 29 },  { 28, 29, 30 },  { 29, 30, 31 },  { 30, 31 },
+            /* rank 5: */ { 32, 33 },  { 32, 33, 34 },  { 33, 34, 35 },  { 34, 35, 36 },  { 35, 36, 37 },  { 36, 37, 38 },  { 37, 38, 39 },  { 38, 39 },
+            /* rank 4: */ { 40, 41 },  { 40, 41, 42 },  { 41, 42, 43 },  { 42, 43, 44 },  { 43, 44, 45 },  { 44, 45, 46 },  { 45, 46, 47 },  { 46, 47 },
+            /* rank 3: */ { 48, 49 },  { 48, 49, 50 },  { 49, 50, 51 },  { 50, 51, 52 },  { 51, 52, 53 },  { 52, 53, 54 },  { 53, 54, 55 },  { 54, 55 },
+            /* rank 2: */ { 56, 57 },  { 56, 57, 58 },  { 57, 58, 59 },  { 58, 59, 60 },  { 59, 60, 61 },  { 60, 61, 62 },  { 61, 62, 63 },  { 62, 63 },
+            /* rank 1: */ {}, {}, {}, {}, {}, {}, {}, {},
+    };
+
+    // built after the matrices above are initialized
+    static {
+        GRAPHS[KING] = new MoveGraph(moveMatrix4King);
+        GRAPHS[QUEEN] = new MoveGraph(moveMatrix4Queen);
+        GRAPHS[ROOK] = new MoveGraph(moveMatrix4Rook);
+        GRAPHS[BISHOP] = new MoveGraph(moveMatrix4Bishop);
+        GRAPHS[KNIGHT] = new MoveGraph(moveMatrix4Knight);
+        GRAPHS[PAWN] = new MoveGraph(moveMatrix4PawnWhite);
+        GRAPHS[PAWN_BLACK] = new MoveGraph(moveMatrix4PawnBlack);
+    }
+}
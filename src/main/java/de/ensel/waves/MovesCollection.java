@@ -19,54 +19,79 @@
 package de.ensel.waves;
 
 import java.util.AbstractCollection;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
 
 /**
- * only use for Move-Lists with unique to-positions
+ * The moves of a piece from one square, with unique to-positions. It is just a view on the piece's moves, which are
+ * stored in one array indexed by the edges of the shared MoveGraph, so finding the move to a position is a plain
+ * array access and iterating needs no boxing or hashing. Use size() and get(i) to iterate without any allocation.
  */
 public class MovesCollection extends AbstractCollection<Move> {
-    private HashMap<Integer, Move> moves;
+    private final Move[] movesByEdge;   // all moves of the piece - shared, never change
+    private final MoveGraph graph;
+    private final int fromPos;
+    private final int firstEdge;
+    private final int endEdge;
 
-    public MovesCollection() {
-        this.moves = new HashMap<>(8);;
+    MovesCollection(Move[] movesByEdge, MoveGraph graph, int fromPos) {
+        this.movesByEdge = movesByEdge;
+        this.graph = graph;
+        this.fromPos = fromPos;
+        this.firstEdge = graph.firstEdgeFrom(fromPos);
+        this.endEdge = graph.firstEdgeFrom(fromPos + 1);
     }
 
     Collection<Move> getAllMoves() {
-        if (moves == null || moves.isEmpty())
+        if (isEmpty())
             return null;
-        return moves.values();
+        return this;
     }
 
     public Move getMoveTo(int to) {
-        return moves.get(to);
+        int edge = graph.edgeOf(fromPos, to);
+        return edge < 0 ? null : movesByEdge[edge];
     }
 
-    @Override
-    /**
-     * add move
-     * @param em
-     * @return
-     */
-    public boolean add(Move m) {
-        Move old = moves.put(m.to(), m);
-        return m != old;
+    public Move get(int i) {
+        return movesByEdge[firstEdge + i];
     }
 
     @Override
     public Iterator<Move> iterator() {
-        return moves.values().iterator();
+        return new Iterator<>() {
+            private int e = firstEdge;
+
+            @Override
+            public boolean hasNext() {
+                return e < endEdge;
+            }
+
+            @Override
+            public Move next() {
+                if (e >= endEdge)
+                    throw new NoSuchElementException();
+                return movesByEdge[e++];
+            }
+        };
+    }
+
+    @Override
+    public Stream<Move> stream() {
+        return Arrays.stream(movesByEdge, firstEdge, endEdge);
     }
 
     @Override
     public int size() {
-        return moves.size();
+        return endEdge - firstEdge;
     }
 
     @Override
     public boolean isEmpty() {
-        return moves.isEmpty();
+        return endEdge == firstEdge;
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,113 @@
+/*
+ *     Waves - Another Wired New Chess Engine
+ *     Copyright (C) 2024 Christian Ensel
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.ensel.waves;
+
+import java.util.Arrays;
+
+/**
+ * Remembers the pre-evaluations of the moves at the nodes along the current search path, so a node can reuse the
+ * ones of its grandparent node (the last time the same color was to move): a move whose footprint (see footprintOf())
+ * was not touched by the last two moves has the same local effects as two plies earlier. Only those
+ * are taken over, all others are re-evaluated - the "waves" principle applied to the search.
+ * Opt-in, see EngineConfig.reuseGrandparentPreEvals. As the footprint does not cover everything the pre-evaluation
+ * looks at, the results can differ slightly from a full pre-evaluation.
+ */
+class PreEvalReuse {
+    private final MoveDependencies moveDependencies;
+    private final VBoard[] pathBoards = new VBoard[PrincipalVariation.MAX_PLY];
+    private final Evaluation[][] evalsAtPly = new Evaluation[PrincipalVariation.MAX_PLY][];    // per move id
+    private final int[][] rememberedIds = new int[PrincipalVariation.MAX_PLY][];
+    private final int[] nrOfRemembered = new int[PrincipalVariation.MAX_PLY];
+    private long nrOfReused = 0;
+
+    PreEvalReuse(MoveDependencies moveDependencies) {
+        this.moveDependencies = moveDependencies;
+    }
+
+    /** to be called when the search enters a node at ply, it forgets what was remembered at that ply before */
+    void startNode(int ply, VBoard board) {
+        if (ply >= PrincipalVariation.MAX_PLY)
+            return;
+        pathBoards[ply] = board;
+        if (evalsAtPly[ply] == null || evalsAtPly[ply].length < moveDependencies.nrOfMoves()) {
+            evalsAtPly[ply] = new Evaluation[moveDependencies.nrOfMoves()];
+            rememberedIds[ply] = new int[64];
+        }
+        else {
+            for (int i = 0; i < nrOfRemembered[ply]; i++)
+                evalsAtPly[ply][rememberedIds[ply][i]] = null;
+        }
+        nrOfRemembered[ply] = 0;
+    }
+
+    /** to be called at the end of the search - forgets the boards of the path, so they can be garbage collected */
+    void endSearch() {
+        Arrays.fill(pathBoards, null);
+    }
+
+    /** remembers (a copy of) the pre-evaluation of move at the node at ply */
+    void remember(int ply, Move move, Evaluation eval) {
+        if (ply >= PrincipalVariation.MAX_PLY)
+            return;
+        int id = move.piece().moveIdOf(move.from(), move.to());
+        if (evalsAtPly[ply][id] == null) {
+            if (nrOfRemembered[ply] == rememberedIds[ply].length)
+                rememberedIds[ply] = Arrays.copyOf(rememberedIds[ply], nrOfRemembered[ply] << 1);
+            rememberedIds[ply][nrOfRemembered[ply]++] = id;
+        }
+        evalsAtPly[ply][id] = new Evaluation(eval);
+    }
+
+    /**
+     * @return the pre-evaluation of move at the grandparent node, if its footprint was not touched since then,
+     * null otherwise
+     */
+    Evaluation reusableEvalFor(int ply, Move move) {
+        if (ply < 2 || ply >= PrincipalVariation.MAX_PLY)
+            return null;
+        Evaluation earlierEval = evalsAtPly[ply-2][move.piece().moveIdOf(move.from(), move.to())];
+        if (earlierEval == null)
+            return null;
+        VBoard board = pathBoards[ply];
+        VBoard parent = pathBoards[ply-1];
+        if (board.isCheck() || parent.isCheck())
+            return null;    // too much changes with checks
+        long touched = board.getChangedClashSquares() | parent.getChangedClashSquares();
+        if ((footprintOf(move) & touched) != 0)
+            return null;
+        nrOfReused++;
+        return earlierEval;
+    }
+
+    /**
+     * @return bits per square that the pre-evaluation of move mainly depends on: from, to and the squares in between,
+     * plus all squares the piece could reach from from or to (on an empty board)
+     */
+    static long footprintOf(Move move) {
+        long footprint = (1L << move.from()) | (1L << move.to());
+        for (int pos : move.intermedPos())
+            footprint |= 1L << pos;
+        MoveGraph graph = move.piece().moveGraph();
+        return footprint | graph.targetBitsFrom(move.from()) | graph.targetBitsFrom(move.to());
+    }
+
+    long getNrOfReused() {
+        return nrOfReused;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ *     Waves - Another Wired New Chess Engine
+ *     Copyright (C) 2024 Christian Ensel
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.ensel.waves;
+
+/**
+ * Triangular principal variation table, maintained by the search: line[ply] holds the best line found so far
+ * for the node at ply, starting with its best move. If a move becomes the best at ply, the line of its
+ * child node (at ply+1) is copied behind it. Moves are stored as int ids, see moveId().
+ */
+public class PrincipalVariation {
+    public static final int MAX_PLY = 64;
+
+    private final int[][] line = new int[MAX_PLY][];
+    private final int[] length = new int[MAX_PLY];
+
+    public PrincipalVariation() {
+        for (int ply = 0; ply < MAX_PLY; ply++)
+            line[ply] = new int[MAX_PLY - ply];
+    }
+
+    static int moveId(SimpleMove move) {
+        return (move.promotesTo() << 16) | (move.from() << 8) | move.to();
+    }
+
+    static SimpleMove moveOfId(int moveId) {
+        return new SimpleMove((moveId >> 8) & 0xff, moveId & 0xff, moveId >> 16);
+    }
+
+    //// maintained by the search
+
+    /** to be called when the search enters a node at ply */
+    void clearPly(int ply) {
+        if (ply < MAX_PLY)
+            length[ply] = 0;
+    }
+
+    /** the line at ply becomes just move - e.g. at the end of the search or if the game ends after move */
+    void setLeaf(int ply, Move move) {
+        if (ply >= MAX_PLY)
+            return;
+        line[ply][0] = moveId(move);
+        length[ply] = 1;
+    }
+
+    /** move becomes the best at ply, followed by the line of its child node at ply+1 */
+    void update(int ply, Move move) {
+        if (ply >= MAX_PLY)
+            return;
+        line[ply][0] = moveId(move);
+        int childLength = lengthAt(ply+1);
+        if (childLength > 0)
+            System.arraycopy(line[ply+1], 0, line[ply], 1, childLength);
+        length[ply] = 1 + childLength;
+    }
+
+    /** takes over the line of the root from other, e.g. to go back to the result of an earlier search */
+    void copyFrom(PrincipalVariation other) {
+        System.arraycopy(other.line[0], 0, line[0], 0, other.length[0]);
+        length[0] = other.length[0];
+    }
+
+    //// getter
+
+    public int length() {
+        return length[0];
+    }
+
+    public int lengthAt(int ply) {
+        return ply < MAX_PLY ? length[ply] : 0;
+    }
+
+    /**
+     * @return copy of the principal variation (of the root) as move ids
+     */
+    public int[] getMoveIds() {
+        int[] result = new int[length[0]];
+        System.arraycopy(line[0], 0, result, 0, length[0]);
+        return result;
+    }
+
+    public SimpleMove[] getMoves() {
+        SimpleMove[] result = new SimpleMove[length[0]];
+        for (int i = 0; i < length[0]; i++)
+            result[i] = moveOfId(line[0][i]);
+        return result;
+    }
+
+    /**
+     * @param ply the ply of the node
+     * @return the best line found for the node at ply in uci notation, separated by blanks
+     */
+    public String toString(int ply) {
+        if (ply >= MAX_PLY)
+            return "";
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < length[ply]; i++) {
+            if (i > 0)
+                result.append(' ');
+            result.append(moveOfId(line[ply][i]));
+        }
+        return result.toString();
+    }
+
+    /**
+     * @return the principal variation in uci notation (as needed for "info pv")
+     */
+    @Override
+    public String toString() {
+        return toString(0);
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ *     Waves - Another Wired New Chess Engine
+ *     Copyright (C) 2024 Christian Ensel
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.ensel.waves;
+
+import static de.ensel.waves.VBoardInterface.MAX_PIECES;
+
+/**
+ * Everything one search changes while it runs: the principal variation, the buffer for the reasons of the
+ * evaluations, the counters, the limits and the boards created below the root. The ChessBoard, its pieces and
+ * their Move templates are only read by a search (the scores are kept in evaluated copies of the Moves, owned by
+ * the search nodes), so any number of searches can run on the same ChessBoard at the same time, each with its
+ * own SearchContext. See ChessBoard.getBestMove(TimeManager, SearchProgress).
+ */
+public class SearchContext {
+    private final ChessBoard board;
+    private final PrincipalVariation pv = new PrincipalVariation();
+    private final EvalReasons evalReasons;
+    private PreEvalReuse preEvalReuse = null;       // only created if EngineConfig.reuseGrandparentPreEvals
+    private final ChildBoards rootChildren = new ChildBoards();   // the boards after the moves at the root
+    private volatile boolean stopRequested = false;
+
+    // limits and reporting, set for the time of the search
+    TimeManager timeManager = null;     // null if the search only depends on the level
+    SearchProgress progress = null;     // may be null
+
+    // counters
+    int countCalculatedBoards;          // of the current iteration
+    long nodesOfPrevIterations;         // of the running iterative deepening
+    long countMoves;                    // moves made on VBoards (incl. the ones of the evaluation)
+    int selDepth;                       // deepest ply reached
+
+    // about the root
+    int rootMoveCount;                  // nr of legal moves
+    int rootEvalGap;                    // how much the best root move was better than the 2nd best
+    boolean rootResultIsPreEval;        // stopped before any root move was searched
+
+    private int nrOfRememberedBoards = 0;     // by createNext(), see ChessBoard.setBoardMemoryBudget()
+
+    // scratch for the static exchange evaluations of this search, see VBoard.calcStaticExchangeEval()
+    final ChessPiece[][] seeAttackers = new ChessPiece[2][MAX_PIECES>>1];
+    final int[] seeNrOfAttackers = new int[2];
+    final int[] seeGain = new int[VBoard.MAX_SWAPS];
+
+    SearchContext(ChessBoard board) {
+        this.board = board;
+        this.evalReasons = new EvalReasons(board);
+    }
+
+    /** to be called before each iteration of the search */
+    void startIteration() {
+        countCalculatedBoards = 0;
+        evalReasons.clear();
+        pv.clearPly(0);
+        releaseRootChildren();
+        rootResultIsPreEval = false;
+        rootEvalGap = 0;
+        selDepth = 0;
+    }
+
+    /** to be called at the end of each iteration - nothing of the search tree stays reachable after it */
+    void releaseBoards() {
+        releaseRootChildren();
+        if (preEvalReuse != null)
+            preEvalReuse.endSearch();
+    }
+
+    //// stopping
+
+    /** asks the search to end as soon as possible, see ChessBoard.requestStop() */
+    public void requestStop() {
+        stopRequested = true;
+    }
+
+    public boolean isStopRequested() {
+        return stopRequested || board.isStopRequested();
+    }
+
+    /**
+     * called every few nodes: stops the search at its hard limits and reports progress
+     */
+    void checkOnRunningSearch() {
+        final long nodes = nodes();
+        if (timeManager != null && timeManager.mustStop(nodes))
+            stopRequested = true;
+        if (progress != null)
+            progress.nodesSearched(nodes);
+    }
+
+    //// boards remembered by createNext()
+
+    ChildBoards rootChildren() {
+        return rootChildren;
+    }
+
+    void releaseRootChildren() {
+        // here at the root, this also frees the boards further down, even those that were not released explicitly
+        rootChildren.clear();
+        nrOfRememberedBoards = 0;
+    }
+
+    /** @return true if one more board may be remembered (and counts it), false if the budget is used up */
+    boolean reserveRememberedBoard() {
+        if (nrOfRememberedBoards >= board.getMaxRememberedBoards())
+            return false;
+        nrOfRememberedBoards++;
+        return true;
+    }
+
+    void freeRememberedBoards(int n) {
+        nrOfRememberedBoards = Math.max(0, nrOfRememberedBoards - n);
+    }
+
+    int getNrOfRememberedBoards() {
+        return nrOfRememberedBoards;
+    }
+
+    //// getter
+
+    public PrincipalVariation getPrincipalVariation() {
+        return pv;
+    }
+
+    EvalReasons getEvalReasons() {
+        return evalReasons;
+    }
+
+    PreEvalReuse getPreEvalReuse() {
+        if (preEvalReuse == null)
+            preEvalReuse = new PreEvalReuse(board.getMoveDependencies());
+        return preEvalReuse;
+    }
+
+    long getNrOfReusedPreEvals() {
+        return preEvalReuse == null ? 0 : preEvalReuse.getNrOfReused();
+    }
+
+    /**
+     * @return nr of positions looked at so far (in all iterations)
+     */
+    public long nodes() {
+        return nodesOfPrevIterations + countCalculatedBoards;
+    }
+
+    public int selDepth() {
+        return selDepth;
+    }
+
+    public ChessBoard board() {
+        return board;
+    }
+}
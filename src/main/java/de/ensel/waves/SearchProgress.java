@@ -0,0 +1,107 @@
+/*
+ *     Waves - Another Wired New Chess Engine
+ *     Copyright (C) 2024 Christian Ensel
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.ensel.waves;
+
+import java.util.function.Consumer;
+
+import static de.ensel.chessbasics.ChessBasics.*;
+import static java.lang.Math.abs;
+import static java.lang.Math.max;
+
+/**
+ * Reports the progress of a search as uci "info" lines (without the leading "info ") to a consumer:
+ * after every completed iteration and, at most every INTERVAL_MS, while an iteration is running.
+ * The search only calls nodesSearched() every few nodes, so the throttling costs one clock read then.
+ */
+public class SearchProgress {
+    static final long INTERVAL_MS = 1000;
+
+    private final Consumer<String> output;
+    private final EvalCache evalCache;      // for hashfull, may be null
+    private final long startNanos;
+    private long nextReportNanos;
+
+    /**
+     * @param output receives the info lines, from the searching thread
+     * @param evalCache cache used by the search or null
+     */
+    public SearchProgress(Consumer<String> output, EvalCache evalCache) {
+        this.output = output;
+        this.evalCache = evalCache;
+        startNanos = System.nanoTime();
+        nextReportNanos = startNanos + INTERVAL_MS * 1_000_000;
+    }
+
+    /**
+     * called regularly while searching, reports only if the last report is long enough ago
+     * @param nodes nr of nodes searched so far
+     */
+    void nodesSearched(long nodes) {
+        long now = System.nanoTime();
+        if (now < nextReportNanos)
+            return;
+        nextReportNanos = now + INTERVAL_MS * 1_000_000;
+        StringBuilder info = new StringBuilder();
+        appendCounters(info, nodes, now);
+        output.accept(info.toString());
+    }
+
+    /**
+     * reports the result of a completed iteration (or search)
+     * @param depth nominal depth of the iteration
+     * @param selDepth deepest ply reached
+     * @param nodes nr of nodes searched so far
+     * @param score evaluation of the best move from the view of the color to move
+     * @param pv principal variation
+     */
+    void iterationDone(int depth, int selDepth, long nodes, int score, PrincipalVariation pv) {
+        long now = System.nanoTime();
+        nextReportNanos = now + INTERVAL_MS * 1_000_000;
+        StringBuilder info = new StringBuilder();
+        info.append("depth ").append(depth)
+            .append(" seldepth ").append(max(depth, selDepth))
+            .append(" score ").append(uciScore(score))
+            .append(' ');
+        appendCounters(info, nodes, now);
+        if (pv.length() > 0)
+            info.append(" pv ").append(pv);
+        output.accept(info.toString());
+    }
+
+    private void appendCounters(StringBuilder info, long nodes, long now) {
+        long elapsedMs = (now - startNanos) / 1_000_000;
+        info.append("nodes ").append(nodes)
+            .append(" nps ").append(nodes * 1000 / max(1, elapsedMs))
+            .append(" time ").append(elapsedMs);
+        if (evalCache != null)
+            info.append(" hashfull ").append(evalCache.hashfull());
+    }
+
+    /**
+     * @param score evaluation from the view of the color to move
+     * @return "cp <centipawns>" or "mate <moves>" (negative if the color to move gets mated)
+     */
+    static String uciScore(int score) {
+        if (!TimeManager.isMateScore(score))
+            return "cp " + score;
+        int plies = (BLACK_IS_CHECKMATE - abs(score)) / CHECK_IN_N_DELTA;   // see ChessBoard.checkmateEvalIn()
+        int moves = max(1, (plies + 1) / 2);
+        return "mate " + (score > 0 ? moves : -moves);
+    }
+}
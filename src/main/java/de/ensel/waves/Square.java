@@ -21,6 +21,7 @@
 package de.ensel.waves;
 
 import java.util.*;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static de.ensel.chessbasics.ChessBasics.*;
@@ -35,20 +36,14 @@ public class Square {
     private int clashEvalResult = 0;
     boolean[] blocksCheckFor = new boolean[2];  // tells if a piece here can block a check here (for king with colorindex) by taking a checker of moving in the way
 
-    List<Move>[] depMovesOver  = new List[2];
-    List<Move>[] depMovesStart = new List[2];
-    List<Move>[] depMovesEnd   = new List[2];
+    // the moves depending on this square (sliding over, starting or ending here) are kept by the board,
+    // see MoveDependencies and depMove()
     //// Constructors
 
     Square(ChessBoard myChessBoard, int myPos) {
         this.board = myChessBoard;
         this.myPos = myPos;
         this.myPieceID = NO_PIECE_ID;
-        for (int c = 0; c < 2; c++) {
-            depMovesOver[c] = new ArrayList<>();
-            depMovesStart[c] = new ArrayList<>();
-            depMovesEnd[c] = new ArrayList<>();
-        }
     }
 
 
@@ -215,16 +210,36 @@ public class Square {
         return 0;
     }
 
-    public void setupAddDependentMoveSlidingOver(Move m) {
-        depMovesOver[m.piece().color()].add(m);
+    public void setupAddDependentMoveSlidingOver(int color, int moveId) {
+        board.getMoveDependencies().addDependency(MoveDependencies.OVER, color, myPos, moveId);
+    }
+
+    public void setupAddDependentMoveStart(int color, int moveId) {
+        board.getMoveDependencies().addDependency(MoveDependencies.START, color, myPos, moveId);
+    }
+
+    public void setupAddDependentMoveEnd(int color, int moveId) {
+        board.getMoveDependencies().addDependency(MoveDependencies.END, color, myPos, moveId);
+    }
+
+    //// dependent moves - primitive iteration: for (i = 0; i < nrOfDepMoves(kind, color); i++) depMove(kind, color, i)
+
+    /**
+     * @param kind MoveDependencies.OVER, START or END
+     * @param color color of the moving pieces
+     * @return nr of moves of that color that slide over, start or end here
+     */
+    int nrOfDepMoves(int kind, int color) {
+        return board.getMoveDependencies().nrOfMovesAt(kind, color, myPos);
     }
 
-    public void setupAddDependentMoveStart(Move m) {
-        depMovesStart[m.piece().color()].add(m);
+    Move depMove(int kind, int color, int i) {
+        return board.getMoveDependencies().moveAt(kind, color, myPos, i);
     }
 
-    public void setupAddDependentMoveEnd(Move m) {
-        depMovesEnd[m.piece().color()].add(m);
+    private Stream<Move> depMovesStream(int kind, int color) {
+        return IntStream.range(0, nrOfDepMoves(kind, color))
+                .mapToObj(i -> depMove(kind, color, i));
     }
 
     /**
@@ -232,7 +247,7 @@ public class Square {
      * @return Stream of all Moves of all pieces that end here.
      */
     public Stream<Move> getMovesToHere(int color) {
-        return depMovesEnd[color].stream();
+        return depMovesStream(MoveDependencies.END, color);
     }
 
     /**
@@ -240,7 +255,7 @@ public class Square {
      * @return Stream of all Moves of all pieces that can come here directly.
      */
     public Stream<Move> getSingleMovesToHere(final int color, final VBoard fb) {
-        return depMovesEnd[color].stream()
+        return getMovesToHere(color)
                 .filter(move -> move.isALegalMoveAfter(fb));   // not needed, is part of isALegal...: move -> move.from() == fb.getPiecePos(move.piece())
     }
 
@@ -253,7 +268,7 @@ public class Square {
     }
 
     public Stream<Move> getMovesSlidingOver(int color) {
-        return depMovesOver[color].stream();
+        return depMovesStream(MoveDependencies.OVER, color);
     }
 
     /**
@@ -261,6 +276,6 @@ public class Square {
      * @return Stream of Moves of all pieces that could start from here.
      */
     public Stream<Move> getMovesFromHere(int color) {
-        return depMovesStart[color].stream();
+        return depMovesStream(MoveDependencies.START, color);
     }
 }
@@ -0,0 +1,177 @@
+/*
+ *     Waves - Another Wired New Chess Engine
+ *     Copyright (C) 2024 Christian Ensel
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.ensel.waves;
+
+import de.ensel.waves.UCI4ChessEngine.SearchLimits;
+
+import static de.ensel.chessbasics.ChessBasics.*;
+import static de.ensel.waves.UCI4ChessEngine.SearchLimits.NO_LIMIT;
+import static java.lang.Math.*;
+
+/**
+ * Decides how long the iterative deepening of ChessBoard.getBestMove(TimeManager) may take.
+ * From the clock it derives a soft budget (no new iteration is started after it is used up) and a
+ * hard budget (the running iteration is stopped). After every iteration the soft budget is extended if the
+ * best root move changed or the score fell, and shortened if the best move looks clearly dominant.
+ */
+public class TimeManager {
+    static final long MOVE_OVERHEAD_MS = 30;        // communication and gc hiccups
+    private static final int ASSUMED_MOVES_TO_GO = 30;
+    private static final int MAX_MOVES_TO_GO = 50;
+    private static final int HARD_FACTOR = 4;               // hard budget = this * base budget (if the clock allows)
+    private static final int MAX_CLOCK_SHARE_PERCENT = 40;  // never plan to use more of the remaining time in one move
+    private static final double MAX_INSTABILITY = 2.5;
+    private static final int SCORE_DROP_CP = 30;            // falling by this much counts as a problem
+    private static final int DOMINANT_GAP_CP = 250;         // this much better than the 2nd best root move...
+    private static final int DOMINANT_AFTER_STABLE_ITERATIONS = 3;  // ... for so many iterations
+
+    private final long startNanos;
+    private final long baseMs;      // NO_LIMIT if the time is not limited
+    private final long hardMs;
+    private final int maxDepth;
+    private final long maxNodes;    // 0 = unlimited
+    private final boolean infinite;
+
+    private double instability = 1.0;
+    private boolean dominant = false;
+    private String prevBestMove = null;
+    private int prevScore = 0;
+    private int stableIterations = 0;
+
+    /**
+     * @param limits as given by the uci "go" command
+     * @param color the color to move
+     */
+    public TimeManager(SearchLimits limits, int color) {
+        startNanos = System.nanoTime();
+        infinite = limits.infinite();
+        maxNodes = limits.nodes();
+        maxDepth = limits.depth() > 0 ? min(limits.depth(), ChessEngineParams.MAX_SEARCH_DEPTH)
+                                      : ChessEngineParams.MAX_SEARCH_DEPTH;
+        long time = limits.timeOf(color);
+        long inc = limits.incOf(color);
+        if (time == NO_LIMIT && limits.timeOf(opponentColor(color)) != NO_LIMIT) {
+            // only the other side's clock is given - better to play on that one than without any time limit
+            time = limits.timeOf(opponentColor(color));
+            inc = limits.incOf(opponentColor(color));
+        }
+        if (infinite) {
+            baseMs = NO_LIMIT;
+            hardMs = NO_LIMIT;
+        }
+        else if (limits.moveTime() != NO_LIMIT) {
+            baseMs = max(1, limits.moveTime() - MOVE_OVERHEAD_MS);
+            hardMs = baseMs;
+        }
+        else if (time != NO_LIMIT) {
+            int movesToGo = limits.movesToGo() > 0 ? min(limits.movesToGo(), MAX_MOVES_TO_GO) : ASSUMED_MOVES_TO_GO;
+            long usable = max(1, time - MOVE_OVERHEAD_MS);
+            long base = usable / movesToGo + inc * 3 / 4;
+            long maxShare = usable * (movesToGo == 1 ? 90 : MAX_CLOCK_SHARE_PERCENT) / 100;
+            baseMs = max(1, min(base, maxShare));
+            hardMs = max(1, min(baseMs * HARD_FACTOR, maxShare));
+        }
+        else {
+            baseMs = NO_LIMIT;
+            hardMs = NO_LIMIT;
+        }
+    }
+
+    //// during an iteration
+
+    /**
+     * @param nodes nr of nodes searched so far (over all iterations)
+     * @return true if the running iteration must be stopped
+     */
+    boolean mustStop(long nodes) {
+        return (maxNodes > 0 && nodes >= maxNodes)
+                || (hardMs != NO_LIMIT && elapsedMs() >= hardMs);
+    }
+
+    //// between iterations
+
+    /**
+     * to be called after each completed iteration
+     * @param depth depth of the iteration that just completed
+     * @param bestMove its best root move (uci notation)
+     * @param score its evaluation of bestMove in centipawns, from the view of the color to move
+     * @param evalGap how much bestMove is better than the 2nd best root move (a lower bound)
+     * @param nrOfRootMoves nr of legal moves at the root
+     * @return true if the next iteration should be started
+     */
+    boolean startNextIteration(int depth, String bestMove, int score, int evalGap, int nrOfRootMoves) {
+        if (depth >= maxDepth)
+            return false;
+        if (!infinite && (nrOfRootMoves <= 1 || isMateScore(score)))
+            return false;   // nothing to decide resp. it cannot get better
+        if (prevBestMove != null) {
+            if (!bestMove.equals(prevBestMove)) {
+                instability = min(MAX_INSTABILITY, instability * 1.4);
+                stableIterations = 0;
+            }
+            else {
+                instability = max(1.0, instability * 0.9);
+                stableIterations++;
+            }
+            if (score <= prevScore - SCORE_DROP_CP)
+                instability = min(MAX_INSTABILITY, instability * 1.25);
+        }
+        dominant = stableIterations >= DOMINANT_AFTER_STABLE_ITERATIONS && evalGap >= DOMINANT_GAP_CP;
+        prevBestMove = bestMove;
+        prevScore = score;
+        if (softMs() == NO_LIMIT)
+            return true;    // only limited by depth or nodes
+        // the next iteration takes several times longer than all before, so only start it early enough
+        return elapsedMs() < softMs() / 2;
+    }
+
+    //// getter
+
+    /**
+     * @return the current soft budget in ms, or NO_LIMIT
+     */
+    public long softMs() {
+        if (baseMs == NO_LIMIT)
+            return NO_LIMIT;
+        long soft = (long) (baseMs * instability);
+        if (dominant)
+            soft /= 3;
+        return min(soft, hardMs);
+    }
+
+    public long hardMs() {
+        return hardMs;
+    }
+
+    public int maxDepth() {
+        return maxDepth;
+    }
+
+    public boolean isInfinite() {
+        return infinite;
+    }
+
+    public long elapsedMs() {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    static boolean isMateScore(int score) {
+        return abs(score) >= BLACK_IS_CHECKMATE - CHECK_IN_N_DELTA * PrincipalVariation.MAX_PLY;
+    }
+}
@@ -19,6 +19,7 @@
 package de.ensel.waves.UCI4ChessEngine;
 
 import java.util.HashMap;
+import java.util.concurrent.Future;
 
 public interface ChessEngine {
     /**
@@ -28,13 +29,48 @@ public interface ChessEngine {
     boolean doMove(String move);
 
     /**
-     * Get a move from the ChessEngine
+     * Get a move from the ChessEngine (blocks until the calculation is done, see go() for the non-blocking variant)
      * @return any move, null if for any reason no move can be returned
      */
     String getMove();
-    // TODO: must be divided in two functions:
-    //  -> go(...t.b.d.-parameters for e.g. remaining time + increment
-    //  -> stop()
+
+    /**
+     * Starts the calculation of a move for the current board in the background and returns immediately.
+     * Progress and the result are reported to listener (from the calculating thread). A still running
+     * calculation is stopped first.
+     * @param limits time, depth or nodes the calculation may use, SearchLimits.NONE to let the engine decide
+     * @param listener receives infos during and the best move at the end of the calculation
+     * @return the move (as reported to listener.bestMove()), completed after listener.bestMove() returned
+     */
+    Future<String> go(SearchLimits limits, SearchListener listener);
+
+    default Future<String> go(SearchListener listener) {
+        return go(SearchLimits.NONE, listener);
+    }
+
+    /**
+     * Asks a running calculation (see go()) to finish as soon as possible with the best move found so far.
+     * Returns immediately, the result is reported as usual.
+     */
+    void stop();
+
+    /**
+     * Releases the resources of the ChessEngine, like its threads. A running calculation still ends as usual,
+     * afterwards the ChessEngine must no longer be used.
+     */
+    default void close() {
+    }
+
+    /**
+     * @return true while a calculation started by go() is running
+     */
+    boolean isSearching();
+
+    /**
+     * Get the line the ChessEngine expects after the move returned by getMove()
+     * @return moves in uci notation separated by blanks, starting with the best move, or null if unknown
+     */
+    String getPrincipalVariation();
 
     /**
      * Informs ChessEngine of a new Board
@@ -72,5 +108,31 @@ public interface ChessEngine {
 
     boolean setParam(String paramName, String value);
 
-    // TODO: Callback-possibility for ChessEngine to UI, esp. for "info"s and end of calculation "bestmove".
+    /**
+     * @param paramName name of a parameter as for setParam()
+     * @return its current value or null if the parameter is unknown
+     */
+    default String getParam(String paramName) {
+        return null;
+    }
+
+    /**
+     * Callback from the ChessEngine to the UI, for "info"s and the end of calculation "bestmove".
+     * Is called from the calculating thread, so implementations must not block for long.
+     */
+    interface SearchListener {
+        /**
+         * intermediate information about the running calculation
+         * @param info in the format of an uci "info" line, but without the leading "info "
+         */
+        default void info(String info) {
+        }
+
+        /**
+         * end of calculation
+         * @param move the move found, null if none can be returned
+         * @param principalVariation the expected line starting with move (uci notation separated by blanks) or null
+         */
+        void bestMove(String move, String principalVariation);
+    }
 }
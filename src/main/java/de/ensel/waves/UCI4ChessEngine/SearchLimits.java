@@ -0,0 +1,89 @@
+/*
+ *     Waves - Another Wired New Chess Algorithm
+ *     Copyright (C) 2024 Christian Ensel
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.ensel.waves.UCI4ChessEngine;
+
+import static de.ensel.chessbasics.ChessBasics.isWhite;
+
+/**
+ * The limits for a search, as given by the parameters of the uci "go" command.
+ * Times are in milliseconds, NO_LIMIT (resp. 0 for movesToGo, depth and nodes) means not given.
+ */
+public record SearchLimits(long wtime, long btime, long winc, long binc, int movesToGo,
+                           long moveTime, int depth, long nodes, boolean infinite) {
+    public static final long NO_LIMIT = -1;
+
+    /** no limits at all, the engine searches on its configured level */
+    public static final SearchLimits NONE = new SearchLimits(NO_LIMIT, NO_LIMIT, 0, 0, 0,
+            NO_LIMIT, 0, 0, false);
+
+    /**
+     * @param goCommand e.g. "go wtime 300000 btime 300000 winc 2000 binc 2000 movestogo 40", "go movetime 1000",
+     *                  "go depth 6" or "go infinite". Unknown or malformed parameters are ignored.
+     * @return the limits given in goCommand
+     */
+    public static SearchLimits ofUCIGo(String goCommand) {
+        long wtime = NO_LIMIT, btime = NO_LIMIT, winc = 0, binc = 0, moveTime = NO_LIMIT, nodes = 0;
+        int movesToGo = 0, depth = 0;
+        boolean infinite = false;
+        String[] tokens = goCommand.trim().split("\\s+");
+        for (int i = 0; i < tokens.length; i++) {
+            String value = i + 1 < tokens.length ? tokens[i + 1] : "";
+            try {
+                switch (tokens[i]) {
+                    case "wtime" -> wtime = Math.max(0, Long.parseLong(value));
+                    case "btime" -> btime = Math.max(0, Long.parseLong(value));
+                    case "winc" -> winc = Math.max(0, Long.parseLong(value));
+                    case "binc" -> binc = Math.max(0, Long.parseLong(value));
+                    case "movestogo" -> movesToGo = Math.max(0, Integer.parseInt(value));
+                    case "movetime" -> moveTime = Math.max(0, Long.parseLong(value));
+                    case "depth" -> depth = Math.max(0, Integer.parseInt(value));
+                    case "nodes" -> nodes = Math.max(0, Long.parseLong(value));
+                    case "infinite" -> { infinite = true; continue; }
+                    default -> { continue; }   // "go", "ponder", values and unknown parameters
+                }
+                i++;    // skip the value
+            }
+            catch (NumberFormatException e) {
+                // ignore the malformed parameter
+            }
+        }
+        return new SearchLimits(wtime, btime, winc, binc, movesToGo, moveTime, depth, nodes, infinite);
+    }
+
+    //// getter
+
+    /**
+     * @return the remaining time on the clock of color or NO_LIMIT
+     */
+    public long timeOf(int color) {
+        return isWhite(color) ? wtime : btime;
+    }
+
+    public long incOf(int color) {
+        return isWhite(color) ? winc : binc;
+    }
+
+    /**
+     * @return true if nothing limits the search, so the engine decides by its level
+     */
+    public boolean isNone() {
+        return wtime == NO_LIMIT && btime == NO_LIMIT && moveTime == NO_LIMIT
+                && depth == 0 && nodes == 0 && !infinite;
+    }
+}
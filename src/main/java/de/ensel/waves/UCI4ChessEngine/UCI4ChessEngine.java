@@ -18,24 +18,49 @@
 
 package de.ensel.waves.UCI4ChessEngine;
 
+import de.ensel.waves.BatchAnalysis;
 import de.ensel.waves.ChessBoard;
 import de.ensel.waves.ChessBoardController;
+import de.ensel.waves.EnginePool;
 
 import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.util.Arrays;
 import java.util.Date;
-import java.util.Scanner;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
 
 import static de.ensel.chessbasics.ChessBasics.FENPOS_STARTPOS;
 import static java.lang.System.exit;
 
 public class UCI4ChessEngine {
-    ChessEngine engine = null;
+    volatile ChessEngine engine = null;    // may be replaced at the end of a search (see onSearchEnd())
     BufferedOutputStream uciLog = null;
     boolean uciMode = true;
+    boolean logToFile = true;              // see initUCI()
     Integer engineParam1 = null;
+    String engineName = name;
+    private final PrintStream out;         // where all answers go
+    private final Supplier<ChessEngine> newEngine;
+    private Future<String> runningSearch = null;   // only accessed by the input loop thread
+
     public UCI4ChessEngine(Integer boardParam1) {
+        this(boardParam1, System.out, ChessBoardController::new);
+    }
+
+    /**
+     * @param boardParam1 engineP1 to set for the engine, null to leave its default
+     * @param out where the answers go
+     * @param newEngine creates the engine (also when it needs to be replaced, see onSearchEnd())
+     */
+    public UCI4ChessEngine(Integer boardParam1, PrintStream out, Supplier<ChessEngine> newEngine) {
+        this.out = out;
+        this.newEngine = newEngine;
         initNewBoard(boardParam1);
     }
 
@@ -43,16 +68,16 @@ public class UCI4ChessEngine {
         this.engineParam1 = boardParam1;
         playOrNewBoard(FENPOS_STARTPOS);
         if (boardParam1 == null) {
-            UCI4ChessEngine.name = name.replace("+P1", "+" + ChessBoard.engineP1() );
+            engineName = name.replace("+P1", "+" + engine.getParam("engineP1") );
         } else {
-            UCI4ChessEngine.name = name.replace("+P1", "+" + Integer.toString(boardParam1));
+            engineName = name.replace("+P1", "+" + Integer.toString(boardParam1));
         }
 
     }
 
     void playOrNewBoard(String fen) {
         if (engine == null)
-            engine = new ChessBoardController();
+            engine = newEngine.get();
         if (engineParam1 != null)
             engine.setParam("engineP1", engineParam1.toString() );
         engine.setBoard(fen);
@@ -75,9 +100,19 @@ public class UCI4ChessEngine {
 
     public UCI4ChessEngine() {
         super();
+        out = System.out;
+        newEngine = ChessBoardController::new;
     }
 
     public static void main(String[] args) throws Exception {
+        if (args.length >= 1 && args[0].equals("--server")) {
+            UCIServer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length >= 1 && args[0].equals("--batch")) {
+            BatchAnalysis.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         System.out.println("Welcome to " + name + " by Christian Ensel");  // + uci4ce.engine.getBoard());
 
         Integer param1 = null;
@@ -88,79 +123,90 @@ public class UCI4ChessEngine {
         else if (args.length > 1) {
             System.out.println("Usage: waves [engineParam1]");
             System.out.println("i.e. with no or exactly one parameter.");
+            System.out.println("   or: waves --server [port [nrOfSearchThreads]]");
+            System.out.println("   or: waves --batch inputFile outputFile [--threads n] [--hash mb] [--level engineP1] [go parameters]");
             exit(3);
         }
 
         UCI4ChessEngine uci4ce = new UCI4ChessEngine(param1);
-        uci4ce.initUCI();
+        uci4ce.run(new BufferedReader(new InputStreamReader(System.in)));
+        System.out.println("Thanks, goodbye!");
+    }
 
+    /**
+     * handles the commands read from in, until quit or the end of in
+     * @param in the commands, one per line
+     */
+    public void run(BufferedReader in) {
+        initUCI();
         try {
-            Scanner scanner = new Scanner(System.in);
             String input = "";
             while (true) {
-                uci4ce.nonUCIprint("C:\\> :-)  ");
-                input = scanner.nextLine();
-                uci4ce.writelnComLog("> " + input);
+                nonUCIprint("C:\\> :-)  ");
+                input = in.readLine();
+                if (input == null)
+                    break;
+                writelnComLog("> " + input);
+                // these are answered immediately, even while the engine is searching
+                if (input.matches(RE_BLANKS_ORNOTHING+"isready"+RE_BLANKS_ORNOTHING)) {
+                    answerUCI("readyok");
+                    continue;
+                }
+                else if (input.matches(RE_BLANKS_ORNOTHING+"stop"+RE_BLANKS_ORNOTHING)) {
+                    engine.stop();
+                    continue;
+                }
+                else if (input.matches(RE_BLANKS_ORNOTHING+"(exit|quit|ende)"+RE_BLANKS_ORNOTHING)) {
+                    engine.stop();
+                    break;
+                }
+                // all other commands wait for a running search to end (the gui should have sent a stop before)
+                awaitSearchEnd();
                 if ( input.matches("uci("+RE_ONEORMORE_BLANKS+".*)?") ) {
-                    uci4ce.initUCI();
-                    uci4ce.answerUCI("id name " + name );  // + uci4ce.engine.getBoard());
-                    uci4ce.answerUCI("id author Christian Ensel");
-                    //uci4ce.answerUCI("option name minDepth type spin default "+wBoard.getSuggestedFurtherDepth()+" min 0 max 4");
-                    //uci4ce.answerUCI("option name extraDepth type spin default "+(wBoard.getMaxFurtherDepth()-wBoard.getSuggestedFurtherDepth())+" min 0 max 8");
-                    uci4ce.answerUCI("option name UCI_Chess960 type check default false");
-                    //uci4ce.answerUCI("info string Hello, I'm " + name);
-                    uci4ce.answerUCI("uciok");
+                    initUCI();
+                    answerUCI("id name " + engineName );  // + engine.getBoard());
+                    answerUCI("id author Christian Ensel");
+                    //answerUCI("option name minDepth type spin default "+wBoard.getSuggestedFurtherDepth()+" min 0 max 4");
+                    //answerUCI("option name extraDepth type spin default "+(wBoard.getMaxFurtherDepth()-wBoard.getSuggestedFurtherDepth())+" min 0 max 8");
+                    answerUCI("option name Hash type spin default " + ChessBoardController.DEFAULT_HASH_MB
+                            + " min 1 max " + ChessBoardController.MAX_HASH_MB);
+                    answerUCI("option name Clear Hash type button");
+                    answerUCI("option name Threads type spin default " + ChessBoardController.DEFAULT_THREADS
+                            + " min 1 max " + EnginePool.MAX_THREADS);
+                    answerUCI("option name UCI_Chess960 type check default false");
+                    //answerUCI("info string Hello, I'm " + name);
+                    answerUCI("uciok");
                     continue;
                 }
 
-                else if (input.matches("isready")) {
-                    uci4ce.answerUCI("readyok");
-                }
                 else if (input.matches("(ucinewgame)|(position startpos)|(new)")) {
-                    uci4ce.initNewBoard(param1);
+                    initNewBoard(engineParam1);
                 }
                 else if (input.matches("position startpos moves" + RE_ONEORMORE_BLANKS + "(" + RE_MOVE + "+)")) {
                     if (input.length() > 23) {
                         input = input.substring(24);
                     }
                     input = input.trim();
-                    uci4ce.writelnComLog("=new Board: + " + input);
-                    uci4ce.playOrNewBoard(FENPOS_STARTPOS + " " + input);
+                    writelnComLog("=new Board: + " + input);
+                    playOrNewBoard(FENPOS_STARTPOS + " " + input);
                 }
                 else if (input.matches("setoption name.*")) {
+                    // setoption name <id> [value <x>] - where <id> may contain blanks
                     input = input.substring(14).trim();
-                    String[] params = input.split(RE_ONEORMORE_BLANKS,2);
-                    uci4ce.writelnComLog("=set option " + params[0] + " to " + params[1]);
-                    uci4ce.engine.setParam(params[0], params[1]);
+                    String[] params = input.split(RE_ONEORMORE_BLANKS+"value"+RE_ONEORMORE_BLANKS, 2);
+                    String value = params.length > 1 ? params[1].trim() : "";
+                    writelnComLog("=set option " + params[0] + " to " + value);
+                    engine.setParam(params[0].trim(), value);
                 }
                 else if (input.matches("position moves" + RE_ONEORMORE_BLANKS + "(" + RE_MOVE + "+)")) {
                     input = input.substring(15);
                     input = input.trim();
-                    uci4ce.writelnComLog("=fresh board + moves " + input);
-                    uci4ce.playOrNewBoard(FENPOS_STARTPOS + " " + input);
+                    writelnComLog("=fresh board + moves " + input);
+                    playOrNewBoard(FENPOS_STARTPOS + " " + input);
                 }
                 else if (input.matches("go((\\s)+.*)?")) {
-                    uci4ce.writelnComLog("=go " + input);
-                    String move = uci4ce.engine.getMove();
-                    if (move!=null) {
-                        //uci4ce.answerUCI("info pv " + move);
-                        uci4ce.doUCIEngineMove(move);
-                    }
-                    else {
-                        uci4ce.writelnComLog("No more moves found on board: " + uci4ce.engine.getBoard() + " Trying to reinitialize." );
-                        uci4ce = new UCI4ChessEngine(param1);
-                        uci4ce.playOrNewBoard(uci4ce.engine.getBoard());
-                        uci4ce.initUCI();
-                        move = uci4ce.engine.getMove();
-                        if (move!=null) {
-                            //uci4ce.answerUCI("info pv " + move);
-                            uci4ce.doUCIEngineMove(move);
-                        }
-                        else {
-                            uci4ce.writelnComLog("No more moves found on board: " + uci4ce.engine.getBoard() + " -> Giving up.");
-                            //uci4ce.answerUCI("exit");
-                        }
-                    }
+                    writelnComLog("=go " + input);
+                    startSearch(SearchLimits.ofUCIGo(input));
                 }
 
                 // position fen 8/5p1p/2p2K1k/2P3RB/6P1/8/8/8 w - - 0 1
@@ -168,39 +214,39 @@ public class UCI4ChessEngine {
                 else if (input.matches("position fen" + RE_FENBOARDPART + "(" + RE_FENATTRIBPART + "?)")) {
                     input = input.substring(12);
                     input = input.trim();
-                    uci4ce.writelnComLog("=fen board " + input);
-                    uci4ce.playOrNewBoard(input);
+                    writelnComLog("=fen board " + input);
+                    playOrNewBoard(input);
                 }
                 else if (input.matches("position fen" + RE_FENBOARDPART + "(" + RE_FENATTRIBPART + "?)" + RE_ONEORMORE_BLANKS + "((moves" + RE_ONEORMORE_BLANKS + "(" + RE_MOVE + "+))?)")) {
                     input = input.substring(12);
                     input = input.trim();
-                    uci4ce.writelnComLog("=fen board + moves " + input);
-                    uci4ce.playOrNewBoard(input);
+                    writelnComLog("=fen board + moves " + input);
+                    playOrNewBoard(input);
                 }
                 else if (input.matches("move" + RE_ONEORMORE_BLANKS + RE_MOVE)) {
                     input = input.substring(5).trim();
-                    uci4ce.doMoves(input);
+                    doMoves(input);
                 }
-                // else if (!uci4ce.uciMode && input.matches("^$"))
+                // else if (!uciMode && input.matches("^$"))
                 else if (input.matches("(" + RE_BLANKS_ORNOTHING + RE_MOVE + ")+")) {
                     input = input.trim();
-                    uci4ce.doMoves(input);
+                    doMoves(input);
                 }
                 else if (input.matches("(info|square) [a-h][1-8]")) {
-                    System.out.println("Square Statistics: " + uci4ce.engine.getSquareInfo(input.split(RE_ONEORMORE_BLANKS, 2)[1], ""));
+                    out.println("Square Statistics: " + engine.getSquareInfo(input.split(RE_ONEORMORE_BLANKS, 2)[1], ""));
                 }
                 else if (input.matches("(info|square) [a-h][1-8] [a-h][1-8]")) {
                     String[] params = input.split(RE_ONEORMORE_BLANKS,3);
-                    System.out.println("Square Statistics: " + uci4ce.engine.getSquareInfo(params[1], params[2]));
+                    out.println("Square Statistics: " + engine.getSquareInfo(params[1], params[2]));
                 }
                 else if (input.matches("board|show|fen")) {
-                    System.out.println("Current board: " + uci4ce.engine.getBoard());
+                    out.println("Current board: " + engine.getBoard());
                 }
                 else if (input.matches("stats")) {
-                    System.out.println("Board Statistics: " + uci4ce.engine.getBoardInfo());
+                    out.println("Board Statistics: " + engine.getBoardInfo());
                 }
                 else if (input.matches("info")) {
-                    System.out.println(
+                    out.println(
                             "    TideEval - Wired New Chess Algorithm\n" +
                                     "    with UCI4CHessEngine - a simple UCI interpreter\n" +
                                     "    Copyright (C) 2023 Christian Ensel\n" +
@@ -208,31 +254,108 @@ public class UCI4ChessEngine {
                                     "    This is free software, and you are welcome to redistribute it\n" +
                                     "    under certain conditions, see GPLv3, file COPYING. \n");   // type `show c' for details.");
                 }
-                else if (input.matches(RE_BLANKS_ORNOTHING+"(exit|quit|ende)"+RE_BLANKS_ORNOTHING)) {
-                    break;
-                }
                 else {
-                    uci4ce.nonUCIprint("Hmm, " + input + "?");
-                    uci4ce.nonUCIprint("to move:        move A1A4*");
-                    uci4ce.nonUCIprint("to print details:  stats|square E3, info a2a4, board|show|stats");
-                    uci4ce.nonUCIprint("to initalize:   new");
-                    uci4ce.nonUCIprint("or:             exit");
+                    nonUCIprint("Hmm, " + input + "?");
+                    nonUCIprint("to move:        move A1A4*");
+                    nonUCIprint("to print details:  stats|square E3, info a2a4, board|show|stats");
+                    nonUCIprint("to initalize:   new");
+                    nonUCIprint("or:             exit");
                 }
             }
+        } catch (IOException e) {
+            // input is gone, e.g. the connection was closed
+            writelnComLog("Input ended: " + e.getMessage());
         } catch (Exception e) {
             System.err.println("Sorry, Exception happened:");
             System.err.println(e.getMessage());
-            uci4ce.writelnComLog("Error: " + e.getMessage());
-            uci4ce.writelnComLog("Error: " + e.getStackTrace().toString());
+            writelnComLog("Error: " + e.getMessage());
+            writelnComLog("Error: " + e.getStackTrace().toString());
             e.printStackTrace();
         }
-        System.out.println("Thanks, goodbye!");
+        finally {
+            // e.g. if the other side went away in the middle of a search
+            engine.stop();
+            awaitSearchEnd();
+        }
+    }
+
+    /**
+     * starts the search in the background, the bestmove is sent when it ends (see onSearchEnd())
+     * @param limits as given with the go command
+     */
+    private void startSearch(SearchLimits limits) {
+        runningSearch = engine.go(limits, new ChessEngine.SearchListener() {
+            @Override
+            public void info(String info) {
+                answerUCI("info " + info);
+            }
+
+            @Override
+            public void bestMove(String move, String principalVariation) {
+                onSearchEnd(move, principalVariation, limits);
+            }
+        });
+    }
+
+    /**
+     * waits until a search started by startSearch() has ended (and its bestmove was sent)
+     */
+    private void awaitSearchEnd() {
+        if (runningSearch == null)
+            return;
+        try {
+            runningSearch.get();
+        }
+        catch (ExecutionException e) {
+            writelnComLog("Error in search: " + e.getCause());
+            e.getCause().printStackTrace();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        runningSearch = null;
     }
 
-    private void doUCIEngineMove(String move) {
-        //int eval = engine.getBoardEvaluation();
-        //answerUCI("info score cp " + eval);
-        //String suggestedmove = engine.getMove();
+    /**
+     * called from the search thread at the end of the search - for "go infinite" from the thread calling stop().
+     * If no move was found, the search is repeated (with the same limits) on a new engine, which then replaces
+     * the old one. The input loop may access the engine meanwhile (e.g. for stop), so it is replaced only
+     * when the new one is ready.
+     */
+    private void onSearchEnd(String move, String principalVariation, SearchLimits limits) {
+        if (move == null) {
+            String fen = engine.getBoard();
+            writelnComLog("No more moves found on board: " + fen + " Trying to reinitialize." );
+            ChessEngine fresh = newEngine.get();
+            if (engineParam1 != null)
+                fresh.setParam("engineP1", engineParam1.toString() );
+            fresh.setBoard(fen);
+            final String[] freshPV = new String[1];
+            try {
+                // the stop of a "go infinite" was already given, so that search now just uses the engine's level
+                move = fresh.go(limits.infinite() ? SearchLimits.NONE : limits,
+                        (m, pv) -> freshPV[0] = pv).get();
+            }
+            catch (ExecutionException e) {
+                writelnComLog("Error in search: " + e.getCause());
+                move = null;
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                move = null;
+            }
+            principalVariation = freshPV[0];
+            ChessEngine old = engine;
+            engine = fresh;
+            old.close();
+            if (move == null || move.equals("-")) {
+                writelnComLog("No more moves found on board: " + fen + " -> Giving up.");
+                return;
+            }
+            if (principalVariation != null && principalVariation.startsWith(move))
+                answerUCI("info pv " + principalVariation);
+        }
+        // otherwise, the engine already reported the line with its last info
         answerUCI("bestmove " + move);
         engine.doMove(move);
     }
@@ -247,10 +370,10 @@ public class UCI4ChessEngine {
 
     private void nonUCIprint(String msg) {
         if (!uciMode)
-            System.out.print(msg);
+            out.print(msg);
     }
 
-    void writelnComLog(String s) {
+    synchronized void writelnComLog(String s) {
         if (uciLog==null || s==null)
             return;
         try {
@@ -263,6 +386,9 @@ public class UCI4ChessEngine {
     }
 
     void initUCI()  {
+        uciMode = true;
+        if (!logToFile)
+            return;
         try {
             uciLog = new BufferedOutputStream(new FileOutputStream("./waves_debug.out",true));
         } catch (Exception e){
@@ -273,8 +399,8 @@ public class UCI4ChessEngine {
         writelnComLog("Log started at: " + (new Date()) );
     }
 
-    void answerUCI(String s)  {
-        System.out.println(s);
+    synchronized void answerUCI(String s)  {
+        out.println(s);
         if (uciLog==null)
             return;
         writelnComLog("<- " + s);
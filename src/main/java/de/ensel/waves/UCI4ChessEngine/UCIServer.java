@@ -0,0 +1,205 @@
+/*
+ *     Waves - Another Wired New Chess Engine
+ *     Copyright (C) 2024 Christian Ensel
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.ensel.waves.UCI4ChessEngine;
+
+import de.ensel.waves.ChessBoardController;
+import de.ensel.waves.EnginePool;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves many uci sessions over a local socket, one per connection. Each session speaks line based uci, just like
+ * UCI4ChessEngine on stdin/stdout, and has an engine of its own (with its own EngineConfig and caches).
+ * The protocol handling mostly waits for input, so each session runs on a virtual thread (or on a platform
+ * thread, if the jvm has no virtual threads). The searches of all sessions run on bounded EnginePools, which limit
+ * the cpu usage of the whole server: the "go infinite" analyses on one half of the threads, all other searches on
+ * the other half - so analysing sessions cannot keep the threads from the timed searches of the others.
+ * The move tables (see MoveGraph) are shared by all boards anyway.
+ */
+public class UCIServer implements Closeable {
+    public static final int DEFAULT_PORT = 4711;
+    public static final int DEFAULT_SESSION_HASH_MB = 8;
+    private static final long MIN_ACCEPT_BACKOFF_MS = 10;   // waiting after a failed accept(), doubled up to ...
+    private static final long MAX_ACCEPT_BACKOFF_MS = 1000; // ... this, while it keeps failing
+
+    private final ServerSocket serverSocket;
+    private final EnginePool searchPool;
+    private final EnginePool analysisPool;      // for "go infinite"
+    private final int sessionHashMB;
+    private final ExecutorService sessions = newSessionExecutor();
+    private final Set<Socket> openSockets = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param port local port to listen on, 0 for any free one (see port())
+     * @param nrOfSearchThreads nr of threads to search on, for all sessions together (at least 2 are used)
+     * @param sessionHashMB size of the caches of each session, see ChessBoardController.setHashSize()
+     */
+    public UCIServer(int port, int nrOfSearchThreads, int sessionHashMB) throws IOException {
+        serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        int nrOfThreads = Math.max(2, Math.min(EnginePool.MAX_THREADS, nrOfSearchThreads));
+        analysisPool = new EnginePool(nrOfThreads / 2);
+        searchPool = new EnginePool(nrOfThreads - nrOfThreads / 2);
+        this.sessionHashMB = sessionHashMB;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int nrOfThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        try (UCIServer server = new UCIServer(port, nrOfThreads, DEFAULT_SESSION_HASH_MB)) {
+            System.out.println("Waves uci server listening on port " + server.port()
+                    + " with " + server.searchPool.nrOfThreads() + " search threads and "
+                    + server.analysisPool.nrOfThreads() + " analysis threads.");
+            server.serve();
+        }
+    }
+
+    private static ExecutorService newSessionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch (ReflectiveOperationException e) {
+            // jvm without (or without enabled) virtual threads
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "Waves-session");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    //// serving
+
+    /**
+     * accepts connections until the server is closed
+     */
+    public void serve() {
+        long backoffMs = MIN_ACCEPT_BACKOFF_MS;
+        while (!serverSocket.isClosed()) {
+            final Socket socket;
+            try {
+                socket = serverSocket.accept();
+            }
+            catch (IOException e) {
+                if (serverSocket.isClosed())
+                    break;
+                // e.g. too many open files - it does not help to retry at once
+                System.err.println("Error accepting connection: " + e.getMessage());
+                try {
+                    Thread.sleep(backoffMs);
+                }
+                catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                backoffMs = Math.min(MAX_ACCEPT_BACKOFF_MS, backoffMs * 2);
+                continue;
+            }
+            backoffMs = MIN_ACCEPT_BACKOFF_MS;
+            openSockets.add(socket);
+            try {
+                sessions.execute(() -> runSession(socket));
+            }
+            catch (RejectedExecutionException e) {
+                closeQuietly(socket);   // closed meanwhile
+            }
+        }
+    }
+
+    /**
+     * serves in the background
+     */
+    public void start() {
+        Thread t = new Thread(this::serve, "Waves-uci-server");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    private void runSession(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             PrintStream out = new PrintStream(socket.getOutputStream(), true, StandardCharsets.UTF_8)) {
+            UCI4ChessEngine session = new UCI4ChessEngine(null, out,
+                    () -> new ChessBoardController(searchPool, analysisPool, sessionHashMB));
+            session.logToFile = false;     // all sessions would write to the same file
+            session.run(in);
+        }
+        catch (IOException e) {
+            System.err.println("Error in session: " + e.getMessage());
+        }
+        finally {
+            openSockets.remove(socket);
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        }
+        catch (IOException e) {
+            // nothing left to do
+        }
+    }
+
+    //// getter
+
+    /**
+     * @return the local port the server listens on
+     */
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    public int nrOfOpenSessions() {
+        return openSockets.size();
+    }
+
+    /**
+     * stops accepting connections and ends all sessions (with their searches)
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Socket socket : openSockets)
+            closeQuietly(socket);
+        sessions.shutdown();
+        try {
+            // the sessions stop their searches when they end, before the pool goes away
+            sessions.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        searchPool.shutdown();
+        analysisPool.shutdown();
+    }
+}
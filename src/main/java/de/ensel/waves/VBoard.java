@@ -29,16 +29,34 @@ import static java.lang.Math.max;
 
 public class VBoard implements VBoardInterface {
     public static final int NO_PIECE_ID = -1;  //todo: why not using EMPTY from ChessBasics piece types?
-    public static int usageCounter = 0;
+    public static final int NO_CAPTURE_POSSIBLE = Integer.MIN_VALUE;  // result of static exchange evaluation if there is nobody to capture
+    static final int MAX_SWAPS = 32;
+    private static final int CLASH_NOT_CALCULATED = Integer.MAX_VALUE;
+    // for estimatedBytesPerBoard(), assuming a 64-bit JVM with compressed references
+    private static final int OBJECT_BYTES = 128;        // the board object itself with its fields
+    private static final int ARRAY_HEADER_BYTES = 16;
+    private static final int REF_BYTES = 4;
+    private static final int LIST_BYTES = 24 + ARRAY_HEADER_BYTES + 10 * REF_BYTES;   // ArrayList with its default capacity
+    private static final int TYPICAL_NR_OF_CACHED_LISTS = 32 + NR_SQUARES;  // moves from each piece + to each square for one color
+    private static final int NR_OF_PIECE_TYPES = PAWN_BLACK + 1;
+    private static final int[] LIGHT_PIECE_TYPES = { BISHOP, KNIGHT, BISHOP_BLACK, KNIGHT_BLACK };
+    private static final int PAWN_ADVANCE_BONUS = 4;
+    private static final int KNIGHT_CENTER_BONUS = 6;
+    private static final int BISHOP_CENTER_BONUS = 3;
     ChessBoard baseBoard;    // a dependency to a subtype is unusual, but its my basis...
+    private final SearchContext ctx;    // of the search this board belongs to, null for the ChessBoard itself
     // VBoardInterface preBoard;
 
     // superseding data
     private int[] piecePos; // accessed by pceId
     private Move[] moves;
     private int countMovesSinceBaseBoard = 0;
-    private int[] countPieces = new int[2];
+    private int[][] livePceIds = new int[2][];  // ids of the pieces still on this board, per color, in order of their ids - shared with preBoard until a capture happens
     private int captureEvalSoFar = 0;
+    private int[] nrOfPiecesOfType;     // per piece type (incl. color) - shared with preBoard until a capture happens
+    private int materialSum;            // sum of the base values of all pieces on this board
+    private int positionalScore;        // sum of positionalValueOf() of all pieces on this board
+    private long positionHash;      // incrementally updated from the preBoard's, see positionHash()
     private final List<Move>[] checkingMoves = new ArrayList[2];
 
     // local caching
@@ -46,6 +64,15 @@ public class VBoard implements VBoardInterface {
     private List<Move>[][] firstMovesToSq;      // not just caching, but needed to be calculated early to see if move sets check
     private List<Move>[]   firstMovesFromPce;
     boolean all1stMovesFromPceComplete;
+    private ChessPiece[]   kingPinnerOfPce;     // pinner per pinned pceId (x-ray through exactly one own piece onto the own king), null = not pinned
+    private boolean        kingPinsComplete;
+    private int[]          clashResults;        // staticExchangeEvalAt() per [color*NR_SQUARES + pos], partly inherited from the preBoard
+    private long           changedClashSquares; // bits per square, where the attackers might have changed by the last move
+    private VBoard         clashPreBoard;       // board before the last move, until the clash results are taken over from it
+    private long[]         unblockedMoves;      // bit per move id, see getUnblockedMoves() - null = not calculated (yet)
+
+    // children created by createNext(), so the same follow-up board is created only once (until releaseChildren())
+    private ChildBoards children;
 
     // for debugging only
     private ChessPiece capturedPiece;
@@ -55,6 +82,7 @@ public class VBoard implements VBoardInterface {
 
     protected VBoard() {
         this.baseBoard = (ChessBoard)this;
+        this.ctx = null;
         resetVBaseBoard();
     }
 
@@ -63,12 +91,17 @@ public class VBoard implements VBoardInterface {
      * @param preBoard
      */
     private VBoard(VBoard preBoard) {
-        this.countPieces[CIWHITE] = preBoard.countPieces[CIWHITE];
-        this.countPieces[CIBLACK] = preBoard.countPieces[CIBLACK];
+        this.ctx = preBoard.searchContext();
+        // arrays are never changed in place, but replaced on captures, so they can be shared here
+        this.livePceIds[CIWHITE] = preBoard.livePceIds[CIWHITE];
+        this.livePceIds[CIBLACK] = preBoard.livePceIds[CIBLACK];
+        this.nrOfPiecesOfType = preBoard.nrOfPiecesOfType;
+        this.materialSum = preBoard.materialSum;
+        this.positionalScore = preBoard.positionalScore;
         if (preBoard instanceof ChessBoard) {
             this.baseBoard = (ChessBoard)preBoard;
             resetVBaseBoard();
-            baseBoard.findAndSetCheckingMoves();
+            baseBoard.prepareFollowUpBoard();
             return;
         }
         // else
@@ -118,20 +151,90 @@ public class VBoard implements VBoardInterface {
     }
 
     // factory, based on a VBoardInterface (VBoard or ChesBoard) + one move
+    // the result is remembered, so calling this again with the same move returns the same board (or null again)
     public VBoard createNext(Move plusOneMove) {
+        final ChildBoards memo = childBoards(false);
+        final int slot = memo == null ? -1 : memo.slotOf(plusOneMove);
+        if (slot >= 0)
+            return memo.boardAt(slot);
         VBoard newVB = new VBoard(this);
-        if (!newVB.addMove(this, plusOneMove))
-            return null;
+        if (newVB.addMove(this, plusOneMove))
+            newVB.inheritClashResultsFrom(this);
+        else
+            newVB = null;
+        rememberChild(plusOneMove, newVB);
         return newVB;
     }
 
     public VBoard createNext(String plusOneMoveString) {
         VBoard newVB = new VBoard(this);
-        if (!newVB.addMove(this, new Move( newVB, plusOneMoveString)))
+        Move plusOneMove = new Move(newVB, plusOneMoveString);
+        if (!newVB.addMove(this, plusOneMove))
             return null;
+        newVB.inheritClashResultsFrom(this);
         return newVB;
     }
 
+    /**
+     * Forgets the boards created by createNext() - to be called when the search leaves this board, so the subtree
+     * below can be garbage collected.
+     */
+    public void releaseChildren() {
+        if (children != null && children.size() > 0)
+            ctx.freeRememberedBoards(children.size());
+        children = null;
+    }
+
+    /**
+     * @param create true to create the memo if there is none yet
+     * @return the boards created by createNext() from this board, may be null if !create
+     */
+    protected ChildBoards childBoards(boolean create) {
+        if (children == null && create)
+            children = new ChildBoards();
+        return children;
+    }
+
+    /**
+     * @return the context of the search this board was created in
+     */
+    SearchContext searchContext() {
+        return ctx;
+    }
+
+    private void rememberChild(final Move move, final VBoard child) {
+        final SearchContext searchContext = searchContext();
+        if (!searchContext.reserveRememberedBoard())
+            return;     // memory budget used up, the board will just be created again if needed
+        if (!childBoards(true).remember(move, child))
+            searchContext.freeRememberedBoards(1);     // just do not remember any more
+    }
+
+    /**
+     * Estimates the memory of a board incl. its move caches, as they are filled during a search - for memory
+     * budgets (see ChessBoard.setBoardMemoryBudget()). Computed from the sizes of the arrays allocated per board.
+     * Measured (heap difference for all boards two plies after the start position resp. after a middle game position,
+     * with their legal moves, unblocked moves and clash results calculated): 12.5 resp. 9.7 KB per board,
+     * this gives 11.5 resp. 10.9 KB.
+     * @param nrOfMoveWords size of the unblocked moves bitset, see MoveDependencies.nrOfWords()
+     * @return estimated bytes per board
+     */
+    static int estimatedBytesPerBoard(int nrOfMoveWords) {
+        return OBJECT_BYTES
+                + arrayBytes(Integer.BYTES, MAX_PIECES)                                 // piecePos
+                + arrayBytes(REF_BYTES, ChessEngineParams.MAX_SEARCH_DEPTH + 5)         // moves
+                + arrayBytes(REF_BYTES, NR_SQUARES)                                     // firstMovesOverSq
+                + arrayBytes(REF_BYTES, 2) + 2 * arrayBytes(REF_BYTES, NR_SQUARES)      // firstMovesToSq
+                + 2 * arrayBytes(REF_BYTES, MAX_PIECES)                                 // firstMovesFromPce, kingPinnerOfPce
+                + arrayBytes(Integer.BYTES, 2 * NR_SQUARES)                             // clashResults
+                + arrayBytes(Long.BYTES, nrOfMoveWords)                                 // unblockedMoves
+                + TYPICAL_NR_OF_CACHED_LISTS * LIST_BYTES;
+    }
+
+    private static int arrayBytes(int elementBytes, int length) {
+        return (ARRAY_HEADER_BYTES + elementBytes * length + 7) & ~7;   // aligned to 8 bytes
+    }
+
     protected void resetVBaseBoard() {
         resetMoveCache();
         this.captureEvalSoFar = 0;
@@ -145,11 +248,17 @@ public class VBoard implements VBoardInterface {
         checkingMoves[CIBLACK] = null;
     }
 
-    private void resetMoveCache() {
+    protected void resetMoveCache() {
         firstMovesOverSq  = new List[NR_SQUARES];
         firstMovesToSq    = new List[2][NR_SQUARES];
         firstMovesFromPce = new List[MAX_PIECES];
         all1stMovesFromPceComplete = false;
+        kingPinnerOfPce = null;
+        kingPinsComplete = false;
+        clashResults = null;
+        changedClashSquares = ~0L;
+        clashPreBoard = null;
+        releaseChildren();
     }
 
     /** add move to VBoard and thus make the next followup board out of it.
@@ -173,7 +282,7 @@ public class VBoard implements VBoardInterface {
         if (!seeminglyLegalMoveIsReallyLegalOnBoard(preBoard, move)) {      // no blocking of check
             return false; // move not possible, as it is check and move does not take the check away
         }
-        usageCounter++;
+        ctx.countMoves++;
         if (countMovesSinceBaseBoard == moves.length) {
             // emergency, the moves array was too small
             Move[] oldMoves = moves;
@@ -185,13 +294,21 @@ public class VBoard implements VBoardInterface {
             // it's a capture
             capturedPiece = preBoard.getPieceAt(toPos);
             piecePos[capturedPiece.id()] = NOWHERE;
-            captureEvalSoFar -= capturedPiece.getValue();
-            decNrOfPieces(capturedPiece.color());
+            captureEvalSoFar -= capturedPiece.getValueAfter(preBoard);
+            removeLivePieceId(capturedPiece.color(), capturedPiece.id());
+            removeMaterial(capturedPiece.pieceType(), toPos);
         }
         else {
             capturedPiece = null;
         }
         piecePos[movingPiece.id()] = toPos;
+        moveMaterial(movingPiece.pieceType(), move.from(), toPos);
+        if (preBoard.unblockedMoves != null)
+            unblockedMoves = deriveUnblockedMoves(preBoard.unblockedMoves, move, capturedPiece);
+        long hash = ChessBoard.rawUpdateAHash(preBoard.positionHash(), movingPiece.pieceType(), move.from());
+        if (capturedPiece != null)
+            hash = ChessBoard.rawUpdateAHash(hash, capturedPiece.pieceType(), toPos);
+        positionHash = ChessBoard.hashTurnChange(ChessBoard.rawUpdateAHash(hash, movingPiece.pieceType(), toPos));
 //        if (move.isChecking())
 //            addCheck(move.piece().getDirectMoveAfter(kingPos(opponentColor(color)), this));
         //calcSingleMovesSlidingOver(move.toSq());
@@ -234,11 +351,21 @@ public class VBoard implements VBoardInterface {
                      || move.blocksCheckAfter(preBoard));                                        // so does blocking the way
     }
 
+    /**
+     * same check that createNext() does, without creating the board: is move (which must be a seemingly legal move, see
+     * above) also legal concerning the own king, i.e. not moving the king into check or not leaving it in check?
+     * @param move the move
+     * @return true if move is legal on this board concerning checks
+     */
+    public boolean moveIsLegalConcerningCheck(Move move) {
+        return seeminglyLegalMoveIsReallyLegalOnBoard(this, move);
+    }
+
 
     //// getter
 
     public int getNrOfPieces(int color) {
-        return countPieces[color];
+        return livePceIds[color].length;
     }
 
 //    public List<Move> getMoves() {
@@ -247,14 +374,21 @@ public class VBoard implements VBoardInterface {
 
     @Override
     public Stream<ChessPiece> getPieces() {
-        return baseBoard.getPieces()
-                .filter( p -> getPiecePos(p) != NOWHERE );
+        return Stream.concat(getPieces(CIWHITE), getPieces(CIBLACK));
     }
 
     @Override
     public Stream<ChessPiece> getPieces(int color) {
-        return baseBoard.getPieces(color)
-                .filter( p -> getPiecePos(p) != NOWHERE );
+        return Arrays.stream(livePceIds[color])
+                .mapToObj(baseBoard::getPiece);
+    }
+
+    /**
+     * @param color the color of the pieces
+     * @return ids of all pieces of that color still on this board. Never change the array, it is shared between boards.
+     */
+    int[] getLivePieceIds(int color) {
+        return livePceIds[color];
     }
 
     final public int kingPos(final int color) {
@@ -298,6 +432,42 @@ public class VBoard implements VBoardInterface {
         return captureEvalSoFar;
     }
 
+    public int getNrOfPiecesOfType(int pceType) {
+        return nrOfPiecesOfType[pceType];
+    }
+
+    public int getLightPieceCounterForPieceType(int pceType) {
+        return getNrOfPiecesOfType(pceType);
+    }
+
+    /**
+     * @return sum of the base values of all pieces on this board (+ for white, - for black) - kept up to date
+     * incrementally along the chain of boards, so no need to loop over the pieces.
+     */
+    public int materialSum() {
+        return materialSum;
+    }
+
+    /**
+     * @return like materialSum(), but with the values the pieces have on this board, see ChessPiece.getValueAfter()
+     */
+    public int pieceValueSum() {
+        int sum = materialSum;
+        for (int pceType : LIGHT_PIECE_TYPES) {
+            if (nrOfPiecesOfType[pceType] == 1)
+                sum += singleLightPieceBaseValue(pceType) - pieceBaseValue(pceType);
+        }
+        return sum;
+    }
+
+    /**
+     * @return sum of the simple positional values of all pieces on this board (+ for white, - for black),
+     * see positionalValueOf(). Also kept up to date incrementally.
+     */
+    public int positionalScore() {
+        return positionalScore;
+    }
+
     @Override
     public GameState gameState() {
         int turn = getTurnCol();
@@ -340,15 +510,25 @@ public class VBoard implements VBoardInterface {
         return opponentColor(moves[countMovesSinceBaseBoard -1].piece().color());
     }
 
+    /**
+     * @return hash of the piece placement and the turn (no castling or en passant rights), so equal positions
+     * reached via different move orders have the same hash.
+     */
+    public long positionHash() {
+        return positionHash;
+    }
+
     @Override
     public boolean hasLegalMoves(int color) {
-        Move oneMove = getLegalMovesStream(color)
-                .filter(move -> {
-                    return seeminglyLegalMoveIsReallyLegalOnBoard(this, move);
-                })
-                .findAny()
-                .orElse(null) ;
-        return oneMove != null;
+        for (int pceId : livePceIds[color]) {
+            ChessPiece p = baseBoard.getPiece(pceId);
+            for (Move move : getSingleCoveringsFromPce(p)) {
+                if (p.coveringMoveToIsLegalAfter(move, this)
+                        && seeminglyLegalMoveIsReallyLegalOnBoard(this, move))
+                    return true;
+            }
+        }
+        return false;
     }
 
 //    @Override
@@ -395,16 +575,16 @@ public class VBoard implements VBoardInterface {
             GameState state = gameState();
             if (state == DRAW) {
                 //TODO: use -piece-value-sum or other board evaluation here, so we do not like draws with more pieces on the board
-                Evaluation drawEval = new Evaluation(0, 0);
-                move.addEval(drawEval);
+                move.addEval(0, 0);
             }
             else {
-                move.addEval(new Evaluation(ChessBoard.checkmateEvalIn(getTurnCol(), depth()), 0));
+                move.addEval(ChessBoard.checkmateEvalIn(getTurnCol(), depth()), 0);
             }
-            move.getEval().setReason((this instanceof ChessBoard ? "" : this)
-                    + " " + move + "!" + getGameStateDescription(gameState()) + "!");
-            if (ChessBoard.DEBUGMSG_MOVESELECTION2 /* && upToNowBoard.futureLevel() == 0 */)
-                ChessBoard.debugPrint(ChessBoard.DEBUGMSG_MOVESELECTION, debugOutputprefix
+            if (baseBoard.config().showReasons)
+                move.getEval().setReason((this instanceof ChessBoard ? "" : this)
+                        + " " + move + "!" + getGameStateDescription(gameState()) + "!");
+            if (baseBoard.config().debugMsgMoveSelection2 /* && upToNowBoard.futureLevel() == 0 */)
+                ChessBoard.debugPrint(baseBoard.config().debugMsgMoveSelection, debugOutputprefix
                         + "EOG:" /*+ move + " to " + move.getEval()
                         + " reason: " */ + move.getEval().getReason());
             return state != DRAW;
@@ -414,14 +594,14 @@ public class VBoard implements VBoardInterface {
 
     /**
      * checks if piece is blocked by king-pin and also a move to toPos is not mossible, because it is still
-     * blocked by king-pin.(includes calculation of getPinnerOfPceToPos(), so do not call in a loop per piece, use
-     * 2-param-version instead)
+     * blocked by king-pin. The pinner is looked up in the king-pin table of this board, so this is cheap also
+     * in loops over many moves.
      * @param p the piece to move
      * @param toPos the target position
      * @return true if p cannot move to toPos, because it is already king-pinned would move out of the way.
      */
     public boolean moveIsBlockedByKingPin(ChessPiece p, int toPos) {
-        ChessPiece pinner = getPinnerOfPceToPos(p, kingPos(p.color()));
+        ChessPiece pinner = getKingPinnerOf(p);
         return pinner != null && moveIsBlockedByKingPin(p, toPos, pinner);
     }
 
@@ -448,7 +628,23 @@ public class VBoard implements VBoardInterface {
         // TODO?:  could also be solved by more intelligent condition stored in the distance to the king
     }
 
+    /**
+     * @param pinnedPce the piece to check
+     * @return the opponent's sliding piece that pins pinnedPce to its own king or null if pinnedPce is not king-pinned.
+     */
+    public ChessPiece getKingPinnerOf(ChessPiece pinnedPce) {
+        if (!kingPinsComplete)
+            calcKingPins();
+        return kingPinnerOfPce[pinnedPce.id()];
+    }
+
     public ChessPiece getPinnerOfPceToPos(ChessPiece pinnedPce, int targetPos) {
+        if (targetPos == kingPos(pinnedPce.color()))
+            return getKingPinnerOf(pinnedPce);   // the usual case, already calculated in the king-pin table
+        return calcPinnerOfPceToPos(pinnedPce, targetPos);
+    }
+
+    private ChessPiece calcPinnerOfPceToPos(ChessPiece pinnedPce, int targetPos) {
         if (isKing(pinnedPce.pieceType()))
             return null;
         int sameColorKingPos = kingPos(pinnedPce.color());
@@ -486,6 +682,41 @@ public class VBoard implements VBoardInterface {
         return pinner;
     }
 
+    /**
+     * fills the king-pin table for both kings at once: runs along the 8 rays from each king, and if the first
+     * piece hit is an own piece and the second one an opponent's slider able to move along this ray, the first
+     * one is pinned.  All other pin queries on this board are then just lookups.
+     */
+    private void calcKingPins() {
+        kingPinnerOfPce = new ChessPiece[MAX_PIECES];
+        for (int color = CIWHITE; color <= CIBLACK; color++) {
+            final int kPos = kingPos(color);
+            if (kPos < 0)
+                continue;  // king does not exist... part of some test-positions
+            for (int d : pieceDirections(QUEEN)) {
+                ChessPiece pinned = null;
+                int pos = kPos;
+                while (plusDirIsStillLegal(pos, d)) {
+                    pos += d;
+                    if (isSquareEmpty(pos))
+                        continue;
+                    ChessPiece p = getPieceAt(pos);
+                    if (pinned == null) {
+                        if (p.color() != color)
+                            break;     // direct attacker (or at least no own piece in between) - no pin here
+                        pinned = p;    // candidate, let's see what comes behind it
+                        continue;
+                    }
+                    if (p.color() != color && isSlidingPieceType(p.pieceType())
+                            && isCorrectSlidingPieceDirFromTo(p.pieceType(), pos, kPos))
+                        kingPinnerOfPce[pinned.id()] = p;
+                    break;
+                }
+            }
+        }
+        kingPinsComplete = true;
+    }
+
     @Override
     public boolean isSquareEmpty(final int pos){
         // check moves backwards, if this pos has last been moved to or may be away from
@@ -578,19 +809,197 @@ public class VBoard implements VBoardInterface {
         return getPieces(color).flatMap(this::getSingleMovesStreamFromPce);
     }
 
+    //// unblocked moves - bitsets over the move ids of MoveDependencies
+
+    /**
+     * @return bitset of the ids of all moves, whose piece stands on the move's from-square on this board and whose
+     * way to the target is free (no piece on the intermediate squares). Never change the array.
+     */
+    long[] getUnblockedMoves() {
+        if (unblockedMoves == null)
+            unblockedMoves = calcUnblockedMoves();
+        return unblockedMoves;
+    }
+
+    /**
+     * Moves sliding over sq, that are unblocked on this board, but not on other. If other is the board after
+     * a move, these are the moves blocked by that move - and the other way round the ones enabled by it.
+     * The moves of the moving piece itself are not excluded: its moves from its old square are not unblocked on
+     * the board after the move, so they are part of the result, if they slide over sq.
+     * Pawn double steps have no Move template (see MoveGraph), so they never slide over a square.
+     * The sets are combined word by word, so only the resulting moves need to be looked at.
+     * @return the moves (in the order of their ids)
+     */
+    List<Move> getUnblockedMovesSlidingOverButNotOn(final Square sq, final VBoard other) {
+        final MoveDependencies deps = baseBoard.getMoveDependencies();
+        final long[] over = deps.overBitsOf(sq.pos());
+        final long[] mine = getUnblockedMoves();
+        final long[] others = other.getUnblockedMoves();
+        List<Move> result = new ArrayList<>();
+        final int nrOfWords = Math.min(over.length, mine.length);
+        for (int w = 0; w < nrOfWords; w++) {
+            long bits = over[w] & mine[w] & (w < others.length ? ~others[w] : ~0L);
+            while (bits != 0) {
+                result.add(deps.getMove((w << 6) + Long.numberOfTrailingZeros(bits)));
+                bits &= bits - 1;
+            }
+        }
+        return result;
+    }
+
+    private long[] calcUnblockedMoves() {
+        long[] bits = new long[baseBoard.getMoveDependencies().nrOfWords()];
+        for (int ci = CIWHITE; ci <= CIBLACK; ci++) {
+            for (int pceId : livePceIds[ci]) {
+                ChessPiece p = baseBoard.getPiece(pceId);
+                setUnblockedMovesOfPieceFrom(bits, p, getPiecePos(p));
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * derives the unblocked moves of this board from the ones of the preBoard, by only looking at what move changed
+     */
+    private long[] deriveUnblockedMoves(final long[] preBits, final Move move, final ChessPiece captured) {
+        final MoveDependencies deps = baseBoard.getMoveDependencies();
+        long[] bits = Arrays.copyOf(preBits, deps.nrOfWords());
+        ChessPiece mover = move.piece();
+        clearMovesOfPieceFrom(bits, mover, move.from());
+        if (captured != null)
+            clearMovesOfPieceFrom(bits, captured, move.to());
+        else {
+            // the to-square was empty, now it blocks all moves sliding over it
+            long[] over = deps.overBitsOf(move.to());
+            for (int w = 0; w < Math.min(over.length, bits.length); w++)
+                bits[w] &= ~over[w];
+        }
+        // moves sliding over the from-square might be free now
+        Square fromSq = baseBoard.getSquare(move.from());
+        for (int ci = CIWHITE; ci <= CIBLACK; ci++) {
+            for (int i = 0; i < fromSq.nrOfDepMoves(MoveDependencies.OVER, ci); i++) {
+                Move m = fromSq.depMove(MoveDependencies.OVER, ci, i);
+                if (getPiecePos(m.piece()) == m.from() && pathIsFree(m.intermedPos())) {
+                    int id = m.piece().moveIdOf(m.from(), m.to());
+                    bits[id >>> 6] |= 1L << id;
+                }
+            }
+        }
+        setUnblockedMovesOfPieceFrom(bits, mover, move.to());
+        return bits;
+    }
+
+    private void setUnblockedMovesOfPieceFrom(final long[] bits, final ChessPiece p, final int pos) {
+        if (pos < 0)
+            return;
+        MoveGraph graph = p.moveGraph();
+        for (int e = graph.firstEdgeFrom(pos); e < graph.firstEdgeFrom(pos+1); e++) {
+            if (pathIsFree(graph.edgeIntermediates(e))) {
+                int id = p.firstMoveId() + e;
+                bits[id >>> 6] |= 1L << id;
+            }
+        }
+    }
+
+    private static void clearMovesOfPieceFrom(final long[] bits, final ChessPiece p, final int pos) {
+        MoveGraph graph = p.moveGraph();
+        for (int e = graph.firstEdgeFrom(pos); e < graph.firstEdgeFrom(pos+1); e++) {
+            int id = p.firstMoveId() + e;
+            bits[id >>> 6] &= ~(1L << id);
+        }
+    }
+
+    private boolean pathIsFree(final int[] intermediatePositions) {
+        for (int iPos : intermediatePositions) {
+            if (!isSquareEmpty(iPos))
+                return false;
+        }
+        return true;
+    }
+
+
     //// setter
 
     protected void initNrOfPieces() {
-        countPieces[CIWHITE] = 0;
-        countPieces[CIBLACK] = 0;
+        livePceIds[CIWHITE] = new int[0];
+        livePceIds[CIBLACK] = new int[0];
+        nrOfPiecesOfType = new int[NR_OF_PIECE_TYPES];
+        unblockedMoves = null;
+        materialSum = 0;
+        positionalScore = 0;
+    }
+
+    // add/remove/moveMaterial() are called whenever pieces appear, disappear or move
+
+    /** counts a piece of pceType that appears at pos. The counter array is replaced, not changed, as it is shared. */
+    protected void addMaterial(int pceType, int pos) {
+        unblockedMoves = null;
+        int[] counts = Arrays.copyOf(nrOfPiecesOfType, nrOfPiecesOfType.length);
+        counts[pceType]++;
+        nrOfPiecesOfType = counts;
+        materialSum += pieceBaseValue(pceType);
+        positionalScore += positionalValueOf(pceType, pos);
+    }
+
+    protected void removeMaterial(int pceType, int pos) {
+        unblockedMoves = null;
+        int[] counts = Arrays.copyOf(nrOfPiecesOfType, nrOfPiecesOfType.length);
+        counts[pceType]--;
+        nrOfPiecesOfType = counts;
+        materialSum -= pieceBaseValue(pceType);
+        positionalScore -= positionalValueOf(pceType, pos);
+    }
+
+    protected void moveMaterial(int pceType, int fromPos, int toPos) {
+        unblockedMoves = null;
+        positionalScore += positionalValueOf(pceType, toPos) - positionalValueOf(pceType, fromPos);
+    }
+
+    /**
+     * very simple positional value of a piece, that can be updated incrementally: pawns get a bonus for advancing,
+     * knights and bishops for being in the center.
+     * @return value in centipawns (+ for white, - for black)
+     */
+    static int positionalValueOf(int pceType, int pos) {
+        final int value;
+        switch (colorlessPieceType(pceType)) {
+            case PAWN -> value = PAWN_ADVANCE_BONUS
+                    * (isPieceTypeWhite(pceType) ? rankOf(pos) - 1 : NR_RANKS - 2 - rankOf(pos));
+            case KNIGHT -> value = KNIGHT_CENTER_BONUS * centrality(pos);
+            case BISHOP -> value = BISHOP_CENTER_BONUS * centrality(pos);
+            default -> value = 0;
+        }
+        return isPieceTypeWhite(pceType) ? value : -value;
+    }
+
+    /** @return 0 on the edge up to 3 in the center */
+    private static int centrality(int pos) {
+        return 3 - (max(abs(2*fileOf(pos) - (NR_FILES-1)), abs(2*rankOf(pos) - (NR_RANKS-1))) >> 1);
     }
 
-    protected void incNrOfPieces(int color) {
-        countPieces[color]++;
+    protected void addLivePieceId(int color, int pceId) {
+        int[] old = livePceIds[color];
+        int i = old.length;
+        while (i > 0 && old[i-1] > pceId)   // keep ids sorted, so the order of pieces stays the same as on the base board
+            i--;
+        int[] ids = new int[old.length + 1];
+        System.arraycopy(old, 0, ids, 0, i);
+        ids[i] = pceId;
+        System.arraycopy(old, i, ids, i+1, old.length - i);
+        livePceIds[color] = ids;
     }
 
-    protected void decNrOfPieces(int color) {
-        countPieces[color]--;
+    protected void removeLivePieceId(int color, int pceId) {
+        int[] old = livePceIds[color];
+        for (int i = 0; i < old.length; i++) {
+            if (old[i] == pceId) {
+                int[] ids = new int[old.length - 1];
+                System.arraycopy(old, 0, ids, 0, i);
+                System.arraycopy(old, i+1, ids, i, old.length - i - 1);
+                livePceIds[color] = ids;
+                return;
+            }
+        }
     }
 
 
@@ -631,17 +1040,17 @@ public class VBoard implements VBoardInterface {
                                 && move.to() != notToPos
                                 && !alreadyEvaluated.contains(move))
                 .forEach(move -> {
-/*!*/       Evaluation oppEval = move.piece().getMoveEvalInclFollowUpAfter(move, this);
+/*!*/       int oppEval = move.piece().getMoveValueInclFollowUpAfter(move, this);
             //System.err.println("Opp move " + move + " ("+oppEval+")");
-            if (oppEval == null)
+            if (oppEval == NO_CAPTURE_POSSIBLE)
                 return;
-            if (oppEval.isGoodForColor(color)) {
+            if (Evaluation.rawEvalIsGoodForColor(oppEval, color)) {
                 //System.err.println(" is good for " + colorName(color));
-                addMoveToSortedListOfCol((new Move(move)).setEval(oppEval), bestOppMoves, color, maxBestMoves, null);
+                addMoveToSortedListOfCol(new Move(move, new Evaluation(oppEval, 0)), bestOppMoves, color, maxBestMoves, null);
             }
         });
-        if (ChessBoard.DEBUGMSG_MOVESELECTION2 && depth()< ChessBoard.DEBUGMSG_MOVESELECTION2_MAXDEPTH) // && upToNowBoard.futureLevel() == 0)
-            ChessBoard.debugPrint(ChessBoard.DEBUGMSG_MOVESELECTION, "OppCounterCapture: "
+        if (baseBoard.config().debugMsgMoveSelection2 && depth()< ChessBoard.DEBUGMSG_MOVESELECTION2_MAXDEPTH) // && upToNowBoard.futureLevel() == 0)
+            ChessBoard.debugPrint(baseBoard.config().debugMsgMoveSelection, "OppCounterCapture: "
                     + (bestOppMoves.isEmpty() ? "none" : bestOppMoves.get(0) + " " + bestOppMoves.get(0).getEval()
                     // + "(" + bestOppMoves.get(0).getEval().getReason() + ").")
                     //+ "Alternatives: " + Arrays.toString(bestOppMoves.toArray()) + ".");
@@ -649,9 +1058,23 @@ public class VBoard implements VBoardInterface {
     }
 
     public void calcSingleMovesSlidingOver(final Square overSq) {
-        firstMovesOverSq[overSq.pos()] = Stream.concat(overSq.depMovesOver[CIWHITE].stream(), overSq.depMovesOver[CIBLACK].stream())
-                .filter(move -> move.from() == getPiecePos(move.piece()))   // automatically filters out moves of captured pieces, as their pos is POS_UNSET
-                .toList();
+        firstMovesOverSq[overSq.pos()] = singleMovesOf(overSq, MoveDependencies.OVER);
+    }
+
+    /**
+     * @return the moves of kind (see MoveDependencies) at sq of both colors, that start where their piece is on
+     * this board. This automatically filters out moves of captured pieces, as their pos is POS_UNSET.
+     */
+    private List<Move> singleMovesOf(final Square sq, final int kind) {
+        List<Move> result = new ArrayList<>();
+        for (int ci = CIWHITE; ci <= CIBLACK; ci++) {
+            for (int i = 0; i < sq.nrOfDepMoves(kind, ci); i++) {
+                Move move = sq.depMove(kind, ci, i);
+                if (move.from() == getPiecePos(move.piece()))
+                    result.add(move);
+            }
+        }
+        return result;
     }
 
 //    public Stream<Move> getSingleMovesStreamSlidingOver(final int color, final Square sq) {
@@ -668,16 +1091,13 @@ public class VBoard implements VBoardInterface {
         return firstMovesOverSq[sq.pos()].stream();
 
         // OR: w/o caching - had for now actually the same performance, becaus it was only called one per VBoard/Sq :-)
-//        return Stream.concat(sq.depMovesOver[CIWHITE].stream(), sq.depMovesOver[CIBLACK].stream())
+//        return sq.getMovesSlidingOver()
 //                  .filter(move -> move.from() == getPiecePos(move.piece()));
     }
 
     // from:
     public void calcSingleMovesStreamOfColorTo(int color, final Square toSq) {
-        firstMovesToSq[color][toSq.pos()] = Stream.concat(toSq.depMovesEnd[CIWHITE].stream(),
-                                                          toSq.depMovesEnd[CIBLACK].stream())
-                .filter(move -> move.from() == getPiecePos(move.piece()))   // automatically filters out moves of captured pieces, as their pos is POS_UNSET
-                .toList();
+        firstMovesToSq[color][toSq.pos()] = singleMovesOf(toSq, MoveDependencies.END);
     }
 
     public List<Move> getSingleMovesOfColorTo(final int color, final int toPos) {
@@ -685,7 +1105,10 @@ public class VBoard implements VBoardInterface {
             // finish all from-moves for all pieces, this will also generate all to moves
             // (we do not just generate the ones to here, as we have to run over all pieces anyway and running over
             // all to-moves also does not seem more efficient.)
-            getPieces().forEach(this::calcPiecesFirstLegalMoves);
+            for (int ci = CIWHITE; ci <= CIBLACK; ci++)
+                for (int pceId : livePceIds[ci])
+                    if (firstMovesFromPce[pceId] == null)
+                        calcPiecesFirstLegalMoves(baseBoard.getPiece(pceId));
             all1stMovesFromPceComplete = true;
         }
         return firstMovesToSq[color][toPos];
@@ -698,6 +1121,312 @@ public class VBoard implements VBoardInterface {
         return result == null ? Stream.empty() : result.stream();
     }
 
+    /**
+     * calculates everything that is otherwise only calculated on demand (and then cached), so afterwards the board
+     * is only read - see ChessBoard.prepareForSearch().
+     */
+    void completeLazyCaches() {
+        if (!kingPinsComplete)
+            calcKingPins();
+        getSingleMovesOfColorTo(CIWHITE, 0);    // completes the from- and to-moves of all pieces
+        for (int pos = 0; pos < NR_SQUARES; pos++) {
+            if (firstMovesOverSq[pos] == null)
+                calcSingleMovesSlidingOver(baseBoard.getSquare(pos));
+            staticExchangeEvalAt(pos, CIWHITE);
+            staticExchangeEvalAt(pos, CIBLACK);
+        }
+        getUnblockedMoves();
+    }
+
+
+    //// static exchange evaluation
+
+    /**
+     * Static exchange evaluation of the local clash on pos, started by color with its cheapest attacker, see
+     * calcStaticExchangeEval().
+     * @param pos the square, typically with a piece of the opponent of color on it
+     * @param color the color to capture first
+     * @return result in board perspective or NO_CAPTURE_POSSIBLE if color has nothing that can capture on pos.
+     */
+    public int staticExchangeEvalAt(final int pos, final int color) {
+        if (clashPreBoard != null)
+            takeOverClashResults();
+        if (clashResults == null) {
+            clashResults = new int[2 * NR_SQUARES];
+            Arrays.fill(clashResults, CLASH_NOT_CALCULATED);
+        }
+        final int i = color * NR_SQUARES + pos;
+        if (clashResults[i] == CLASH_NOT_CALCULATED)
+            clashResults[i] = calcStaticExchangeEval(pos, color, null);
+        return clashResults[i];
+    }
+
+    /**
+     * Static exchange evaluation of the local clash started by move (which is always made, even if this is bad for
+     * the moving side), see calcStaticExchangeEval().
+     * @param move the first (capturing) move
+     * @return result in board perspective, i.e. the value of the piece captured by move, minus what the opponent
+     *  can reasonably gain back and so on...
+     */
+    public int staticExchangeEvalOfMove(final Move move) {
+        return calcStaticExchangeEval(move.to(), move.piece().color(), move.piece());
+    }
+
+    /**
+     * Swap list algorithm: both sides alternately capture on pos with their cheapest attacker. Attackers sliding
+     * "behind" a piece that has already taken part in the clash (x-rays) are found via the depMovesOver of its square.
+     * Afterwards, the swap list is evaluated backwards, as each side may stop capturing when continuing is not good
+     * for it. No follow-up boards are created, so checks (except for kings capturing into a covered square) are
+     * not considered.
+     * @param pos the square of the clash
+     * @param color the color capturing first
+     * @param firstCapturer piece of color that must capture first, or null to choose the cheapest one
+     * @return result in board perspective or NO_CAPTURE_POSSIBLE if color has nothing that can capture on pos.
+     */
+    private int calcStaticExchangeEval(final int pos, final int color, final ChessPiece firstCapturer) {
+        // scratch arrays of the search, as calls do not nest and the search is confined to one thread
+        final SearchContext searchContext = searchContext();
+        final ChessPiece[][] attackers = searchContext.seeAttackers;
+        final int[] nrOfAttackers = searchContext.seeNrOfAttackers;
+        nrOfAttackers[CIWHITE] = 0;
+        nrOfAttackers[CIBLACK] = 0;
+        long inClash = 0L;      // bits per pceId of all pieces in the attackers lists or already used
+        if (firstCapturer != null)
+            inClash |= 1L << firstCapturer.id();
+        for (int ci = CIWHITE; ci <= CIBLACK; ci++) {
+            List<Move> movesToPos = getSingleMovesOfColorTo(ci, pos);
+            if (movesToPos == null)
+                continue;
+            for (Move m : movesToPos) {
+                ChessPiece p = m.piece();
+                if ((inClash & (1L << p.id())) != 0
+                        || m.isStraightMovingPawn())   // straight pawn moves are in the cache, but cannot capture
+                    continue;
+                inClash |= 1L << p.id();
+                nrOfAttackers[ci] = insertSortedByValue(attackers[ci], nrOfAttackers[ci], p);
+            }
+        }
+        ChessPiece capturer = firstCapturer;
+        if (capturer == null) {
+            if (nrOfAttackers[color] == 0)
+                return NO_CAPTURE_POSSIBLE;
+            capturer = attackers[color][0];
+            if (isKing(capturer.pieceType()) && nrOfAttackers[opponentColor(color)] > 0)
+                return NO_CAPTURE_POSSIBLE;     // king cannot capture a covered piece
+            nrOfAttackers[color] = removeFirst(attackers[color], nrOfAttackers[color]);
+        }
+
+        final int[] gain = searchContext.seeGain;
+        ChessPiece target = getPieceAt(pos);
+        gain[0] = target == null ? 0 : abs(target.getValueAfter(this));
+        long vacated = 0L;      // bits per square of pieces that have left their square to capture on pos
+        int d = 0;
+        int side = color;
+        while (true) {
+            // capturer takes on pos, so its square is free now and might uncover another attacker behind it
+            final int capturerPos = getPiecePos(capturer);
+            vacated |= 1L << capturerPos;
+            inClash = addXRayAttackersBehind(capturerPos, pos, vacated, inClash, attackers, nrOfAttackers);
+            side = opponentColor(side);
+            if (nrOfAttackers[side] == 0 || d+1 >= MAX_SWAPS)
+                break;
+            ChessPiece next = attackers[side][0];
+            if (isKing(next.pieceType()) && nrOfAttackers[opponentColor(side)] > 0)
+                break;          // king cannot recapture a covered piece
+            nrOfAttackers[side] = removeFirst(attackers[side], nrOfAttackers[side]);
+            d++;
+            gain[d] = abs(capturer.getValueAfter(this)) - gain[d-1];
+            capturer = next;
+        }
+        // each side only continues the exchange if it is not bad for it (the first capture is always done)
+        while (d > 0) {
+            gain[d-1] = -max(-gain[d-1], gain[d]);
+            d--;
+        }
+        return evalForColor(gain[0], color);
+    }
+
+    private long addXRayAttackersBehind(final int vacatedPos, final int pos, final long vacated, long inClash,
+                                        final ChessPiece[][] attackers, final int[] nrOfAttackers) {
+        Square vacatedSq = baseBoard.getSquare(vacatedPos);
+        for (int ci = CIWHITE; ci <= CIBLACK; ci++) {
+            for (int i = 0; i < vacatedSq.nrOfDepMoves(MoveDependencies.OVER, ci); i++) {
+                Move m = vacatedSq.depMove(MoveDependencies.OVER, ci, i);
+                ChessPiece p = m.piece();
+                if (m.to() != pos
+                        || (inClash & (1L << p.id())) != 0
+                        || getPiecePos(p) != m.from()
+                        || moveIsBlockedByKingPin(p, pos))
+                    continue;
+                boolean free = true;
+                for (int iPos : m.intermedPos()) {
+                    if ((vacated & (1L << iPos)) == 0 && !isSquareEmpty(iPos)) {
+                        free = false;
+                        break;
+                    }
+                }
+                if (!free)
+                    continue;
+                inClash |= 1L << p.id();
+                nrOfAttackers[ci] = insertSortedByValue(attackers[ci], nrOfAttackers[ci], p);
+            }
+        }
+        return inClash;
+    }
+
+    /**
+     * Remembers preBoard to take over the clash results it calculated, except for the squares whose attackers might
+     * have changed by the last move. This is only done when they are needed (see takeOverClashResults()), as many
+     * boards of the search never get there.
+     * @param preBoard the board before the last move
+     */
+    private void inheritClashResultsFrom(final VBoard preBoard) {
+        clashPreBoard = preBoard;
+    }
+
+    /**
+     * Takes over what clashPreBoard has calculated until now. If the values of the pieces differ (see
+     * ChessPiece.getValueAfter(), e.g. for a single light piece left over after a capture), all its results could
+     * be wrong here, so nothing is taken over then and all squares count as changed.
+     */
+    private void takeOverClashResults() {
+        final VBoard preBoard = clashPreBoard;
+        clashPreBoard = null;       // also to not keep the preBoard alive any longer
+        if (pieceValuesMightDifferFrom(preBoard)) {
+            changedClashSquares = ~0L;
+            return;
+        }
+        changedClashSquares = calcSquaresWithChangedAttackers(preBoard, moves[countMovesSinceBaseBoard-1]);
+        if (preBoard.clashPreBoard != null)
+            preBoard.takeOverClashResults();
+        if (preBoard.clashResults == null)
+            return;
+        clashResults = Arrays.copyOf(preBoard.clashResults, preBoard.clashResults.length);
+        for (int pos = 0; pos < NR_SQUARES; pos++) {
+            if ((changedClashSquares & (1L << pos)) != 0) {
+                clashResults[pos] = CLASH_NOT_CALCULATED;
+                clashResults[NR_SQUARES + pos] = CLASH_NOT_CALCULATED;
+            }
+        }
+    }
+
+    /**
+     * @return false if the material is the same as on preBoard (the piece counters are then shared) - and so are
+     * the values of all pieces.
+     */
+    private boolean pieceValuesMightDifferFrom(final VBoard preBoard) {
+        return nrOfPiecesOfType != preBoard.nrOfPiecesOfType;
+    }
+
+    /**
+     * @return bits per square, where the attackers (incl. x-rays) might have changed by the last move compared to
+     * its preBoard. All bits are set on a base board or if the values of the pieces changed by the last move.
+     */
+    long getChangedClashSquares() {
+        if (clashPreBoard != null)
+            takeOverClashResults();
+        return changedClashSquares;
+    }
+
+    /**
+     * Collects (a superset of) the squares whose attackers might differ between preBoard and this board: from and
+     * to themselves, whatever the moving and a captured piece covered before resp. covers now, the rays behind
+     * from and to, if a slider looks through them (incl. x-rays further down the ray) and what pieces with a changed
+     * king-pin cover. King-pins can only change if the move touches a line from a king.
+     */
+    private long calcSquaresWithChangedAttackers(final VBoard preBoard, final Move move) {
+        final int fromPos = move.from();
+        final int toPos = move.to();
+        long changed = (1L << fromPos) | (1L << toPos);
+        changed |= preBoard.coveredSquaresOf(move.piece()) | coveredSquaresOf(move.piece());
+        if (capturedPiece != null)
+            changed |= preBoard.coveredSquaresOf(capturedPiece);
+        changed |= preBoard.raysSlidThrough(fromPos) | raysSlidThrough(fromPos)
+                 | preBoard.raysSlidThrough(toPos)   | raysSlidThrough(toPos);
+        if (!mightChangeKingPins(move))
+            return changed;
+        for (int ci = CIWHITE; ci <= CIBLACK; ci++) {
+            for (int pceId : livePceIds[ci]) {
+                ChessPiece p = baseBoard.getPiece(pceId);
+                if (preBoard.getKingPinnerOf(p) != getKingPinnerOf(p))
+                    changed |= preBoard.coveredSquaresOf(p) | coveredSquaresOf(p);
+            }
+        }
+        return changed;
+    }
+
+    private boolean mightChangeKingPins(final Move move) {
+        if (isKing(move.piece().pieceType()))
+            return true;
+        for (int ci = CIWHITE; ci <= CIBLACK; ci++) {
+            final int kPos = kingPos(ci);
+            if (kPos >= 0 && (isOnQueenLine(kPos, move.from()) || isOnQueenLine(kPos, move.to())))
+                return true;
+        }
+        return false;
+    }
+
+    private static boolean isOnQueenLine(final int pos1, final int pos2) {
+        final int fileDelta = abs(fileOf(pos1) - fileOf(pos2));
+        final int rankDelta = abs(rankOf(pos1) - rankOf(pos2));
+        return fileDelta == 0 || rankDelta == 0 || fileDelta == rankDelta;
+    }
+
+    private long coveredSquaresOf(final ChessPiece p) {
+        long covered = 0L;
+        if (getPiecePos(p) < 0)
+            return covered;
+        for (Move m : getSingleCoveringsFromPce(p))
+            covered |= 1L << m.to();
+        return covered;
+    }
+
+    /**
+     * @param pos the square to look through
+     * @return bits for all squares behind pos on a ray, where a sliding piece that can move along that ray comes from the
+     * other side of pos. The whole rest of the ray is taken, as pieces there might be x-rayed.
+     */
+    private long raysSlidThrough(final int pos) {
+        long rays = 0L;
+        for (int d : pieceDirections(QUEEN)) {
+            // look backwards for the first piece
+            int p = pos;
+            ChessPiece slider = null;
+            while (plusDirIsStillLegal(p, -d)) {
+                p -= d;
+                if (!isSquareEmpty(p)) {
+                    slider = getPieceAt(p);
+                    break;
+                }
+            }
+            if (slider == null || !isSlidingPieceType(slider.pieceType())
+                    || !isCorrectSlidingPieceDirFromTo(slider.pieceType(), p, pos))
+                continue;
+            p = pos;
+            while (plusDirIsStillLegal(p, d)) {
+                p += d;
+                rays |= 1L << p;
+            }
+        }
+        return rays;
+    }
+
+    private static int insertSortedByValue(final ChessPiece[] pieces, final int nr, final ChessPiece p) {
+        int i = nr;
+        final int value = abs(p.getValue());
+        while (i > 0 && abs(pieces[i-1].getValue()) > value) {
+            pieces[i] = pieces[i-1];
+            i--;
+        }
+        pieces[i] = p;
+        return nr + 1;
+    }
+
+    private static int removeFirst(final ChessPiece[] pieces, final int nr) {
+        System.arraycopy(pieces, 1, pieces, 0, nr - 1);
+        return nr - 1;
+    }
+
     public boolean posIsCoveredBy(final int pos, final int color) {
         return getSingleMovesStreamOfColorTo(color, pos).findAny().isPresent();
     }
@@ -749,8 +1478,7 @@ public class VBoard implements VBoardInterface {
         //loop over all moves and check if the moves are legal or covering an own piece
         if (isSlidingPieceType(mover.pieceType())) {
             // for non-sliding pieces, the generic move/toPos list is not performant enough, as it does not stop after hitting a piece
-            ChessPiece pinner = null;
-            boolean pinnerIsCalculated = false;
+            final ChessPiece pinner = getKingPinnerOf(mover);
             int[] dirs = pieceDirections(mover.pieceType());
             for (int d : dirs) {
                 int pos = fromPos;
@@ -758,10 +1486,6 @@ public class VBoard implements VBoardInterface {
                 while (plusDirIsStillLegal(pos, d)) {
                     pos += d;
                     // needs check if it is really a legal move - however isALegalMoveAfter() checks way too much things we already know, only the kin-pin-check is missing:
-                    if (!pinnerIsCalculated) {
-                        pinner = getPinnerOfPceToPos(mover, kingPos(mover.color()));
-                        pinnerIsCalculated = true;
-                    }
                     if (moveIsBlockedByKingPin(mover, pos, pinner))
                         break;  // if one step would already uncover a check, all further steps in that direction are also not needed to be checked
                     Move m = mover.getMove(fromPos, pos);
@@ -773,7 +1497,9 @@ public class VBoard implements VBoardInterface {
         }
         else {
             // for non-sliding pieces, we can easily use our generic move/toPos list
-            for (Move m : mover.moves[fromPos]) {
+            MovesCollection moversMoves = mover.moves[fromPos];
+            for (int i = 0; i < moversMoves.size(); i++) {
+                Move m = moversMoves.get(i);
                 if ( m.isCoveringAfter(this)
                         // exception for pawns: we also add the straight move as "covering", so legal is always a subset of covering...
                         || (m.piece() instanceof ChessPiecePawn p && p.isALegalMoveAfter(m, this)) ) {
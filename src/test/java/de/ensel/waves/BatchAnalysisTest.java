@@ -0,0 +1,126 @@
+/*
+ *     Waves - Another Wired New Chess Engine
+ *     Copyright (C) 2024 Christian Ensel
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.ensel.waves;
+
+import de.ensel.waves.UCI4ChessEngine.SearchLimits;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.nio.file.Path;
+import java.util.List;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static de.ensel.chessbasics.ChessBasics.*;
+import static de.ensel.waves.ChessEngineParams.LEVEL_TEST_QUICK;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchAnalysisTest {
+
+    @Test
+    void parseLine_Test() {
+        // lichess puzzle export: the first move is played before the puzzle starts
+        BatchAnalysis.Position p = BatchAnalysis.parseLine(
+                "00008,r6k/pp2r2p/4Rp1Q/3p4/8/1N1P2R1/PqP2bPP/7K b - - 0 24,f2g3 e6e7 b2b1 b3c1 b1c1 h6c1,1913,75,94,6230,crushing hangingPiece long middlegame,https://lichess.org/787zsVup/black#48,",
+                3);
+        assertEquals("00008", p.id());
+        assertEquals("r6k/pp2r2p/4Rp1Q/3p4/8/1N1P2R1/PqP2bPP/7K b - - 0 24 f2g3", p.fen());
+        assertNull(BatchAnalysis.parseLine("PuzzleId,FEN,Moves,Rating,RatingDeviation,Popularity,NbPlays,Themes,GameUrl,OpeningTags", 1));
+
+        p = BatchAnalysis.parseLine("r2k3r/p1pp1ppp/q7/8/3P4/N1P2b2/PP2NP1P/R3K3 b Q - 0 17", 7);
+        assertEquals("7", p.id());
+        assertEquals("r2k3r/p1pp1ppp/q7/8/3P4/N1P2b2/PP2NP1P/R3K3 b Q - 0 17", p.fen());
+
+        p = BatchAnalysis.parseLine("r2k3r/p1pp1ppp/q7/8/3P4/N1P2b2/PP2NP1P/R3K3 b Q - bm Qe2#; id \"mate.001\";", 8);
+        assertEquals("mate.001", p.id());
+        assertEquals("r2k3r/p1pp1ppp/q7/8/3P4/N1P2b2/PP2NP1P/R3K3 b Q - 0 1", p.fen());
+
+        // commas within quotes resp. within EPD operations
+        p = BatchAnalysis.parseLine("\"id,\"\"2\"\"\",r2k3r/p1pp1ppp/q7/8/3P4/N1P2b2/PP2NP1P/R3K3 b Q - 0 17,,1500", 11);
+        assertEquals("id,\"2\"", p.id());
+        assertEquals("r2k3r/p1pp1ppp/q7/8/3P4/N1P2b2/PP2NP1P/R3K3 b Q - 0 17", p.fen());
+        p = BatchAnalysis.parseLine("r2k3r/p1pp1ppp/q7/8/3P4/N1P2b2/PP2NP1P/R3K3 b Q - bm Qe2#; c0 \"a, b\"; id \"mate.002\";", 12);
+        assertEquals("mate.002", p.id());
+        assertEquals("r2k3r/p1pp1ppp/q7/8/3P4/N1P2b2/PP2NP1P/R3K3 b Q - 0 1", p.fen());
+
+        assertNull(BatchAnalysis.parseLine("   ", 9));
+        assertNull(BatchAnalysis.parseLine("# comment", 10));
+    }
+
+    @Test
+    void analyseInInputOrder_Test() throws Exception {
+        EngineConfig config = new EngineConfig();
+        config.setEngineP1(LEVEL_TEST_QUICK);
+        BatchAnalysis batch = new BatchAnalysis(config, SearchLimits.ofUCIGo("go depth 3"), 2, 8);
+        String mateIn1 = "r2k3r/p1pp1ppp/q7/8/3P4/N1P2b2/PP2NP1P/R3K3 b Q - 0 17";
+        String input = FENPOS_STARTPOS + "\n"
+                + "# comment\n"
+                + mateIn1 + "\n"
+                + "r2k3r/p1pp1ppp/8/8/3P4/N1P2b2/PP2qP1P/R3K3 w Q - 0 18\n"    // already mate
+                + mateIn1 + "\n";
+        StringWriter out = new StringWriter();
+        try {
+            assertEquals(4, batch.analyse(new BufferedReader(new StringReader(input)), out));
+        }
+        finally {
+            batch.shutdown();
+        }
+        String[] lines = out.toString().split("\n");
+        assertEquals(5, lines.length);
+        assertEquals(BatchAnalysis.CSV_HEADER, lines[0]);
+        assertTrue(lines[1].startsWith("1," + FENPOS_STARTPOS + ","));
+        assertTrue(lines[2].startsWith("3," + mateIn1 + ",a6e2,"));
+        assertTrue(lines[3].startsWith("4,"));
+        assertEquals("", lines[3].split(",")[2]);   // no move
+        assertTrue(lines[4].startsWith("5," + mateIn1 + ",a6e2,"));
+    }
+
+    @Test
+    void toCsv_Test() {
+        // fields are quoted as in RFC 4180, if needed
+        assertEquals("plain", BatchAnalysis.Result.csvField("plain"));
+        assertEquals("\"a,b\"", BatchAnalysis.Result.csvField("a,b"));
+        assertEquals("\"say \"\"hi\"\"\"", BatchAnalysis.Result.csvField("say \"hi\""));
+        assertEquals("\"line\nbreak\"", BatchAnalysis.Result.csvField("line\nbreak"));
+        BatchAnalysis.Position p = new BatchAnalysis.Position(1, "id,1", FENPOS_STARTPOS);
+        BatchAnalysis.Result r = new BatchAnalysis.Result(p, "", "", 0, 0, "", "illegal move \"e2e5\", line 1");
+        assertEquals("\"id,1\"," + FENPOS_STARTPOS + ",,,0,0,,\"illegal move \"\"e2e5\"\", line 1\"", r.toCsv());
+    }
+
+    @Test
+    void csvFields_Test() {
+        assertEquals(List.of("a", "", "b c"), BatchAnalysis.csvFields("a,,b c"));
+        assertEquals(List.of("a,b", "say \"hi\"", ""), BatchAnalysis.csvFields("\"a,b\",\"say \"\"hi\"\"\","));
+        // what is written can be read again
+        String text = "illegal move \"e2e5\", line 1";
+        assertEquals(List.of("x", text), BatchAnalysis.csvFields("x," + BatchAnalysis.Result.csvField(text)));
+    }
+
+    @Test
+    void mainMissingOptionValue_Test(@TempDir Path dir) throws Exception {
+        // just prints the usage instead of failing or starting the analysis
+        Path in = dir.resolve("in.csv");
+        Path out = dir.resolve("out.csv");
+        for (String option : new String[] { "--threads", "--hash", "--level" }) {
+            BatchAnalysis.main(new String[] { in.toString(), out.toString(), option });
+            assertFalse(out.toFile().exists());
+        }
+    }
+}
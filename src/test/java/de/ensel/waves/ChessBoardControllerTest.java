@@ -0,0 +1,203 @@
+/*
+ *     Waves - Another Wired New Chess Engine
+ *     Copyright (C) 2024 Christian Ensel
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.ensel.waves;
+
+import de.ensel.waves.UCI4ChessEngine.ChessEngine;
+import de.ensel.waves.UCI4ChessEngine.SearchLimits;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static de.ensel.chessbasics.ChessBasics.*;
+import static de.ensel.waves.ChessEngineParams.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChessBoardControllerTest {
+
+    @Test
+    void go_Test() throws Exception {
+        ChessBoardController engine = new ChessBoardController();
+        engine.setParam("engineP1", "" + LEVEL_TEST_QUICK);
+        engine.setBoard("r2k3r/p1pp1ppp/q7/8/3P4/N1P2b2/PP2NP1P/R3K3 b Q - 0 17");
+        String[] reported = new String[2];
+        Future<String> result = engine.go((move, pv) -> {
+            reported[0] = move;
+            reported[1] = pv;
+        });
+        assertEquals("a6e2", result.get(60, TimeUnit.SECONDS));
+        assertFalse(engine.isSearching());
+        assertEquals("a6e2", reported[0]);
+        assertTrue(reported[1] == null || reported[1].startsWith("a6e2"));
+    }
+
+    @Test
+    void goMovetime_Test() throws Exception {
+        ChessBoardController engine = new ChessBoardController();
+        engine.setBoard(FENPOS_STARTPOS);
+        long startTime = System.currentTimeMillis();
+        Future<String> result = engine.go(SearchLimits.ofUCIGo("go movetime 500"), (move, pv) -> { });
+        String move = result.get(30, TimeUnit.SECONDS);
+        long duration = System.currentTimeMillis() - startTime;
+        assertNotNull(move);
+        assertTrue(duration < 2000);
+
+        engine.setBoard("r2k3r/p1pp1ppp/q7/8/3P4/N1P2b2/PP2NP1P/R3K3 b Q - 0 17");
+        assertEquals("a6e2", engine.go(SearchLimits.ofUCIGo("go depth 3"), (m, pv) -> { }).get(60, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void goStop_Test() throws Exception {
+        ChessBoardController engine = new ChessBoardController();
+        engine.setParam("engineP1", "" + LEVEL_TEST_LONG);
+        engine.setBoard(FENPOS_STARTPOS);
+        ChessEngine.SearchListener listener = (move, pv) -> { };
+        Future<String> result = engine.go(listener);
+        Thread.sleep(200);
+        long startTime = System.currentTimeMillis();
+        engine.stop();
+        String move = result.get(30, TimeUnit.SECONDS);
+        assertTrue(System.currentTimeMillis() - startTime < 5000);     // and not after the whole deep search
+        assertNotNull(move);
+        assertEquals(4, move.length());
+        assertFalse(engine.isSearching());
+
+        // the engine can search again after a stop
+        engine.setParam("engineP1", "" + LEVEL_EASY);
+        assertNotNull(engine.go(listener).get(30, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void sharedPool_Test() throws Exception {
+        EnginePool pool = new EnginePool(2);
+        ChessBoardController engine = new ChessBoardController(pool, 1);
+        // the shared pool is not resized by one of its engines
+        assertFalse(engine.setParam("Threads", "4"));
+        assertEquals(1, engine.getThreads());
+        assertEquals(2, pool.nrOfThreads());
+        assertEquals("1", engine.getParam("Hash"));
+        engine.setParam("engineP1", "" + LEVEL_TEST_QUICK);
+        engine.setBoard("r2k3r/p1pp1ppp/q7/8/3P4/N1P2b2/PP2NP1P/R3K3 b Q - 0 17");
+        assertEquals("a6e2", engine.go(SearchLimits.ofUCIGo("go depth 3"), (m, pv) -> { }).get(60, TimeUnit.SECONDS));
+        pool.shutdown();
+    }
+
+    @Test
+    void goInfiniteFreesPoolThread_Test() throws Exception {
+        EnginePool pool = new EnginePool(1);
+        ChessBoardController waiting = new ChessBoardController(pool, 1);
+        ChessBoardController other = new ChessBoardController(pool, 1);
+        for (ChessBoardController engine : List.of(waiting, other)) {
+            engine.setParam("engineP1", "" + LEVEL_TEST_QUICK);
+            engine.setBoard("r2k3r/p1pp1ppp/q7/8/3P4/N1P2b2/PP2NP1P/R3K3 b Q - 0 17");
+        }
+        List<String> bestMoves = new CopyOnWriteArrayList<>();
+        Future<String> infinite = waiting.go(SearchLimits.ofUCIGo("go infinite depth 3"),
+                (move, pv) -> bestMoves.add(move));
+        // the only pool thread is not kept busy by the finished infinite search, which waits for the stop ...
+        assertEquals("a6e2", other.go(SearchLimits.ofUCIGo("go depth 3"), (m, pv) -> { }).get(60, TimeUnit.SECONDS));
+        assertFalse(infinite.isDone());
+        assertTrue(waiting.isSearching());
+        assertTrue(bestMoves.isEmpty());
+        // ... and stop() sends its bestmove
+        waiting.stop();
+        assertEquals("a6e2", infinite.get(10, TimeUnit.SECONDS));
+        assertEquals(List.of("a6e2"), bestMoves);
+        pool.shutdown();
+    }
+
+    @Test
+    void analysisPool_Test() throws Exception {
+        EnginePool pool = new EnginePool(1);
+        EnginePool analysisPool = new EnginePool(1);
+        CountDownLatch analysing = new CountDownLatch(1);
+        analysisPool.submit(context -> {       // stands for a long analysis of another engine
+            try {
+                analysing.await();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        });
+        ChessBoardController engine = new ChessBoardController(pool, analysisPool, 1);
+        engine.setParam("engineP1", "" + LEVEL_TEST_QUICK);
+        engine.setBoard("r2k3r/p1pp1ppp/q7/8/3P4/N1P2b2/PP2NP1P/R3K3 b Q - 0 17");
+        // the busy analysis pool does not keep the search with limits from running ...
+        assertEquals("a6e2", engine.go(SearchLimits.ofUCIGo("go depth 3"), (m, pv) -> { }).get(60, TimeUnit.SECONDS));
+        // ... but an analysis waits for it
+        Future<String> infinite = engine.go(SearchLimits.ofUCIGo("go infinite depth 3"), (m, pv) -> { });
+        assertFalse(infinite.isDone());
+        analysing.countDown();
+        engine.stop();
+        assertNotNull(infinite.get(60, TimeUnit.SECONDS));
+        pool.shutdown();
+        analysisPool.shutdown();
+    }
+
+    @Test
+    void paramsArePerEngine_Test() {
+        ChessBoardController engine1 = new ChessBoardController();
+        ChessBoardController engine2 = new ChessBoardController();
+        assertTrue(engine1.setParam("engineP1", "" + LEVEL_TEST_LONG));
+        assertTrue(engine2.setParam("hops", "2"));
+        assertEquals("" + LEVEL_TEST_LONG, engine1.getParam("engineP1"));
+        assertEquals("0", engine2.getParam("engineP1"));
+        assertEquals("2", engine2.getParam("hops"));
+        assertEquals("3", engine1.getParam("hops"));
+        assertNotSame(engine1.getConfig(), engine2.getConfig());
+    }
+
+    @Test
+    void hashOption_Test() throws Exception {
+        ChessBoardController engine = new ChessBoardController();
+        engine.setBoard("r2k3r/p1pp1ppp/q7/8/3P4/N1P2b2/PP2NP1P/R3K3 b Q - 0 17");
+        assertEquals(ChessBoardController.DEFAULT_HASH_MB, engine.getHashSize());
+        assertTrue(engine.setParam("Hash", "1"));
+        assertEquals(1, engine.getHashSize());
+        assertFalse(engine.setParam("Hash", "lots"));
+        assertEquals(1, engine.getHashSize());
+        // even with the minimal budget, the search works
+        ChessEngine.SearchListener listener = (move, pv) -> { };
+        assertEquals("a6e2", engine.go(SearchLimits.ofUCIGo("go depth 4"), listener).get(60, TimeUnit.SECONDS));
+        assertTrue(engine.board.getNrOfRememberedBoards() <= engine.board.getMaxRememberedBoards());
+        assertTrue(engine.setParam("Clear Hash", ""));
+        assertEquals(0, engine.hashfull());
+        assertEquals(0, engine.board.getNrOfRememberedBoards());
+    }
+
+    @Test
+    void threadsOption_Test() throws Exception {
+        ChessBoardController engine = new ChessBoardController();
+        engine.setBoard("r2k3r/p1pp1ppp/q7/8/3P4/N1P2b2/PP2NP1P/R3K3 b Q - 0 17");
+        assertEquals(ChessBoardController.DEFAULT_THREADS, engine.getThreads());
+        assertTrue(engine.setParam("Threads", "3"));
+        assertEquals(3, engine.getThreads());
+        ChessEngine.SearchListener listener = (move, pv) -> { };
+        assertEquals("a6e2", engine.go(SearchLimits.ofUCIGo("go depth 3"), listener).get(60, TimeUnit.SECONDS));
+        // helpers do not keep running after the search
+        engine.setBoard(FENPOS_STARTPOS);
+        Future<String> result = engine.go(SearchLimits.ofUCIGo("go movetime 300"), listener);
+        assertNotNull(result.get(30, TimeUnit.SECONDS));
+        assertFalse(engine.isSearching());
+    }
+}
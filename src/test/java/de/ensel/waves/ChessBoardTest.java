@@ -27,12 +27,19 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 
+import de.ensel.waves.UCI4ChessEngine.SearchLimits;
+
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 import static de.ensel.chessbasics.ChessBasics.*;
 import static de.ensel.chessbasics.ChessBasics.QUEEN_BLACK;
-import static de.ensel.waves.ChessBoard.DEBUGMSG_MOVEEVAL;
 import static de.ensel.waves.ChessEngineParams.*;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -217,8 +224,12 @@ public class ChessBoardTest {
     void ChessBoardGetBestMove_isBestMovePREeval_Test(String fen, String expectedBestMove) {
         int defaultLevel = DEFAULT_TEST_ENGINE_LEVEL;
         DEFAULT_TEST_ENGINE_LEVEL = 0;
-        doAndTestPuzzle(fen,expectedBestMove, "Simple  Test", true, true);
-        DEFAULT_TEST_ENGINE_LEVEL = defaultLevel;
+        try {
+            doAndTestPuzzle(fen,expectedBestMove, "Simple  Test", true, true);
+        }
+        finally {   // a failing puzzle must not leave level 0 behind for the other tests
+            DEFAULT_TEST_ENGINE_LEVEL = defaultLevel;
+        }
     }
 
 
@@ -273,13 +284,117 @@ public class ChessBoardTest {
         doAndTestPuzzle(fen, expectedBestMove, "MateIn1-test", true, false);
     }
 
+    @Test
+    void getPrincipalVariation_Test() {
+        ChessBoard board = new ChessBoard("pv-test", "r2k3r/p1pp1ppp/q7/8/3P4/N1P2b2/PP2NP1P/R3K3 b Q - 0 17");
+        board.config().setEngineP1(DEFAULT_TEST_ENGINE_LEVEL);
+        Move bestMove = board.getBestMove();
+        PrincipalVariation pv = board.getPrincipalVariation();
+        assertTrue(pv.length() >= 1);
+        assertEquals(new SimpleMove(bestMove.from(), bestMove.to(), bestMove.promotesTo()), pv.getMoves()[0]);
+        assertTrue(pv.toString().startsWith("a6e2"));
+
+        // a new position forgets the old line
+        board.doMove("a6e2");
+        assertEquals(0, pv.length());
+    }
+
+    @Test
+    void reuseGrandparentPreEvals_Test() {
+        EngineConfig config = new EngineConfig();
+        config.reuseGrandparentPreEvals = true;
+        config.setEngineP1(LEVEL_TEST_MED);    // level 0 would not search deep enough to reach a grandchild node
+        ChessBoard board = new ChessBoard("reuse-test", FENPOS_STARTPOS, config);
+        assertNotNull(board.getBestMove());
+        assertTrue(board.getNrOfReusedPreEvals() > 0);
+        // checks are never reused, so the mate is still found
+        board = new ChessBoard("reuse-mate-test", "r2k3r/p1pp1ppp/q7/8/3P4/N1P2b2/PP2NP1P/R3K3 b Q - 0 17", config);
+        Move bestMove = board.getBestMove();
+        assertEquals(coordinateString2Pos("a6"), bestMove.from());
+        assertEquals(coordinateString2Pos("e2"), bestMove.to());
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - 2 3"
+            , "r1bq1rk1/pp2bppp/2n1pn2/3p4/2PP4/2N1PN2/PP2BPPP/R2QKB1R w KQ - 0 8"
+            , "2r2rk1/pp3ppp/2n1pn2/3p4/3P4/2N1PN2/PP3PPP/2R2RK1 w - - 0 15"
+    })
+    void reuseGrandparentPreEvals_sameResult_Test(String fen) {
+        // in quiet positions, the reused pre-evaluations must lead to the same result as fresh ones
+        Move[] bestMoves = new Move[2];
+        for (int reuse = 0; reuse <= 1; reuse++) {
+            EngineConfig config = new EngineConfig();
+            config.reuseGrandparentPreEvals = reuse == 1;
+            config.setEngineP1(LEVEL_TEST_MED);
+            ChessBoard board = new ChessBoard("reuse-test", fen, config);
+            bestMoves[reuse] = board.getBestMove();
+            assertEquals(reuse == 1, board.getNrOfReusedPreEvals() > 0);
+        }
+        assertEquals(bestMoves[0].from(), bestMoves[1].from());
+        assertEquals(bestMoves[0].to(), bestMoves[1].to());
+        assertEquals(bestMoves[0].getEval().getEvalAt(0), bestMoves[1].getEval().getEvalAt(0), EVAL_TENTH);
+    }
+
+    @Test
+    void positionalLeafScore_Test() {
+        // nothing to win by material, so only the positional values of the leaves make the pawn advance
+        String fen = "4k3/8/8/8/8/8/P7/4K3 w - - 0 1";
+        EngineConfig config = new EngineConfig();
+        config.setEngineP1(DEFAULT_TEST_ENGINE_LEVEL);
+        assertEquals("a2a3", new SimpleMove(new ChessBoard("positional-test", fen, config).getBestMove()).toString());
+        config = new EngineConfig();
+        config.setEngineP1(DEFAULT_TEST_ENGINE_LEVEL);
+        config.positionalLeafScore = false;
+        assertEquals("e1e2", new SimpleMove(new ChessBoard("positional-test", fen, config).getBestMove()).toString());
+    }
+
+    @Test
+    void noBoardsRetainedAfterSearch_Test() {
+        ChessBoard board = new ChessBoard("retention-test", FENPOS_STARTPOS);
+        board.config().setEngineP1(DEFAULT_TEST_ENGINE_LEVEL);
+        Move bestMove = board.getBestMove();
+        assertNotNull(bestMove);
+        assertNull(bestMove.getPostVBoard());
+        // the shared move templates of the pieces never keep a board
+        MoveDependencies deps = board.getMoveDependencies();
+        for (int id = 0; id < deps.nrOfMoves(); id++)
+            assertNull(deps.getMove(id).getPostVBoard());
+        assertEquals(0, board.getNrOfRememberedBoards());
+    }
+
+    @Test
+    void concurrentSearchesOnOneBoard_Test() throws Exception {
+        ChessBoard board = new ChessBoard("concurrent-test", "r2k3r/p1pp1ppp/q7/8/3P4/N1P2b2/PP2NP1P/R3K3 b Q - 0 17");
+        board.config().setEngineP1(DEFAULT_TEST_ENGINE_LEVEL);
+        ExecutorService threads = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Move>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++)
+                results.add(threads.submit(() ->
+                        board.getBestMove(new TimeManager(SearchLimits.ofUCIGo("go depth 3"), CIBLACK))));
+            for (Future<Move> result : results)
+                assertEquals("a6e2", new SimpleMove(result.get(60, TimeUnit.SECONDS)).toString());
+        }
+        finally {
+            threads.shutdown();
+        }
+        // the searches only read the board
+        assertTrue(board.getPrincipalVariation().toString().startsWith("a6e2"));
+        assertEquals(0, board.getNrOfRememberedBoards());
+        MoveDependencies deps = board.getMoveDependencies();
+        for (int id = 0; id < deps.nrOfMoves(); id++)
+            assertNull(deps.getMove(id).getPostVBoard());
+    }
+
     public static void doAndTestPuzzle(String fen, String expectedMoves, String themes, boolean debugmoves, boolean intenseDebugging) {
-        //ChessBoard.DEBUGMSG_MOVEEVAL = debugmoves;
-        ChessBoard.DEBUGMSG_MOVESELECTION = debugmoves;
+        EngineConfig config = new EngineConfig();
+        //config.debugMsgMoveEval = debugmoves;
+        config.debugMsgMoveSelection = debugmoves;
         if (intenseDebugging)
-            ChessBoard.DEBUGMSG_MOVESELECTION2 = true;
-        ChessBoard board = new ChessBoard(themes, fen);
-        ChessBoard.setEngineP1(DEFAULT_TEST_ENGINE_LEVEL);
+            config.debugMsgMoveSelection2 = true;
+        config.setEngineP1(DEFAULT_TEST_ENGINE_LEVEL);
+        ChessBoard board = new ChessBoard(themes, fen, config);
         String[] splitt = expectedMoves.trim().split(" ", 2);
         if (splitt.length==2 && splitt[1]!=null && splitt[1].length()>0) {
             // if expected moves is a series of moves, then the very first is still before the puzzle and must be moved first...
@@ -291,9 +406,6 @@ public class ChessBoardTest {
         // get calculated best move
         System.out.println("Searching Best move for Board: " + board.getBoardName() + ": " + board.getBoardFEN() + " .  ");
         Move bestMove = board.getBestMove();
-        ChessBoard.DEBUGMSG_MOVEEVAL = false;
-        ChessBoard.DEBUGMSG_MOVESELECTION = false;
-        ChessBoard.DEBUGMSG_MOVESELECTION2 = false;
 
         if (bestMove == null) {
             if (expectedMoves.isEmpty())
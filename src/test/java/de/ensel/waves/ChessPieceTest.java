@@ -24,7 +24,6 @@ import org.junit.jupiter.params.ParameterizedTest;
 import java.util.Comparator;
 
 import static de.ensel.chessbasics.ChessBasics.*;
-import static de.ensel.waves.ChessBoard.DEBUGMSG_MOVEEVAL;
 import static org.junit.jupiter.api.Assertions.*;
 
 class ChessPieceTest {
@@ -439,8 +438,8 @@ class ChessPieceTest {
 
     @Test
     void getMoveEvalInclFollowUpAfter_Test() {
-        DEBUGMSG_MOVEEVAL = true;
         ChessBoard board = new ChessBoard("6k1/p4pbp/5n2/2pnp1N1/6P1/1rN2P2/7P/B2K3R w - - 0 37");
+        board.config().debugMsgMoveEval = true;
         ChessPiece rook = board.getPieceAt(coordinateString2Pos("b3"));
         ChessPiece dyingHorse = board.getPieceAt(coordinateString2Pos("c3"));
         ChessPiece otherDyingHorse = board.getPieceAt(coordinateString2Pos("d5"));
@@ -456,4 +455,23 @@ class ChessPieceTest {
         eval = otherDyingHorse.getMoveEvalInclFollowUpAfter( move, board);
         assertEquals( -dyingHorse.getValue() , eval.getEvalAt(0), 15);  // NOT -otherDyingHorse.getValue() -dyingHorse.getValue() -bishop.getValue(), because bishop will not take
     }
-}
\ No newline at end of file
+
+    @Test
+    void evaluationReasons_Test() {
+        ChessBoard board = new ChessBoard("6k1/p4pbp/5n2/2pnp1N1/6P1/1rN2P2/7P/B2K3R b - - 0 37");
+        ChessPiece rook = board.getPieceAt(coordinateString2Pos("b3"));
+        // by default nothing is recorded
+        Evaluation eval = rook.getMoveToEvalAfter(coordinateString2Pos("c3"), board);
+        assertEquals("", eval.getReason());
+        assertEquals(0, board.getEvalReasons().size());
+
+        board.config().showReasons = true;
+        eval = rook.getMoveToEvalAfter(coordinateString2Pos("c3"), board);
+        assertTrue(eval.getReason().startsWith("direct_effect_"));
+        assertTrue(board.getEvalReasons().size() > 0);
+
+        // reasons of an older search are not rendered any more
+        board.getEvalReasons().clear();
+        assertEquals("", eval.getReason());
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ *     Waves - Another Wired New Chess Engine
+ *     Copyright (C) 2024 Christian Ensel
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.ensel.waves;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static de.ensel.chessbasics.ChessBasics.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class EnginePoolTest {
+
+    @Test
+    void contextPerThread_Test() throws Exception {
+        EnginePool pool = new EnginePool(3);
+        assertEquals(3, pool.nrOfThreads());
+        // block all 3 threads at once, so each task runs on another thread
+        CountDownLatch allStarted = new CountDownLatch(3);
+        List<Future<EnginePool.WorkerContext>> results = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            results.add(pool.submit(context -> {
+                allStarted.countDown();
+                try {
+                    allStarted.await(10, TimeUnit.SECONDS);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return context;
+            }));
+        }
+        Set<Integer> indexes = new HashSet<>();
+        for (Future<EnginePool.WorkerContext> r : results)
+            indexes.add(r.get(10, TimeUnit.SECONDS).index());
+        assertEquals(Set.of(0, 1, 2), indexes);
+
+        // the board of a context is kept for the same position
+        EnginePool.WorkerContext context = results.get(0).get();
+        EngineConfig config = new EngineConfig();
+        ChessBoard board = context.boardFor(FENPOS_STARTPOS, config);
+        assertSame(board, context.boardFor(FENPOS_STARTPOS, config));
+        // but not for another engine
+        assertNotSame(board, context.boardFor(FENPOS_STARTPOS, new EngineConfig()));
+        pool.shutdown();
+    }
+
+    @Test
+    void resize_Test() throws Exception {
+        EnginePool pool = new EnginePool(1);
+        pool.resize(4);
+        assertEquals(4, pool.nrOfThreads());
+        assertEquals(Integer.valueOf(42), pool.submit(context -> 42).get(10, TimeUnit.SECONDS));
+        pool.resize(0);
+        assertEquals(1, pool.nrOfThreads());
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ *     Waves - Another Wired New Chess Engine
+ *     Copyright (C) 2024 Christian Ensel
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.ensel.waves;
+
+import org.junit.jupiter.api.Test;
+
+import static de.ensel.chessbasics.ChessBasics.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class EvalCacheTest {
+
+    @Test
+    void putAndGet_Test() {
+        ChessBoard board = new ChessBoard("cache-test", FENPOS_STARTPOS);
+        EvalCache cache = new EvalCache(1);
+        Move e2e4 = new Move(board, "e2e4");
+        Move d2d4 = new Move(board, "d2d4");
+        long hash = board.positionHash();
+
+        Evaluation eval = new Evaluation(EVAL_TENTH, 0).addEval(-EVAL_HALFAPAWN, 2);
+        cache.put(hash, e2e4, eval);
+        Evaluation found = new Evaluation();
+        assertTrue(cache.addCachedEvalTo(hash, e2e4, found));
+        assertEquals(eval, found);
+        assertFalse(cache.addCachedEvalTo(hash, d2d4, new Evaluation()));
+        assertFalse(cache.addCachedEvalTo(hash + 1, e2e4, new Evaluation()));
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+
+        // evaluations that cannot be packed are stored as well
+        Evaluation mate = new Evaluation(ChessBoard.checkmateEvalIn(CIWHITE, 3), 3);
+        cache.put(hash, d2d4, mate);
+        found = new Evaluation();
+        assertTrue(cache.addCachedEvalTo(hash, d2d4, found));
+        assertEquals(mate, found);
+    }
+
+    @Test
+    void isBounded_Test() {
+        ChessBoard board = new ChessBoard("cache-test", FENPOS_STARTPOS);
+        EvalCache cache = new EvalCache(1);
+        Move e2e4 = new Move(board, "e2e4");
+        int n = cache.capacity() * 2;
+        for (long h = 1; h <= n; h++)
+            cache.put(h, e2e4, new Evaluation((int) (h & 0xff), 0));
+        int found = 0;
+        for (long h = 1; h <= n; h++) {
+            Evaluation eval = new Evaluation();
+            if (cache.addCachedEvalTo(h, e2e4, eval)) {
+                found++;
+                assertEquals((int) (h & 0xff), eval.getEvalAt(0));
+            }
+        }
+        assertTrue(found <= cache.capacity());
+        assertTrue(found > 0);
+    }
+
+    @Test
+    void resizeClearHashfull_Test() {
+        ChessBoard board = new ChessBoard("cache-test", FENPOS_STARTPOS);
+        EvalCache cache = new EvalCache(1);
+        Move e2e4 = new Move(board, "e2e4");
+        assertEquals(0, cache.hashfull());
+        int n = cache.capacity() * 2;
+        for (long h = 1; h <= n; h++)
+            cache.put(h, e2e4, new Evaluation(1, 0));
+        assertTrue(cache.hashfull() > 800);
+        cache.clear();
+        assertEquals(0, cache.hashfull());
+        assertFalse(cache.addCachedEvalTo(1, e2e4, new Evaluation()));
+
+        int oldCapacity = cache.capacity();
+        cache.resize(4);
+        assertEquals(4 * oldCapacity, cache.capacity());
+        cache.resize(1);
+        assertEquals(oldCapacity, cache.capacity());
+    }
+
+    @Test
+    void preEvaluationIsCached_Test() {
+        String fen = "6k1/p4pbp/5n2/2pnp1N1/6P1/1rN2P2/7P/B2K3R w - - 0 37";
+        ChessBoard board = new ChessBoard("cache-test", fen);
+        board.config().debugMsgMoveEval = false;   // would bypass the cache
+        EvalCache cache = new EvalCache(1);
+        board.setEvalCache(cache);
+        ChessPiece knight = board.getPieceAt(coordinateString2Pos("g5"));
+        Evaluation first = knight.getMoveToEvalAfter(coordinateString2Pos("f7"), board);
+        Evaluation second = knight.getMoveToEvalAfter(coordinateString2Pos("f7"), board);
+        assertEquals(first, second);
+        assertEquals(1, cache.getHits());
+        // same result as without cache
+        ChessBoard uncachedBoard = new ChessBoard("cache-test", fen);
+        assertEquals(first, uncachedBoard.getPieceAt(coordinateString2Pos("g5"))
+                                         .getMoveToEvalAfter(coordinateString2Pos("f7"), uncachedBoard));
+    }
+}
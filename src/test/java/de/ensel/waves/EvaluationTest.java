@@ -56,4 +56,26 @@ class EvaluationTest {
             }
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void packed_Test() {
+        Evaluation eval = new Evaluation(-1234, 0).addEval(17, 1).addEval(-1023, 2).addEval(1023, 3).addEval(-5, 4);
+        long packed = eval.toPacked();
+        assertNotEquals(Evaluation.PACKED_SPILL, packed);
+        assertEquals(eval, new Evaluation(packed));
+        for (int i = 0; i < Evaluation.MAX_EVALDEPTH; i++)
+            assertEquals(eval.getEvalAt(i), Evaluation.packedEvalAt(packed, i));
+
+        // packed values can be added and negated directly (as long as no lane overflows, i.e. leaves -1024..1023 here)
+        long other = Evaluation.packedOf(EVAL_TENTH, 2) + Evaluation.packedOf(EVAL_HALFAPAWN, 0);
+        Evaluation sum = new Evaluation(eval).addEval(EVAL_TENTH, 2).addEval(EVAL_HALFAPAWN, 0);
+        assertEquals(sum, new Evaluation(packed + other));
+        assertEquals(new Evaluation(eval).invert(), new Evaluation(-packed));
+        assertTrue(Evaluation.packedIsAboutZero(Evaluation.packedOf(-1, 0) + Evaluation.packedOf(3, 2)));
+        assertFalse(Evaluation.packedIsAboutZero(Evaluation.packedOf(-3, 1)));
+
+        // values that do not fit spill
+        assertEquals(Evaluation.PACKED_SPILL, new Evaluation(2000, 1).toPacked());
+        assertNotEquals(Evaluation.PACKED_SPILL, new Evaluation(100000, 0).toPacked());
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ *     Waves - Another Wired New Chess Engine
+ *     Copyright (C) 2024 Christian Ensel
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.ensel.waves;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static de.ensel.chessbasics.ChessBasics.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoveGraphTest {
+
+    @Test
+    void moveGraph_Test() {
+        // colorless, except for pawns
+        assertSame(MoveGraph.of(KNIGHT), MoveGraph.of(KNIGHT_BLACK));
+        assertNotSame(MoveGraph.of(PAWN), MoveGraph.of(PAWN_BLACK));
+        MoveGraph knight = MoveGraph.of(KNIGHT);
+        int a1 = coordinateString2Pos("a1");
+        assertArrayEquals(new int[]{coordinateString2Pos("b3"), coordinateString2Pos("c2")},
+                Arrays.stream(knight.targetsFrom(a1)).sorted().toArray());
+        assertEquals(0, knight.edgeIntermediates(knight.firstEdgeFrom(a1)).length);
+
+        MoveGraph rook = MoveGraph.of(ROOK);
+        int a8 = coordinateString2Pos("a8");
+        for (int e = rook.firstEdgeFrom(a1); e < rook.firstEdgeFrom(a1+1); e++) {
+            if (rook.edgeTo(e) == a8)
+                assertEquals(6, rook.edgeIntermediates(e).length);
+            else if (rook.edgeTo(e) == coordinateString2Pos("a2"))
+                assertEquals(0, rook.edgeIntermediates(e).length);
+        }
+    }
+
+    @Test
+    void movesShareTheGraph_Test() {
+        ChessBoard board1 = new ChessBoard("graph-test1", FENPOS_STARTPOS);
+        ChessBoard board2 = new ChessBoard("graph-test2", FENPOS_STARTPOS);
+        int a1 = coordinateString2Pos("a1");
+        int a3 = coordinateString2Pos("a3");
+        Move m1 = board1.getPieceAt(a1).getMove(a1, a3);
+        Move m2 = board2.getPieceAt(a1).getMove(a1, a3);
+        assertNotSame(m1, m2);
+        assertSame(m1.intermedPos(), m2.intermedPos());
+        assertArrayEquals(new int[]{coordinateString2Pos("a2")}, m1.intermedPos());
+    }
+
+    @Test
+    void movesCollection_Test() {
+        ChessBoard board = new ChessBoard("moves-test", FENPOS_STARTPOS);
+        int g1 = coordinateString2Pos("g1");
+        ChessPiece knight = board.getPieceAt(g1);
+        MovesCollection moves = knight.moves[g1];
+        assertEquals(3, moves.size());
+        int n = 0;
+        for (Move m : moves) {
+            assertSame(moves.get(n++), m);
+            assertSame(m, moves.getMoveTo(m.to()));
+            assertSame(m, knight.getMove(g1, m.to()));
+        }
+        assertEquals(3, n);
+        assertEquals(3, moves.stream().count());
+        assertNull(moves.getMoveTo(coordinateString2Pos("g3")));
+        assertNull(knight.getMove(g1, coordinateString2Pos("g3")));
+    }
+
+    @Test
+    void squareDependencies_Test() {
+        ChessBoard board = new ChessBoard("deps-test", FENPOS_STARTPOS);
+        for (int pos : new int[]{coordinateString2Pos("f3"), coordinateString2Pos("a1"), coordinateString2Pos("e5")}) {
+            Square sq = board.getSquare(pos);
+            for (int ci = CIWHITE; ci <= CIBLACK; ci++) {
+                assertTrue(sq.nrOfDepMoves(MoveDependencies.END, ci) > 0);
+                for (int i = 0; i < sq.nrOfDepMoves(MoveDependencies.END, ci); i++) {
+                    assertEquals(pos, sq.depMove(MoveDependencies.END, ci, i).to());
+                    assertEquals(ci, sq.depMove(MoveDependencies.END, ci, i).piece().color());
+                }
+                for (int i = 0; i < sq.nrOfDepMoves(MoveDependencies.START, ci); i++)
+                    assertEquals(pos, sq.depMove(MoveDependencies.START, ci, i).from());
+                for (int i = 0; i < sq.nrOfDepMoves(MoveDependencies.OVER, ci); i++) {
+                    final int p = pos;
+                    assertTrue(Arrays.stream(sq.depMove(MoveDependencies.OVER, ci, i).intermedPos()).anyMatch(ip -> ip == p));
+                }
+                assertEquals(sq.nrOfDepMoves(MoveDependencies.END, ci), sq.getMovesToHere(ci).count());
+            }
+        }
+    }
+
+    @Test
+    void sharedDependencyRows_Test() {
+        ChessBoard board1 = new ChessBoard("shared-deps-test", FENPOS_STARTPOS);
+        ChessBoard board2 = new ChessBoard("shared-deps-test", FENPOS_STARTPOS);
+        ChessBoard other = new ChessBoard("shared-deps-test", "4k3/8/8/8/8/8/8/R3K3 w - - 0 1");
+        assertTrue(board1.getMoveDependencies().sharesRowsWith(board2.getMoveDependencies()));
+        assertFalse(board1.getMoveDependencies().sharesRowsWith(other.getMoveDependencies()));
+        // the ids are the same, but the moves are the ones of the own pieces
+        Square sq = board2.getSquare(coordinateString2Pos("f3"));
+        for (int i = 0; i < sq.nrOfDepMoves(MoveDependencies.END, CIWHITE); i++)
+            assertSame(board2, sq.depMove(MoveDependencies.END, CIWHITE, i).piece().board());
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ *     Waves - Another Wired New Chess Engine
+ *     Copyright (C) 2024 Christian Ensel
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.ensel.waves;
+
+import de.ensel.waves.UCI4ChessEngine.ChessEngine;
+import de.ensel.waves.UCI4ChessEngine.SearchLimits;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static de.ensel.chessbasics.ChessBasics.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchProgressTest {
+
+    @Test
+    void uciScore_Test() {
+        assertEquals("cp 35", SearchProgress.uciScore(35));
+        assertEquals("cp -120", SearchProgress.uciScore(-120));
+        // mate in 1 resp. being mated in 1 (after the opponent's reply)
+        assertEquals("mate 1", SearchProgress.uciScore(-ChessBoard.checkmateEvalIn(CIWHITE, 1)));
+        assertEquals("mate 2", SearchProgress.uciScore(ChessBoard.checkmateEvalIn(CIWHITE, 3) * -1));
+        assertEquals("mate -1", SearchProgress.uciScore(ChessBoard.checkmateEvalIn(CIWHITE, 2)));
+    }
+
+    @Test
+    void iterationDone_Test() {
+        List<String> infos = new ArrayList<>();
+        SearchProgress progress = new SearchProgress(infos::add, new EvalCache(1));
+        PrincipalVariation pv = new PrincipalVariation();
+        progress.iterationDone(3, 5, 1234, 42, pv);
+        assertEquals(1, infos.size());
+        assertTrue(infos.get(0).matches("depth 3 seldepth 5 score cp 42 nodes 1234 nps [0-9]+ time [0-9]+ hashfull 0"),
+                infos.get(0));
+        // throttled: no immediate report while searching
+        progress.nodesSearched(2000);
+        assertEquals(1, infos.size());
+    }
+
+    @Test
+    void infosWhileSearching_Test() throws Exception {
+        List<String> infos = Collections.synchronizedList(new ArrayList<>());
+        ChessBoardController engine = new ChessBoardController();
+        engine.setBoard("r2k3r/p1pp1ppp/q7/8/3P4/N1P2b2/PP2NP1P/R3K3 b Q - 0 17");
+        engine.go(SearchLimits.ofUCIGo("go depth 3"), new ChessEngine.SearchListener() {
+            @Override
+            public void info(String info) {
+                infos.add(info);
+            }
+
+            @Override
+            public void bestMove(String move, String principalVariation) {
+            }
+        }).get(60, TimeUnit.SECONDS);
+        assertFalse(infos.isEmpty());
+        String last = infos.get(infos.size() - 1);
+        assertTrue(last.startsWith("depth "));
+        assertTrue(last.contains(" score mate "));
+        assertTrue(last.contains(" pv a6e2"));
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ *     Waves - Another Wired New Chess Engine
+ *     Copyright (C) 2024 Christian Ensel
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.ensel.waves;
+
+import de.ensel.waves.UCI4ChessEngine.SearchLimits;
+import org.junit.jupiter.api.Test;
+
+import static de.ensel.chessbasics.ChessBasics.*;
+import static de.ensel.waves.UCI4ChessEngine.SearchLimits.NO_LIMIT;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeManagerTest {
+
+    @Test
+    void searchLimitsOfUCIGo_Test() {
+        SearchLimits l = SearchLimits.ofUCIGo("go wtime 300000 btime 200000 winc 2000 binc 1000 movestogo 40");
+        assertEquals(300000, l.timeOf(CIWHITE));
+        assertEquals(200000, l.timeOf(CIBLACK));
+        assertEquals(2000, l.incOf(CIWHITE));
+        assertEquals(1000, l.incOf(CIBLACK));
+        assertEquals(40, l.movesToGo());
+        assertEquals(NO_LIMIT, l.moveTime());
+        assertFalse(l.infinite());
+        assertFalse(l.isNone());
+
+        l = SearchLimits.ofUCIGo("go infinite depth 5 nodes x");
+        assertTrue(l.infinite());
+        assertEquals(5, l.depth());
+        assertEquals(0, l.nodes());
+
+        assertTrue(SearchLimits.ofUCIGo("go").isNone());
+        assertTrue(SearchLimits.ofUCIGo("go ponder").isNone());
+        assertEquals(1500, SearchLimits.ofUCIGo("go movetime 1500").moveTime());
+    }
+
+    @Test
+    void budgets_Test() {
+        TimeManager tm = new TimeManager(SearchLimits.ofUCIGo("go movetime 1000"), CIWHITE);
+        assertEquals(1000 - TimeManager.MOVE_OVERHEAD_MS, tm.hardMs());
+        assertEquals(tm.hardMs(), tm.softMs());
+
+        // sudden death: a fraction of the remaining time, but never most of it
+        tm = new TimeManager(SearchLimits.ofUCIGo("go wtime 60000 btime 1000"), CIWHITE);
+        assertTrue(tm.softMs() > 1000 && tm.softMs() < 4000);
+        assertTrue(tm.hardMs() > tm.softMs() && tm.hardMs() < 30000);
+        TimeManager tmBlack = new TimeManager(SearchLimits.ofUCIGo("go wtime 60000 btime 1000"), CIBLACK);
+        assertTrue(tmBlack.hardMs() < 1000);
+
+        // the increment is mostly used up
+        TimeManager tmInc = new TimeManager(SearchLimits.ofUCIGo("go wtime 60000 btime 60000 winc 2000 binc 2000"), CIWHITE);
+        assertTrue(tmInc.softMs() > tm.softMs() + 1000);
+
+        // last move before the time control may use more
+        TimeManager tmLast = new TimeManager(SearchLimits.ofUCIGo("go wtime 10000 btime 10000 movestogo 1"), CIWHITE);
+        assertTrue(tmLast.hardMs() > 5000 && tmLast.hardMs() < 10000);
+
+        // only the other side's clock: that one is used, instead of searching without limit
+        TimeManager tmOther = new TimeManager(SearchLimits.ofUCIGo("go wtime 5000"), CIBLACK);
+        assertTrue(tmOther.hardMs() != NO_LIMIT && tmOther.hardMs() < 5000);
+        assertEquals(new TimeManager(SearchLimits.ofUCIGo("go btime 5000"), CIBLACK).softMs(), tmOther.softMs());
+
+        tm = new TimeManager(SearchLimits.ofUCIGo("go infinite"), CIWHITE);
+        assertEquals(NO_LIMIT, tm.softMs());
+        assertFalse(tm.mustStop(1_000_000));
+    }
+
+    @Test
+    void startNextIteration_Test() {
+        TimeManager tm = new TimeManager(SearchLimits.ofUCIGo("go wtime 60000 btime 60000"), CIWHITE);
+        long base = tm.softMs();
+        assertFalse(tm.startNextIteration(1, "e2e4", 20, 0, 1));   // only one move
+        tm = new TimeManager(SearchLimits.ofUCIGo("go wtime 60000 btime 60000"), CIWHITE);
+        assertTrue(tm.startNextIteration(1, "e2e4", 20, 0, 20));
+        // changing best move and falling score give more time
+        assertTrue(tm.startNextIteration(2, "d2d4", -40, 0, 20));
+        assertTrue(tm.softMs() > base);
+        // a clearly dominant move gives less time
+        tm = new TimeManager(SearchLimits.ofUCIGo("go wtime 60000 btime 60000"), CIWHITE);
+        for (int d = 1; d <= 4; d++)
+            tm.startNextIteration(d, "e2e4", 300, 500, 20);
+        assertTrue(tm.softMs() < base);
+
+        tm = new TimeManager(SearchLimits.ofUCIGo("go depth 3"), CIWHITE);
+        assertTrue(tm.startNextIteration(2, "e2e4", 20, 0, 20));
+        assertFalse(tm.startNextIteration(3, "e2e4", 20, 0, 20));
+        tm = new TimeManager(SearchLimits.ofUCIGo("go nodes 1000"), CIWHITE);
+        assertFalse(tm.mustStop(999));
+        assertTrue(tm.mustStop(1000));
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ *     Waves - Another Wired New Chess Engine
+ *     Copyright (C) 2024 Christian Ensel
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.ensel.waves.UCI4ChessEngine;
+
+import de.ensel.waves.ChessBoardController;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+import static de.ensel.waves.ChessEngineParams.LEVEL_TEST_QUICK;
+import static org.junit.jupiter.api.Assertions.*;
+
+class UCI4ChessEngineTest {
+
+    @Test
+    void reinitializeAfterNoMove_Test() {
+        // the first engine finds no move, so the search is repeated on a new one
+        List<ChessBoardController> engines = new CopyOnWriteArrayList<>();
+        ByteArrayOutputStream answers = new ByteArrayOutputStream();
+        UCI4ChessEngine uci = new UCI4ChessEngine(LEVEL_TEST_QUICK,
+                new PrintStream(answers, true, StandardCharsets.UTF_8), () -> {
+            ChessBoardController engine = engines.isEmpty()
+                    ? new ChessBoardController() {
+                        @Override
+                        public Future<String> go(SearchLimits limits, SearchListener listener) {
+                            listener.bestMove(null, null);
+                            return CompletableFuture.completedFuture(null);
+                        }
+                    }
+                    : new ChessBoardController();
+            engines.add(engine);
+            return engine;
+        });
+        uci.logToFile = false;
+        uci.run(new BufferedReader(new StringReader(
+                "position fen r2k3r/p1pp1ppp/q7/8/3P4/N1P2b2/PP2NP1P/R3K3 b Q - 0 17\n"
+                + "go depth 3\n"
+                + "quit\n")));
+        assertTrue(answers.toString(StandardCharsets.UTF_8).contains("bestmove a6e2"));
+        assertEquals(2, engines.size());
+        assertSame(engines.get(1), uci.engine);
+        // the threads of the replaced engine are ended
+        assertThrows(RejectedExecutionException.class, () -> engines.get(0).getPool().submit(context -> null));
+    }
+}
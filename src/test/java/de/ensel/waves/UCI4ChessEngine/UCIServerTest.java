@@ -0,0 +1,88 @@
+/*
+ *     Waves - Another Wired New Chess Engine
+ *     Copyright (C) 2024 Christian Ensel
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.ensel.waves.UCI4ChessEngine;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static de.ensel.waves.ChessEngineParams.LEVEL_TEST_QUICK;
+import static org.junit.jupiter.api.Assertions.*;
+
+class UCIServerTest {
+
+    @Test
+    void concurrentSessions_Test() throws Exception {
+        try (UCIServer server = new UCIServer(0, 2, 1)) {
+            server.start();
+            ExecutorService clients = Executors.newFixedThreadPool(4);
+            try {
+                List<Future<String>> results = new ArrayList<>();
+                for (int i = 0; i < 4; i++)
+                    results.add(clients.submit(() -> playOneMove(server.port(),
+                            "r2k3r/p1pp1ppp/q7/8/3P4/N1P2b2/PP2NP1P/R3K3 b Q - 0 17")));
+                for (Future<String> result : results)
+                    assertEquals("bestmove a6e2", result.get(120, TimeUnit.SECONDS));
+            }
+            finally {
+                clients.shutdown();
+            }
+        }
+    }
+
+    /**
+     * @return the bestmove line the server sent for fen
+     */
+    private static String playOneMove(int port, String fen) throws Exception {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             PrintStream out = new PrintStream(socket.getOutputStream(), true, StandardCharsets.UTF_8)) {
+            out.println("uci");
+            assertEquals("uciok", readUntil(in, "uciok"));
+            out.println("setoption name engineP1 value " + LEVEL_TEST_QUICK);
+            out.println("isready");
+            assertEquals("readyok", readUntil(in, "readyok"));
+            out.println("position fen " + fen);
+            out.println("go depth 3");
+            String bestMove = readUntil(in, "bestmove");
+            out.println("quit");
+            return bestMove;
+        }
+    }
+
+    private static String readUntil(BufferedReader in, String prefix) throws Exception {
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.startsWith(prefix))
+                return line;
+        }
+        return null;
+    }
+}
@@ -21,10 +21,10 @@ package de.ensel.waves;
 import org.junit.jupiter.api.Test;
 
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 
 import static de.ensel.chessbasics.ChessBasics.*;
-import static de.ensel.waves.ChessBoard.DEBUGMSG_MOVEEVAL;
 import static org.junit.jupiter.api.Assertions.*;
 
 class VBoardTest {
@@ -111,8 +111,8 @@ class VBoardTest {
 
     @Test
     void moveIsNotBlockedByKingPin_Test() {
-        DEBUGMSG_MOVEEVAL = true;
         ChessBoard board = new ChessBoard("5k2/8/4Rrq1/8/5R2/P7/1P6/KN6 b - - 4 3");
+        board.config().debugMsgMoveEval = true;
         ChessPiece pinnedRook = board.getPieceAt(coordinateString2Pos("f6"));
         String res1 = Arrays.toString(board.getSingleMovesStreamFromPce(pinnedRook).toArray());
         assertEquals( "[f6f5, f6f4, f6f7]", res1 );
@@ -130,6 +130,75 @@ class VBoardTest {
 
     }
 
+    @Test
+    void getKingPinnerOf_Test() {
+        ChessBoard board = new ChessBoard("5k2/8/4Rrq1/8/5R2/P7/1P6/KN6 b - - 4 3");
+        ChessPiece pinnedRook = board.getPieceAt(coordinateString2Pos("f6"));
+        ChessPiece pinner = board.getPieceAt(coordinateString2Pos("f4"));
+        assertEquals(pinner, board.getKingPinnerOf(pinnedRook));
+        assertEquals(pinner, board.getPinnerOfPceToPos(pinnedRook, board.kingPos(CIBLACK)));
+        assertNull(board.getKingPinnerOf(board.getPieceAt(coordinateString2Pos("g6"))));
+        assertTrue(board.moveIsBlockedByKingPin(pinnedRook, coordinateString2Pos("e6")));
+        assertFalse(board.moveIsBlockedByKingPin(pinnedRook, coordinateString2Pos("f4")));
+
+        // pinner moves away -> no more pin on the following board, but still on the base board
+        VBoard vBoard = board
+                .createNext("g6g5")
+                .createNext("f4h4");
+        assertNull(vBoard.getKingPinnerOf(pinnedRook));
+        assertFalse(vBoard.moveIsBlockedByKingPin(pinnedRook, coordinateString2Pos("e6")));
+        assertEquals(pinner, board.getKingPinnerOf(pinnedRook));
+    }
+
+    @Test
+    void staticExchangeEval_Test() {
+        // pawn on d5 defended by rook, but white has doubled rooks (2nd one x-ray behind the first)
+        ChessBoard board = new ChessBoard("3rk3/8/8/3p4/8/8/3R4/3RK3 w - - 0 1");
+        ChessPiece pawn = board.getPieceAt(coordinateString2Pos("d5"));
+        assertEquals(-pawn.getValue(), board.staticExchangeEvalAt(coordinateString2Pos("d5"), CIWHITE));
+        // black rook cannot go through its own pawn
+        assertEquals(VBoard.NO_CAPTURE_POSSIBLE, board.staticExchangeEvalAt(coordinateString2Pos("d2"), CIBLACK));
+
+        // without the 2nd rook, capturing costs the rook
+        ChessBoard board2 = new ChessBoard("3rk3/8/8/3p4/8/8/3R4/4K3 w - - 0 1");
+        ChessPiece rook = board2.getPieceAt(coordinateString2Pos("d2"));
+        ChessPiece pawn2 = board2.getPieceAt(coordinateString2Pos("d5"));
+        Move rxp = rook.getMove(coordinateString2Pos("d2"), coordinateString2Pos("d5"));
+        assertEquals(-pawn2.getValue() - rook.getValue(), board2.staticExchangeEvalOfMove(rxp));
+    }
+
+    @Test
+    void clashResultsAreInherited_Test() {
+        ChessBoard board = new ChessBoard("3rk3/8/8/3p4/8/8/3R4/3RK3 w - - 0 1");
+        final int d5 = coordinateString2Pos("d5");
+        ChessPiece pawn = board.getPieceAt(d5);
+        assertEquals(-pawn.getValue(), board.staticExchangeEvalAt(d5, CIWHITE));
+        // king move far away does not change anything on d5
+        VBoard vBoard = board.createNext("e1f2");
+        assertEquals(0L, vBoard.getChangedClashSquares() & (1L << d5));
+        assertEquals(-pawn.getValue(), vBoard.staticExchangeEvalAt(d5, CIWHITE));
+        // but the defending rook moving along the d-file does
+        VBoard vBoard2 = vBoard.createNext("d8d6");
+        assertTrue((vBoard2.getChangedClashSquares() & (1L << d5)) != 0);
+        // a capture changes the material and so maybe the values of the pieces, so nothing is taken over
+        VBoard vBoard3 = board.createNext("d2d5");
+        assertEquals(~0L, vBoard3.getChangedClashSquares());
+        assertEquals(new ChessBoard("3rk3/8/8/3R4/8/8/8/3RK3 b - - 0 1").staticExchangeEvalAt(d5, CIBLACK),
+                vBoard3.staticExchangeEvalAt(d5, CIBLACK));
+    }
+
+    @Test
+    void createNextIsRemembered_Test() {
+        ChessBoard board = new ChessBoard("3rk3/8/8/3p4/8/8/3R4/3RK3 w - - 0 1");
+        ChessPiece rook = board.getPieceAt(coordinateString2Pos("d2"));
+        Move rxp = rook.getMove(coordinateString2Pos("d2"), coordinateString2Pos("d5"));
+        VBoard next = board.createNext(rxp);
+        assertSame(next, board.createNext(rxp));
+        assertSame(next, board.createNext(new Move(rxp)));
+        board.releaseChildren();
+        assertNotSame(next, board.createNext(rxp));
+    }
+
     @Test
     void isCheck_atBaseBoard_Test() {
         ChessBoard board = new ChessBoard("5rnr/p1p2kpp/p4pb1/2NPN3/P2P4/1P2R3/5PPP/R5K1 b - - 5 25"); // check and only last possible move
@@ -171,4 +240,115 @@ class VBoardTest {
         assertFalse(vBoard.hasLegalMoves(CIWHITE));
     }
 
-}
\ No newline at end of file
+
+    @Test
+    void positionHash_Test() {
+        ChessBoard board = new ChessBoard("hash-test", FENPOS_STARTPOS);
+        VBoard viaKnightB = board.createNext("b1c3").createNext("g8f6").createNext("g1f3");
+        VBoard viaKnightG = board.createNext("g1f3").createNext("g8f6").createNext("b1c3");
+        assertEquals(viaKnightB.positionHash(), viaKnightG.positionHash());
+        // same pieces, but other side to move
+        assertNotEquals(board.createNext("b1c3").positionHash(),
+                        board.createNext("g1f3").createNext("g8f6").createNext("f3g1").positionHash());
+        assertNotEquals(board.positionHash(), board.createNext("e2e4").positionHash());
+        // the real board after the same moves has the same hash as the virtual one
+        board.doMove("g1f3");
+        board.doMove("g8f6");
+        board.doMove("b1c3");
+        assertEquals(viaKnightB.positionHash(), board.positionHash());
+    }
+
+    @Test
+    void incrementalMaterialAndPositionalScore_Test() {
+        ChessBoard board = new ChessBoard("material-test", FENPOS_STARTPOS);
+        VBoard vb = board.createNext("e2e4").createNext("d7d5").createNext("e4d5");
+        assertEquals(board.materialSum() - pieceBaseValue(PAWN_BLACK), vb.materialSum());
+        assertEquals(7, vb.getNrOfPiecesOfType(PAWN_BLACK));
+        assertEquals(8, board.getNrOfPiecesOfType(PAWN_BLACK));
+        // the real board after the same moves has the same scores as the virtual one
+        board.doMove("e2e4");
+        board.doMove("d7d5");
+        board.doMove("e4d5");
+        assertEquals(board.materialSum(), vb.materialSum());
+        assertEquals(board.pieceValueSum(), vb.pieceValueSum());
+        assertEquals(board.positionalScore(), vb.positionalScore());
+    }
+
+    @Test
+    void pieceValueAfterCapture_Test() {
+        ChessBoard board = new ChessBoard("lightpiece-test", "8/8/2b5/1k6/4B3/8/8/2B1K3 w - - 0 1");
+        ChessPiece bishopC1 = board.getPieceAt(coordinateString2Pos("c1"));
+        assertEquals(2, board.getLightPieceCounterForPieceType(BISHOP));
+        assertEquals(pieceBaseValue(BISHOP), bishopC1.getValue());
+        VBoard vb = board.createNext("e4c6").createNext("b5c6");
+        // only in the line on vb, the c1 bishop is left alone
+        assertEquals(1, vb.getLightPieceCounterForPieceType(BISHOP));
+        assertEquals(0, vb.getLightPieceCounterForPieceType(BISHOP_BLACK));
+        assertEquals(singleLightPieceBaseValue(BISHOP), bishopC1.getValueAfter(vb));
+        assertEquals(pieceBaseValue(BISHOP), bishopC1.getValue());
+        assertEquals(singleLightPieceBaseValue(BISHOP), vb.pieceValueSum() - vb.materialSum() + pieceBaseValue(BISHOP));
+    }
+
+    @Test
+    void unblockedMoves_Test() {
+        String[] line = {"e2e3", "d7d6", "f1b5", "c8d7", "b5d7"};   // incl. a capture
+        ChessBoard board = new ChessBoard("unblocked-test", FENPOS_STARTPOS);
+        board.getUnblockedMoves();      // so the following boards derive theirs incrementally
+        ChessBoard board2 = new ChessBoard("unblocked-test2", FENPOS_STARTPOS);
+        VBoard derived = board;
+        VBoard calculated = board2;
+        for (String move : line) {
+            derived = derived.createNext(move);
+            calculated = calculated.createNext(move);
+            assertArrayEquals(calculated.getUnblockedMoves(), derived.getUnblockedMoves());
+        }
+    }
+
+    @Test
+    void getUnblockedMovesSlidingOverButNotOn_Test() {
+        ChessBoard board = new ChessBoard("enabled-test", FENPOS_STARTPOS);
+        int e2 = coordinateString2Pos("e2");
+        int f1 = coordinateString2Pos("f1");
+        VBoard after = board.createNext("e2e3");
+        List<Move> enabled = after.getUnblockedMovesSlidingOverButNotOn(board.getSquare(e2), board);
+        assertTrue(enabled.contains(board.getPieceAt(f1).getMove(f1, coordinateString2Pos("a6"))));
+        assertTrue(enabled.stream().allMatch(m -> m.from() == f1 || m.from() == coordinateString2Pos("d1")));
+        // nothing could slide over e3 before, so nothing is blocked there now - the pawn's double step e2e4
+        // would, but it has no Move template
+        assertNull(board.getPieceAt(e2).getMove(e2, coordinateString2Pos("e4")));
+        assertTrue(board.getUnblockedMovesSlidingOverButNotOn(board.getSquare(coordinateString2Pos("e3")), after)
+                .isEmpty());
+    }
+
+    @Test
+    void getUnblockedMovesSlidingOverButNotOn_movingPiece_Test() {
+        // the moves of the piece that moved away are not unblocked afterwards, so they are part of the result
+        ChessBoard board = new ChessBoard("moved-away-test", "4k3/8/8/8/8/8/8/R3K3 w - - 0 1");
+        int a1 = coordinateString2Pos("a1");
+        VBoard after = board.createNext("a1a4");
+        List<Move> gone = board.getUnblockedMovesSlidingOverButNotOn(board.getSquare(coordinateString2Pos("a2")),
+                after);
+        ChessPiece rook = board.getPieceAt(a1);
+        assertEquals(List.of(rook.getMove(a1, coordinateString2Pos("a3")),
+                        rook.getMove(a1, coordinateString2Pos("a4")),
+                        rook.getMove(a1, coordinateString2Pos("a5")),
+                        rook.getMove(a1, coordinateString2Pos("a6")),
+                        rook.getMove(a1, coordinateString2Pos("a7")),
+                        rook.getMove(a1, coordinateString2Pos("a8"))),
+                gone.stream().sorted(Comparator.comparingInt(Move::to).reversed()).toList());
+    }
+
+    @Test
+    void estimatedBytesPerBoard_Test() {
+        // within the measured 9.7-12.5 KB per searched board, see estimatedBytesPerBoard()
+        ChessBoard board = new ChessBoard("size-test", FENPOS_STARTPOS);
+        int estimate = VBoard.estimatedBytesPerBoard(board.getMoveDependencies().nrOfWords());
+        assertTrue(estimate > 9_000 && estimate < 13_000, "estimate " + estimate);
+        // fewer pieces, fewer move ids
+        ChessBoard endgame = new ChessBoard("size-test", "4k3/8/8/8/8/8/8/R3K3 w - - 0 1");
+        assertTrue(VBoard.estimatedBytesPerBoard(endgame.getMoveDependencies().nrOfWords()) < estimate);
+        // and the budget follows from it
+        board.setBoardMemoryBudget(16);
+        assertEquals((16 << 20) / estimate, board.getMaxRememberedBoards());
+    }
+}
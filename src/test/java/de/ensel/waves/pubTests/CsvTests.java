@@ -21,7 +21,6 @@
 
 package de.ensel.waves.pubTests;
 
-import de.ensel.waves.ChessBoard;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvFileSource;
@@ -45,8 +44,6 @@ public class CsvTests {
                                                          String rating, String ratingDeviation, String popularity,
                                                          String nbPlays,
                                                          String themes, String gameUrl, String openingTags) {
-        ChessBoard.DEBUGMSG_MOVEEVAL = false;
-        ChessBoard.DEBUGMSG_MOVESELECTION = false;
         doAndTestPuzzle(fen, moves, themes, false, false);
     }
 
@@ -57,8 +54,6 @@ public class CsvTests {
                                            String rating, String ratingDeviation, String popularity,
                                            String nbPlays,
                                            String themes, String gameUrl, String openingTags) {
-        ChessBoard.DEBUGMSG_MOVEEVAL = false;
-        ChessBoard.DEBUGMSG_MOVESELECTION = false;
         doAndTestPuzzle(fen, moves, themes, false, false);
     }
 
@@ -70,8 +65,6 @@ public class CsvTests {
                                                   String rating, String ratingDeviation, String popularity,
                                                   String nbPlays,
                                                   String themes, String gameUrl, String openingTags) {
-        ChessBoard.DEBUGMSG_MOVEEVAL = false;
-        ChessBoard.DEBUGMSG_MOVESELECTION = false;
         doAndTestPuzzle(fen, moves, themes, false, false);
     }
 
@@ -83,8 +76,6 @@ public class CsvTests {
                                            String rating, String ratingDeviation, String popularity,
                                            String nbPlays,
                                            String themes, String gameUrl, String openingTags) {
-        ChessBoard.DEBUGMSG_MOVEEVAL = false;
-        ChessBoard.DEBUGMSG_MOVESELECTION = false;
         doAndTestPuzzle(fen, moves, themes, false, false);
     }
 
@@ -96,8 +87,6 @@ public class CsvTests {
                                                   String rating, String ratingDeviation, String popularity,
                                                   String nbPlays,
                                                   String themes, String gameUrl, String openingTags) {
-        ChessBoard.DEBUGMSG_MOVEEVAL = false;
-        ChessBoard.DEBUGMSG_MOVESELECTION = false;
         doAndTestPuzzle(fen, moves, themes, false, false);
     }
 
@@ -109,8 +98,6 @@ public class CsvTests {
                                                   String rating, String ratingDeviation, String popularity,
                                                   String nbPlays,
                                                   String themes, String gameUrl, String openingTags) {
-        ChessBoard.DEBUGMSG_MOVEEVAL = false;
-        ChessBoard.DEBUGMSG_MOVESELECTION = false;
         doAndTestPuzzle(fen, moves, themes, false, false);
     }
 